@@ -20,15 +20,20 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeFalse;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ClassHelper;
 import org.codehaus.groovy.ast.ClassNode;
@@ -644,6 +649,90 @@ public final class BasicGroovyBuildTests extends BuilderTestSuite {
         // expectingCompiledClasses("Client");
     }
 
+    /**
+     * Builds a project that refers to {@code ArrayList} and returns a new node
+     * for the given binary type, so that none of its members are converted yet.
+     */
+    private JDTClassNode createBinaryNode(String typeName) throws Exception {
+        JDTResolver.recordInstances = true;
+        IPath[] paths = createSimpleProject("Project", true);
+
+        env.addGroovyClass(paths[1], "", "Foo",
+            //@formatter:off
+            "class Foo {\n" +
+            "  def list = new ArrayList<String>()\n" +
+            "}\n");
+            //@formatter:on
+
+        incrementalBuild(paths[0]);
+        expectingNoProblems();
+
+        JDTClassNode node = null;
+        for (int i = JDTResolver.instances.size() - 1; i >= 0 && node == null; i -= 1) {
+            node = JDTResolver.getCachedNode(JDTResolver.instances.get(i), typeName);
+        }
+        assertNotNull(node);
+        return new JDTClassNode(node.getJdtBinding(), node.getResolver());
+    }
+
+    @Test
+    public void testJDTClassNode_MethodsByName() throws Exception {
+        JDTClassNode node = createBinaryNode("java.util.ArrayList<E>");
+
+        List<MethodNode> adds = new ArrayList<>(node.getDeclaredMethods("add"));
+        assertFalse(adds.isEmpty());
+        assertEquals(adds, node.getDeclaredMethods("add"));
+
+        List<MethodNode> methods = node.getMethods();
+        Set<String> signatures = new HashSet<>();
+        for (MethodNode method : methods) {
+            assertTrue("duplicate method: " + method, signatures.add(method.getTypeDescriptor()));
+        }
+        assertTrue(methods.containsAll(adds));
+        assertEquals(adds, node.getDeclaredMethods("add"));
+
+        JDTClassNode copy = new JDTClassNode(node.getJdtBinding(), node.getResolver());
+        assertEquals(copy.getMethods().size(), methods.size());
+    }
+
+    @Test
+    public void testJDTClassNode_FieldByName() throws Exception {
+        JDTClassNode node = createBinaryNode("java.util.AbstractList<E>");
+
+        FieldNode modCount = node.getDeclaredField("modCount");
+        assertNotNull(modCount);
+        assertNull(node.getDeclaredField("noSuchField"));
+
+        List<FieldNode> fields = node.getFields();
+        assertEquals(1, fields.stream().filter(f -> f.getName().equals("modCount")).count());
+        assertTrue(fields.contains(modCount));
+        assertSame(modCount, node.getDeclaredField("modCount"));
+
+        JDTClassNode copy = new JDTClassNode(node.getJdtBinding(), node.getResolver());
+        assertEquals(copy.getFields().size(), fields.size());
+    }
+
+    @Test
+    public void testJDTClassNode_MethodTable() throws Exception {
+        assumeTrue(isAtLeastGroovy(25));
+
+        JDTClassNode node = createBinaryNode("java.util.ArrayList<E>");
+        // methods converted by name do not invalidate cached method tables
+        Boolean invalidates = ReflectionUtils.executePrivateMethod(ClassNode.class, "invalidatesMethodTables", node);
+        assertFalse(invalidates);
+
+        MethodNode add = node.getDeclaredMethods("add").get(0);
+        Map<String, MethodNode> table = node.getDeclaredMethodsMap();
+        assertSame(add, table.get(add.getTypeDescriptor()));
+        // building the table converts the rest of the methods
+        for (MethodNode method : node.getMethods()) {
+            assertSame(method, table.get(method.getTypeDescriptor()));
+        }
+        for (MethodNode method : node.getDeclaredMethods("remove")) {
+            assertSame(method, node.getDeclaredMethodsMap().get(method.getTypeDescriptor()));
+        }
+    }
+
     @Test // https://github.com/groovy/groovy-eclipse/issues/863
     public void testCompileStatic_9058() throws Exception {
         assumeTrue(isAtLeastGroovy(25));
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.locations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import groovy.lang.GroovyClassLoader;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.ErrorCollector;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
+import org.junit.Test;
+
+public final class SourceLocationIndexTests {
+
+    private static final String CONTENTS =
+        "class Foo {\n" +
+        "  private int x = 2\n" +
+        "  def bar(int y) {\n" +
+        "    baz(y)\n" +
+        "  }\n" +
+        "}\n" +
+        "class Baz {\n" +
+        "}\n";
+
+    private static ModuleNode parse(String contents) {
+        SourceUnit sourceUnit = new SourceUnit("Foo", contents,
+            CompilerConfiguration.DEFAULT, new GroovyClassLoader(), new ErrorCollector(CompilerConfiguration.DEFAULT));
+        sourceUnit.parse();
+        sourceUnit.completePhase();
+        sourceUnit.convert();
+        return sourceUnit.getAST();
+    }
+
+    private static String nameOf(AnnotatedNode node) {
+        if (node instanceof ClassNode) {
+            return ((ClassNode) node).getName();
+        } else if (node instanceof FieldNode) {
+            return ((FieldNode) node).getName();
+        } else {
+            return ((MethodNode) node).getName();
+        }
+    }
+
+    @Test
+    public void testSharedByModule() {
+        ModuleNode module = parse(CONTENTS);
+
+        assertSame(SourceLocationIndex.of(module), SourceLocationIndex.of(module));
+    }
+
+    @Test
+    public void testDeclarations() {
+        SourceLocationIndex index = SourceLocationIndex.of(parse(CONTENTS));
+
+        List<String> names = new ArrayList<>();
+        for (AnnotatedNode node : index.getDeclarations()) {
+            names.add(nameOf(node));
+        }
+        assertEquals("[Foo, x, bar, Baz]", names.toString());
+    }
+
+    @Test
+    public void testNodesFromLine() {
+        SourceLocationIndex index = SourceLocationIndex.of(parse(CONTENTS));
+
+        List<ASTNode> nodes = index.findNodesFromLine(4);
+        assertFalse(nodes.isEmpty());
+        assertEquals(4, nodes.get(0).getLineNumber());
+        for (int i = 0; i < nodes.size(); i += 1) {
+            assertTrue(nodes.get(i).getLineNumber() >= 4);
+            if (i > 0) {
+                assertTrue(nodes.get(i - 1).getLineNumber() <= nodes.get(i).getLineNumber());
+            }
+        }
+        assertTrue(nodes.contains(index.getDeclarations().get(3)));
+        assertFalse(nodes.contains(index.getDeclarations().get(2)));
+
+        assertEquals(index.findNodesFromLine(1).size(), index.findNodesFromLine(0).size());
+        assertTrue(index.findNodesFromLine(1).size() > nodes.size());
+        assertTrue(index.findNodesFromLine(100).isEmpty());
+    }
+
+    @Test
+    public void testMayOverlap() {
+        SourceLocationIndex index = SourceLocationIndex.of(parse(CONTENTS));
+        AnnotatedNode foo = index.getDeclarations().get(0), x = index.getDeclarations().get(1),
+            bar = index.getDeclarations().get(2), baz = index.getDeclarations().get(3);
+
+        int offset = CONTENTS.indexOf("baz(y)");
+        assertTrue(index.mayOverlap(foo, offset, offset));
+        assertTrue(index.mayOverlap(bar, offset, offset + 6));
+        assertFalse(index.mayOverlap(x, offset, offset));
+        assertFalse(index.mayOverlap(baz, offset, offset));
+
+        offset = CONTENTS.indexOf("class Baz");
+        assertFalse(index.mayOverlap(foo, offset, offset));
+        assertFalse(index.mayOverlap(bar, offset, offset));
+        assertTrue(index.mayOverlap(baz, offset, offset));
+
+        // ranges that span several declarations
+        assertTrue(index.mayOverlap(x, 0, CONTENTS.length()));
+        assertTrue(index.mayOverlap(bar, CONTENTS.indexOf("x = 2"), CONTENTS.indexOf("int y")));
+    }
+
+    @Test
+    public void testMayOverlapWithoutLocation() {
+        SourceLocationIndex index = SourceLocationIndex.of(parse(CONTENTS));
+
+        // declarations that were not indexed cannot be ruled out
+        assertTrue(index.mayOverlap(ClassHelper.make("p.Other"), 0, 0));
+    }
+}
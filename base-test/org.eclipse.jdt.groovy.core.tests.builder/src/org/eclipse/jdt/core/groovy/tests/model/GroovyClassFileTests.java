@@ -16,16 +16,30 @@
 package org.eclipse.jdt.core.groovy.tests.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.codehaus.jdt.groovy.model.BinaryWorkingCopyCache;
+import org.codehaus.jdt.groovy.model.GroovyClassFileWorkingCopy;
 import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.jdt.core.IClassFile;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IMember;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
 import org.eclipse.jdt.internal.core.BinaryType;
+import org.eclipse.jdt.internal.core.ClassFile;
 import org.junit.Test;
 
 /**
@@ -78,6 +92,74 @@ public final class GroovyClassFileTests extends GroovyTypeRootTestSuite {
         lookForProperties(classFile, contents, "prop2");
     }
 
+    @Test
+    public void testBinaryWorkingCopyCacheHit() throws Exception {
+        IProject project = createSimpleGroovyProject().getProject();
+        env.addJar(project.getFullPath(), "lib/code-select/test-project-for-code-select.jar");
+        env.addGroovyNature(project.getName());
+        ClassFile classFile = (ClassFile) JavaCore.create(project).findType("AGroovyClassForCodeSelect").getClassFile();
+
+        BinaryWorkingCopyCache cache = BinaryWorkingCopyCache.getInstance();
+        cache.clear();
+        GroovyClassFileWorkingCopy workingCopy = cache.get(classFile, null);
+        assertNotNull(workingCopy.getModuleNode());
+
+        assertSame(workingCopy, cache.get(classFile, null));
+        assertSame(workingCopy.getModuleNode(), cache.get(classFile, null).getModuleNode());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBinaryWorkingCopyCacheAttachmentStamp() throws Exception {
+        File jar = File.createTempFile("code-select", ".jar");
+        jar.deleteOnExit();
+        File original = new File(FileLocator.resolve(Platform.getBundle("org.eclipse.jdt.groovy.core.tests.builder")
+            .getEntry("lib/code-select/test-project-for-code-select.jar")).getFile());
+        Files.copy(original.toPath(), jar.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        IProject project = createSimpleGroovyProject().getProject();
+        env.addExternalJar(project.getFullPath(), jar.getAbsolutePath());
+        env.addGroovyNature(project.getName());
+        ClassFile classFile = (ClassFile) JavaCore.create(project).findType("AGroovyClassForCodeSelect").getClassFile();
+
+        BinaryWorkingCopyCache cache = BinaryWorkingCopyCache.getInstance();
+        cache.clear();
+        GroovyClassFileWorkingCopy workingCopy = cache.get(classFile, null);
+        assertNotNull(workingCopy.getModuleNode());
+
+        assertTrue(jar.setLastModified(jar.lastModified() + 10_000L));
+
+        GroovyClassFileWorkingCopy replacement = cache.get(classFile, null);
+        assertNotSame(workingCopy, replacement);
+        assertEquals(1, cache.size());
+        // the stale working copy no longer pins its module node and resolver
+        assertNull(ReflectionUtils.getPrivateField(GroovyClassFileWorkingCopy.class, "moduleNodeInfo", workingCopy));
+        assertNotNull(replacement.getModuleNode());
+    }
+
+    @Test
+    public void testBinaryWorkingCopyCacheEviction() throws Exception {
+        IProject project = createSimpleGroovyProject().getProject();
+        IJavaProject javaProject = JavaCore.create(project);
+        String[] typeNames = {"Binding", "Closure", "GString", "GroovyObject", "GroovyObjectSupport", "IntRange",
+            "MetaClass", "Range", "Reference", "Script", "Tuple", "Writable"};
+
+        BinaryWorkingCopyCache cache = BinaryWorkingCopyCache.getInstance();
+        cache.clear();
+        ClassFile first = (ClassFile) javaProject.findType("groovy.lang." + typeNames[0]).getClassFile();
+        GroovyClassFileWorkingCopy workingCopy = cache.get(first, null);
+        for (int i = 1; i < typeNames.length; i += 1) {
+            cache.get((ClassFile) javaProject.findType("groovy.lang." + typeNames[i]).getClassFile(), null);
+        }
+
+        assertTrue("cache should be bounded", cache.size() < typeNames.length);
+        assertNotSame("least recently used entry should be evicted", workingCopy, cache.get(first, null));
+
+        // classpath change evicts the entries of the project
+        env.addJar(project.getFullPath(), "lib/test-groovy-project.jar");
+        assertEquals(0, cache.size());
+    }
+
     private void lookForProperties(IClassFile classFile, String contents, String prop) throws Exception {
         int first = contents.indexOf(prop),
             second = contents.indexOf(prop, first + 1),
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.core.groovy.tests.search;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.function.Supplier;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.GenericsType;
+import org.eclipse.jdt.groovy.search.ParameterizedTypeCache;
+import org.eclipse.jdt.groovy.search.VariableScope;
+import org.junit.Test;
+
+public final class ParameterizedTypeCacheTests {
+
+    private final ParameterizedTypeCache cache = new ParameterizedTypeCache();
+
+    private int factoryCalls;
+
+    private Supplier<ClassNode> listOf(ClassNode t) {
+        return () -> {
+            factoryCalls += 1;
+            ClassNode list = VariableScope.clonedList();
+            list.getGenericsTypes()[0].setType(t);
+            list.getGenericsTypes()[0].setName(t.getName());
+            return list;
+        };
+    }
+
+    private ClassNode internList(ClassNode t) {
+        return cache.intern(VariableScope.LIST_CLASS_NODE, new ClassNode[] {t}, listOf(t));
+    }
+
+    @Test
+    public void testFactoryCalledOncePerParameterization() {
+        ClassNode one = internList(VariableScope.STRING_CLASS_NODE);
+        ClassNode two = internList(VariableScope.STRING_CLASS_NODE);
+        ClassNode three = internList(VariableScope.INTEGER_CLASS_NODE);
+
+        assertEquals(2, factoryCalls);
+        assertEquals(2, cache.size());
+        assertSame(VariableScope.STRING_CLASS_NODE, one.getGenericsTypes()[0].getType());
+        assertSame(VariableScope.STRING_CLASS_NODE, two.getGenericsTypes()[0].getType());
+        assertSame(VariableScope.INTEGER_CLASS_NODE, three.getGenericsTypes()[0].getType());
+    }
+
+    @Test
+    public void testLookupsReturnCopies() {
+        ClassNode one = internList(VariableScope.STRING_CLASS_NODE);
+        ClassNode two = internList(VariableScope.STRING_CLASS_NODE);
+
+        assertNotSame(one, two);
+        assertSame(one.redirect(), two.redirect());
+        assertNotSame(one.getGenericsTypes(), two.getGenericsTypes());
+        assertNotSame(one.getGenericsTypes()[0], two.getGenericsTypes()[0]);
+        assertSame(one.getGenericsTypes()[0].getType(), two.getGenericsTypes()[0].getType());
+    }
+
+    @Test
+    public void testModifiedCopyDoesNotLeak() {
+        ClassNode one = internList(VariableScope.STRING_CLASS_NODE);
+        // what resolving a type parameterization in place does to a type
+        one.getGenericsTypes()[0].setType(VariableScope.INTEGER_CLASS_NODE);
+        one.getGenericsTypes()[0].setName(VariableScope.INTEGER_CLASS_NODE.getName());
+        one.setGenericsTypes(new GenericsType[] {new GenericsType(VariableScope.OBJECT_CLASS_NODE)});
+
+        ClassNode two = internList(VariableScope.STRING_CLASS_NODE);
+
+        assertEquals(1, factoryCalls);
+        assertEquals(1, two.getGenericsTypes().length);
+        assertSame(VariableScope.STRING_CLASS_NODE, two.getGenericsTypes()[0].getType());
+        assertEquals("java.lang.String", two.getGenericsTypes()[0].getName());
+    }
+
+    @Test
+    public void testKeyedByTypeArgumentIdentity() {
+        ClassNode string = VariableScope.clone(VariableScope.STRING_CLASS_NODE);
+        internList(VariableScope.STRING_CLASS_NODE);
+        internList(string);
+
+        assertEquals(2, factoryCalls);
+    }
+}
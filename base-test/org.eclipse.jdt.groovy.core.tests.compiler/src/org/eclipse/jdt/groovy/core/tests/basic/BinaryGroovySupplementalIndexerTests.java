@@ -0,0 +1,144 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.tools.GroovyClass;
+import org.codehaus.jdt.groovy.integration.internal.BinaryGroovySupplementalIndexer;
+import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.core.search.indexing.AbstractIndexer;
+import org.junit.Test;
+
+public final class BinaryGroovySupplementalIndexerTests {
+
+    private static final String FIXTURE =
+        "class Base {\n" +
+        "  def foo(a, b) { }\n" +
+        "}\n" +
+        "class Fixture extends Base {\n" +
+        "  def foo(a, b) {\n" +
+        "    super.foo(a, b)\n" +
+        "  }\n" +
+        "  String toString() {\n" +
+        "    super.toString()\n" +
+        "  }\n" +
+        "  def test(Object o) {\n" +
+        "    o.someMethod(1, 2)\n" +
+        "    o.someProperty\n" +
+        "    o.otherProperty = 3\n" +
+        "    new Date(0)\n" +
+        "    println 'notIndexed'\n" +
+        "  }\n" +
+        "}\n";
+
+    private static Set<String> index(String source, boolean indy) throws Exception {
+        CompilerConfiguration config = new CompilerConfiguration();
+        if (indy) {
+            config.getOptimizationOptions().put(CompilerConfiguration.INVOKEDYNAMIC, Boolean.TRUE);
+        }
+        CompilationUnit unit = new CompilationUnit(config);
+        unit.addSource("Fixture.groovy", source);
+        unit.compile(Phases.CLASS_GENERATION);
+
+        RecordingIndexer indexer = new RecordingIndexer();
+        for (Object c : unit.getClasses()) {
+            GroovyClass groovyClass = (GroovyClass) c;
+            if (groovyClass.getName().equals("Fixture")) {
+                byte[] bytes = groovyClass.getBytes();
+                new BinaryGroovySupplementalIndexer().indexReferences(bytes, new ClassFileReader(bytes, "Fixture.class".toCharArray()), indexer);
+            }
+        }
+        return indexer.references;
+    }
+
+    @Test
+    public void testCallSiteReferences() throws Exception {
+        Set<String> references = index(FIXTURE, false);
+
+        assertTrue(references.toString(), references.contains("method:someMethod/2"));
+        assertTrue(references.toString(), references.contains("name:someMethod"));
+        assertTrue(references.toString(), references.contains("name:someProperty"));
+        assertTrue(references.toString(), references.contains("method:getSomeProperty/0"));
+        assertTrue(references.toString(), references.contains("method:isSomeProperty/0"));
+        assertTrue(references.toString(), references.contains("constructor:java.util.Date/1"));
+        assertFalse(references.toString(), references.contains("name:notIndexed"));
+    }
+
+    @Test
+    public void testPropertySetReferences() throws Exception {
+        Set<String> references = index(FIXTURE, false);
+
+        assertTrue(references.toString(), references.contains("name:otherProperty"));
+        assertTrue(references.toString(), references.contains("method:setOtherProperty/1"));
+    }
+
+    @Test
+    public void testSuperCallReferences() throws Exception {
+        Set<String> references = index(FIXTURE, false);
+
+        // the name is loaded before the argument array of invokeMethodOnSuperN
+        assertTrue(references.toString(), references.contains("method:foo/2"));
+        assertTrue(references.toString(), references.contains("method:toString/0"));
+    }
+
+    @Test
+    public void testIndyReferences() throws Exception {
+        Set<String> references = index(FIXTURE, true);
+
+        assertTrue(references.toString(), references.contains("method:someMethod/2"));
+        assertTrue(references.toString(), references.contains("name:someProperty"));
+        assertTrue(references.toString(), references.contains("method:getSomeProperty/0"));
+        assertTrue(references.toString(), references.contains("constructor:java.util.Date/1"));
+        assertFalse(references.toString(), references.contains("name:notIndexed"));
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class RecordingIndexer extends AbstractIndexer {
+        final Set<String> references = new TreeSet<>();
+
+        RecordingIndexer() {
+            super(null);
+        }
+
+        @Override
+        public void addConstructorReference(char[] typeName, int argCount) {
+            references.add("constructor:" + String.valueOf(typeName) + '/' + argCount);
+        }
+
+        @Override
+        public void addNameReference(char[] name) {
+            references.add("name:" + String.valueOf(name));
+        }
+
+        @Override
+        public void addMethodReference(char[] methodName, int argCount) {
+            references.add("method:" + String.valueOf(methodName) + '/' + argCount);
+        }
+
+        @Override
+        public void indexDocument() {
+        }
+    }
+}
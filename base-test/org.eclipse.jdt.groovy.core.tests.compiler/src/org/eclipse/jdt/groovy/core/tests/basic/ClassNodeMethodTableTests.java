@@ -0,0 +1,146 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import groovyjarjarasm.asm.Opcodes;
+import org.codehaus.groovy.ast.ClassHelper;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.stmt.BlockStatement;
+import org.junit.Test;
+
+public final class ClassNodeMethodTableTests {
+
+    private static ClassNode newInterface(String name) {
+        return new ClassNode(name, Opcodes.ACC_PUBLIC | Opcodes.ACC_INTERFACE | Opcodes.ACC_ABSTRACT, ClassHelper.OBJECT_TYPE);
+    }
+
+    private static ClassNode newClass(String name, int modifiers, ClassNode superClass) {
+        return new ClassNode(name, Opcodes.ACC_PUBLIC | modifiers, superClass);
+    }
+
+    private static MethodNode addAbstractMethod(ClassNode type, String name) {
+        return type.addMethod(name, Opcodes.ACC_PUBLIC | Opcodes.ACC_ABSTRACT, ClassHelper.VOID_TYPE, Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, null);
+    }
+
+    private static MethodNode addMethod(ClassNode type, String name) {
+        return type.addMethod(name, Opcodes.ACC_PUBLIC, ClassHelper.VOID_TYPE, Parameter.EMPTY_ARRAY, ClassNode.EMPTY_ARRAY, new BlockStatement());
+    }
+
+    @Test
+    public void testAddInterfaceAfterLookup() {
+        ClassNode face = newInterface("p.Face");
+        MethodNode run = addAbstractMethod(face, "run");
+        ClassNode type = newClass("p.Type", Opcodes.ACC_ABSTRACT, ClassHelper.OBJECT_TYPE);
+
+        assertNull(type.getAbstractMethods());
+        assertTrue(type.getAllDeclaredMethods("run").isEmpty());
+
+        type.addInterface(face);
+
+        assertEquals(1, type.getAbstractMethods().size());
+        assertSame(run, type.getAbstractMethods().get(0));
+        assertTrue(type.getAllDeclaredMethods().contains(run));
+        assertTrue(type.getDeclaredMethodsMap().containsValue(run));
+        assertEquals(1, type.getAllDeclaredMethods("run").size());
+    }
+
+    @Test
+    public void testSetInterfacesAfterLookup() {
+        ClassNode face = newInterface("p.Face");
+        MethodNode run = addAbstractMethod(face, "run");
+        ClassNode type = newClass("p.Type", Opcodes.ACC_ABSTRACT, ClassHelper.OBJECT_TYPE);
+
+        assertFalse(type.getAllDeclaredMethods().contains(run));
+
+        type.setInterfaces(new ClassNode[] {face});
+
+        assertTrue(type.getAllDeclaredMethods().contains(run));
+    }
+
+    @Test
+    public void testAddMethodToSuperInterfaceAfterLookup() {
+        ClassNode base = newInterface("p.Base");
+        ClassNode face = newInterface("p.Face");
+        face.addInterface(base);
+        ClassNode type = newClass("p.Type", Opcodes.ACC_ABSTRACT, ClassHelper.OBJECT_TYPE);
+        type.addInterface(face);
+
+        assertNull(type.getAbstractMethods());
+
+        MethodNode run = addAbstractMethod(base, "run");
+
+        assertEquals(1, type.getAbstractMethods().size());
+        assertSame(run, type.getAbstractMethods().get(0));
+    }
+
+    @Test
+    public void testSetSuperClassAfterLookup() {
+        ClassNode base = newClass("p.Base", 0, ClassHelper.OBJECT_TYPE);
+        MethodNode run = addMethod(base, "run");
+        ClassNode type = newClass("p.Type", 0, ClassHelper.OBJECT_TYPE);
+
+        assertTrue(type.getAllDeclaredMethods("run").isEmpty());
+
+        type.setSuperClass(base);
+
+        assertEquals(1, type.getAllDeclaredMethods("run").size());
+        assertSame(run, type.getAllDeclaredMethods("run").get(0));
+    }
+
+    @Test
+    public void testOverrideReplacesSuperMethod() {
+        ClassNode face = newInterface("p.Face");
+        addAbstractMethod(face, "run");
+        ClassNode type = newClass("p.Type", 0, ClassHelper.OBJECT_TYPE);
+        type.addInterface(face);
+
+        assertEquals(1, type.getAbstractMethods().size());
+
+        MethodNode run = addMethod(type, "run");
+
+        assertNull(type.getAbstractMethods());
+        List<MethodNode> methods = type.getAllDeclaredMethods("run");
+        assertEquals(1, methods.size());
+        assertSame(run, methods.get(0));
+    }
+
+    @Test
+    public void testDeclaredMethodsMapIsMutable() {
+        ClassNode type = newClass("p.Type", 0, ClassHelper.OBJECT_TYPE);
+        MethodNode run = addMethod(type, "run");
+
+        Map<String, MethodNode> map = type.getDeclaredMethodsMap();
+        int size = map.size();
+        map.remove(run.getTypeDescriptor());
+        map.values().removeIf(method -> method.getName().equals("toString"));
+        map.put("x", run);
+
+        assertEquals(size, type.getDeclaredMethodsMap().size());
+        assertTrue(type.getDeclaredMethodsMap().containsKey(run.getTypeDescriptor()));
+        assertFalse(type.getDeclaredMethodsMap().containsKey("x"));
+    }
+}
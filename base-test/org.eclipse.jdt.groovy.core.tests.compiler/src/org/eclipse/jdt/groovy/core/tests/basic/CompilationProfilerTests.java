@@ -0,0 +1,126 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.jdt.groovy.internal.compiler.ast.CompilationProfiler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class CompilationProfilerTests {
+
+    private File report;
+
+    @Before
+    public void setUp() throws IOException {
+        report = File.createTempFile("profile", ".csv");
+        report.delete();
+    }
+
+    @After
+    public void tearDown() {
+        report.delete();
+    }
+
+    private List<String> readReport() throws IOException {
+        return Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testReportRows() throws IOException {
+        CompilationProfiler profiler = new CompilationProfiler(report);
+        profiler.enter();
+        profiler.exit(Phases.CONVERSION, null, null);
+        profiler.enter();
+        profiler.exit(Phases.CONVERSION, null, null);
+        profiler.enter();
+        profiler.exit(Phases.SEMANTIC_ANALYSIS, "a,b", null);
+        profiler.writeReport();
+
+        List<String> lines = readReport();
+        assertEquals(3, lines.size());
+        assertEquals("source,phase,operation,count,wallNanos,cpuNanos,allocatedBytes", lines.get(0));
+        assertTrue(lines.get(1), lines.get(1).startsWith("," + Phases.getDescription(Phases.CONVERSION) + ",,2,"));
+        assertTrue(lines.get(2), lines.get(2).startsWith("," + Phases.getDescription(Phases.SEMANTIC_ANALYSIS) + ",\"a,b\",1,"));
+    }
+
+    @Test
+    public void testReportAppends() throws IOException {
+        CompilationProfiler profiler = new CompilationProfiler(report);
+        profiler.enter();
+        profiler.exit(Phases.CONVERSION, null, null);
+        profiler.writeReport();
+        profiler.writeReport(); // nothing recorded since last report
+
+        profiler.enter();
+        profiler.exit(Phases.CONVERSION, null, null);
+        profiler.writeReport();
+
+        List<String> lines = readReport();
+        assertEquals("one header and one row per report", 3, lines.size());
+        assertTrue(lines.get(1).contains(",,1,"));
+        assertTrue(lines.get(2).contains(",,1,"));
+    }
+
+    @Test
+    public void testExclusiveTime() throws IOException {
+        long[] now = {0L, 0L, 0L}; // wall, cpu, allocated
+        CompilationProfiler profiler = new CompilationProfiler(report, () -> now[0], () -> now[1], () -> now[2]);
+
+        profiler.enter(); // phase operation
+        now[0] += 10; now[1] += 5; now[2] += 100;
+        profiler.enter(); // transform
+        now[0] += 50; now[1] += 40; now[2] += 1000;
+        profiler.exit(Phases.SEMANTIC_ANALYSIS, "Transform", null);
+        now[0] += 20; now[1] += 10; now[2] += 200;
+        profiler.exit(Phases.SEMANTIC_ANALYSIS, null, null);
+        profiler.writeReport();
+
+        List<String> lines = readReport();
+        assertEquals(3, lines.size());
+        String transform = lines.get(1), phase = lines.get(2);
+        String prefix = "," + Phases.getDescription(Phases.SEMANTIC_ANALYSIS);
+        assertEquals(prefix + ",Transform,1,50,40,1000", transform);
+        // the phase is not charged for the transform it ran
+        assertEquals(prefix + ",,1,30,15,300", phase);
+    }
+
+    @Test
+    public void testCountsAccumulate() throws IOException {
+        long[] now = {0L};
+        CompilationProfiler profiler = new CompilationProfiler(report, () -> now[0], () -> 0L, () -> 0L);
+        for (int i = 1; i <= 3; i += 1) {
+            profiler.enter();
+            now[0] += i;
+            profiler.exit(Phases.CONVERSION, null, null);
+        }
+        profiler.writeReport();
+
+        List<String> lines = readReport();
+        assertEquals(2, lines.size());
+        assertEquals("," + Phases.getDescription(Phases.CONVERSION) + ",,3,6,0,0", lines.get(1));
+    }
+}
@@ -25,18 +25,25 @@ import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.control.Phases;
 import org.codehaus.jdt.groovy.internal.compiler.ast.EventListener;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyClassScope;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
 import org.eclipse.jdt.core.util.ClassFileBytesDisassembler;
 import org.eclipse.jdt.internal.compiler.ast.ASTNode;
 import org.eclipse.jdt.internal.compiler.ast.TypeDeclaration;
+import org.eclipse.jdt.internal.compiler.batch.Main;
 import org.eclipse.jdt.internal.compiler.impl.CompilerOptions;
 import org.junit.Test;
 
@@ -4181,6 +4188,54 @@ public final class GroovySimpleTests extends GroovyCompilerTestSuite {
             options);
     }
 
+    @Test
+    public void testProfileReport() throws IOException {
+        File report = File.createTempFile("profile", ".csv");
+        report.delete();
+        try {
+            Map<String, String> options = getCompilerOptions();
+            options.put(CompilerOptions.OPTIONG_GroovyProfileReport, report.getAbsolutePath());
+
+            //@formatter:off
+            String[] sources = {
+                "hello.groovy",
+                "@groovy.transform.ToString\n" +
+                "class Hello {\n" +
+                "  static main(args) {\n" +
+                "    print new Hello()\n" +
+                "  }\n" +
+                "}\n",
+            };
+            //@formatter:on
+
+            runConformTest(sources, "Hello()", options);
+
+            List<String> lines = Files.readAllLines(report.toPath(), StandardCharsets.UTF_8);
+            assertEquals("source,phase,operation,count,wallNanos,cpuNanos,allocatedBytes", lines.get(0));
+            assertTrue(lines.toString(), lines.stream().anyMatch(line -> line.contains("hello.groovy") &&
+                line.contains("," + Phases.getDescription(Phases.CONVERSION) + ",,")));
+            assertTrue(lines.toString(), lines.stream().anyMatch(line -> line.contains("hello.groovy") &&
+                line.contains("," + Phases.getDescription(Phases.CANONICALIZATION) + ",org.codehaus.groovy.transform.ToStringASTTransformation,1,")));
+        } finally {
+            report.delete();
+        }
+    }
+
+    @Test
+    public void testProfileReportOption() {
+        Main main = new Main(new PrintWriter(new StringWriter()), new PrintWriter(new StringWriter()), false, null, null);
+        main.configure(new String[] {"-groovyProfile", "profile.csv", "hello.groovy"});
+
+        assertEquals("profile.csv", main.options.get(CompilerOptions.OPTIONG_GroovyProfileReport));
+
+        try {
+            main = new Main(new PrintWriter(new StringWriter()), new PrintWriter(new StringWriter()), false, null, null);
+            main.configure(new String[] {"-groovyProfile", "-indy", "hello.groovy"});
+            fail("Expected a missing argument to -groovyProfile");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
     @Test // Variable arguments
     public void testInvokingVarargs01_JtoG() {
         //@formatter:off
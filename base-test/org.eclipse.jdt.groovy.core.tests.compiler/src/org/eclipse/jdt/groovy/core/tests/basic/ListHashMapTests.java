@@ -0,0 +1,144 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.tests.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.util.ListHashMap;
+import org.junit.Test;
+
+public final class ListHashMapTests {
+
+    /**
+     * @return number of array slots held by the map, not counting a map it switched to
+     */
+    private static int arraySlots(ListHashMap<?, ?> map) throws ReflectiveOperationException {
+        int slots = 0;
+        for (Field field : ListHashMap.class.getDeclaredFields()) {
+            if (field.getType() == Object[].class) {
+                field.setAccessible(true);
+                Object[] array = (Object[]) field.get(map);
+                if (array != null) {
+                    slots += array.length;
+                }
+            }
+        }
+        return slots;
+    }
+
+    @Test
+    public void testArraysCreatedOnFirstPut() throws Exception {
+        ListHashMap<String, Object> map = new ListHashMap<>();
+        assertEquals(0, arraySlots(map));
+        assertNull(map.get("a"));
+        assertFalse(map.containsKey("a"));
+        assertTrue(map.values().isEmpty());
+
+        map.put("a", 1);
+        assertEquals(4, arraySlots(map));
+        map.put("b", 2);
+        assertEquals(4, arraySlots(map));
+        map.put("c", 3);
+        assertEquals(6, arraySlots(map));
+
+        map.clear();
+        assertEquals(0, arraySlots(map));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testNodeMetaDataWithOneEntry() throws Exception {
+        ASTNode node = new ASTNode();
+        node.setNodeMetaData("key", "value");
+
+        assertEquals("value", node.getNodeMetaData("key"));
+        assertEquals(4, arraySlots((ListHashMap<?, ?>) node.getMetaDataMap()));
+    }
+
+    @Test
+    public void testSwitchToMapAndBack() throws Exception {
+        ListHashMap<String, Object> map = new ListHashMap<>(2);
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        assertEquals(0, arraySlots(map));
+        assertEquals(3, map.size());
+        assertEquals(3, map.get("c"));
+
+        map.remove("a");
+
+        assertEquals(4, arraySlots(map));
+        assertEquals(2, map.size());
+        assertNull(map.get("a"));
+        assertEquals(2, map.get("b"));
+        assertEquals(3, map.get("c"));
+
+        map.put("d", 4);
+        assertEquals(3, map.size());
+        assertEquals(new HashSet<>(Arrays.asList(2, 3, 4)), new HashSet<>(map.values()));
+    }
+
+    @Test
+    public void testRemoveMovesLastEntry() {
+        ListHashMap<String, Object> map = new ListHashMap<>();
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+
+        assertEquals(1, map.remove("a"));
+        assertNull(map.remove("a"));
+        assertEquals(2, map.size());
+        assertEquals(2, map.get("b"));
+        assertEquals(3, map.get("c"));
+        assertTrue(map.containsValue(3));
+        assertFalse(map.containsValue(1));
+    }
+
+    @Test
+    public void testAgreesWithHashMap() {
+        String[] keys = {"a", "b", "c", "d", "e"};
+        Map<String, Object> expected = new HashMap<>();
+        ListHashMap<String, Object> map = new ListHashMap<>();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 10000; i += 1) {
+            String key = keys[random.nextInt(keys.length)];
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+            for (String k : keys) {
+                assertEquals(expected.get(k), map.get(k));
+            }
+            assertEquals(new HashSet<>(expected.values()), new HashSet<>(map.values()));
+            assertEquals(expected.keySet(), map.keySet());
+        }
+    }
+}
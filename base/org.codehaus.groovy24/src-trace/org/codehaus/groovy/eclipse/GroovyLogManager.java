@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,13 +15,24 @@
  */
 package org.codehaus.groovy.eclipse;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Manages the current {@link IGroovyLogger} instance.
+ * Manages the current {@link IGroovyLogger} instance and the latency, counter
+ * and gauge metrics.  Metrics are collected only when enabled, either through
+ * {@link #setMetricsEnabled(boolean)} or the system property
+ * {@code groovy.eclipse.metrics}; {@code groovy.eclipse.metrics.report} names
+ * a file that receives {@link #getMetricsReport()} at shutdown.
  *
  * NOTE: This class is a singleton.
  */
@@ -31,22 +42,44 @@ public class GroovyLogManager {
     public static final GroovyLogManager manager = new GroovyLogManager();
 
     private GroovyLogManager() {
+        String report = System.getProperty("groovy.eclipse.metrics.report");
+        metricsEnabled = (report != null || Boolean.getBoolean("groovy.eclipse.metrics"));
+        if (report != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try (PrintWriter out = new PrintWriter(new FileOutputStream(report))) {
+                    out.print(getMetricsReport());
+                } catch (IOException e) {
+                    System.err.println("Failed to write metrics report " + report + ": " + e.getMessage());
+                }
+            }, "Groovy metrics report"));
+        }
     }
 
-    private IGroovyLogger[] loggers;
+    private volatile IGroovyLogger[] loggers;
 
     // only use default logger if no others are registered
     private final IGroovyLogger defaultLogger = new DefaultGroovyLogger();
 
-    private final Map<String, Long> timers = new HashMap<String, Long>();
+    private volatile boolean metricsEnabled;
+
+    private final Map<TraceCategory, LatencyHistogram> latencies = new EnumMap<>(TraceCategory.class);
+    {
+        for (TraceCategory category : TraceCategory.values()) {
+            latencies.put(category, new LatencyHistogram());
+        }
+    }
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
 
-    private boolean useDefaultLogger;
+    private volatile boolean useDefaultLogger;
 
     /**
      * @return true if logger was added; false if not if not added --
      *         then this means the exact logger is already in the list
      */
-    public boolean addLogger(IGroovyLogger logger) {
+    public synchronized boolean addLogger(IGroovyLogger logger) {
         int newIndex;
         if (loggers == null) {
             loggers = new IGroovyLogger[1];
@@ -72,7 +105,7 @@ public class GroovyLogManager {
      *
      * @return true iff found and removed; false iff nothing found
      */
-    public boolean removeLogger(IGroovyLogger logger) {
+    public synchronized boolean removeLogger(IGroovyLogger logger) {
         if (logger != null && loggers != null) {
             int foundIndex = -1;
             for (int i = 0, n = loggers.length; i < n; i += 1) {
@@ -98,30 +131,135 @@ public class GroovyLogManager {
         return false;
     }
 
-    public void logStart(String event) {
-        timers.put(event, System.currentTimeMillis());
+    /**
+     * Starts an event to be completed by {@link #logEnd(String, TraceCategory, long)}.
+     * The returned start time pairs the end with this start, so equally-named
+     * events may be in progress on several threads at once and an event may
+     * end on a different thread than it started on.
+     *
+     * @return start time in nanoseconds, or 0 if no loggers are installed
+     */
+    public long logStart(String event) {
+        return (hasLoggers() ? System.nanoTime() : 0L);
     }
 
-    public void logEnd(String event, TraceCategory category) {
-        logEnd(event, category, null);
+    public void logEnd(String event, TraceCategory category, long start) {
+        logEnd(event, category, start, null);
     }
 
-    public void logEnd(String event, TraceCategory category, String message) {
-        Long then = timers.get(event);
-        if (then != null) {
-            if (hasLoggers()) {
-                long now = System.currentTimeMillis();
-                long elapsed = now - then.longValue();
-                if (message != null && !message.isEmpty()) {
-                    log(category, "Event complete: " + elapsed + "ms: " + event + " (" + message + ")");
-                } else {
-                    log(category, "Event complete: " + elapsed + "ms: " + event);
-                }
+    public void logEnd(String event, TraceCategory category, long start, String message) {
+        if (start != 0L && hasLoggers()) {
+            long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (message != null && !message.isEmpty()) {
+                log(category, "Event complete: " + elapsed + "ms: " + event + " (" + message + ")");
+            } else {
+                log(category, "Event complete: " + elapsed + "ms: " + event);
             }
-            timers.remove(event);
         }
     }
 
+    //--------------------------------------------------------------------------
+
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Starts a span to be completed by {@link #endSpan(TraceCategory, long)}.
+     * Typical usage:
+     * <pre>
+     * long span = GroovyLogManager.manager.startSpan();
+     * try {
+     *     ...
+     * } finally {
+     *     GroovyLogManager.manager.endSpan(TraceCategory.INFERENCE, span);
+     * }
+     * </pre>
+     *
+     * @return start time in nanoseconds, or 0 if metrics are disabled
+     */
+    public long startSpan() {
+        return (metricsEnabled ? System.nanoTime() : 0L);
+    }
+
+    public void endSpan(TraceCategory category, long span) {
+        if (span != 0L) {
+            latencies.get(category).record(System.nanoTime() - span);
+        }
+    }
+
+    public LatencyHistogram getLatencies(TraceCategory category) {
+        return latencies.get(category);
+    }
+
+    public void incrementCounter(String name) {
+        addToCounter(name, 1);
+    }
+
+    public void addToCounter(String name, long delta) {
+        if (metricsEnabled) {
+            counters.computeIfAbsent(name, x -> new LongAdder()).add(delta);
+        }
+    }
+
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return (counter != null ? counter.sum() : 0L);
+    }
+
+    public void setGauge(String name, long value) {
+        if (metricsEnabled) {
+            gauges.computeIfAbsent(name, x -> new AtomicLong()).set(value);
+        }
+    }
+
+    public long getGauge(String name) {
+        AtomicLong gauge = gauges.get(name);
+        return (gauge != null ? gauge.get() : 0L);
+    }
+
+    public void resetMetrics() {
+        for (LatencyHistogram histogram : latencies.values()) {
+            histogram.reset();
+        }
+        counters.clear();
+        gauges.clear();
+    }
+
+    /**
+     * @return latency percentiles (in milliseconds) of each category that has
+     *         recorded spans, followed by the counters and gauges
+     */
+    public String getMetricsReport() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-16s %8s %10s %10s %10s %10s %10s%n", "category", "count", "mean", "p50", "p95", "p99", "max"));
+        for (Map.Entry<TraceCategory, LatencyHistogram> entry : latencies.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            if (histogram.getCount() > 0) {
+                report.append(String.format("%-16s %8d %10.3f %10.3f %10.3f %10.3f %10.3f%n", entry.getKey().label, histogram.getCount(),
+                    millis(histogram.getMeanNanos()), millis(histogram.getPercentileNanos(50)), millis(histogram.getPercentileNanos(95)),
+                    millis(histogram.getPercentileNanos(99)), millis(histogram.getMaxNanos())));
+            }
+        }
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(counters).entrySet()) {
+            report.append("counter ").append(entry.getKey()).append(" = ").append(entry.getValue().sum()).append(System.lineSeparator());
+        }
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(gauges).entrySet()) {
+            report.append("gauge ").append(entry.getKey()).append(" = ").append(entry.getValue().get()).append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    //--------------------------------------------------------------------------
+
     public void log(String message) {
         log(TraceCategory.DEFAULT, message);
     }
@@ -131,6 +269,7 @@ public class GroovyLogManager {
             return;
         }
 
+        IGroovyLogger[] loggers = this.loggers;
         if (loggers != null) {
             for (IGroovyLogger logger : loggers) {
                 if (logger.isCategoryEnabled(category)) {
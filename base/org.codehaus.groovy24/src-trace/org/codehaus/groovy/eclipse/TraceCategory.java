@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,8 +26,13 @@ public enum TraceCategory {
     DEFAULT("_"),
     COMPILER("Compiler"),
     CLASSPATH("Classpath"),
+    PARSE("Parse"),
+    RECONCILE("Reconcile"),
+    INFERENCE("Inference"),
+    INDEXING("Indexing"),
 
     DSL("DSL"),
+    DSLD_REFRESH("DSLD refresh"),
     CODE_SELECT("Code select"),
     REFACTORING("Refactoring"),
     AST_TRANSFORM("AST Transforms"),
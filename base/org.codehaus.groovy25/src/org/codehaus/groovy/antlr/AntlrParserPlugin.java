@@ -2688,9 +2688,9 @@ public class AntlrParserPlugin extends ASTHelper implements ParserPlugin, Groovy
         // GRECLIPSE-768 -- fix for empty map expressions
         if (expressions.isEmpty() && mapExpression.getLength() <= 1) {
             if (getController() != null) {
-                try (Reader r = getController().getSource().getReader()) {
-                    r.skip(mapExpression.getStart());
-                    while (r.read() != ']') {
+                try {
+                    CharSequence text = getController().getSourceText();
+                    for (int i = mapExpression.getStart(); text.charAt(i) != ']'; i += 1) {
                         mapExpression.setEnd(mapExpression.getEnd() + 1);
                     }
                     int[] row_col = locations.getRowCol(mapExpression.getEnd());
@@ -38,6 +38,8 @@ import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
@@ -46,6 +48,7 @@ import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 /**
  * Represents a class in the AST.
@@ -178,6 +181,123 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
         } else {
             redirect().bitflags &= ~BIT_INCONSISTENT_HIERARCHY;
         }
+        redirect().hierarchyChanged();
+    }
+
+    /**
+     * Counts the changes made to this node that can alter the declared methods
+     * of its type hierarchy: methods added or removed, super types set and
+     * redirects set.  A method table records the count of each node it was
+     * built from and is valid only while none of them has changed.
+     */
+    private volatile int hierarchyModCount;
+
+    private static final AtomicIntegerFieldUpdater<ClassNode> HIERARCHY_MOD_COUNT =
+        AtomicIntegerFieldUpdater.newUpdater(ClassNode.class, "hierarchyModCount");
+
+    private void hierarchyChanged() {
+        HIERARCHY_MOD_COUNT.incrementAndGet(this);
+    }
+
+    /**
+     * Immutable view of the methods declared by a type and its super types.
+     */
+    private static final class MethodTable {
+        final Map<String, MethodNode> methodsBySignature;
+        final ClassNode[] sources;
+        final int[] modCounts;
+        private volatile Map<String, List<MethodNode>> methodsByName;
+
+        MethodTable(Map<String, MethodNode> methodsBySignature, Map<ClassNode, Integer> sources) {
+            this.methodsBySignature = Collections.unmodifiableMap(methodsBySignature);
+            this.sources = new ClassNode[sources.size()];
+            this.modCounts = new int[sources.size()];
+            int i = 0;
+            for (Map.Entry<ClassNode, Integer> entry : sources.entrySet()) {
+                this.sources[i] = entry.getKey();
+                this.modCounts[i] = entry.getValue();
+                i += 1;
+            }
+        }
+
+        boolean isCurrent() {
+            for (int i = 0, n = sources.length; i < n; i += 1) {
+                if (sources[i].hierarchyModCount != modCounts[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        List<MethodNode> getMethods(String name) {
+            Map<String, List<MethodNode>> map = methodsByName;
+            if (map == null) {
+                map = new HashMap<>();
+                for (MethodNode method : methodsBySignature.values()) {
+                    map.computeIfAbsent(method.getName(), k -> new ArrayList<>(2)).add(method);
+                }
+                for (Map.Entry<String, List<MethodNode>> entry : map.entrySet()) {
+                    entry.setValue(Collections.unmodifiableList(entry.getValue()));
+                }
+                methodsByName = map;
+            }
+            List<MethodNode> methods = map.get(name);
+            return (methods != null ? methods : Collections.emptyList());
+        }
+
+        void addSourcesTo(Map<ClassNode, Integer> map) {
+            for (int i = 0, n = sources.length; i < n; i += 1) {
+                // keep the oldest count so a concurrent change leaves the new table stale
+                map.merge(sources[i], modCounts[i], Math::min);
+            }
+        }
+    }
+
+    private volatile MethodTable methodTable;
+
+    private MethodTable getMethodTable() {
+        ClassNode r = redirect();
+        MethodTable table = r.methodTable;
+        if (table == null || !table.isCurrent()) {
+            Map<ClassNode, Integer> sources = new IdentityHashMap<>();
+            // record counts before reading, so a change made while building (e.g. lazy init) leaves the table stale
+            sources.put(r, r.hierarchyModCount);
+
+            Map<String, MethodNode> result = new HashMap<>();
+            ClassNode sc = r.getSuperClass();
+            if (sc != null) {
+                sources.merge(sc, sc.hierarchyModCount, Math::min);
+                MethodTable superTable = sc.getMethodTable();
+                result.putAll(superTable.methodsBySignature);
+                superTable.addSourcesTo(sources);
+            }
+            // add in unimplemented abstract methods from the interfaces
+            for (ClassNode face : r.getInterfaces()) {
+                sources.merge(face, face.hierarchyModCount, Math::min);
+                MethodTable faceTable = face.getMethodTable();
+                for (Map.Entry<String, MethodNode> entry : faceTable.methodsBySignature.entrySet()) {
+                    result.putIfAbsent(entry.getKey(), entry.getValue());
+                }
+                faceTable.addSourcesTo(sources);
+            }
+            // And add in the methods implemented in this class.
+            for (MethodNode method : r.getMethods()) {
+                String sig = method.getTypeDescriptor();
+                result.put(sig, method);
+            }
+            r.methodTable = table = new MethodTable(result, sources);
+        }
+        return table;
+    }
+
+    /**
+     * Indicates if methods added to this type can be missing from method
+     * tables that were built before.  A type that adds methods only while it
+     * is lazily populated may return {@code false}; building a table fully
+     * populates every type it includes.
+     */
+    protected boolean invalidatesMethodTables() {
+        return true;
     }
     // GRECLIPSE end
 
@@ -229,6 +349,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
         if (cn!=null) cn = cn.redirect();
         if (cn==this) return;
         redirect = cn;
+        // GRECLIPSE add
+        hierarchyChanged();
+        // GRECLIPSE end
     }
 
     /**
@@ -429,6 +552,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
      */
     public void setSuperClass(ClassNode superClass) {
         redirect().superClass = superClass;
+        // GRECLIPSE add
+        redirect().hierarchyChanged();
+        // GRECLIPSE end
     }
 
     /**
@@ -459,6 +585,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
             redirect().setInterfaces(interfaces);
         } else {
             this.interfaces = interfaces;
+            // GRECLIPSE add
+            hierarchyChanged();
+            // GRECLIPSE end
         }
     }
 
@@ -484,7 +613,11 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
      */
     public List<MethodNode> getAbstractMethods() {
         List<MethodNode> result = new ArrayList<MethodNode>(3);
+        /* GRECLIPSE edit
         for (MethodNode method : getDeclaredMethodsMap().values()) {
+        */
+        for (MethodNode method : getMethodTable().methodsBySignature.values()) {
+        // GRECLIPSE end
             if (method.isAbstract()) {
                 result.add(method);
             }
@@ -498,7 +631,11 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
     }
 
     public List<MethodNode> getAllDeclaredMethods() {
+        /* GRECLIPSE edit
         return new ArrayList<MethodNode>(getDeclaredMethodsMap().values());
+        */
+        return new ArrayList<MethodNode>(getMethodTable().methodsBySignature.values());
+        // GRECLIPSE end
     }
 
     public Set<ClassNode> getAllInterfaces() {
@@ -518,6 +655,7 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
     }
 
     public Map<String, MethodNode> getDeclaredMethodsMap() {
+        /* GRECLIPSE edit
         Map<String, MethodNode> result = ClassNodeUtils.getDeclaredMethodsFromSuper(this);
         ClassNodeUtils.addDeclaredMethodsFromInterfaces(this, result);
 
@@ -527,8 +665,23 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
             result.put(sig, method);
         }
         return result;
+        */
+        // callers may modify the result
+        return new HashMap<String, MethodNode>(getMethodTable().methodsBySignature);
+        // GRECLIPSE end
     }
 
+    // GRECLIPSE add
+    /**
+     * @return the methods with the given name that are declared by this type,
+     *     its super classes or its interfaces; an overridden method is replaced
+     *     by its override
+     */
+    public List<MethodNode> getAllDeclaredMethods(String name) {
+        return getMethodTable().getMethods(name);
+    }
+    // GRECLIPSE end
+
     public String getName() {
         return redirect().name;
     }
@@ -703,6 +856,10 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
         }
         base.methodsList.add(node);
         base.methods.put(node.getName(), node);
+        // GRECLIPSE add
+        if (base.invalidatesMethodTables())
+            base.hierarchyChanged();
+        // GRECLIPSE end
     }
 
     public void removeMethod(MethodNode node) {
@@ -711,6 +868,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
             base.methodsList.remove(node);
         }
         base.methods.remove(node.getName(), node);
+        // GRECLIPSE add
+        base.hierarchyChanged();
+        // GRECLIPSE end
     }
 
     /**
@@ -793,6 +953,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
             System.arraycopy(interfaces, 0, newInterfaces, 0, interfaces.length);
             newInterfaces[interfaces.length] = type;
             redirect().interfaces = newInterfaces;
+            // GRECLIPSE add
+            redirect().hierarchyChanged();
+            // GRECLIPSE end
         }
     }
 
@@ -1153,6 +1316,9 @@ public class ClassNode extends AnnotatedNode implements Opcodes {
 
     public void setUnresolvedSuperClass(ClassNode sn) {
         superClass = sn;
+        // GRECLIPSE add
+        hierarchyChanged();
+        // GRECLIPSE end
     }
 
     public ClassNode [] getUnresolvedInterfaces() {
@@ -979,7 +979,16 @@ public class CompilationUnit extends ProcessingUnit {
             SourceUnit source = sources.get(name);
             if ((source.phase < phase) || (source.phase == phase && !source.phaseComplete)) {
                 try {
+                    /* GRECLIPSE edit
                     body.call(source);
+                    */
+                    if (profiler != null) profiler.enter();
+                    try {
+                        body.call(source);
+                    } finally {
+                        if (profiler != null) profiler.exit(phase, body == resolve ? "resolve" : null, source);
+                    }
+                    // GRECLIPSE end
                     // GRECLIPSE add
                     if (phase == Phases.CONVERSION && getProgressListener() != null && body == phaseOperations[phase].getLast()) {
                         getProgressListener().parseComplete(phase, name);
@@ -1140,7 +1149,16 @@ public class CompilationUnit extends ProcessingUnit {
                         iterator.next();
                         offset++;
                     }
+                    /* GRECLIPSE edit
                     body.call(context, new GeneratorContext(this.ast, offset), classNode);
+                    */
+                    if (profiler != null) profiler.enter();
+                    try {
+                        body.call(context, new GeneratorContext(this.ast, offset), classNode);
+                    } finally {
+                        if (profiler != null) profiler.exit(phase, null, context);
+                    }
+                    // GRECLIPSE end
                 }
             } catch (CompilationFailedException e) {
                 // fall through, getErrorReporter().failIfErrors() will trigger
@@ -1232,6 +1250,28 @@ public class CompilationUnit extends ProcessingUnit {
         this.listener = listener;
     }
 
+    /**
+     * Receives the start and end of each operation applied to a source unit.
+     * Calls nest; AST transforms are reported within their phase operation.
+     */
+    public interface Profiler {
+        void enter();
+
+        /**
+         * @param operation name of the transform or step, or {@code null} for the phase operation
+         * @param source source unit the operation applied to; may be {@code null}
+         */
+        void exit(int phase, String operation, SourceUnit source);
+    }
+
+    public Profiler getProfiler() {
+        return this.profiler;
+    }
+
+    public void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
     public ResolveVisitor getResolveVisitor() {
         return this.resolveVisitor;
     }
@@ -1266,6 +1306,7 @@ public class CompilationUnit extends ProcessingUnit {
 
     public boolean isReconcile;
     private ProgressListener listener;
+    private Profiler profiler;
     public final boolean allowTransforms;
     /**
      * Path to a directory that should be ignored when searching for manifest files that define global AST transforms.
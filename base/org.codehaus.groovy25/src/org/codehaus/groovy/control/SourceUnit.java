@@ -41,10 +41,13 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.Status;
 
+import java.io.CharArrayReader;
+import java.io.CharArrayWriter;
 import java.io.File;
 import java.io.IOException;
 import java.io.Reader;
 import java.net.URL;
+import java.nio.CharBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.List;
@@ -232,7 +235,10 @@ public class SourceUnit extends ProcessingUnit {
         //
         // Create a reader on the source and run the parser.
 
-        try (Reader reader = source.getReader()) {
+        // GRECLIPSE edit
+        //try (Reader reader = source.getReader()) {
+        try (Reader reader = new CharArrayReader(getSourceChars())) {
+        // GRECLIPSE end
             // let's recreate the parser each time as it tends to keep around state
             parserPlugin = getConfiguration().getPluginFactory().createParserPlugin();
 
@@ -358,13 +364,51 @@ public class SourceUnit extends ProcessingUnit {
     public ReaderSource getSource() { return source; }
 
     // GRECLIPSE add
-    public char[] readSourceRange(int offset, int length) {
+    private volatile char[] sourceChars;
+
+    /**
+     * Returns the contents of the source.  The source is read once and the
+     * contents are shared by the parser and all later requests, so the array
+     * must not be modified.
+     */
+    protected char[] getSourceChars() throws IOException {
+        char[] chars = sourceChars;
+        if (chars == null) {
+            sourceChars = chars = readSourceChars();
+        }
+        return chars;
+    }
+
+    /**
+     * Reads the contents of the source.  Subclasses that already hold the
+     * contents may return them directly.
+     */
+    protected char[] readSourceChars() throws IOException {
         try (Reader reader = getSource().getReader()) {
-            reader.skip(offset); int n = length;
-            final char[] code = new char[n];
-            while (n > 0) {
-                n -= reader.read(code, length - n, n);
+            CharArrayWriter writer = new CharArrayWriter(8192);
+            char[] buffer = new char[8192];
+            for (int n; (n = reader.read(buffer)) != -1;) {
+                writer.write(buffer, 0, n);
+            }
+            return writer.toCharArray();
+        }
+    }
+
+    /**
+     * Returns a read-only, random-access view of the contents of the source.
+     */
+    public CharSequence getSourceText() throws IOException {
+        return CharBuffer.wrap(getSourceChars()).asReadOnlyBuffer();
+    }
+
+    public char[] readSourceRange(int offset, int length) {
+        try {
+            char[] chars = getSourceChars();
+            if (offset < 0 || length < 0 || offset > chars.length - length) {
+                throw new IndexOutOfBoundsException("range [" + offset + ", " + (offset + length) + ") of " + chars.length);
             }
+            char[] code = new char[length];
+            System.arraycopy(chars, offset, code, 0, length);
             return code;
         } catch (Exception e) {
             Platform.getLog(org.osgi.framework.FrameworkUtil.getBundle(this.getClass())).log(
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -99,4 +99,115 @@ public final class LoggerTest {
         Assert.assertTrue(GroovyLogManager.manager.removeLogger(logger1));
         Assert.assertFalse(GroovyLogManager.manager.removeLogger(logger1));
     }
+
+    @Test
+    public void testEventEndedOnOtherThread() throws Exception {
+        StringBuilder messages = new StringBuilder();
+        IGroovyLogger logger = new IGroovyLogger() {
+            @Override
+            public void log(TraceCategory category, String message) {
+                synchronized (messages) {
+                    messages.append(message).append('\n');
+                }
+            }
+
+            @Override
+            public boolean isCategoryEnabled(TraceCategory category) {
+                return true;
+            }
+        };
+        Assert.assertTrue(GroovyLogManager.manager.addLogger(logger));
+        try {
+            long start = GroovyLogManager.manager.logStart("event");
+            Thread thread = new Thread(() -> GroovyLogManager.manager.logEnd("event", TraceCategory.DSL, start));
+            thread.start();
+            thread.join();
+
+            Assert.assertTrue(messages.toString(), messages.toString().contains("ms: event"));
+        } finally {
+            GroovyLogManager.manager.removeLogger(logger);
+        }
+    }
+
+    @Test
+    public void testEqualEventsOnSeveralThreads() throws Exception {
+        StringBuilder messages = new StringBuilder();
+        IGroovyLogger logger = new IGroovyLogger() {
+            @Override
+            public void log(TraceCategory category, String message) {
+                synchronized (messages) {
+                    messages.append(message).append('\n');
+                }
+            }
+
+            @Override
+            public boolean isCategoryEnabled(TraceCategory category) {
+                return true;
+            }
+        };
+        Assert.assertTrue(GroovyLogManager.manager.addLogger(logger));
+        try {
+            long slow = GroovyLogManager.manager.logStart("event");
+            Thread.sleep(200);
+            // an equally-named event starts while the first is in progress and ends after it
+            long fast = GroovyLogManager.manager.logStart("event");
+            GroovyLogManager.manager.logEnd("event", TraceCategory.DSL, slow, "slow");
+            GroovyLogManager.manager.logEnd("event", TraceCategory.DSL, fast, "fast");
+
+            String[] lines = messages.toString().split("\n");
+            Assert.assertEquals(messages.toString(), 2, lines.length);
+            Assert.assertTrue(lines[0], lines[0].endsWith("(slow)") && elapsedMillis(lines[0]) >= 200);
+            Assert.assertTrue(lines[1], lines[1].endsWith("(fast)") && elapsedMillis(lines[1]) < 200);
+        } finally {
+            GroovyLogManager.manager.removeLogger(logger);
+        }
+    }
+
+    private static long elapsedMillis(String message) {
+        // "Event complete: <n>ms: ..."
+        return Long.parseLong(message.substring(message.indexOf(':') + 2, message.indexOf("ms:")));
+    }
+
+    @Test
+    public void testLatencyHistogram() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(0, histogram.getPercentileNanos(50));
+
+        for (int i = 1; i <= 1000; i += 1) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(500500, histogram.getMeanNanos());
+        Assert.assertEquals(1000000, histogram.getMaxNanos());
+
+        // percentiles are accurate to within one bucket (12.5%)
+        Assert.assertEquals(500000, histogram.getPercentileNanos(50), 62500);
+        Assert.assertEquals(950000, histogram.getPercentileNanos(95), 118750);
+        Assert.assertEquals(990000, histogram.getPercentileNanos(99), 123750);
+        Assert.assertEquals(1000000, histogram.getPercentileNanos(100));
+
+        histogram.reset();
+        Assert.assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testMetricsDisabled() throws Exception {
+        boolean enabled = GroovyLogManager.manager.isMetricsEnabled();
+        try {
+            GroovyLogManager.manager.setMetricsEnabled(false);
+            long span = GroovyLogManager.manager.startSpan();
+            Assert.assertEquals(0, span);
+
+            long count = GroovyLogManager.manager.getLatencies(TraceCategory.INFERENCE).getCount();
+            GroovyLogManager.manager.endSpan(TraceCategory.INFERENCE, span);
+            Assert.assertEquals(count, GroovyLogManager.manager.getLatencies(TraceCategory.INFERENCE).getCount());
+
+            GroovyLogManager.manager.setMetricsEnabled(true);
+            span = GroovyLogManager.manager.startSpan();
+            GroovyLogManager.manager.endSpan(TraceCategory.INFERENCE, span);
+            Assert.assertEquals(count + 1, GroovyLogManager.manager.getLatencies(TraceCategory.INFERENCE).getCount());
+        } finally {
+            GroovyLogManager.manager.setMetricsEnabled(enabled);
+        }
+    }
 }
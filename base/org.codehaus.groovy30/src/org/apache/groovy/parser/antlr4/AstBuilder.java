@@ -35,6 +35,7 @@ import groovyjarjarantlr4.v4.runtime.tree.TerminalNode;
 import org.apache.groovy.parser.antlr4.GroovyParser.QualifiedNameElementContext;
 import org.apache.groovy.parser.antlr4.internal.DescriptiveErrorStrategy;
 import org.apache.groovy.parser.antlr4.internal.atnmanager.AtnManager;
+import org.apache.groovy.parser.antlr4.internal.atnmanager.ParserAtnManager;
 import org.apache.groovy.parser.antlr4.util.PositionConfigureUtils;
 import org.apache.groovy.parser.antlr4.util.StringUtils;
 import org.apache.groovy.util.Maps;
@@ -126,7 +127,6 @@ import org.codehaus.groovy.syntax.SyntaxException;
 import org.codehaus.groovy.syntax.Types;
 import groovyjarjarasm.asm.Opcodes;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
@@ -371,18 +371,18 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         this.groovydocManager = new GroovydocManager(compilerConfiguration);
 
         // GRECLIPSE add
-        try (BufferedReader reader = new BufferedReader(sourceUnit.getSource().getReader())) {
-            // TODO: Can this be done without boxing/unboxing offsets or juggling temp arrays?
-            int chr, off = 0; List<Integer> ends = new ArrayList<>(32); ends.add(0);
-            while ((chr = reader.read()) != -1) { off += 1;
-                if (chr == '\n') ends.add(off);
+        try {
+            CharSequence text = sourceUnit.getSourceText();
+            int n = text.length(), lines = 1;
+            for (int i = 0; i < n; i += 1) {
+                if (text.charAt(i) == '\n') lines += 1;
             }
-            ends.add(off);
 
-            int[] arr = new int[ends.size()];
-            for (int i = 0, n = arr.length; i < n; i += 1) {
-                arr[i] = ends.get(i);
+            int[] arr = new int[lines + 1];
+            for (int i = 0, j = 1; i < n; i += 1) {
+                if (text.charAt(i) == '\n') arr[j++] = i + 1;
             }
+            arr[lines] = n;
             this.locationSupport = new LocationSupport(arr);
         } catch (Exception e) {
             throw new RuntimeException("Error occurred reading the source code.", e);
@@ -434,9 +434,12 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
         CharStream charStream;
 
         try {
-            charStream = CharStreams.fromReader(
+            // GRECLIPSE edit
+            /*charStream = CharStreams.fromReader(
                     new BufferedReader(sourceUnit.getSource().getReader()),
-                    sourceUnit.getName());
+                    sourceUnit.getName());*/
+            charStream = CharStreams.fromString(sourceUnit.getSourceText().toString(), sourceUnit.getName());
+            // GRECLIPSE end
         } catch (IOException e) {
             throw new RuntimeException("Error occurred when reading source code.", e);
         }
@@ -452,11 +455,17 @@ public class AstBuilder extends GroovyParserBaseVisitor<Object> {
             AtnManager.READ_LOCK.lock();
             try {
                 result = buildCST(PredictionMode.SLL);
+                // GRECLIPSE add
+                ParserAtnManager.INSTANCE.recordParse(false);
+                // GRECLIPSE end
             } catch (Throwable t) {
                 // if some syntax error occurred in the lexer, no need to retry the powerful LL mode
                 if (t instanceof GroovySyntaxError && GroovySyntaxError.LEXER == ((GroovySyntaxError) t).getSource()) {
                     throw t;
                 }
+                // GRECLIPSE add
+                ParserAtnManager.INSTANCE.recordParse(true);
+                // GRECLIPSE end
 
                 result = buildCST(PredictionMode.LL);
             } finally {
@@ -0,0 +1,89 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.apache.groovy.parser.antlr4.internal.atnmanager;
+
+import groovyjarjarantlr4.v4.runtime.atn.ATN;
+import org.apache.groovy.parser.antlr4.GroovyLangParser;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Manage ATN for parser to avoid memory leak
+ */
+public class ParserAtnManager extends AtnManager {
+    private final AtnWrapper parserAtnWrapper = new AtnManager.AtnWrapper(GroovyLangParser._ATN);
+    public static final ParserAtnManager INSTANCE = new ParserAtnManager();
+
+    @Override
+    public ATN getATN() {
+        return parserAtnWrapper.checkAndClear();
+    }
+
+    @Override
+    protected boolean shouldClearDfaCache() {
+        return true;
+    }
+
+    private ParserAtnManager() {}
+
+    // GRECLIPSE add
+    private final AtomicLong parseCount = new AtomicLong(0);
+    private final AtomicLong fallbackCount = new AtomicLong(0);
+
+    /**
+     * Records the outcome of a parse that used the shared ATN.
+     *
+     * @param fallback {@code true} if SLL prediction failed and the source was reparsed in LL mode
+     */
+    public void recordParse(boolean fallback) {
+        parseCount.incrementAndGet();
+        if (fallback) fallbackCount.incrementAndGet();
+    }
+
+    public long getParseCount() {
+        return parseCount.get();
+    }
+
+    public long getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    /**
+     * Returns the fraction of parses that completed in SLL mode.
+     */
+    public double getSllSuccessRate() {
+        long parses = parseCount.get();
+        return (parses == 0 ? 1.0 : (double) (parses - fallbackCount.get()) / parses);
+    }
+
+    public int getDfaStateCount() {
+        return parserAtnWrapper.getDfaStateCount();
+    }
+
+    public long getClearCount() {
+        return parserAtnWrapper.getClearCount();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("parses: %d, SLL success rate: %.1f%%, LL fallbacks: %d, DFA states: %d, DFA clears: %d",
+            getParseCount(), getSllSuccessRate() * 100, getFallbackCount(), getDfaStateCount(), getClearCount());
+    }
+    // GRECLIPSE end
+}
@@ -50,7 +50,8 @@ public class ASTNode implements NodeMetaDataHandler {
     private int lastLineNumber = -1;
     private int lastColumnNumber = -1;
     // GRECLIPSE add
-    private final int[] offsets = new int[2];
+    private int start = 0;
+    private int end = 0;
     // GRECLIPSE end
     private Map metaDataMap;
 
@@ -96,19 +97,19 @@ public class ASTNode implements NodeMetaDataHandler {
 
     // GRECLIPSE add
     public int getStart() {
-        return offsets[0];
+        return start;
     }
-    public void setStart(int offset) {
-        offsets[0] = offset;
+    public void setStart(int start) {
+        this.start = start;
     }
     public int getEnd() {
-        return offsets[1];
+        return end;
     }
-    public void setEnd(int offset) {
-        offsets[1] = offset;
+    public void setEnd(int end) {
+        this.end = end;
     }
     public int getLength() {
-        return (offsets[1] >= 0 && offsets[0] >= 0 ? offsets[1] - offsets[0] : -1);
+        return (end >= 0 && start >= 0 ? end - start : -1);
     }
     // GRECLIPSE end
 
@@ -126,8 +127,8 @@ public class ASTNode implements NodeMetaDataHandler {
         this.lastColumnNumber = node.getLastColumnNumber();
         this.lineNumber = node.getLineNumber();
         // GRECLIPSE add
-        this.offsets[0] = node.getStart();
-        this.offsets[1] = node.getEnd();
+        this.start = node.getStart();
+        this.end = node.getEnd();
         // GRECLIPSE end
     }
 
@@ -49,9 +49,13 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -62,6 +66,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -189,8 +195,16 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                     if (snt instanceof CompilationUnitAware) {
                         ((CompilationUnitAware)snt).setCompilationUnit(context.getCompilationUnit());
                     }
+                    // GRECLIPSE add
+                    CompilationUnit.Profiler profiler = context.getCompilationUnit().getProfiler();
+                    if (profiler != null) profiler.enter();
+                    try {
+                    // GRECLIPSE end
                     snt.visit(node, source);
                     // GRECLIPSE add
+                    } finally {
+                        if (profiler != null) profiler.exit(context.getCompilationUnit().getPhase(), snt.getClass().getName(), source);
+                    }
                         } finally {
                             if (okToSet) {
                                 source.getErrorCollector().transformActive = false;
@@ -275,14 +289,23 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         Map<String, URL> transformNames = new LinkedHashMap<String, URL>();
         try {
+            /* GRECLIPSE edit
             Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
             while (globalServices.hasMoreElements()) {
                 URL service = globalServices.nextElement();
+            */
+            for (GlobalTransformDescriptor descriptor : getGlobalTransformCache(transformLoader).descriptors) {
+                URL service = descriptor.service;
+            // GRECLIPSE end
                 String className;
                 // GRECLIPSE add -- don't consume our own META-INF entries
                 if (skipManifest(compilationUnit, service)) continue;
                 // GRECLIPSE end
+                /* GRECLIPSE edit
                 try (BufferedReader svcIn = new BufferedReader(new InputStreamReader(URLStreams.openUncachedStream(service), "UTF-8"))) {
+                */
+                try (BufferedReader svcIn = new BufferedReader(new StringReader(descriptor.text))) {
+                // GRECLIPSE end
                     try {
                         className = svcIn.readLine();
                     } catch (IOException ioe) {
@@ -382,6 +405,92 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         return false;
     }
 
+    /**
+     * Global transform service descriptors and transform classes, cached per
+     * transform loader so that each new compilation unit does not rescan the
+     * classpath.  An entry is valid while the loader's URLs are unchanged; a
+     * grab adds URLs to the loader and so forces a rescan.
+     * <p>
+     * The transform classes are held weakly: a class strongly references its
+     * loader, which would keep the weak key of its own entry reachable.
+     */
+    private static final Map<ClassLoader, GlobalTransformCache> globalTransformCache =
+        Collections.synchronizedMap(new WeakHashMap<ClassLoader, GlobalTransformCache>());
+
+    private static final class GlobalTransformCache {
+        final URL[] loaderURLs;
+        final List<GlobalTransformDescriptor> descriptors;
+        final Map<String, WeakReference<Class>> transformClasses = new ConcurrentHashMap<String, WeakReference<Class>>();
+
+        GlobalTransformCache(URL[] loaderURLs, List<GlobalTransformDescriptor> descriptors) {
+            this.loaderURLs = loaderURLs;
+            this.descriptors = descriptors;
+        }
+    }
+
+    private static final class GlobalTransformDescriptor {
+        final URL service;
+        final String text;
+
+        GlobalTransformDescriptor(URL service, String text) {
+            this.service = service;
+            this.text = text;
+        }
+    }
+
+    /**
+     * Discards the global transform metadata of all transform loaders.
+     */
+    public static void clearGlobalTransformCache() {
+        globalTransformCache.clear();
+    }
+
+    /**
+     * Discards the global transform metadata of the given transform loader.
+     */
+    public static void clearGlobalTransformCache(ClassLoader transformLoader) {
+        globalTransformCache.remove(transformLoader);
+    }
+
+    private static GlobalTransformCache getGlobalTransformCache(GroovyClassLoader transformLoader) throws IOException {
+        URL[] loaderURLs = transformLoader.getURLs();
+        GlobalTransformCache cache = globalTransformCache.get(transformLoader);
+        if (cache == null || !Arrays.equals(loaderURLs, cache.loaderURLs)) {
+            List<GlobalTransformDescriptor> descriptors = new ArrayList<GlobalTransformDescriptor>();
+            Enumeration<URL> globalServices = transformLoader.getResources("META-INF/services/org.codehaus.groovy.transform.ASTTransformation");
+            while (globalServices.hasMoreElements()) {
+                URL service = globalServices.nextElement();
+                Reader reader = new InputStreamReader(URLStreams.openUncachedStream(service), "UTF-8");
+                try {
+                    StringBuilder text = new StringBuilder();
+                    char[] buffer = new char[1024];
+                    for (int n; (n = reader.read(buffer)) != -1;) {
+                        text.append(buffer, 0, n);
+                    }
+                    descriptors.add(new GlobalTransformDescriptor(service, text.toString()));
+                } finally {
+                    reader.close();
+                }
+            }
+            cache = new GlobalTransformCache(loaderURLs, Collections.unmodifiableList(descriptors));
+            globalTransformCache.put(transformLoader, cache);
+        }
+        return cache;
+    }
+
+    private static Class loadGlobalTransformClass(GroovyClassLoader transformLoader, String className) throws ClassNotFoundException {
+        GlobalTransformCache cache = globalTransformCache.get(transformLoader);
+        WeakReference<Class> ref = (cache != null ? cache.transformClasses.get(className) : null);
+        Class transformClass = (ref != null ? ref.get() : null);
+        if (transformClass == null) {
+            transformClass = transformLoader.loadClass(className, false, true, false);
+            if (cache != null) {
+                cache.transformClasses.put(className, new WeakReference<Class>(transformClass));
+            }
+        }
+        return transformClass;
+    }
+
     private static Set<String> globalTransformsAllowedInReconcile = null;
 
     private static void ensureGlobalTransformsAllowedInReconcileInitialized() {
@@ -402,7 +511,11 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
         GroovyClassLoader transformLoader = compilationUnit.getTransformLoader();
         for (Map.Entry<String, URL> entry : transformNames.entrySet()) {
             try {
+                /* GRECLIPSE edit
                 Class gTransClass = transformLoader.loadClass(entry.getKey(), false, true, false);
+                */
+                Class gTransClass = loadGlobalTransformClass(transformLoader, entry.getKey());
+                // GRECLIPSE end
                 GroovyASTTransformation transformAnnotation = (GroovyASTTransformation) gTransClass.getAnnotation(GroovyASTTransformation.class);
                 if (transformAnnotation == null) {
                     compilationUnit.getErrorCollector().addWarning(new WarningMessage(
@@ -437,8 +550,16 @@ public final class ASTTransformationVisitor extends ClassCodeVisitorSupport {
                                         source.getErrorCollector().transformActive = true;
                                     }
                             // GRECLIPSE end
+                            // GRECLIPSE add
+                            CompilationUnit.Profiler profiler = compilationUnit.getProfiler();
+                            if (profiler != null) profiler.enter();
+                            try {
+                            // GRECLIPSE end
                             instance.visit(new ASTNode[] {source.getAST()}, source);
                             // GRECLIPSE add
+                            } finally {
+                                if (profiler != null) profiler.exit(compilationUnit.getPhase(), instance.getClass().getName(), source);
+                            }
                                 } finally {
                                     if (okToSet) {
                                         source.getErrorCollector().transformActive = false;
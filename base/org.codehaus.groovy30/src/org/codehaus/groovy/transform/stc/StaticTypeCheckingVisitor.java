@@ -4872,6 +4872,7 @@ public class StaticTypeCheckingVisitor extends ClassCodeVisitorSupport {
     }
 
     protected void collectAllInterfaceMethodsByName(final ClassNode receiver, final String name, final List<MethodNode> methods) {
+        /* GRECLIPSE edit
         ClassNode cNode = receiver;
         while (cNode != null) {
             ClassNode[] interfaces = cNode.getInterfaces();
@@ -4884,6 +4885,15 @@ public class StaticTypeCheckingVisitor extends ClassCodeVisitorSupport {
             }
             cNode = cNode.getSuperClass();
         }
+        */
+        // read the cached method table instead of walking every super interface
+        for (MethodNode method : receiver.getAllDeclaredMethods(name)) {
+            ClassNode declaringClass = method.getDeclaringClass();
+            if (declaringClass.isInterface() && !declaringClass.equals(receiver)) {
+                methods.add(method);
+            }
+        }
+        // GRECLIPSE end
     }
 
     protected ClassNode getType(final ASTNode exp) {
@@ -0,0 +1,295 @@
+/*
+ *  Licensed to the Apache Software Foundation (ASF) under one
+ *  or more contributor license agreements.  See the NOTICE file
+ *  distributed with this work for additional information
+ *  regarding copyright ownership.  The ASF licenses this file
+ *  to you under the Apache License, Version 2.0 (the
+ *  "License"); you may not use this file except in compliance
+ *  with the License.  You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ */
+package org.codehaus.groovy.util;
+
+import java.util.ArrayList;
+// GRECLIPSE add
+import java.util.Arrays;
+// GRECLIPSE end
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents a {@link Map} that is optimized for a small number of
+ * entries.  For a number of entries up to {@code listSize} the entries
+ * are stored in arrays.  After {@code listSize} entries are exceeded
+ * storage switches internally to a {@link Map} and converts back
+ * to being array based when its size is less than or equal to {@code listSize}.
+ *
+ * Null keys or values are not supported.
+ *
+ * This class is not thread safe.
+ *
+ * @author <a href="mailto:blackdrag@gmx.org">Jochen "blackdrag" Theodorou</a>
+ */
+public class ListHashMap<K,V> implements Map<K,V> {
+    // GRECLIPSE edit -- keys and values share one array, created on first put
+    // with room for two entries and grown to listSize entries when needed
+    //private final Object[] listKeys;
+    //private final Object[] listValues;
+    private Object[] list; // key, value, key, value, ...
+    // GRECLIPSE end
+    private int size = 0;
+    private Map<K,V> innerMap;
+    private final int maxListFill;
+
+    public ListHashMap() {
+        this(3);
+    }
+
+    public ListHashMap(int listSize){
+        // GRECLIPSE edit
+        //this.listKeys = new Object[listSize];
+        //this.listValues = new Object[listSize];
+        // GRECLIPSE end
+        maxListFill = listSize;
+    }
+
+    public void clear() {
+        innerMap = null;
+        clearArrays();
+        size = 0;
+    }
+
+    private void clearArrays() {
+        /* GRECLIPSE edit
+        for (int i=0; i<maxListFill; i++) {
+            listValues[i] = null;
+            listKeys[i] = null;
+        }
+        */
+        list = null;
+        // GRECLIPSE end
+    }
+
+    // GRECLIPSE add
+    private void ensureListCapacity(int entries) {
+        if (list == null) {
+            list = new Object[2 * Math.max(entries, Math.min(2, maxListFill))];
+        } else if (list.length < 2 * entries) {
+            list = Arrays.copyOf(list, 2 * maxListFill);
+        }
+    }
+    // GRECLIPSE end
+
+    public boolean containsKey(Object key) {
+        if (size == 0) {
+            return false;
+        }
+        if (innerMap == null) {
+            for (int i=0; i<size; i++) {
+                // GRECLIPSE edit
+                //if (listKeys[i].equals(key)) return true;
+                if (list[2*i].equals(key)) return true;
+                // GRECLIPSE end
+            }
+            return false;
+        } else {
+            return innerMap.containsKey(key);
+        }
+    }
+
+    public boolean containsValue(Object value) {
+        if (size == 0) {
+            return false;
+        }
+        if (innerMap == null) {
+            for (int i=0; i<size; i++) {
+                // GRECLIPSE edit
+                //if (listValues[i].equals(value)) return true;
+                if (list[2*i+1].equals(value)) return true;
+                // GRECLIPSE end
+            }
+            return false;
+        } else {
+            return innerMap.containsValue(value);
+        }
+    }
+
+    private Map<K,V> makeMap() {
+        Map<K,V> m = new HashMap();
+        for (int i=0; i<size; i++) {
+            // GRECLIPSE edit
+            //m.put((K) listKeys[i], (V) listValues[i]);
+            m.put((K) list[2*i], (V) list[2*i+1]);
+            // GRECLIPSE end
+        }
+        return m;
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<java.util.Map.Entry<K, V>> entrySet() {
+        Map m = innerMap!=null?innerMap:makeMap();
+        return m.entrySet();
+    }
+
+    public V get(Object key) {
+        if(size==0) return null;
+        if (innerMap==null) {
+            for (int i=0; i<size; i++) {
+                // GRECLIPSE edit
+                //if (listKeys[i].equals(key)) return (V) listValues[i];
+                if (list[2*i].equals(key)) return (V) list[2*i+1];
+                // GRECLIPSE end
+            }
+            return null;
+        } else {
+            return innerMap.get(key);
+        }
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public Set<K> keySet() {
+        Map m = innerMap!=null?innerMap:makeMap();
+        return m.keySet();
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(K key, V value) {
+        if (innerMap==null) {
+            for (int i=0; i<size; i++) {
+                /* GRECLIPSE edit
+                if (listKeys[i].equals(key)) {
+                    V old = (V) listValues[i];
+                    listValues[i] = value;
+                */
+                if (list[2*i].equals(key)) {
+                    V old = (V) list[2*i+1];
+                    list[2*i+1] = value;
+                // GRECLIPSE end
+                    return old;
+                }
+            }
+            if (size<maxListFill) {
+                // GRECLIPSE add
+                ensureListCapacity(size + 1);
+                // GRECLIPSE end
+                /* GRECLIPSE edit
+                listKeys[size] = key;
+                listValues[size] = value;
+                */
+                list[2*size] = key;
+                list[2*size+1] = value;
+                // GRECLIPSE end
+                size++;
+                return null;
+            } else {
+                innerMap = makeMap();
+                // Switched over to Map so need to clear array references
+                clearArrays();
+            }
+        }
+        V val = (V) innerMap.put(key, value);
+        size = innerMap.size();
+        return val;
+    }
+
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public V remove(Object key) {
+        if (innerMap==null) {
+            for (int i=0; i<size; i++) {
+                /* GRECLIPSE edit
+                if (listKeys[i].equals(key)) {
+                    V old = (V) listValues[i];
+                */
+                if (list[2*i].equals(key)) {
+                    V old = (V) list[2*i+1];
+                // GRECLIPSE end
+                    size--;
+                    // If last element is not being removed shift the last element into this slot
+                    if (i < size) {
+                        /* GRECLIPSE edit
+                        listValues[i] = listValues[size];
+                        listKeys[i] = listKeys[size];
+                        */
+                        list[2*i+1] = list[2*size+1];
+                        list[2*i] = list[2*size];
+                        // GRECLIPSE end
+                    }
+                    /* GRECLIPSE edit
+                    listValues[size] = null;
+                    listKeys[size] = null;
+                    */
+                    list[2*size+1] = null;
+                    list[2*size] = null;
+                    // GRECLIPSE end
+                    return old;
+                }
+            }
+            return null;
+        } else {
+            V old = innerMap.remove(key);
+            size = innerMap.size();
+            if (size<=maxListFill) {
+                mapToList();
+            }
+            return old;
+        }
+    }
+
+    private void mapToList() {
+        // GRECLIPSE add
+        ensureListCapacity(innerMap.size());
+        // GRECLIPSE end
+        int i = 0;
+        for (Entry<? extends K,? extends V> entry : innerMap.entrySet()) {
+            /* GRECLIPSE edit
+            listKeys[i] = entry.getKey();
+            listValues[i] = entry.getValue();
+            */
+            list[2*i] = entry.getKey();
+            list[2*i+1] = entry.getValue();
+            // GRECLIPSE end
+            i++;
+        }
+        size = innerMap.size();
+        innerMap = null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public Collection<V> values() {
+        if (innerMap == null) {
+            List<V> list = new ArrayList<V>(size);
+            for (int i = 0; i < size; i++) {
+                // GRECLIPSE edit
+                //list.add((V) listValues[i]);
+                list.add((V) this.list[2*i+1]);
+                // GRECLIPSE end
+            }
+            return list;
+        } else {
+            return innerMap.values();
+        }
+    }
+
+}
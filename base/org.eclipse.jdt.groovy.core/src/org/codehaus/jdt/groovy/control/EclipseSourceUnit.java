@@ -31,6 +31,7 @@ import org.eclipse.core.resources.IFile;
 public class EclipseSourceUnit extends SourceUnit {
 
     private final IFile file;
+    private final char[] sourceCode;
     public final JDTResolver resolver;
 
     public EclipseSourceUnit(/*@Nullable*/ IFile file, String filePath, char[] sourceCode, boolean isReconcile,
@@ -43,6 +44,7 @@ public class EclipseSourceUnit extends SourceUnit {
         }, compilerConfig, classLoader, errorCollector);
 
         this.file = file;
+        this.sourceCode = sourceCode;
         this.resolver = resolver;
         this.isReconcile = isReconcile;
     }
@@ -60,6 +62,14 @@ public class EclipseSourceUnit extends SourceUnit {
         cst = null;
     }
 
+    /**
+     * Shares the contents this unit was created from instead of reading a copy.
+     */
+    @Override
+    protected char[] readSourceChars() {
+        return sourceCode;
+    }
+
     @Override
     public String toString() {
         return "EclipseSourceUnit(" + getName() + ")";
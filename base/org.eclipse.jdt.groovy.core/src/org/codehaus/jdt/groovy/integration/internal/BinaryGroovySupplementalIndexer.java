@@ -1,11 +1,11 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
  * You may obtain a copy of the License at
  *
- *     http://www.apache.org/licenses/LICENSE-2.0
+ *     https://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -15,55 +15,635 @@
  */
 package org.codehaus.jdt.groovy.integration.internal;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import org.codehaus.jdt.groovy.integration.ISupplementalIndexer;
+import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.core.compiler.CharOperation;
-import org.eclipse.jdt.internal.compiler.classfmt.ClassFileConstants;
+import org.eclipse.jdt.core.util.ByteCodeVisitorAdapter;
+import org.eclipse.jdt.core.util.ClassFormatException;
+import org.eclipse.jdt.core.util.IBootstrapMethodsAttribute;
+import org.eclipse.jdt.core.util.IBootstrapMethodsEntry;
+import org.eclipse.jdt.core.util.IClassFileAttribute;
+import org.eclipse.jdt.core.util.IClassFileReader;
+import org.eclipse.jdt.core.util.IConstantPool;
+import org.eclipse.jdt.core.util.IConstantPoolConstant;
+import org.eclipse.jdt.core.util.IConstantPoolEntry;
+import org.eclipse.jdt.core.util.IConstantPoolEntry2;
+import org.eclipse.jdt.core.util.IMethodInfo;
+import org.eclipse.jdt.groovy.search.AccessorSupport;
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.core.search.indexing.AbstractIndexer;
+import org.eclipse.jdt.internal.core.util.Util;
 
+/**
+ * Indexes the dynamic references of Groovy-compiled class files.  Method calls
+ * and property accesses that are dispatched through call sites or indy do not
+ * appear in the constant pool as member references, so their names are decoded
+ * from the {@code $createCallSiteArray} name tables, the {@code IndyInterface}
+ * bootstrap arguments and the {@code ScriptBytecodeAdapter} property accessors.
+ * Call site uses are matched with their {@code CallSite} invocations to recover
+ * the kind of access and the argument count.  Names passed to the adapter's
+ * {@code invokeMethod*N} methods precede the construction of the argument
+ * array, so the arrays under construction are tracked to pair each call with
+ * its name.  The code is traversed with JDT's class file reader and bytecode
+ * visitor.  String literals and descriptors are not indexed.
+ */
 public class BinaryGroovySupplementalIndexer implements ISupplementalIndexer {
 
+    private static final char[] CALL_SITE = "org/codehaus/groovy/runtime/callsite/CallSite".toCharArray();
+    private static final char[] SCRIPT_BYTECODE_ADAPTER = "org/codehaus/groovy/runtime/ScriptBytecodeAdapter".toCharArray();
+    private static final char[] INDY_INTERFACE = "/IndyInterface".toCharArray();
+    private static final char[] OBJECT_ARRAY = "[Ljava/lang/Object;".toCharArray();
+    private static final char[] OBJECT = "Ljava/lang/Object;".toCharArray();
+    private static final char[] OBJECT_CLASS = "java/lang/Object".toCharArray();
+    private static final char[] CREATE_CALL_SITE_ARRAY = "$createCallSiteArray".toCharArray();
+    private static final String GET_CALL_SITE_ARRAY = "$getCallSiteArray";
+
+    /** Number of arguments indexed for a call whose arity is not known. */
+    private static final int MAX_UNKNOWN_ARITY = 5;
+
+    /** Set once a decoding failure has been logged, so that indexing a large library cannot flood the log. */
+    private static volatile boolean failureLogged;
+
     @Override
-    public List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader) {
-        int[] constantPoolOffsets = reader.getConstantPoolOffsets();
-        int constantPoolCount = constantPoolOffsets.length;
-        List<char[]> refs = new ArrayList<>();
-        for (int i = 1; i < constantPoolCount; i++) {
-            int tag = reader.u1At(constantPoolOffsets[i]);
-            switch (tag) {
-            case ClassFileConstants.Utf8Tag:
-                char[] strConst = extractStringConstant(constantPoolOffsets, reader, i);
-                if (isValidId(strConst)) {
-                    char[][] splits = CharOperation.splitOn('.', strConst);
-                    for (char[] split : splits) {
-                        refs.add(split);
+    public void indexReferences(byte[] contents, ClassFileReader reader, AbstractIndexer indexer) {
+        try {
+            new Decoder(contents, new References(indexer)).decode();
+        } catch (ClassFormatException | RuntimeException e) {
+            // malformed or unexpected class file structure; the Java references remain
+            if (!failureLogged) {
+                failureLogged = true;
+                Util.log(e, "Failed to index the Groovy references of " + String.valueOf(reader.getName()) +
+                    "; further failures are not logged");
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Adds each distinct reference to the index once.
+     */
+    private static class References {
+        private final AbstractIndexer indexer;
+        private final Set<String> seen = new HashSet<>();
+
+        References(AbstractIndexer indexer) {
+            this.indexer = indexer;
+        }
+
+        void method(char[] name, int argCount) {
+            if (argCount < 0) {
+                for (int i = 0; i <= MAX_UNKNOWN_ARITY; i += 1) {
+                    method(name, i);
+                }
+            } else if (seen.add("m:" + String.valueOf(name) + '/' + argCount)) {
+                indexer.addMethodReference(name, argCount);
+            }
+        }
+
+        /**
+         * Adds a name reference, which is how field references are indexed and
+         * what searches for any reference to a simple name look for, so every
+         * dynamic name still gets one as when all constant pool strings were
+         * indexed.
+         */
+        void field(char[] name) {
+            if (seen.add("f:" + String.valueOf(name))) {
+                indexer.addNameReference(name);
+            }
+        }
+
+        void constructor(char[] typeName, int argCount) {
+            if (argCount < 0) {
+                for (int i = 0; i <= MAX_UNKNOWN_ARITY; i += 1) {
+                    constructor(typeName, i);
+                }
+            } else if (seen.add("c:" + String.valueOf(typeName) + '/' + argCount)) {
+                indexer.addConstructorReference(typeName, argCount);
+            }
+        }
+
+        void propertyGet(char[] name) {
+            field(name);
+            accessor(AccessorSupport.GETTER, name);
+            accessor(AccessorSupport.ISSER, name);
+        }
+
+        void propertySet(char[] name) {
+            field(name);
+            accessor(AccessorSupport.SETTER, name);
+        }
+
+        void call(char[] name, int argCount) {
+            method(name, argCount);
+            // could be a field or property followed by a call operator
+            field(name);
+        }
+
+        private void accessor(AccessorSupport kind, char[] name) {
+            String accessorName = kind.createAccessorName(String.valueOf(name));
+            if (accessorName != null) {
+                method(accessorName.toCharArray(), kind == AccessorSupport.SETTER ? 1 : 0);
+            }
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class Decoder {
+        private final IClassFileReader reader;
+        private final References references;
+
+        private final Map<Integer, char[]> callSiteNames = new HashMap<>();
+        private final Set<Integer> callSitesUsed = new HashSet<>();
+        private IBootstrapMethodsEntry[] bootstrapMethods;
+
+        Decoder(byte[] contents, References references) throws ClassFormatException {
+            this.reader = new org.eclipse.jdt.internal.core.util.ClassFileReader(contents,
+                IClassFileReader.METHOD_INFOS | IClassFileReader.METHOD_BODIES | IClassFileReader.CLASSFILE_ATTRIBUTES);
+            this.references = references;
+        }
+
+        void decode() throws ClassFormatException {
+            for (IClassFileAttribute attribute : reader.getAttributes()) {
+                if (attribute instanceof IBootstrapMethodsAttribute) {
+                    bootstrapMethods = ((IBootstrapMethodsAttribute) attribute).getBootstrapMethods();
+                }
+            }
+
+            for (IMethodInfo method : reader.getMethodInfos()) {
+                if (method.getCodeAttribute() != null && CharOperation.prefixEquals(CREATE_CALL_SITE_ARRAY, method.getName())) {
+                    method.getCodeAttribute().traverse(new CallSiteNamesVisitor());
+                }
+            }
+            for (IMethodInfo method : reader.getMethodInfos()) {
+                if (method.getCodeAttribute() != null) {
+                    method.getCodeAttribute().traverse(new UsesVisitor());
+                }
+            }
+            // call sites whose invocation could not be matched
+            callSiteNames.forEach((index, name) -> {
+                if (!callSitesUsed.contains(index) && isIdentifier(name)) {
+                    references.call(name, -1);
+                }
+            });
+        }
+
+        /**
+         * Reads the name table built by {@code $createCallSiteArray_1(String[])},
+         * which is a sequence of {@code names[index] = "name"} assignments.
+         */
+        private class CallSiteNamesVisitor extends InstructionWindow {
+            @Override
+            protected void visitString(int pc, char[] value) {
+                Instruction index = previous(pc);
+                if (index != null && index.kind == Instruction.INT) {
+                    callSiteNames.put(index.value, value);
+                }
+            }
+        }
+
+        /**
+         * Matches each call site load {@code callSites[index]} with the
+         * {@code CallSite} invocation that consumes it to determine the kind of
+         * access and the number of arguments.  Call site uses are nested like
+         * the expressions they stem from, so a stack of pending uses suffices.
+         * Also records the names passed to the {@code ScriptBytecodeAdapter}
+         * method, property and field accessors and the {@code IndyInterface}
+         * call sites.
+         */
+        private class UsesVisitor extends InstructionWindow {
+            private final Set<Integer> callSiteLocals = new HashSet<>();
+            private final Deque<CallSiteUse> pending = new ArrayDeque<>();
+            private final Deque<ArgumentArray> arrays = new ArrayDeque<>();
+
+            @Override
+            protected void visitClass(int pc, char[] name) {
+                Instruction load = previous(pc);
+                if (load != null && load.kind == Instruction.AALOAD && !pending.isEmpty() && pending.peek().receiver == null) {
+                    pending.peek().receiver = name;
+                }
+            }
+
+            @Override
+            protected void visitAstore(int pc, int length, int local) {
+                Instruction call = previous(pc);
+                if (call != null && call.kind == Instruction.CALL_SITE_ARRAY) {
+                    callSiteLocals.add(local);
+                }
+                super.visitAstore(pc, length, local);
+            }
+
+            @Override
+            public void _aaload(int pc) {
+                Instruction index = previous(pc), array = beforePrevious(pc);
+                if (index != null && index.kind == Instruction.INT &&
+                        array != null && array.kind == Instruction.ALOAD && callSiteLocals.contains(array.value)) {
+                    pending.push(new CallSiteUse(index.value));
+                }
+                record(new Instruction(Instruction.AALOAD, pc, 1, 0, null));
+            }
+
+            @Override
+            public void _anewarray(int pc, int index, IConstantPoolEntry constantClass) {
+                if (CharOperation.equals(constantClass.getClassInfoName(), OBJECT_CLASS)) {
+                    Instruction size = previous(pc), name = beforePrevious(pc);
+                    arrays.push(new ArgumentArray(
+                        name != null && name.kind == Instruction.STRING ? name.text : null,
+                        size != null && size.kind == Instruction.INT ? size.value : -1));
+                }
+                record(new Instruction(Instruction.OTHER, pc, 3, 0, null));
+            }
+
+            @Override
+            public void _invokeinterface(int pc, int index, byte nargs, IConstantPoolEntry constantInterfaceMethodref) {
+                consumeArrays(constantInterfaceMethodref.getMethodDescriptor());
+                if (CharOperation.equals(constantInterfaceMethodref.getClassName(), CALL_SITE) && !pending.isEmpty()) {
+                    acceptCallSite(pending.pop(), constantInterfaceMethodref.getMethodName(), constantInterfaceMethodref.getMethodDescriptor());
+                }
+                record(new Instruction(Instruction.OTHER, pc, 5, 0, null));
+            }
+
+            @Override
+            public void _invokevirtual(int pc, int index, IConstantPoolEntry constantMethodref) {
+                consumeArrays(constantMethodref.getMethodDescriptor());
+                record(new Instruction(Instruction.OTHER, pc, 3, 0, null));
+            }
+
+            @Override
+            public void _invokespecial(int pc, int index, IConstantPoolEntry constantMethodref) {
+                consumeArrays(constantMethodref.getMethodDescriptor());
+                record(new Instruction(Instruction.OTHER, pc, 3, 0, null));
+            }
+
+            @Override
+            public void _invokedynamic(int pc, int index, IConstantPoolEntry invokeDynamic) {
+                consumeArrays(invokeDynamic.getMethodDescriptor());
+                acceptIndy((IConstantPoolEntry2) invokeDynamic);
+                record(new Instruction(Instruction.OTHER, pc, 5, 0, null));
+            }
+
+            @Override
+            public void _invokestatic(int pc, int index, IConstantPoolEntry constantMethodref) {
+                ArgumentArray array = consumeArrays(constantMethodref.getMethodDescriptor());
+                String method = String.valueOf(constantMethodref.getMethodName());
+                int kind = Instruction.OTHER;
+                if (method.equals(GET_CALL_SITE_ARRAY)) {
+                    kind = Instruction.CALL_SITE_ARRAY;
+                } else if (CharOperation.equals(constantMethodref.getClassName(), SCRIPT_BYTECODE_ADAPTER)) {
+                    Instruction name = previous(pc);
+                    if (array != null) {
+                        // name, argument array: invokeMethodN, invokeMethodOnCurrentN, invokeMethodOnSuperN, ...
+                        if (array.name != null && method.startsWith("invoke") && method.contains("Method") && isIdentifier(array.name)) {
+                            references.call(array.name, array.size);
+                        }
+                    } else if (name != null && name.kind == Instruction.STRING) {
+                        acceptAdapter(method, name.text);
                     }
                 }
+                record(new Instruction(kind, pc, 3, 0, null));
+            }
+
+            /**
+             * Pops the argument arrays consumed by an invocation and, if it returns
+             * an array (e.g. {@code despreadList}), pushes the array it returns.
+             *
+             * @return the first array parameter or {@code null} if the invoked
+             *     method has no {@code Object[]} parameter
+             */
+            private ArgumentArray consumeArrays(char[] descriptor) {
+                ArgumentArray array = null;
+                char[][] parameters = Signature.getParameterTypes(descriptor);
+                for (int i = parameters.length - 1; i >= 0; i -= 1) {
+                    if (CharOperation.equals(parameters[i], OBJECT_ARRAY)) {
+                        array = (arrays.isEmpty() ? new ArgumentArray(null, -1) : arrays.pop());
+                    }
+                }
+                if (CharOperation.equals(Signature.getReturnType(descriptor), OBJECT_ARRAY)) {
+                    arrays.push(new ArgumentArray(array != null ? array.name : null, -1));
+                }
+                return array;
+            }
+        }
+
+        //----------------------------------------------------------------------
+
+        private void acceptCallSite(CallSiteUse use, char[] method, char[] descriptor) {
+            char[] name = callSiteNames.get(use.index);
+            if (name == null) {
+                return;
+            }
+            callSitesUsed.add(use.index);
+
+            String kind = String.valueOf(method);
+            if (kind.startsWith("callConstructor")) {
+                if (use.receiver != null) {
+                    references.constructor(typeName(use.receiver), argumentCount(descriptor));
+                }
+            } else if (isIdentifier(name)) {
+                if (kind.contains("GetProperty")) {
+                    references.propertyGet(name);
+                } else {
+                    references.call(name, argumentCount(descriptor));
+                }
+            }
+        }
+
+        private void acceptAdapter(String method, char[] name) {
+            if (!isIdentifier(name)) {
+                return;
+            }
+            if (method.startsWith("invoke") && method.contains("Method") && method.contains("0")) {
+                // name last: invokeMethod0, invokeMethodOnCurrent0, invokeMethodOnSuper0, ...
+                references.call(name, 0);
+            } else if (method.contains("Field")) {
+                references.field(name);
+            } else if (method.contains("Property")) {
+                if (method.startsWith("set")) {
+                    references.propertySet(name);
+                } else if (method.startsWith("get")) {
+                    references.propertyGet(name);
+                }
+            }
+        }
+
+        /**
+         * Accepts an {@code invokedynamic} call site bootstrapped by Groovy's
+         * {@code IndyInterface}: the call site's name is the call type and the
+         * first bootstrap argument is the method or property name.
+         */
+        private void acceptIndy(IConstantPoolEntry2 invokeDynamic) {
+            if (bootstrapMethods == null) {
+                return;
+            }
+            IConstantPool constantPool = reader.getConstantPool();
+            IBootstrapMethodsEntry bootstrapMethod = bootstrapMethods[invokeDynamic.getBootstrapMethodAttributeIndex()];
+            IConstantPoolEntry2 methodHandle = (IConstantPoolEntry2) constantPool.decodeEntry(bootstrapMethod.getBootstrapMethodReference());
+            int[] arguments = bootstrapMethod.getBootstrapArguments();
+            if (!CharOperation.endsWith(constantPool.decodeEntry(methodHandle.getReferenceIndex()).getClassName(), INDY_INTERFACE) ||
+                    arguments.length < 1 || constantPool.getEntryKind(arguments[0]) != IConstantPoolConstant.CONSTANT_String) {
+                return;
+            }
+            char[] name = constantPool.decodeEntry(arguments[0]).getStringValue().toCharArray();
+            String callType = String.valueOf(invokeDynamic.getMethodName());
+            char[] descriptor = invokeDynamic.getMethodDescriptor();
+
+            if (callType.equals("init")) {
+                char[] type = Signature.getReturnType(descriptor);
+                if (type[0] == 'L' && !CharOperation.equals(type, OBJECT)) {
+                    references.constructor(typeName(CharOperation.subarray(type, 1, type.length - 1)), argumentCount(descriptor));
+                }
+            } else if (isIdentifier(name)) {
+                if (callType.startsWith("invoke")) {
+                    references.call(name, argumentCount(descriptor));
+                } else if (callType.equals("getProperty")) {
+                    references.propertyGet(name);
+                } else if (callType.equals("setProperty")) {
+                    references.propertySet(name);
+                }
             }
         }
-        return refs;
     }
 
-    private boolean isValidId(char[] strConst) {
-        if (strConst == null || strConst.length == 0) {
-            return false;
+    //--------------------------------------------------------------------------
+
+    /**
+     * Remembers the last two instructions that push an int, a string or a class
+     * constant, load a local or an array element, store a local or invoke a
+     * method.  Since every other instruction is skipped, an instruction counts
+     * as the previous one only if it ends where the current one starts.
+     */
+    private static abstract class InstructionWindow extends ByteCodeVisitorAdapter {
+        private Instruction previous, beforePrevious;
+
+        protected Instruction previous(int pc) {
+            return (previous != null && previous.next == pc ? previous : null);
+        }
+
+        protected Instruction beforePrevious(int pc) {
+            Instruction instruction = previous(pc);
+            return (instruction != null && beforePrevious != null && beforePrevious.next == instruction.pc ? beforePrevious : null);
+        }
+
+        protected void record(Instruction instruction) {
+            beforePrevious = previous;
+            previous = instruction;
+        }
+
+        protected void visitString(int pc, char[] value) {
+        }
+
+        protected void visitClass(int pc, char[] name) {
+        }
+
+        protected void visitAstore(int pc, int length, int local) {
+            record(new Instruction(Instruction.OTHER, pc, length, local, null));
+        }
+
+        private void constant(int pc, int length, int value) {
+            record(new Instruction(Instruction.INT, pc, length, value, null));
+        }
+
+        private void ldc(int pc, int length, IConstantPoolEntry constant) {
+            switch (constant.getKind()) {
+            case IConstantPoolConstant.CONSTANT_Integer:
+                constant(pc, length, constant.getIntegerValue());
+                break;
+            case IConstantPoolConstant.CONSTANT_String:
+                char[] value = constant.getStringValue().toCharArray();
+                visitString(pc, value);
+                record(new Instruction(Instruction.STRING, pc, length, 0, value));
+                break;
+            case IConstantPoolConstant.CONSTANT_Class:
+                visitClass(pc, constant.getClassInfoName());
+                record(new Instruction(Instruction.OTHER, pc, length, 0, null));
+                break;
+            default:
+                record(new Instruction(Instruction.OTHER, pc, length, 0, null));
+            }
+        }
+
+        @Override
+        public void _iconst_m1(int pc) {
+            constant(pc, 1, -1);
+        }
+
+        @Override
+        public void _iconst_0(int pc) {
+            constant(pc, 1, 0);
+        }
+
+        @Override
+        public void _iconst_1(int pc) {
+            constant(pc, 1, 1);
+        }
+
+        @Override
+        public void _iconst_2(int pc) {
+            constant(pc, 1, 2);
+        }
+
+        @Override
+        public void _iconst_3(int pc) {
+            constant(pc, 1, 3);
+        }
+
+        @Override
+        public void _iconst_4(int pc) {
+            constant(pc, 1, 4);
+        }
+
+        @Override
+        public void _iconst_5(int pc) {
+            constant(pc, 1, 5);
+        }
+
+        @Override
+        public void _bipush(int pc, byte _byte) {
+            constant(pc, 2, _byte);
+        }
+
+        @Override
+        public void _sipush(int pc, short value) {
+            constant(pc, 3, value);
         }
-        if (!(Character.isJavaIdentifierStart(strConst[0]) || strConst[0] == '.') || strConst[0] == '$') {
+
+        @Override
+        public void _ldc(int pc, int index, IConstantPoolEntry constantPoolEntry) {
+            ldc(pc, 2, constantPoolEntry);
+        }
+
+        @Override
+        public void _ldc_w(int pc, int index, IConstantPoolEntry constantPoolEntry) {
+            ldc(pc, 3, constantPoolEntry);
+        }
+
+        @Override
+        public void _aload(int pc, int index) {
+            record(new Instruction(Instruction.ALOAD, pc, 2, index, null));
+        }
+
+        @Override
+        public void _aload_0(int pc) {
+            record(new Instruction(Instruction.ALOAD, pc, 1, 0, null));
+        }
+
+        @Override
+        public void _aload_1(int pc) {
+            record(new Instruction(Instruction.ALOAD, pc, 1, 1, null));
+        }
+
+        @Override
+        public void _aload_2(int pc) {
+            record(new Instruction(Instruction.ALOAD, pc, 1, 2, null));
+        }
+
+        @Override
+        public void _aload_3(int pc) {
+            record(new Instruction(Instruction.ALOAD, pc, 1, 3, null));
+        }
+
+        @Override
+        public void _aaload(int pc) {
+            record(new Instruction(Instruction.AALOAD, pc, 1, 0, null));
+        }
+
+        @Override
+        public void _astore(int pc, int index) {
+            visitAstore(pc, 2, index);
+        }
+
+        @Override
+        public void _astore_0(int pc) {
+            visitAstore(pc, 1, 0);
+        }
+
+        @Override
+        public void _astore_1(int pc) {
+            visitAstore(pc, 1, 1);
+        }
+
+        @Override
+        public void _astore_2(int pc) {
+            visitAstore(pc, 1, 2);
+        }
+
+        @Override
+        public void _astore_3(int pc) {
+            visitAstore(pc, 1, 3);
+        }
+    }
+
+    private static class Instruction {
+        static final int OTHER = 0, INT = 1, STRING = 2, ALOAD = 3, AALOAD = 4, CALL_SITE_ARRAY = 5;
+
+        final int kind, pc, next, value;
+        final char[] text;
+
+        Instruction(int kind, int pc, int length, int value, char[] text) {
+            this.kind = kind;
+            this.pc = pc;
+            this.next = pc + length;
+            this.value = value;
+            this.text = text;
+        }
+    }
+
+    private static class CallSiteUse {
+        final int index;
+        /** Class constant loaded after the call site, the receiver of a constructor call. */
+        char[] receiver;
+
+        CallSiteUse(int index) {
+            this.index = index;
+        }
+    }
+
+    /** An {@code Object[]} under construction and the name that was loaded before it. */
+    private static class ArgumentArray {
+        final char[] name;
+        final int size;
+
+        ArgumentArray(char[] name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static boolean isIdentifier(char[] name) {
+        if (name == null || name.length == 0 || !Character.isJavaIdentifierStart(name[0]) || name[0] == '$') {
             return false;
         }
-        for (int i = 1; i < strConst.length; i++) {
-            if (!(Character.isJavaIdentifierPart(strConst[i]) || strConst[i] == '.') || strConst[i] == '$') {
+        for (int i = 1; i < name.length; i += 1) {
+            if (!Character.isJavaIdentifierPart(name[i])) {
                 return false;
             }
         }
         return true;
     }
 
-    private char[] extractStringConstant(int[] constantPoolOffsets, ClassFileReader reader, int index) {
-        int strlen = reader.u2At(constantPoolOffsets[index] + 1); // / +1 for the tag type
-        int strstart = constantPoolOffsets[index] + 3; // +1 for the tag type and +2 for the strlen
-        return reader.utf8At(strstart, strlen);
+    /**
+     * @return number of arguments of a call through a method whose first
+     *     parameter is the receiver or -1 if the arguments are passed as array
+     */
+    private static int argumentCount(char[] descriptor) {
+        char[][] parameters = Signature.getParameterTypes(descriptor);
+        if (parameters.length > 1 && CharOperation.equals(parameters[parameters.length - 1], OBJECT_ARRAY)) {
+            return -1;
+        }
+        return Math.max(0, parameters.length - 1);
+    }
+
+    private static char[] typeName(char[] internalName) {
+        return CharOperation.replaceOnCopy(internalName, '/', '.');
     }
 }
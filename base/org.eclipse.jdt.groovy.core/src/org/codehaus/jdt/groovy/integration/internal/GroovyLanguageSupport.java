@@ -49,7 +49,7 @@ import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclar
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyErrorCollectorForJDT;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyTypeDeclaration;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
-import org.codehaus.jdt.groovy.model.GroovyClassFileWorkingCopy;
+import org.codehaus.jdt.groovy.model.BinaryWorkingCopyCache;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IFile;
@@ -407,7 +407,7 @@ public class GroovyLanguageSupport implements LanguageSupport {
     @Override
     public IJavaElement[] binaryCodeSelect(ClassFile classFile, int offset, int length, WorkingCopyOwner owner)
             throws JavaModelException {
-        GroovyCompilationUnit binaryUnit = new GroovyClassFileWorkingCopy(classFile, owner);
+        GroovyCompilationUnit binaryUnit = BinaryWorkingCopyCache.getInstance().get(classFile, owner);
         return binaryUnit.codeSelect(offset, length, owner);
     }
 
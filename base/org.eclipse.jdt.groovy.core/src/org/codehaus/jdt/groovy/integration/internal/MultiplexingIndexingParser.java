@@ -17,6 +17,8 @@ package org.codehaus.jdt.groovy.integration.internal;
 
 import java.util.Collections;
 
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyCompilationUnitDeclaration;
 import org.codehaus.jdt.groovy.internal.compiler.ast.GroovyParser;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -63,22 +65,27 @@ public class MultiplexingIndexingParser extends IndexingParser {
             // 2) parsing is for the entire CU (ie- from character 0, to unit.getContents().length)
             // 3) nodesToCategories map is not necessary. I think it has something to do with JavaDoc, but not sure
 
-            CompilationResult compilationResult = new CompilationResult(unit, 0, 0, options.maxProblemsPerUnit);
+            long span = GroovyLogManager.manager.startSpan();
+            try {
+                CompilationResult compilationResult = new CompilationResult(unit, 0, 0, options.maxProblemsPerUnit);
 
-            // FIXASC Is it ok to use a new parser here everytime? If we don't we sometimes recurse back into the first one
-            GroovyCompilationUnitDeclaration cud = new GroovyParser(options, problemReporter, false, true).dietParse(unit, compilationResult);
+                // FIXASC Is it ok to use a new parser here everytime? If we don't we sometimes recurse back into the first one
+                GroovyCompilationUnitDeclaration cud = new GroovyParser(options, problemReporter, false, true).dietParse(unit, compilationResult);
 
-            if (cud.getModuleNode() != null) {
-                try {
-                    GroovyIndexingVisitor visitor = new GroovyIndexingVisitor(requestor);
-                    visitor.visitModule(cud.getModuleNode());
-                } catch (RuntimeException e) {
-                    Util.log(e);
+                if (cud.getModuleNode() != null) {
+                    try {
+                        GroovyIndexingVisitor visitor = new GroovyIndexingVisitor(requestor);
+                        visitor.visitModule(cud.getModuleNode());
+                    } catch (RuntimeException e) {
+                        Util.log(e);
+                    }
                 }
-            }
 
-            notifier.notifySourceElementRequestor(cud, 0, unit.getContents().length, groovyReportReferenceInfo, cud.sourceEnds, Collections.EMPTY_MAP);
-            return cud;
+                notifier.notifySourceElementRequestor(cud, 0, unit.getContents().length, groovyReportReferenceInfo, cud.sourceEnds, Collections.EMPTY_MAP);
+                return cud;
+            } finally {
+                GroovyLogManager.manager.endSpan(TraceCategory.INDEXING, span);
+            }
         }
     }
 }
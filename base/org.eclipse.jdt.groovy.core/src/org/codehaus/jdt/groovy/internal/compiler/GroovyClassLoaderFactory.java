@@ -38,6 +38,7 @@ import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.runtime.m12n.ExtensionModuleScanner;
 import org.codehaus.groovy.runtime.m12n.SimpleExtensionModule;
+import org.codehaus.groovy.transform.ASTTransformationVisitor;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -69,6 +70,7 @@ public final class GroovyClassLoaderFactory {
 
     public static void clearCache() {
         projectClassLoaderCache.clear(); // TODO: Close class loaders?
+        ASTTransformationVisitor.clearGlobalTransformCache();
     }
 
     public static void clearCache(String projectName) {
@@ -88,6 +90,7 @@ public final class GroovyClassLoaderFactory {
         }
         if (classLoader instanceof GroovyClassLoader) {
             ((GroovyClassLoader) classLoader).clearCache();
+            ASTTransformationVisitor.clearGlobalTransformCache(classLoader);
             // parent was created by newClassLoader(...)
             close(classLoader.getParent());
         }
@@ -163,7 +166,9 @@ public final class GroovyClassLoaderFactory {
                 return entry.getValue();
             } else {
                 // project classpath has changed; remove and reload
-                projectClassLoaderCache.remove(projectName);
+                if (projectClassLoaderCache.remove(projectName, entry)) {
+                    ASTTransformationVisitor.clearGlobalTransformCache(entry.getValue()[1]);
+                }
                 return getProjectGroovyClassLoaders(compilerConfiguration);
             }
         } catch (Exception e) {
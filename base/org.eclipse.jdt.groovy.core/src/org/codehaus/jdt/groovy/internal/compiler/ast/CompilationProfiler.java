@@ -0,0 +1,159 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.internal.compiler.ast;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.codehaus.groovy.control.CompilationUnit;
+import org.codehaus.groovy.control.Phases;
+import org.codehaus.groovy.control.SourceUnit;
+import org.eclipse.jdt.internal.core.util.Util;
+
+/**
+ * Records wall time, CPU time and allocated bytes of each compiler phase and
+ * AST transform for each source unit.  Times are exclusive: a phase operation
+ * is charged only for the time not spent in the transforms it runs.
+ * <p>
+ * The report is written as comma-separated values with the columns
+ * {@code source,phase,operation,count,wallNanos,cpuNanos,allocatedBytes};
+ * {@code operation} is empty for the phase itself.  Rows are appended, so a
+ * report can accumulate several builds.
+ */
+public class CompilationProfiler implements CompilationUnit.Profiler {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Method ALLOCATED_BYTES;
+    static {
+        Method method = null;
+        try {
+            // com.sun.management is not visible to bundles; load it from the system class loader
+            Class<?> type = ClassLoader.getSystemClassLoader().loadClass("com.sun.management.ThreadMXBean");
+            if (type.isInstance(THREADS)) {
+                method = type.getMethod("getThreadAllocatedBytes", long.class);
+            }
+        } catch (Exception | LinkageError ignore) {
+        }
+        ALLOCATED_BYTES = method;
+    }
+
+    /** wall, cpu, allocated at entry followed by the totals of nested operations */
+    private final Deque<long[]> frames = new ArrayDeque<>();
+
+    private final Map<String, long[]> totals = new LinkedHashMap<>();
+
+    private final File reportFile;
+
+    private final LongSupplier wallClock, cpuClock, allocationCounter;
+
+    public CompilationProfiler(File reportFile) {
+        this(reportFile, System::nanoTime, CompilationProfiler::cpuTime, CompilationProfiler::allocatedBytes);
+    }
+
+    /**
+     * @param wallClock source of wall time in nanoseconds
+     * @param cpuClock source of the current thread's CPU time in nanoseconds
+     * @param allocationCounter source of the current thread's allocated bytes
+     */
+    public CompilationProfiler(File reportFile, LongSupplier wallClock, LongSupplier cpuClock, LongSupplier allocationCounter) {
+        this.reportFile = reportFile;
+        this.wallClock = wallClock;
+        this.cpuClock = cpuClock;
+        this.allocationCounter = allocationCounter;
+    }
+
+    @Override
+    public void enter() {
+        frames.push(new long[] {wallClock.getAsLong(), cpuClock.getAsLong(), allocationCounter.getAsLong(), 0, 0, 0});
+    }
+
+    @Override
+    public void exit(int phase, String operation, SourceUnit source) {
+        long[] frame = frames.pop();
+        long wall = wallClock.getAsLong() - frame[0], cpu = cpuClock.getAsLong() - frame[1], bytes = allocationCounter.getAsLong() - frame[2];
+
+        long[] outer = frames.peek();
+        if (outer != null) {
+            outer[3] += wall;
+            outer[4] += cpu;
+            outer[5] += bytes;
+        }
+
+        String key = String.join(",", quote(source != null ? source.getName() : ""), quote(Phases.getDescription(phase)), quote(operation != null ? operation : ""));
+        long[] total = totals.computeIfAbsent(key, k -> new long[4]);
+        total[0] += 1;
+        total[1] += wall - frame[3];
+        total[2] += cpu - frame[4];
+        total[3] += bytes - frame[5];
+    }
+
+    /**
+     * Appends the recorded measurements to the report file and clears them.
+     */
+    public void writeReport() {
+        if (totals.isEmpty()) {
+            return;
+        }
+        boolean header = (!reportFile.exists() || reportFile.length() == 0);
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(reportFile, true), StandardCharsets.UTF_8))) {
+            if (header) {
+                out.println("source,phase,operation,count,wallNanos,cpuNanos,allocatedBytes");
+            }
+            for (Map.Entry<String, long[]> entry : totals.entrySet()) {
+                long[] total = entry.getValue();
+                out.println(entry.getKey() + ',' + total[0] + ',' + total[1] + ',' + total[2] + ',' + total[3]);
+            }
+        } catch (IOException e) {
+            Util.log(e, "Failed to write Groovy compiler profile " + reportFile);
+        }
+        totals.clear();
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static long cpuTime() {
+        return (THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0L);
+    }
+
+    private static long allocatedBytes() {
+        if (ALLOCATED_BYTES != null) {
+            try {
+                return (Long) ALLOCATED_BYTES.invoke(THREADS, Thread.currentThread().getId());
+            } catch (Exception ignore) {
+            }
+        }
+        return 0L;
+    }
+
+    private static String quote(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.codehaus.jdt.groovy.internal.compiler.ast;
 
+import java.io.File;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,6 +29,8 @@ import org.codehaus.groovy.control.CompilationUnit.ProgressListener;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.Phases;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.jdt.groovy.control.EclipseSourceUnit;
 import org.codehaus.jdt.groovy.integration.internal.GroovyLanguageSupport;
 import org.codehaus.jdt.groovy.internal.compiler.GroovyClassLoaderFactory;
@@ -124,11 +127,17 @@ public class GroovyParser {
             this.resolver = new JDTResolver(unit);
             unit.setResolveVisitor(resolver);
             unit.tweak(isReconcile);
+            if (!isReconcile && compilerOptions.groovyProfileReport != null) {
+                unit.setProfiler(new CompilationProfiler(new File(compilerOptions.groovyProfileReport)));
+            }
             return unit;
         };
     }
 
     public void reset() {
+        if (compilationUnit != null && compilationUnit.getProfiler() instanceof CompilationProfiler) {
+            ((CompilationProfiler) compilationUnit.getProfiler()).writeReport();
+        }
         compilationUnit = null;
         resolver = null;
     }
@@ -197,7 +206,12 @@ public class GroovyParser {
         GroovyCompilationUnitDeclaration gcuDeclaration = new GroovyCompilationUnitDeclaration(
             problemReporter, compilationResult, sourceCode.length, compilationUnit, sourceUnit, compilerOptions);
 
-        gcuDeclaration.processToPhase(Phases.CONVERSION);
+        long span = GroovyLogManager.manager.startSpan();
+        try {
+            gcuDeclaration.processToPhase(Phases.CONVERSION);
+        } finally {
+            GroovyLogManager.manager.endSpan(TraceCategory.PARSE, span);
+        }
 
         // ModuleNode is null when there is a fatal error
         if (gcuDeclaration.getModuleNode() != null) {
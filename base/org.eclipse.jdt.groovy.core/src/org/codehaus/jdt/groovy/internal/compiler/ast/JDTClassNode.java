@@ -87,6 +87,10 @@ import org.eclipse.jdt.internal.compiler.problem.AbortCompilation;
  * required (as Groovy references to Java files are resolved). They remain unset
  * until Groovy starts digging into them. At that time the details are filled in
  * (eg. members).
+ * <p>
+ * The methods and fields of a binary type are converted by name, so that only
+ * the members that Groovy code refers to are built for large library types;
+ * enumerating the methods, fields or constructors converts all of them.
  */
 public class JDTClassNode extends ClassNode implements JDTNode {
 
@@ -94,6 +98,17 @@ public class JDTClassNode extends ClassNode implements JDTNode {
     private boolean beingInitialized;
     private boolean anyGenericsInitialized;
 
+    /**
+     * Members of binary types are converted by name as they are requested;
+     * all of them are converted when the members are enumerated.  Members are
+     * only added while holding {@code lazyInitLock}, so lookups read them under
+     * the lock until {@code membersInitialized} is set; after that the members
+     * no longer change.
+     */
+    private volatile boolean membersInitialized;
+    private boolean membersBeingInitialized;
+    private Set<String> methodNamesInitialized, fieldNamesInitialized;
+
     private GroovyTypeDeclaration groovyTypeDecl;
 
     /** The binding which this JDTClassNode represents */
@@ -199,25 +214,112 @@ public class JDTClassNode extends ClassNode implements JDTNode {
             }
             setInterfaces(interfaces);
 
-            initializeMembers();
+            if (jdtBinding instanceof SourceTypeBinding) {
+                SourceTypeBinding sourceTypeBinding = (SourceTypeBinding) jdtBinding;
+                if (sourceTypeBinding.scope != null) {
+                    TypeDeclaration typeDecl = sourceTypeBinding.scope.referenceContext;
+                    if (typeDecl instanceof GroovyTypeDeclaration) {
+                        groovyTypeDecl = (GroovyTypeDeclaration) typeDecl;
+                    }
+                }
+            }
+
+            if (!isBinaryType()) {
+                initializeMembers();
+            }
         } finally {
             beingInitialized = false;
         }
     }
 
-    private void initializeMembers() {
-        if (jdtBinding instanceof SourceTypeBinding) {
-            SourceTypeBinding sourceTypeBinding = (SourceTypeBinding) jdtBinding;
-            if (sourceTypeBinding.scope != null) {
-                TypeDeclaration typeDecl = sourceTypeBinding.scope.referenceContext;
-                if (typeDecl instanceof GroovyTypeDeclaration) {
-                    groovyTypeDecl = (GroovyTypeDeclaration) typeDecl;
+    /**
+     * Determines if members are converted by name, which is supported for
+     * binary types (and parameterizations of them).
+     */
+    private boolean isBinaryType() {
+        return (getMembersBinding() instanceof BinaryTypeBinding);
+    }
+
+    private ReferenceBinding getMembersBinding() {
+        if (jdtBinding instanceof ParameterizedTypeBinding) {
+            return ((ParameterizedTypeBinding) jdtBinding).genericType();
+        }
+        return jdtBinding;
+    }
+
+    private void ensureMembersInitialized() {
+        if (membersInitialized || isRedirectNode()) {
+            return;
+        }
+        lazyClassInit();
+        synchronized (lazyInitLock) {
+            initializeMembers();
+        }
+    }
+
+    /**
+     * Converts the methods with the given name.  Callers must hold {@code lazyInitLock}.
+     */
+    private void initializeMethods(String name) {
+        if (membersInitialized || membersBeingInitialized) {
+            return;
+        }
+        if (!isBinaryType()) {
+            initializeMembers();
+            return;
+        }
+        if (methodNamesInitialized == null) {
+            methodNamesInitialized = new HashSet<>();
+        }
+        if (methodNamesInitialized.add(name)) {
+            try {
+                char[] selector = name.toCharArray();
+                for (MethodBinding methodBinding : getMembersBinding().getMethods(selector)) {
+                    if (!methodBinding.isConstructor()) {
+                        addMethod(methodBindingToMethodNode(methodBinding));
+                    }
+                }
+                if (jdtBinding instanceof BinaryTypeBinding) {
+                    for (MethodBinding methodBinding : ((BinaryTypeBinding) jdtBinding).infraMethods()) {
+                        if (!methodBinding.isConstructor() && CharOperation.equals(selector, methodBinding.selector)) {
+                            addMethod(methodBindingToMethodNode(methodBinding));
+                        }
+                    }
                 }
+            } catch (AbortCompilation e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Failed to initialize methods named " + name + " for type " + getName(), e);
             }
         }
+    }
 
-        // We do this here rather than at the start of the method because
-        // the preceding code sets 'groovyDecl', later used to 'initializeProperties'.
+    /**
+     * Converts the field with the given name.  Callers must hold {@code lazyInitLock}.
+     */
+    private void initializeField(String name) {
+        if (membersInitialized || membersBeingInitialized) {
+            return;
+        }
+        if (!isBinaryType()) {
+            initializeMembers();
+            return;
+        }
+        if (fieldNamesInitialized == null) {
+            fieldNamesInitialized = new HashSet<>();
+        }
+        if (fieldNamesInitialized.add(name)) {
+            FieldBinding fieldBinding = getMembersBinding().getField(name.toCharArray(), true);
+            if (fieldBinding != null) {
+                addField(fieldBindingToFieldNode(fieldBinding, groovyTypeDecl));
+            }
+        }
+    }
+
+    private void initializeMembers() {
+        if (membersInitialized || membersBeingInitialized) {
+            return;
+        }
 
         // From this point onward... the code is only about initializing fields, constructors and methods.
         if (isRedirectNode()) {
@@ -231,19 +333,15 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         }
 
         try {
-            MethodBinding[] methodBindings;
-            if (jdtBinding instanceof ParameterizedTypeBinding) {
-                ReferenceBinding genericType = ((ParameterizedTypeBinding) jdtBinding).genericType();
-                methodBindings = genericType.methods();
-            } else {
-                methodBindings = jdtBinding.methods();
-            }
+            membersBeingInitialized = true;
+
+            MethodBinding[] methodBindings = getMembersBinding().methods();
             if (methodBindings != null) {
                 for (MethodBinding methodBinding : methodBindings) {
                     if (methodBinding.isConstructor()) {
                         ConstructorNode cNode = constructorBindingToConstructorNode(methodBinding);
                         addConstructor(cNode);
-                    } else {
+                    } else if (!isMethodInitialized(methodBinding)) {
                         MethodNode mNode = methodBindingToMethodNode(methodBinding);
                         addMethod(mNode);
                     }
@@ -256,7 +354,7 @@ public class JDTClassNode extends ClassNode implements JDTNode {
                     if (methodBinding.isConstructor()) {
                         ConstructorNode cNode = constructorBindingToConstructorNode(methodBinding);
                         addConstructor(cNode);
-                    } else {
+                    } else if (!isMethodInitialized(methodBinding)) {
                         MethodNode mNode = methodBindingToMethodNode(methodBinding);
                         addMethod(mNode);
                     }
@@ -288,25 +386,32 @@ public class JDTClassNode extends ClassNode implements JDTNode {
                 }
             }
 
-            FieldBinding[] fieldBindings;
-            if (jdtBinding instanceof ParameterizedTypeBinding) {
-                fieldBindings = ((ParameterizedTypeBinding) jdtBinding).genericType().fields();
-            } else {
-                fieldBindings = jdtBinding.fields();
-            }
+            FieldBinding[] fieldBindings = getMembersBinding().fields();
             if (fieldBindings != null) {
                 for (FieldBinding fieldBinding : fieldBindings) {
-                    FieldNode fNode = fieldBindingToFieldNode(fieldBinding, groovyTypeDecl);
-                    addField(fNode);
+                    if (fieldNamesInitialized == null || !fieldNamesInitialized.contains(String.valueOf(fieldBinding.name))) {
+                        FieldNode fNode = fieldBindingToFieldNode(fieldBinding, groovyTypeDecl);
+                        addField(fNode);
+                    }
                 }
             }
+
+            membersInitialized = true;
+            methodNamesInitialized = null;
+            fieldNamesInitialized = null;
         } catch (AbortCompilation e) {
             throw e;
         } catch (RuntimeException e) {
             throw new RuntimeException("Failed to initialize members for type " + getName(), e);
+        } finally {
+            membersBeingInitialized = false;
         }
     }
 
+    private boolean isMethodInitialized(MethodBinding methodBinding) {
+        return (methodNamesInitialized != null && methodNamesInitialized.contains(String.valueOf(methodBinding.selector)));
+    }
+
     private MethodNode methodBindingToMethodNode(MethodBinding methodBinding) {
         try {
             int modifiers = methodBinding.modifiers;
@@ -473,6 +578,55 @@ public class JDTClassNode extends ClassNode implements JDTNode {
         return getName().replace('.', '/');
     }
 
+    @Override
+    public List<MethodNode> getMethods() {
+        ensureMembersInitialized();
+        return super.getMethods();
+    }
+
+    @Override
+    public List<MethodNode> getDeclaredMethods(String name) {
+        if (!membersInitialized && !isRedirectNode()) {
+            lazyClassInit();
+            // other names may be converted concurrently; read the method index under the lock
+            synchronized (lazyInitLock) {
+                initializeMethods(name);
+                return super.getDeclaredMethods(name);
+            }
+        }
+        return super.getDeclaredMethods(name);
+    }
+
+    @Override
+    public List<ConstructorNode> getDeclaredConstructors() {
+        ensureMembersInitialized();
+        return super.getDeclaredConstructors();
+    }
+
+    @Override
+    public List<FieldNode> getFields() {
+        ensureMembersInitialized();
+        return super.getFields();
+    }
+
+    @Override
+    public FieldNode getDeclaredField(String name) {
+        if (!membersInitialized && !isRedirectNode()) {
+            lazyClassInit();
+            // other names may be converted concurrently; read the field index under the lock
+            synchronized (lazyInitLock) {
+                initializeField(name);
+                return super.getDeclaredField(name);
+            }
+        }
+        return super.getDeclaredField(name);
+    }
+
+    @Override // methods are added only while populating
+    protected boolean invalidatesMethodTables() {
+        return false;
+    }
+
     @Override
     public List<AnnotationNode> getAnnotations() {
         if ((bits & ANNOTATIONS_INITIALIZED) == 0) {
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.jdt.groovy.model;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.WorkingCopyOwner;
+import org.eclipse.jdt.internal.core.ClassFile;
+import org.eclipse.jdt.internal.core.DefaultWorkingCopyOwner;
+import org.eclipse.jdt.internal.core.JavaModel;
+
+/**
+ * Keeps the most recently used {@link GroovyClassFileWorkingCopy}s, so that
+ * repeated code selects and hovers in an attached-source class file reuse
+ * its parsed and resolved module node.  Each entry is stamped with the
+ * modification time of the source attachment; entries are evicted when the
+ * classpath of the owning project or a source attachment changes.
+ * <p>
+ * Each cached working copy holds its module node and the resolver and lookup
+ * environment used to build it, which can amount to several megabytes for a
+ * large source attachment.  To bound that cost, the cache holds at most
+ * {@value #MAX_ENTRIES} working copies and releases the module node and
+ * element info of every working copy it evicts or replaces.  A caller that
+ * still holds an evicted working copy may keep using it; it is reopened on
+ * demand.
+ */
+public class BinaryWorkingCopyCache {
+
+    private static final int MAX_ENTRIES = 8;
+
+    private static BinaryWorkingCopyCache instance;
+
+    public static synchronized BinaryWorkingCopyCache getInstance() {
+        if (instance == null) {
+            instance = new BinaryWorkingCopyCache();
+            JavaCore.addElementChangedListener(instance.listener, ElementChangedEvent.POST_CHANGE);
+        }
+        return instance;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final Map<Key, Entry> entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            if (size() > MAX_ENTRIES) {
+                evicted.add(eldest.getValue().workingCopy);
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /** Working copies removed from {@link #entries} that are yet to be released; guarded by {@code entries}. */
+    private final List<GroovyClassFileWorkingCopy> evicted = new ArrayList<>();
+
+    private final IElementChangedListener listener = this::elementChanged;
+
+    private BinaryWorkingCopyCache() {
+    }
+
+    /**
+     * Returns a working copy for the class file, reusing the cached one if the
+     * source attachment has not changed since it was created.
+     */
+    public GroovyClassFileWorkingCopy get(ClassFile classFile, WorkingCopyOwner owner) {
+        if (owner == null) owner = DefaultWorkingCopyOwner.PRIMARY;
+        long stamp = attachmentStamp(classFile);
+        if (stamp == IResource.NULL_STAMP) {
+            return new GroovyClassFileWorkingCopy(classFile, owner);
+        }
+
+        Key key = new Key(classFile, owner);
+        GroovyClassFileWorkingCopy workingCopy;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.stamp == stamp) {
+                return entry.workingCopy;
+            }
+            if (entry != null) {
+                evicted.add(entry.workingCopy);
+            }
+            // construction is cheap; parsing happens on first use of the working copy
+            workingCopy = new GroovyClassFileWorkingCopy(classFile, owner);
+            entries.put(key, new Entry(workingCopy, stamp));
+        }
+        releaseEvicted();
+        return workingCopy;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            for (Entry entry : entries.values()) {
+                evicted.add(entry.workingCopy);
+            }
+            entries.clear();
+        }
+        releaseEvicted();
+    }
+
+    private void evict(IJavaProject project) {
+        synchronized (entries) {
+            for (Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Key, Entry> next = it.next();
+                if (project.equals(next.getKey().classFile.getJavaProject())) {
+                    evicted.add(next.getValue().workingCopy);
+                    it.remove();
+                }
+            }
+        }
+        releaseEvicted();
+    }
+
+    /**
+     * Releases evicted working copies outside of the cache lock, since a
+     * release waits for any parse of the working copy that is in progress.
+     */
+    private void releaseEvicted() {
+        List<GroovyClassFileWorkingCopy> workingCopies;
+        synchronized (entries) {
+            if (evicted.isEmpty()) {
+                return;
+            }
+            workingCopies = new ArrayList<>(evicted);
+            evicted.clear();
+        }
+        for (GroovyClassFileWorkingCopy workingCopy : workingCopies) {
+            workingCopy.release();
+        }
+    }
+
+    private void elementChanged(ElementChangedEvent event) {
+        if (size() == 0) {
+            return;
+        }
+        IJavaElementDelta delta = event.getDelta();
+        if (delta.getElement().getElementType() != IJavaElement.JAVA_MODEL) {
+            return;
+        }
+        if (delta.getKind() != IJavaElementDelta.CHANGED) {
+            clear();
+            return;
+        }
+        for (IJavaElementDelta projectDelta : delta.getAffectedChildren()) {
+            if (projectDelta.getKind() != IJavaElementDelta.CHANGED || isClasspathChange(projectDelta)) {
+                evict((IJavaProject) projectDelta.getElement());
+            }
+        }
+    }
+
+    private static boolean isClasspathChange(IJavaElementDelta projectDelta) {
+        if ((projectDelta.getFlags() & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED | IJavaElementDelta.F_CLOSED)) != 0) {
+            return true;
+        }
+        for (IJavaElementDelta rootDelta : projectDelta.getAffectedChildren()) {
+            if (rootDelta.getElement().getElementType() == IJavaElement.PACKAGE_FRAGMENT_ROOT && (rootDelta.getKind() != IJavaElementDelta.CHANGED ||
+                    (rootDelta.getFlags() & (IJavaElementDelta.F_SOURCEATTACHED | IJavaElementDelta.F_SOURCEDETACHED | IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED)) != 0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return modification time of the source attachment (or the class file's
+     *     root if it has no attachment) or {@link IResource#NULL_STAMP} if it
+     *     cannot be determined
+     */
+    private static long attachmentStamp(ClassFile classFile) {
+        try {
+            IPackageFragmentRoot root = (IPackageFragmentRoot) classFile.getAncestor(IJavaElement.PACKAGE_FRAGMENT_ROOT);
+            IPath path = root.getSourceAttachmentPath();
+            if (path == null) path = root.getPath();
+
+            Object target = JavaModel.getTarget(path, true);
+            if (target instanceof IResource) {
+                return ((IResource) target).getLocalTimeStamp();
+            }
+            if (target instanceof File) {
+                long lastModified = ((File) target).lastModified();
+                if (lastModified != 0L) return lastModified;
+            }
+        } catch (JavaModelException | RuntimeException ignore) {
+        }
+        return IResource.NULL_STAMP;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static final class Key {
+        final ClassFile classFile;
+        final WorkingCopyOwner owner;
+
+        Key(ClassFile classFile, WorkingCopyOwner owner) {
+            this.classFile = classFile;
+            this.owner = owner;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(classFile, owner);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return this.classFile.equals(that.classFile) && this.owner.equals(that.owner);
+        }
+    }
+
+    private static final class Entry {
+        final GroovyClassFileWorkingCopy workingCopy;
+        final long stamp;
+
+        Entry(GroovyClassFileWorkingCopy workingCopy, long stamp) {
+            this.workingCopy = workingCopy;
+            this.stamp = stamp;
+        }
+    }
+}
@@ -46,6 +46,7 @@ import org.eclipse.jdt.internal.core.ClassFile;
 import org.eclipse.jdt.internal.core.ClassFileWorkingCopy;
 import org.eclipse.jdt.internal.core.CompilationUnitElementInfo;
 import org.eclipse.jdt.internal.core.DefaultWorkingCopyOwner;
+import org.eclipse.jdt.internal.core.JavaModelManager;
 import org.eclipse.jdt.internal.core.JavaModelManager.PerWorkingCopyInfo;
 import org.eclipse.jdt.internal.core.JavaModelStatus;
 import org.eclipse.jdt.internal.core.ModularClassFile;
@@ -63,10 +64,11 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
     public final ClassFile classFile;
 
     // GROOVY add
-    private ModuleNode moduleNode;
-    private ModuleNodeInfo moduleNodeInfo;
+    private volatile ModuleNode moduleNode;
+    private volatile ModuleNodeInfo moduleNodeInfo;
     private final PerWorkingCopyInfo copyInfo;
-    private CompilationUnitElementInfo elementInfo;
+    private volatile CompilationUnitElementInfo elementInfo;
+    private final Object openLock = new Object();
     // GROOVY end
 
     public GroovyClassFileWorkingCopy(ClassFile classFile, WorkingCopyOwner owner) {
@@ -190,42 +192,79 @@ public class GroovyClassFileWorkingCopy extends GroovyCompilationUnit {
 
     @Override
     public ModuleNodeInfo getModuleInfo(boolean force) {
-        if (this.moduleNodeInfo == null) {
-            try {
-                this.reconcile(true, null);
-            } catch (JavaModelException e) {
-                Util.log(e);
+        ModuleNodeInfo info = this.moduleNodeInfo;
+        if (info == null) {
+            synchronized (this.openLock) {
+                if (this.moduleNodeInfo == null) {
+                    try {
+                        this.reconcile(true, null);
+                    } catch (JavaModelException e) {
+                        Util.log(e);
+                    }
+                }
+                info = this.moduleNodeInfo;
             }
         }
-        return this.moduleNodeInfo;
+        return info;
     }
 
     @Override
     public ModuleNodeInfo getNewModuleInfo() {
-        if (this.moduleNodeInfo == null) {
-            try {
-                this.open(null);
-            } catch (JavaModelException e) {
-                Util.log(e);
+        ModuleNodeInfo info = this.moduleNodeInfo;
+        if (info == null) {
+            synchronized (this.openLock) {
+                if (this.moduleNodeInfo == null) {
+                    try {
+                        this.open(null);
+                    } catch (JavaModelException e) {
+                        Util.log(e);
+                    }
+                }
+                info = this.moduleNodeInfo;
             }
         }
-        return this.moduleNodeInfo;
+        return info;
     }
 
     @Override
     public PerWorkingCopyInfo getPerWorkingCopyInfo() {
         if (this.elementInfo == null) {
-            try {
-                this.elementInfo = (CompilationUnitElementInfo) createElementInfo();
-                openWhenClosed(this.elementInfo, true, new NullProgressMonitor());
-            } catch (JavaModelException e) {
-                this.elementInfo = null;
-                Util.log(e);
+            // working copies are shared by BinaryWorkingCopyCache; open once and publish info when opened
+            synchronized (this.openLock) {
+                if (this.elementInfo == null) {
+                    try {
+                        CompilationUnitElementInfo info = (CompilationUnitElementInfo) createElementInfo();
+                        openWhenClosed(info, true, new NullProgressMonitor());
+                        this.elementInfo = info;
+                    } catch (JavaModelException e) {
+                        Util.log(e);
+                    }
+                }
             }
         }
         return this.copyInfo;
     }
 
+    /**
+     * Drops the module node, the resolver and the element infos of this
+     * working copy.  They are recreated if the working copy is used again.
+     */
+    public void release() {
+        synchronized (this.openLock) {
+            this.moduleNode = null;
+            this.moduleNodeInfo = null;
+            if (this.elementInfo != null) {
+                try {
+                    // info must still be set so that closing does not reopen the working copy
+                    JavaModelManager.getJavaModelManager().removeInfoAndChildren(this);
+                } catch (JavaModelException e) {
+                    Util.log(e);
+                }
+                this.elementInfo = null;
+            }
+        }
+    }
+
     @Override
     public boolean isOnBuildPath() {
         return true;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -210,10 +210,11 @@ public class GroovyCompilationUnit extends CompilationUnit {
     protected boolean buildStructure(OpenableElementInfo info, IProgressMonitor pm, Map newElements, IResource underlyingResource)
             throws JavaModelException {
         depth.increment();
+        long span = GroovyLogManager.manager.startSpan(), eventStart = 0L;
         try {
             if (GroovyLogManager.manager.hasLoggers()) {
                 GroovyLogManager.manager.log(TraceCategory.COMPILER, "Build Structure starting for " + name);
-                GroovyLogManager.manager.logStart("Build structure: " + name + " : " + Thread.currentThread().getName());
+                eventStart = GroovyLogManager.manager.logStart("Build structure: " + name + " : " + Thread.currentThread().getName());
             }
 
             // ensure buffer is opened
@@ -395,8 +396,9 @@ public class GroovyCompilationUnit extends CompilationUnit {
             return info.isStructureKnown();
         } finally {
             depth.decrement();
+            GroovyLogManager.manager.endSpan(TraceCategory.RECONCILE, span);
             if (GroovyLogManager.manager.hasLoggers()) {
-                GroovyLogManager.manager.logEnd("Build structure: " + name + " : " + Thread.currentThread().getName(), TraceCategory.COMPILER);
+                GroovyLogManager.manager.logEnd("Build structure: " + name + " : " + Thread.currentThread().getName(), TraceCategory.COMPILER, eventStart);
             }
         }
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,6 +58,14 @@ public class GroovyScanner {
         this(new StringReader(text), false);
     }
 
+    /**
+     * Creates a scanner for the text of a document from the given offset on.
+     * The tokens have the line and column numbers of the document.
+     */
+    public GroovyScanner(IDocument document, int offset) throws BadLocationException {
+        restart(document, offset, false);
+    }
+
     public Token nextToken() throws TokenStreamException {
         return stream.nextToken();
     }
@@ -72,10 +80,14 @@ public class GroovyScanner {
         int line = lexer.getInputState().getLine(); // Line and
         int col = lexer.getInputState().getColumn(); // column where error happened.
         int offset = getOffset(document, line, col) + 1; // +1 to skip one character.
-        line = document.getLineOfOffset(offset);
+        restart(document, offset, whiteSpaceIncluded);
+    }
+
+    private void restart(IDocument document, int offset, boolean whiteSpaceIncluded) throws BadLocationException {
+        int line = document.getLineOfOffset(offset);
         int lineStart = document.getLineOffset(line);
         line = line + 1; // antlr lines start at 1
-        col = offset - lineStart + 1; // antlr cols start at 1
+        int col = offset - lineStart + 1; // antlr cols start at 1
         String remainingInput = document.get(offset, document.getLength() - offset);
         init(new StringReader(remainingInput), whiteSpaceIncluded); // Reinitialize with remaining input
         lexer.setLine(line); // Fix antlr line and
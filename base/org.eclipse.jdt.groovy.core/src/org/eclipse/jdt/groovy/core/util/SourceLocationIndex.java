@@ -0,0 +1,253 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.core.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.AnnotationNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.ImportNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.PackageNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.PropertyNode;
+import org.codehaus.groovy.ast.expr.Expression;
+import org.codehaus.groovy.ast.stmt.Statement;
+
+/**
+ * Immutable index of the nodes of a module that have real source locations.
+ * It answers "nodes on or after a line" and "can this declaration contain an
+ * offset range" without walking the AST.  The index is built on first request
+ * and is stored in the module's node metadata (alongside
+ * {@link org.codehaus.groovy.antlr.LocationSupport}), so it is shared by all
+ * clients of a cached module.
+ * <p>
+ * Annotation member values are not indexed individually; they only extend
+ * the source range of the annotated declaration.
+ */
+public final class SourceLocationIndex {
+
+    public static SourceLocationIndex of(ModuleNode module) {
+        synchronized (module) {
+            SourceLocationIndex index = module.getNodeMetaData(SourceLocationIndex.class);
+            if (index == null) {
+                index = new SourceLocationIndex(module);
+                module.putNodeMetaData(SourceLocationIndex.class, index);
+            }
+            return index;
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    /** Located nodes ordered by start line and column, then by end line and column descending. */
+    private final List<ASTNode> nodesByLine;
+    /** Classes, fields, properties and methods ordered as {@link #nodesByLine}. */
+    private final List<AnnotatedNode> declarations;
+
+    /** Source range of each declaration and everything visited within it. */
+    private final Map<ASTNode, int[]> extents;
+
+    private SourceLocationIndex(ModuleNode module) {
+        Builder builder = new Builder();
+        builder.visitModule(module);
+
+        Comparator<ASTNode> byLine = Comparator.comparingInt(ASTNode::getLineNumber).thenComparingInt(ASTNode::getColumnNumber)
+            .thenComparing(Comparator.comparingInt(ASTNode::getLastLineNumber).thenComparingInt(ASTNode::getLastColumnNumber).reversed());
+
+        List<ASTNode> nodesByLine = new ArrayList<>(builder.located.size());
+        List<AnnotatedNode> declarations = new ArrayList<>();
+        for (ASTNode node : builder.located) { // preserve visit order of equivalent nodes
+            if (node.getLineNumber() > 0) {
+                nodesByLine.add(node);
+                if (isDeclaration(node)) {
+                    declarations.add((AnnotatedNode) node);
+                }
+            }
+        }
+        nodesByLine.sort(byLine);
+        declarations.sort(byLine);
+
+        this.nodesByLine = Collections.unmodifiableList(nodesByLine);
+        this.declarations = Collections.unmodifiableList(declarations);
+        this.extents = builder.extents;
+    }
+
+    /**
+     * Returns the located nodes that start on or after the specified line, in
+     * line and column order; a node precedes the nodes that it encloses.
+     */
+    public List<ASTNode> findNodesFromLine(int line) {
+        int lo = 0, hi = nodesByLine.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (nodesByLine.get(mid).getLineNumber() < line) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return nodesByLine.subList(lo, nodesByLine.size());
+    }
+
+    /**
+     * Returns the located classes, fields, properties and methods in line and column order.
+     */
+    public List<AnnotatedNode> getDeclarations() {
+        return declarations;
+    }
+
+    /**
+     * Determines if any node visited within the specified declaration could
+     * overlap the specified range.  Declarations that were not indexed or have
+     * no located content are assumed to overlap.
+     */
+    public boolean mayOverlap(ASTNode declaration, int start, int end) {
+        int[] extent = extents.get(declaration);
+        if (extent == null || extent[0] > extent[1]) {
+            return true;
+        }
+        return (extent[0] <= end && start <= extent[1]);
+    }
+
+    private static boolean isDeclaration(ASTNode node) {
+        return (node instanceof ClassNode || node instanceof FieldNode || node instanceof PropertyNode || node instanceof MethodNode);
+    }
+
+    private static boolean isLocated(ASTNode node) {
+        return (node.getStart() >= 0 && node.getEnd() > node.getStart());
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static class Builder extends DepthFirstVisitor {
+
+        final List<ASTNode> located = new ArrayList<>();
+        final Set<ASTNode> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Map<ASTNode, int[]> extents = new IdentityHashMap<>();
+        final LinkedList<int[]> extentStack = new LinkedList<>();
+        int annotationDepth;
+
+        private void add(ASTNode node) {
+            if (isLocated(node)) {
+                if (annotationDepth == 0 && seen.add(node)) {
+                    located.add(node);
+                }
+                int[] extent = extentStack.peekLast();
+                if (extent != null) {
+                    extent[0] = Math.min(extent[0], node.getStart());
+                    extent[1] = Math.max(extent[1], node.getEnd());
+                }
+            }
+        }
+
+        private void enter(ASTNode node) {
+            int[] extent = extents.get(node);
+            if (extent == null) {
+                extent = new int[] {Integer.MAX_VALUE, Integer.MIN_VALUE};
+                extents.put(node, extent);
+            }
+            extentStack.add(extent);
+            add(node);
+        }
+
+        private void leave() {
+            int[] extent = extentStack.removeLast(), outer = extentStack.peekLast();
+            if (outer != null && extent[0] <= extent[1]) {
+                outer[0] = Math.min(outer[0], extent[0]);
+                outer[1] = Math.max(outer[1], extent[1]);
+            }
+        }
+
+        @Override
+        public void visitPackage(PackageNode node) {
+            add(node);
+            super.visitPackage(node);
+        }
+
+        @Override
+        public void visitImport(ImportNode node) {
+            add(node);
+            super.visitImport(node);
+        }
+
+        @Override
+        public void visitClass(ClassNode node) {
+            enter(node);
+            super.visitClass(node);
+            leave();
+        }
+
+        @Override
+        public void visitProperty(PropertyNode node) {
+            enter(node);
+            super.visitProperty(node);
+            leave();
+        }
+
+        @Override
+        public void visitField(FieldNode node) {
+            enter(node);
+            super.visitField(node);
+            leave();
+        }
+
+        @Override
+        public void visitMethod(MethodNode node) {
+            if (node == runMethod || "<clinit>".equals(node.getName())) return;
+            enter(node);
+            super.visitMethod(node);
+            leave();
+        }
+
+        @Override
+        protected void visitAnnotation(AnnotationNode node) {
+            add(node);
+            annotationDepth += 1;
+            super.visitAnnotation(node);
+            annotationDepth -= 1;
+        }
+
+        @Override
+        protected void visitExpression(Expression expression) {
+            add(expression);
+            super.visitExpression(expression);
+        }
+
+        @Override
+        protected void visitParameter(Parameter parameter) {
+            add(parameter);
+            super.visitParameter(parameter);
+        }
+
+        @Override
+        protected void visitStatement(Statement statement) {
+            add(statement);
+            super.visitStatement(statement);
+        }
+    }
+}
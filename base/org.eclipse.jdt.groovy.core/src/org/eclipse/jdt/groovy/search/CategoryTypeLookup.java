@@ -54,7 +54,7 @@ public class CategoryTypeLookup implements ITypeLookup {
 
             for (ClassNode category : scope.getCategoryNames()) {
                 if (scope.isMethodCall() || isMethodPointer) {
-                    for (MethodNode method : category.getMethods(simpleName)) {
+                    for (MethodNode method : category.getAllDeclaredMethods(simpleName)) {
                         if (isCompatibleCategoryMethod(method, selfType, scope)) {
                             candidates.add(method);
                         }
@@ -62,7 +62,7 @@ public class CategoryTypeLookup implements ITypeLookup {
                 }
                 String getterName = AccessorSupport.GETTER.createAccessorName(simpleName);
                 if (getterName != null && !isMethodPointer) {
-                    for (MethodNode method : category.getMethods(getterName)) {
+                    for (MethodNode method : category.getAllDeclaredMethods(getterName)) {
                         if (AccessorSupport.findAccessorKind(method, true) == AccessorSupport.GETTER &&
                                 isCompatibleCategoryMethod(method, selfType, scope)) {
                             candidates.add(method);
@@ -71,7 +71,7 @@ public class CategoryTypeLookup implements ITypeLookup {
                 }
                 String setterName = AccessorSupport.SETTER.createAccessorName(simpleName);
                 if (setterName != null && !isMethodPointer) {
-                    for (MethodNode method : category.getMethods(setterName)) {
+                    for (MethodNode method : category.getAllDeclaredMethods(setterName)) {
                         if (AccessorSupport.findAccessorKind(method, true) == AccessorSupport.SETTER &&
                                 isCompatibleCategoryMethod(method, selfType, scope)) {
                             candidates.add(method);
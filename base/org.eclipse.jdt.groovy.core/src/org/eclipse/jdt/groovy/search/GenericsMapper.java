@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,14 +15,11 @@
  */
 package org.eclipse.jdt.groovy.search;
 
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.GenericsType;
@@ -70,14 +67,14 @@ public class GenericsMapper {
             }
             assert rgts.length == ugts.length;
 
-            Map<String, ClassNode> resolved = (n > 0 ? new TreeMap<>() : Collections.EMPTY_MAP);
+            Substitutions resolved = (n > 0 ? new Substitutions(n) : Substitutions.EMPTY);
             for (int i = 0; i < n; i += 1) {
                 // now try to resolve the parameter in the context of the
                 // most recently visited type. If it doesn't exist, then
                 // default to the resovled type
                 resolved.put(ugts[i].getName(), mapper.resolveParameter(rgts[i], 0));
             }
-            mapper.allGenerics.add(resolved);
+            mapper.generics = resolved;
 
             // don't need to travel up the whole hierarchy; stop at the declaring class
             if (rCandidate.getName().equals(declaringType.getName())) {
@@ -96,12 +93,12 @@ public class GenericsMapper {
 
         GenericsType[] ugts = GroovyUtils.getGenericsTypes(methodDeclaration);
         if (ugts.length > 0) {
-            Map<String, ClassNode> resolved;
             // add method generics to the end of the chain
-            if (mapper.allGenerics.isEmpty() || (resolved = mapper.allGenerics.removeLast()).isEmpty()) {
-                resolved = new TreeMap<>();
+            Substitutions resolved = mapper.generics;
+            if (resolved == null || resolved.isEmpty()) {
+                resolved = new Substitutions(ugts.length);
+                mapper.generics = resolved;
             }
-            mapper.allGenerics.add(resolved);
 
             if (methodGenerics != null && methodGenerics.length > 0) { assert methodGenerics.length == ugts.length;
                 // method generics are explicitly defined
@@ -158,7 +155,7 @@ public class GenericsMapper {
      * @param depth ensure that we don't recur forever, bottom out after a certain depth
      */
     public ClassNode resolveParameter(GenericsType topGT, int depth) {
-        if (allGenerics.isEmpty()) {
+        if (generics == null) {
             return topGT.getType();
         }
 
@@ -193,11 +190,15 @@ public class GenericsMapper {
 
     //--------------------------------------------------------------------------
 
-    /** Keeps track of all type parameterization up the type hierarchy. */
-    private final LinkedList<Map<String, ClassNode>> allGenerics = new LinkedList<>();
+    /**
+     * Type parameterization of the highest level of the type hierarchy analyzed
+     * so far; each level is resolved against the one below it, so only the most
+     * recent is retained.  {@code null} until the first level is gathered.
+     */
+    private Substitutions generics;
 
     protected boolean hasGenerics() {
-        return !allGenerics.isEmpty() && !allGenerics.getLast().isEmpty();
+        return (generics != null && !generics.isEmpty());
     }
 
     /**
@@ -206,10 +207,10 @@ public class GenericsMapper {
      * @param defaultType type to return if parameter name doesn't exist
      */
     protected ClassNode findParameter(String parameterName, ClassNode defaultType) {
-        if (allGenerics.isEmpty()) {
+        if (generics == null) {
             return defaultType;
         }
-        ClassNode type = allGenerics.getLast().get(parameterName);
+        ClassNode type = generics.get(parameterName);
         if (type == null) {
             return defaultType;
         }
@@ -239,15 +240,63 @@ public class GenericsMapper {
         return false;
     }
 
-    protected static void saveParameterType(Map<String, ClassNode> map, String key, ClassNode val, boolean weak) {
+    protected static void saveParameterType(Substitutions map, String key, ClassNode val, boolean weak) {
         // special case 1: Arrays.asList(T...): List<T> -- each param has a chance to influence the LUB
         // special case 2: Collections.replaceAll(List<T>, T, T) -- list should dictate type unless it's dynamic
         // special case 3: Collections.checkedSet(Set<E>, Class<E>): Set<E> -- set type and class type should agree
 
-        ClassNode old = map.remove(key); // if mapped type is Object, consider it malleable
+        ClassNode old = map.get(key); // if mapped type is Object, consider it malleable
         if (old != null && !old.equals(val) && !old.equals(VariableScope.OBJECT_CLASS_NODE) && weak) {
             val = /*WideningCategories.lowestUpperBound(*/old/*, val)*/;
         }
         map.put(key, val);
     }
+
+    /**
+     * Maps type parameter names to types.  Types rarely declare more than a
+     * few type parameters, so parallel arrays searched linearly are smaller
+     * and faster than a sorted or hashed map.
+     */
+    protected static final class Substitutions {
+        static final Substitutions EMPTY = new Substitutions(0);
+
+        private String[] names;
+        private ClassNode[] types;
+        private int size;
+
+        Substitutions(int capacity) {
+            names = new String[capacity];
+            types = new ClassNode[capacity];
+        }
+
+        boolean isEmpty() {
+            return (size == 0);
+        }
+
+        ClassNode get(String name) {
+            for (int i = 0; i < size; i += 1) {
+                if (names[i].equals(name)) {
+                    return types[i];
+                }
+            }
+            return null;
+        }
+
+        void put(String name, ClassNode type) {
+            for (int i = 0; i < size; i += 1) {
+                if (names[i].equals(name)) {
+                    types[i] = type;
+                    return;
+                }
+            }
+            if (size == names.length) {
+                int capacity = Math.max(4, size * 2);
+                names = Arrays.copyOf(names, capacity);
+                types = Arrays.copyOf(types, capacity);
+            }
+            names[size] = name;
+            types[size] = type;
+            size += 1;
+        }
+    }
 }
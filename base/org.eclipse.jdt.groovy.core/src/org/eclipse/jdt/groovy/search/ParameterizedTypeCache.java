@@ -0,0 +1,130 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.eclipse.jdt.groovy.search;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.GenericsType;
+
+/**
+ * Interns parameterizations of generic types, so that each combination of
+ * erasure and type arguments (by identity) is built by its factory only once.
+ * <p>
+ * The interned type is never handed out.  Every lookup returns a fresh node
+ * with fresh {@link GenericsType}s, which callers may modify the same as the
+ * result of the factory; only the type arguments themselves are shared.
+ * Instances are not thread-safe and are meant to live as long as a single
+ * inferencing pass, so that no types outlive the resolver that created them.
+ */
+public final class ParameterizedTypeCache {
+
+    private final Map<Key, ClassNode> types = new HashMap<>();
+
+    /**
+     * Returns a copy of the interned parameterization of {@code erasure} by
+     * {@code typeArguments}, creating it with {@code factory} if necessary.
+     */
+    public ClassNode intern(ClassNode erasure, ClassNode[] typeArguments, Supplier<ClassNode> factory) {
+        Key key = new Key(erasure.redirect(), typeArguments);
+        ClassNode type = types.get(key);
+        if (type == null) {
+            type = factory.get();
+            types.put(key, type);
+        }
+        return copy(type);
+    }
+
+    private static ClassNode copy(ClassNode type) {
+        ClassNode copy = type.getPlainNodeReference();
+        copy.setSourcePosition(type);
+        GenericsType[] generics = type.getGenericsTypes();
+        if (generics != null) {
+            GenericsType[] copies = new GenericsType[generics.length];
+            for (int i = 0, n = generics.length; i < n; i += 1) {
+                copies[i] = copy(generics[i]);
+            }
+            copy.setGenericsTypes(copies);
+        }
+        return copy;
+    }
+
+    private static GenericsType copy(GenericsType generic) {
+        GenericsType copy = new GenericsType();
+        copy.setType(generic.getType());
+        copy.setLowerBound(generic.getLowerBound());
+        ClassNode[] upperBounds = generic.getUpperBounds();
+        if (upperBounds != null) {
+            copy.setUpperBounds(upperBounds.clone());
+        }
+        copy.setName(generic.getName());
+        copy.setPlaceholder(generic.isPlaceholder());
+        copy.setWildcard(generic.isWildcard());
+        copy.setResolved(generic.isResolved());
+        copy.setSourcePosition(generic);
+        return copy;
+    }
+
+    public int size() {
+        return types.size();
+    }
+
+    //--------------------------------------------------------------------------
+
+    private static final class Key {
+        private final ClassNode erasure;
+        private final ClassNode[] typeArguments;
+        private final int hash;
+
+        Key(ClassNode erasure, ClassNode[] typeArguments) {
+            this.erasure = erasure;
+            this.typeArguments = typeArguments;
+
+            int h = System.identityHashCode(erasure);
+            for (ClassNode typeArgument : typeArguments) {
+                h = 31 * h + System.identityHashCode(typeArgument);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            if (this.hash != that.hash || this.erasure != that.erasure || this.typeArguments.length != that.typeArguments.length) {
+                return false;
+            }
+            for (int i = 0, n = typeArguments.length; i < n; i += 1) {
+                if (this.typeArguments[i] != that.typeArguments[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
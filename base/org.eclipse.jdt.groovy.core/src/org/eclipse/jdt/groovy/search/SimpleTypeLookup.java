@@ -305,11 +305,8 @@ public class SimpleTypeLookup implements ITypeLookupExtension {
             List<MethodNode> candidates = new LinkedList<>();
             java.util.function.BiConsumer<ClassNode, String> collector = (classNode, methodName) -> {
                 if (classNode.isAbstract() || classNode.isInterface() || implementsTrait(classNode)) {
-                    LinkedHashSet<ClassNode> abstractTypes = new LinkedHashSet<>();
-                    VariableScope.findAllInterfaces(classNode, abstractTypes, false);
-                    for (ClassNode abstractType : abstractTypes) {
-                        candidates.addAll(abstractType.getMethods(methodName));
-                    }
+                    // method table includes the methods of super classes and interfaces
+                    candidates.addAll(classNode.getAllDeclaredMethods(methodName));
                 } else {
                     candidates.addAll(classNode.getMethods(methodName));
                 }
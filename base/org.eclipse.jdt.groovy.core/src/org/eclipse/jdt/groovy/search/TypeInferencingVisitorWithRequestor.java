@@ -97,6 +97,8 @@ import org.codehaus.groovy.ast.tools.WideningCategories;
 import org.codehaus.groovy.classgen.BytecodeExpression;
 import org.codehaus.groovy.classgen.Verifier;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.eclipse.GroovyLogManager;
+import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.MetaClassHelper;
 import org.codehaus.groovy.syntax.Types;
@@ -127,6 +129,7 @@ import org.eclipse.jdt.groovy.core.Activator;
 import org.eclipse.jdt.groovy.core.util.ArrayUtils;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
 import org.eclipse.jdt.groovy.search.ITypeRequestor.VisitStatus;
 import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
 import org.eclipse.jdt.internal.core.DefaultWorkingCopyOwner;
@@ -206,6 +209,18 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
 
     private final AssignmentStorer assignmentStorer = new AssignmentStorer();
 
+    /**
+     * List, map and range types created for literals during this visit.
+     * Lookups return copies, so requestors may modify the types they get.
+     */
+    private final ParameterizedTypeCache parameterizedTypes = new ParameterizedTypeCache();
+
+    /**
+     * Source range of the node sought by a targeted visit; declarations that
+     * cannot contain it are skipped.  {@code null} for a full visit.
+     */
+    private int[] target;
+
     /**
      * Use factory to instantiate
      */
@@ -232,6 +247,7 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             return;
         }
 
+        long span = GroovyLogManager.manager.startSpan();
         this.requestor = requestor;
         this.enclosingElement = unit;
         VariableScope topLevelScope = new VariableScope(null, enclosingModule, false);
@@ -263,18 +279,56 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
         } finally {
             occurrenceCounts.clear();
             scopes.removeLast();
+            GroovyLogManager.manager.endSpan(TraceCategory.INFERENCE, span);
         }
         if (DEBUG) {
             postVisitSanityCheck();
         }
     }
 
+    /**
+     * Visits the compilation unit as far as needed to infer the node at the
+     * specified source range.  Types, fields and methods that cannot contain
+     * the range are not visited, so the cost does not depend on the position
+     * of the node in the file.  The scopes of the enclosing type and member
+     * and the declarations and assignments that precede the node within its
+     * member are visited as usual.
+     * <p>
+     * Inferencing that depends on other members (for example assignments to
+     * script variables elsewhere) is not available; callers should fall back
+     * to {@link #visitCompilationUnit(ITypeRequestor)} if the requestor does
+     * not find what it is looking for.
+     */
+    public void visitCompilationUnit(ITypeRequestor requestor, int start, int end) {
+        target = new int[] {start, end};
+        try {
+            visitCompilationUnit(requestor);
+        } finally {
+            target = null;
+        }
+    }
+
+    /**
+     * Determines if a targeted visit can skip the specified declaration.  Only
+     * type members are skipped; anonymous inner class members are visited in
+     * the flow of their enclosing member.
+     */
+    private boolean isOffTarget(ASTNode declaration) {
+        if (target == null || (enclosingDeclarationNode instanceof ClassNode && GroovyUtils.isAnonymous((ClassNode) enclosingDeclarationNode))) {
+            return false;
+        }
+        return !SourceLocationIndex.of(enclosingModule).mayOverlap(declaration, target[0], target[1]);
+    }
+
     public void visitJDT(IType type, ITypeRequestor requestor) {
         ClassNode node = findClassNode(createName(type));
         if (node == null) {
             // probably some AST transformation is making this node invisible
             return;
         }
+        if (!node.isScript() && isOffTarget(node)) {
+            return; // script statements are outside of the script class
+        }
 
         scopes.add(new VariableScope(scopes.getLast(), node, false));
         ASTNode  enclosingDeclaration0 = enclosingDeclarationNode;
@@ -321,7 +375,7 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
                         BinaryExpression expr = (BinaryExpression) ((ExpressionStatement) element).getExpression();
                         if (expr.getLeftExpression() instanceof FieldExpression) {
                             FieldNode fieldNode = ((FieldExpression) expr.getLeftExpression()).getField();
-                            if (fieldNode != null && fieldNode.isStatic() && !fieldNode.getName().matches("(MAX|MIN)_VALUE|\\$VALUES") && expr.getRightExpression() != null) {
+                            if (fieldNode != null && fieldNode.isStatic() && !fieldNode.getName().matches("(MAX|MIN)_VALUE|\\$VALUES") && expr.getRightExpression() != null && !isOffTarget(fieldNode)) {
                                 // create the field scope so that it looks like we are visiting within the context of the field
                                 scopes.add(new VariableScope(scopes.getLast(), fieldNode, true));
                                 try {
@@ -413,6 +467,9 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             // probably some sort of AST transformation is making this node invisible
             return;
         }
+        if (isOffTarget(fieldNode)) {
+            return;
+        }
         this.requestor = requestor;
 
         IJavaElement enclosingElement0 = enclosingElement;
@@ -446,6 +503,9 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
             // probably some sort of AST transformation is making this node invisible
             return;
         }
+        if (isOffTarget(methodNode)) {
+            return;
+        }
         this.requestor = requestor;
 
         IJavaElement enclosingElement0 = enclosingElement;
@@ -599,6 +659,9 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
     }
 
     private void visitFieldInternal(FieldNode node) {
+        if (isOffTarget(node)) {
+            return;
+        }
         try {
             visitField(node);
         } catch (VisitCompleted vc) {
@@ -609,6 +672,9 @@ public class TypeInferencingVisitorWithRequestor extends ClassCodeVisitorSupport
     }
 
     private void visitMethodInternal(MethodNode node) {
+        if (isOffTarget(node)) {
+            return;
+        }
         scopes.add(new VariableScope(scopes.getLast(), node, node.isStatic()));
         ASTNode enclosingDeclaration0 = enclosingDeclarationNode;
         enclosingDeclarationNode = node;
@@ -2452,39 +2518,45 @@ assert primaryExprType != null && dependentExprType != null;
     /**
      * @return a list type parameterized by {@code t}
      */
-    private static ClassNode createParameterizedList(ClassNode t) {
-        ClassNode list = VariableScope.clonedList();
-        list.getGenericsTypes()[0].setType(t);
-        list.getGenericsTypes()[0].setName(t.getName());
-        return list;
+    private ClassNode createParameterizedList(ClassNode t) {
+        return parameterizedTypes.intern(VariableScope.LIST_CLASS_NODE, new ClassNode[] {t}, () -> {
+            ClassNode list = VariableScope.clonedList();
+            list.getGenericsTypes()[0].setType(t);
+            list.getGenericsTypes()[0].setName(t.getName());
+            return list;
+        });
     }
 
     /**
      * @return a map type parameterized by {@code k} and {@code v}
      */
-    private static ClassNode createParameterizedMap(ClassNode k, ClassNode v) {
-        ClassNode map = VariableScope.clonedMap();
-        map.getGenericsTypes()[0].setType(k);
-        map.getGenericsTypes()[0].setName(k.getName());
-        map.getGenericsTypes()[1].setType(v);
-        map.getGenericsTypes()[1].setName(v.getName());
-        return map;
+    private ClassNode createParameterizedMap(ClassNode k, ClassNode v) {
+        return parameterizedTypes.intern(VariableScope.MAP_CLASS_NODE, new ClassNode[] {k, v}, () -> {
+            ClassNode map = VariableScope.clonedMap();
+            map.getGenericsTypes()[0].setType(k);
+            map.getGenericsTypes()[0].setName(k.getName());
+            map.getGenericsTypes()[1].setType(v);
+            map.getGenericsTypes()[1].setName(v.getName());
+            return map;
+        });
     }
 
     /**
      * @return a range type parameterized by {@code t}
      */
-    private static ClassNode createParameterizedRange(ClassNode t) {
-        ClassNode range = VariableScope.clonedRange();
-        range.getGenericsTypes()[0].setType(t);
-        range.getGenericsTypes()[0].setName(t.getName());
-        return range;
+    private ClassNode createParameterizedRange(ClassNode t) {
+        return parameterizedTypes.intern(VariableScope.RANGE_CLASS_NODE, new ClassNode[] {t}, () -> {
+            ClassNode range = VariableScope.clonedRange();
+            range.getGenericsTypes()[0].setType(t);
+            range.getGenericsTypes()[0].setName(t.getName());
+            return range;
+        });
     }
 
     /**
      * @see org.codehaus.groovy.transform.stc.StaticTypeCheckingVisitor#adjustTypeForSpreading
      */
-    private static ClassNode createSpreadResult(ClassNode t, ClassNode objExprType) {
+    private ClassNode createSpreadResult(ClassNode t, ClassNode objExprType) {
         ClassNode elementType = VariableScope.extractElementType(objExprType);
         if (GeneralUtils.isOrImplements(elementType, VariableScope.COLLECTION_CLASS_NODE)) {
             // TODO: clone elementType and replace deepest Collection's generic type with t
@@ -88,6 +88,7 @@ import org.junit.runners.Suite
     org.codehaus.groovy.eclipse.dsl.tests.MetaDSLInferencingTests,
     org.codehaus.groovy.eclipse.dsl.tests.PointcutCreationTests,
     org.codehaus.groovy.eclipse.dsl.tests.PointcutEvaluationTests,
+    org.codehaus.groovy.eclipse.dsl.tests.StaticCheckerResultCacheTests,
     org.codehaus.groovy.eclipse.dsl.tests.StringObjectVectorTests,
 
     // org.codehaus.groovy.eclipse.junit.tests
@@ -107,6 +108,7 @@ import org.junit.runners.Suite
     org.codehaus.groovy.eclipse.refactoring.test.extract.ExtractConstantTests,
     org.codehaus.groovy.eclipse.refactoring.test.extract.ExtractLocalTests,
     org.codehaus.groovy.eclipse.refactoring.test.extract.ExtractMethodTests,
+    org.codehaus.groovy.eclipse.refactoring.test.extract.ExtractRefactoringContextTests,
     org.codehaus.groovy.eclipse.refactoring.test.extract.StaticExpressionCheckerTests,
     org.codehaus.groovy.eclipse.refactoring.test.extract.StaticFragmentCheckerTests,
     org.codehaus.groovy.eclipse.refactoring.test.formatter.FindIndentsTests,
@@ -24,6 +24,9 @@ import org.junit.runners.Suite
 
     // Basic tests
     org.eclipse.jdt.groovy.core.tests.basic.AnnotationsTests,
+    org.eclipse.jdt.groovy.core.tests.basic.BinaryGroovySupplementalIndexerTests,
+    org.eclipse.jdt.groovy.core.tests.basic.ClassNodeMethodTableTests,
+    org.eclipse.jdt.groovy.core.tests.basic.CompilationProfilerTests,
     org.eclipse.jdt.groovy.core.tests.basic.EnumerationTests,
     org.eclipse.jdt.groovy.core.tests.basic.ErrorRecoveryTests,
     org.eclipse.jdt.groovy.core.tests.basic.GenericsTests,
@@ -31,6 +34,7 @@ import org.junit.runners.Suite
     org.eclipse.jdt.groovy.core.tests.basic.ImportsTests,
     org.eclipse.jdt.groovy.core.tests.basic.InnerClassTests,
     org.eclipse.jdt.groovy.core.tests.basic.Java8Tests,
+    org.eclipse.jdt.groovy.core.tests.basic.ListHashMapTests,
     org.eclipse.jdt.groovy.core.tests.basic.TraitsTests,
 
     // Xform tests
@@ -61,6 +65,7 @@ import org.junit.runners.Suite
     org.eclipse.jdt.core.groovy.tests.locations.ASTConverterTests,
     org.eclipse.jdt.core.groovy.tests.locations.ASTNodeSourceLocationsTests,
     org.eclipse.jdt.core.groovy.tests.locations.LocationSupportTests,
+    org.eclipse.jdt.core.groovy.tests.locations.SourceLocationIndexTests,
     org.eclipse.jdt.core.groovy.tests.locations.SourceLocationsTests,
 
     // Model tests
@@ -90,6 +95,7 @@ import org.junit.runners.Suite
     org.eclipse.jdt.core.groovy.tests.search.LocalVariableReferenceSearchTests,
     org.eclipse.jdt.core.groovy.tests.search.MethodReferenceSearchTests,
     org.eclipse.jdt.core.groovy.tests.search.OperatorOverloadingInferencingTests,
+    org.eclipse.jdt.core.groovy.tests.search.ParameterizedTypeCacheTests,
     org.eclipse.jdt.core.groovy.tests.search.SpockInferencingTests,
     org.eclipse.jdt.core.groovy.tests.search.StaticInferencingTests,
     org.eclipse.jdt.core.groovy.tests.search.SyntheticAccessorInferencingTests,
@@ -17,8 +17,13 @@ package org.codehaus.groovy.eclipse.codebrowsing.tests
 
 import static org.eclipse.jdt.core.IJavaElement.TYPE
 
+import org.codehaus.groovy.ast.ASTNode
 import org.codehaus.groovy.ast.MethodNode
 import org.codehaus.groovy.eclipse.codebrowsing.elements.GroovyResolvedBinaryMethod
+import org.codehaus.groovy.eclipse.codebrowsing.requestor.CodeSelectHelper
+import org.codehaus.groovy.eclipse.codebrowsing.requestor.CodeSelectRequestor
+import org.codehaus.groovy.eclipse.codebrowsing.requestor.Region
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
 import org.eclipse.jdt.core.ICompilationUnit
 import org.eclipse.jdt.core.IJavaElement
 import org.eclipse.jdt.core.IMethod
@@ -56,6 +61,34 @@ final class CodeSelectMethodsTests extends BrowsingTestSuite {
         assertCodeSelect([one, two, 'new Structure().meth(0, 0, 0)'], 'meth')
     }
 
+    @Test
+    void testCodeSelectInferredReceiverAmongMembers() {
+        String contents = '''\
+            class C {
+              def one() { 'one'.toUpperCase() }
+              def two() { def s = 'two'; s.toLowerCase() }
+              def three() { 3 }
+            }
+            '''.stripIndent()
+        GroovyCompilationUnit unit = addGroovySource(contents, nextUnitName())
+        prepareForCodeSelect(unit)
+
+        int[] requestors = [0]
+        def helper = new CodeSelectHelper() {
+            @Override
+            protected CodeSelectRequestor createRequestor(ASTNode node, Region nodeRegion, Region selectRegion, GroovyCompilationUnit gunit) {
+                requestors[0] += 1
+                return super.createRequestor(node, nodeRegion, selectRegion, gunit)
+            }
+        }
+        IJavaElement[] elems = helper.select(unit, contents.indexOf('toLowerCase'), 'toLowerCase'.length())
+
+        assert elems.length == 1
+        assert elems[0].elementName == 'toLowerCase'
+        assert elems[0].declaringType.fullyQualifiedName == 'java.lang.String'
+        assert requestors[0] == 1 : 'inferred result should come from the visit of the enclosing member only'
+    }
+
     @Test
     void testCodeSelectGenericMethod1() {
         String contents = '[a: Number].keySet()'
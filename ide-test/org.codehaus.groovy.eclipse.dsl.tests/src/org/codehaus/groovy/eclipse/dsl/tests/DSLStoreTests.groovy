@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,14 +19,21 @@ import org.codehaus.groovy.eclipse.dsl.DSLDStore
 import org.codehaus.groovy.eclipse.dsl.DSLDStoreManager
 import org.codehaus.groovy.eclipse.dsl.DSLPreferences
 import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator
+import org.codehaus.groovy.eclipse.dsl.RefreshDSLDJob
 import org.codehaus.groovy.eclipse.dsl.contributions.IContributionGroup
 import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.CurrentTypePointcut
 import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.FindFieldPointcut
 import org.codehaus.groovy.eclipse.test.SynchronizationUtils
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
 import org.eclipse.core.resources.IFile
 import org.eclipse.core.resources.IStorage
 import org.eclipse.core.resources.IncrementalProjectBuilder
+import org.eclipse.core.runtime.jobs.Job
+import org.eclipse.jdt.core.ElementChangedEvent
+import org.eclipse.jdt.core.IElementChangedListener
+import org.eclipse.jdt.core.IJavaElement
+import org.eclipse.jdt.core.JavaCore
 import org.eclipse.jdt.core.groovy.tests.SimpleProgressMonitor
 import org.eclipse.jdt.internal.core.JavaModelManager
 import org.junit.Test
@@ -73,14 +80,14 @@ final class DSLStoreTests extends DSLInferencingTestSuite {
                 return
             }
             // now check the pointcuts in this script
-            Map<IStorage, Set<IPointcut>> keyContextMap = store.@keyContextMap
+            Map<IStorage, Set<IPointcut>> keyContextMap = store.@snapshot.@keyContextMap
             Set<IPointcut> pcs = keyContextMap.get(key)
             List<String> expectedPcs = allExpectedPointcuts.get(uniqueString)
             for (IPointcut pc : pcs) {
                 assert expectedPcs.contains(createSemiUniqueName(pc)) : "Didn't find expected Pointcut $pc in\n$expectedPcs"
 
                 // now check the contributions for each pointcut
-                Map<IPointcut, List<IContributionGroup>> pointcutContributionMap = store.@pointcutContributionMap
+                Map<IPointcut, List<IContributionGroup>> pointcutContributionMap = store.@snapshot.@pointcutContributionMap
                 List<IContributionGroup> group = pointcutContributionMap.get(pc)
                 int groupSize = group.size()
                 int expectedSize = expectedContributionCounts.get(createSemiUniqueName(pc))
@@ -412,6 +419,58 @@ final class DSLStoreTests extends DSLInferencingTestSuite {
         )
     }
 
+    @Test
+    void testUpdatePublishedOnce() {
+        DSLDStore store = new DSLDStore()
+        IStorage file = project.getFile('dsl0.dsld')
+        IContributionGroup group = { pattern, matches -> [] } as IContributionGroup
+        IPointcut one = new CurrentTypePointcut(file, 'currentType'), two = new FindFieldPointcut(file, 'fields')
+
+        store.addContributionGroup(one, group)
+        assert store.allContextKeys.length == 1
+
+        store.beginUpdate()
+        try {
+            store.purgeIdentifier(file)
+            // readers keep the previous contents until the update ends
+            assert store.@snapshot.@pointcutContributionMap.keySet() == [one] as Set
+
+            store.addContributionGroup(one, group)
+            store.addAllContexts([two], group)
+            assert store.@snapshot.@pointcutContributionMap.keySet() == [one] as Set
+        } finally {
+            store.endUpdate()
+        }
+
+        assert store.@snapshot.@pointcutContributionMap.keySet() == [one, two] as Set
+        assert store.@snapshot.@pointcutContributionMap[one] == [group]
+        assert store.@snapshot.@keyContextMap[file] == [one, two] as Set
+    }
+
+    @Test
+    void testPublishReconcilesOpenUnits() {
+        GroovyCompilationUnit open = addGroovySource('class Open { def x }', 'Open', 'p')
+        GroovyCompilationUnit closed = addGroovySource('class Closed { def x }', 'Closed', 'p')
+        open.becomeWorkingCopy(null)
+
+        List<IJavaElement> reconciled = [].asSynchronized()
+        IElementChangedListener listener = { ElementChangedEvent event ->
+            reconciled << event.delta.element
+        }
+        JavaCore.addElementChangedListener(listener, ElementChangedEvent.POST_RECONCILE)
+        try {
+            createDsls('currentType().accept { property name: "y" }')
+            GroovyDSLCoreActivator.default.contextStoreManager.initialize(project, false)
+            Job.jobManager.join(RefreshDSLDJob, null)
+
+            assert reconciled.contains(open)
+            assert !reconciled.contains(closed)
+        } finally {
+            JavaCore.removeElementChangedListener(listener)
+            open.discardWorkingCopy()
+        }
+    }
+
     /*@Test
     void testDisabledOfJar() {
         addJarToProject('simple_dsld.jar')
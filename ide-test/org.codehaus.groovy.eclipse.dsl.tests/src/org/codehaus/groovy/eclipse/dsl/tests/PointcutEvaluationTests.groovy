@@ -20,6 +20,7 @@ import groovy.transform.TupleConstructor
 
 import org.codehaus.groovy.ast.ASTNode
 import org.codehaus.groovy.ast.AnnotationNode
+import org.codehaus.groovy.ast.ClassHelper
 import org.codehaus.groovy.ast.ClassNode
 import org.codehaus.groovy.ast.FieldNode
 import org.codehaus.groovy.ast.MethodNode
@@ -28,6 +29,7 @@ import org.codehaus.groovy.ast.expr.VariableExpression
 import org.codehaus.groovy.eclipse.dsl.pointcuts.BindingSet
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext
 import org.codehaus.groovy.eclipse.dsl.pointcuts.IPointcut
+import org.codehaus.groovy.eclipse.dsl.pointcuts.impl.SubTypePointcut
 import org.codehaus.groovy.eclipse.dsl.tests.internal.PointcutScriptExecutor
 import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
@@ -746,4 +748,47 @@ final class PointcutEvaluationTests extends GroovyEclipseTestSuite {
             new BindingResult('x', 'foo'),
             new BindingResult('y', 'Var: XXX'))
     }
+
+    @Test
+    void testEnclosingMethodNamedBinding() {
+        doTestOfLastBindingSet(
+            'class Foo {\n' +
+            '  def x() { XXX }\n' +
+            '  def y() { YYY }\n' +
+            '}',
+            'bind( m: enclosingMethod(name("x") | name("y"))) & bind(i: currentIdentifier("YYY"))',
+
+            // enclosing method is re-evaluated when the scope moves from x to y
+            new BindingResult('m', 'p.Foo.y'),
+            new BindingResult('i', 'Var: YYY'))
+    }
+
+    @Test
+    void testEnclosingCallOfNestedArguments() {
+        doTestOfLastBindingSet(
+            'foo(bar(YYY), XXX)',
+            'bind( x: enclosingCall()) & bind(y: currentIdentifier("XXX"))',
+
+            // the argument scope is the same object, but bar() is no longer enclosing
+            new BindingResult('x', 'foo()'),
+            new BindingResult('y', 'Var: XXX'))
+    }
+
+    @Test
+    void testSubTypeLookupMatchesFilteredResult() {
+        SubTypePointcut pc = new PointcutScriptExecutor().createPointcut('subType("java.lang.Number")')
+        GroovyDSLDContext context = new GroovyDSLDContext([] as String[], '/Project/src/p/Foo.groovy', '/Project/src')
+
+        def filtered = { toMatch -> pc.filterResult(pc.explodeObject(toMatch, context), context) }
+
+        [ClassHelper.Integer_TYPE, ClassHelper.STRING_TYPE, [ClassHelper.Integer_TYPE, ClassHelper.Long_TYPE], [ClassHelper.STRING_TYPE]].each { toMatch ->
+            Collection<?> result = pc.matches(context, toMatch)
+            Assert.assertEquals(String.valueOf(toMatch), filtered(toMatch)?.toList(), result?.toList())
+        }
+
+        // the result does not share state with the cached hierarchy
+        Collection<?> result = pc.matches(context, ClassHelper.Integer_TYPE)
+        result.clear()
+        Assert.assertEquals(['java.lang.Number'], pc.matches(context, ClassHelper.Integer_TYPE)*.name)
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.tests
+
+import org.codehaus.groovy.ast.ASTNode
+import org.codehaus.groovy.ast.expr.ConstantExpression
+import org.codehaus.groovy.eclipse.dsl.checker.IStaticCheckerHandler
+import org.codehaus.groovy.eclipse.dsl.checker.RecordingStaticCheckerHandler
+import org.codehaus.groovy.eclipse.dsl.checker.StaticCheckerResultCache
+import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
+import org.eclipse.core.resources.IFile
+import org.eclipse.jface.text.Position
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+final class StaticCheckerResultCacheTests extends GroovyEclipseTestSuite {
+
+    private File cacheFile
+
+    @Before
+    void setUp() {
+        cacheFile = File.createTempFile('checker', '.cache')
+        cacheFile.delete()
+    }
+
+    @After
+    void tearDown() {
+        cacheFile.delete()
+    }
+
+    /**
+     * Hashes are computed once per run, so each step of a test that changes
+     * a file continues with a new cache loaded from the saved one.
+     */
+    private StaticCheckerResultCache newCache(String fingerprint = 'dsld') {
+        def cache = new StaticCheckerResultCache(cacheFile, fingerprint)
+        cache.load()
+        return cache
+    }
+
+    private IFile addGroovyFile(String contents, String name) {
+        addGroovySource(contents, name).resource
+    }
+
+    private IFile addJavaFile(String contents, String name) {
+        addJavaSource(contents, name).resource
+    }
+
+    private static void setContents(IFile file, String contents) {
+        file.setContents(new ByteArrayInputStream(contents.bytes), true, false, null)
+    }
+
+    private static RecordingStaticCheckerHandler newResult(String... unknowns) {
+        def result = new RecordingStaticCheckerHandler()
+        unknowns.eachWithIndex { String text, int i ->
+            result.handleUnknownReference(new ConstantExpression(text), new Position(i * 10, text.length()), i + 1)
+        }
+        return result
+    }
+
+    private static List<String> replay(RecordingStaticCheckerHandler result, IFile file) {
+        List<String> problems = []
+        result.replay(file, [
+            setResource: { IFile resource -> assert resource == file },
+            handleUnknownReference: { ASTNode node, Position position, int line ->
+                problems << "$node.text@$position.offset+$position.length:$line".toString()
+            }
+        ] as IStaticCheckerHandler)
+        return problems
+    }
+
+    //--------------------------------------------------------------------------
+
+    @Test
+    void testStoreAndLookup() {
+        IFile file = addGroovyFile('def x = foo', 'A')
+        def cache = newCache()
+
+        assert cache.lookup(file) == null
+
+        cache.store(file, [], newResult('foo'))
+
+        assert replay(cache.lookup(file), file) == ['foo@0+3:1']
+    }
+
+    @Test
+    void testChangedFile() {
+        IFile file = addGroovyFile('def x = foo', 'A')
+        def cache = newCache()
+        cache.store(file, [], newResult('foo'))
+        cache.save()
+
+        setContents(file, 'def x = bar')
+
+        assert newCache().lookup(file) == null
+    }
+
+    @Test
+    void testChangedDependency() {
+        IFile dependency = addGroovyFile('class B { def m() { 1 } }', 'B')
+        IFile file = addGroovyFile('new B().m().intValue()', 'A')
+        def cache = newCache()
+        cache.store(dependency, [], newResult())
+        cache.store(file, [dependency], newResult())
+        cache.save()
+
+        assert newCache().lookup(file) != null
+
+        setContents(dependency, 'class B { def m() { "" } }')
+
+        cache = newCache()
+        assert cache.lookup(file) == null
+        assert cache.lookup(dependency) == null
+    }
+
+    @Test
+    void testChangedIndirectDependencyWithoutResult() {
+        IFile indirect = addJavaFile('public class C { public int n() { return 1; } }', 'C')
+        IFile dependency = addJavaFile('public class B extends C {}', 'B')
+        IFile file = addGroovyFile('new B().n().intValue()', 'A')
+        def cache = newCache()
+        cache.store(file, [dependency], newResult())
+
+        // the edges of B are unknown
+        assert cache.lookup(file) == null
+
+        cache.recordDependencies(dependency, [indirect])
+        assert cache.needsDependencies(indirect)
+        cache.recordDependencies(indirect, [])
+        assert !cache.needsDependencies(indirect)
+        assert cache.lookup(file) != null
+        cache.save()
+
+        setContents(indirect, 'public class C { public String n() { return ""; } }')
+
+        cache = newCache()
+        assert cache.needsDependencies(indirect)
+        assert !cache.needsDependencies(dependency)
+        assert cache.lookup(file) == null
+    }
+
+    @Test
+    void testRecordedDependenciesKeepStoredOnes() {
+        IFile other = addGroovyFile('class C {}', 'C')
+        IFile dependency = addGroovyFile('class B {}', 'B')
+        IFile file = addGroovyFile('new B()', 'A')
+        def cache = newCache()
+        cache.store(dependency, [other], newResult())
+        cache.recordDependencies(dependency, [])
+        cache.recordDependencies(other, [])
+        cache.store(file, [dependency], newResult())
+        cache.save()
+
+        assert newCache().lookup(file) != null
+
+        setContents(other, 'class C { def x }')
+
+        assert newCache().lookup(file) == null
+    }
+
+    @Test
+    void testSaveAndLoad() {
+        IFile file = addGroovyFile('def x = foo\ndef y = bar', 'A')
+        def cache = newCache()
+        cache.store(file, [], newResult('foo', 'bar'))
+        cache.save()
+
+        assert replay(newCache().lookup(file), file) == ['foo@0+3:1', 'bar@10+3:2']
+
+        assert newCache('other dsld').lookup(file) == null
+    }
+}
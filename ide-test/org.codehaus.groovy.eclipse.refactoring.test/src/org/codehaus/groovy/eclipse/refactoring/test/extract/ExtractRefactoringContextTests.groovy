@@ -0,0 +1,190 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.test.extract
+
+import org.codehaus.groovy.ast.ClassNode
+import org.codehaus.groovy.ast.MethodNode
+import org.codehaus.groovy.ast.ModuleNode
+import org.codehaus.groovy.ast.Variable
+import org.codehaus.groovy.ast.expr.ClosureExpression
+import org.codehaus.groovy.ast.expr.DeclarationExpression
+import org.codehaus.groovy.ast.expr.VariableExpression
+import org.codehaus.groovy.ast.stmt.BlockStatement
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment
+import org.codehaus.groovy.eclipse.codebrowsing.requestor.Region
+import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode
+import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode.VisitKind
+import org.codehaus.groovy.eclipse.refactoring.core.extract.ExtractRefactoringContext
+import org.codehaus.groovy.eclipse.refactoring.core.extract.InferParameterAndReturnTypesRequestor
+import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools
+import org.codehaus.groovy.eclipse.refactoring.test.RefactoringTestSuite
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
+import org.eclipse.jdt.groovy.core.util.JavaConstants
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+final class ExtractRefactoringContextTests extends RefactoringTestSuite {
+
+    private static final String CONTENTS = '''\
+        |package p
+        |
+        |class Foo {
+        |    def bar(int n) {
+        |        def list = [1, 2, 3]
+        |        def sum = 0
+        |        list.each { item ->
+        |            def x = item * n
+        |            sum += x
+        |        }
+        |        return sum
+        |    }
+        |}
+        |'''.stripMargin()
+
+    @Override
+    protected String getRefactoringPath() {
+        null
+    }
+
+    private GroovyCompilationUnit unit
+
+    @Before
+    void setUp() {
+        unit = (GroovyCompilationUnit) createCU(packageP, 'Foo.groovy', CONTENTS)
+        unit.becomeWorkingCopy(null)
+    }
+
+    @After
+    void tearDown() {
+        unit?.discardWorkingCopy()
+    }
+
+    private ExtractRefactoringContext getContext() {
+        ExtractRefactoringContext.forUnit(unit)
+    }
+
+    private MethodNode getBar(ModuleNode module) {
+        module.classes.find { ClassNode node -> node.name == 'p.Foo' }.getMethods('bar')[0]
+    }
+
+    private static Variable getDeclared(MethodNode method, int index) {
+        ((DeclarationExpression) ((BlockStatement) method.code).statements[index].expression).variableExpression
+    }
+
+    private static void assertSameFragment(IASTFragment expected, IASTFragment actual) {
+        assert actual.kind() == expected.kind()
+        assert actual.start == expected.start
+        assert actual.end == expected.end
+        assert actual.associatedNode.is(expected.associatedNode)
+    }
+
+    //--------------------------------------------------------------------------
+
+    @Test
+    void testContextIsShared() {
+        ExtractRefactoringContext context = getContext()
+
+        assert context.is(getContext())
+        assert context.moduleNode.is(unit.moduleNode)
+    }
+
+    @Test
+    void testSelectionFragment() {
+        int start = CONTENTS.indexOf('item * n'), length = 'item * n'.length()
+        IASTFragment expected = ASTTools.getSelectionFragment(unit.moduleNode, start, length)
+
+        IASTFragment fragment = context.getSelectionFragment(start, length)
+        assertSameFragment(expected, fragment)
+        assert context.getSelectionFragment(start, length).is(fragment)
+    }
+
+    @Test
+    void testParentStack() {
+        Region region = new Region(CONTENTS.indexOf('item * n'), 'item * n'.length())
+        FindSurroundingNode finder = new FindSurroundingNode(region, VisitKind.PARENT_STACK)
+        finder.doVisitSurroundingNode(unit.moduleNode)
+        List<IASTFragment> expected = new ArrayList<>(finder.parentStack).reverse()
+
+        List<IASTFragment> parentStack = context.getParentStack(region)
+        assert parentStack.size() == expected.size()
+        [expected, parentStack].transpose().each { IASTFragment e, IASTFragment a ->
+            assertSameFragment(e, a)
+        }
+        assert context.getParentStack(new Region(region.offset, region.length)).is(parentStack)
+        assert context.getVariablesInScope(region) == ASTTools.getVariablesInScope(parentStack)
+    }
+
+    @Test
+    void testInferredTypes() {
+        MethodNode bar = getBar(unit.moduleNode)
+        List<Variable> parameters = [getDeclared(bar, 0), bar.parameters[0]]
+        Set<Variable> returns = [getDeclared(bar, 1)] as Set
+        Region selection = new Region(CONTENTS.indexOf('list.each'), CONTENTS.indexOf('return') - CONTENTS.indexOf('list.each'))
+
+        def requestor = new InferParameterAndReturnTypesRequestor(parameters, returns, selection)
+        new TypeInferencingVisitorFactory().createVisitor(unit).visitCompilationUnit(requestor)
+        Map<Variable, ClassNode> expected = requestor.inferredTypes
+
+        Map<Variable, ClassNode> inferredTypes = context.getInferredTypes(parameters, returns, selection)
+        assert inferredTypes.keySet() == expected.keySet()
+        expected.each { Variable variable, ClassNode type ->
+            assert type != null
+            assert inferredTypes[variable].name == type.name
+        }
+        assert context.getInferredTypes(new ArrayList<>(parameters), new HashSet<>(returns), selection).is(inferredTypes)
+    }
+
+    @Test
+    void testDeclarationScope() {
+        MethodNode bar = getBar(unit.moduleNode)
+        VariableExpression sum = (VariableExpression) getDeclared(bar, 1)
+        ExtractRefactoringContext.DeclarationScope scope = context.getDeclarationScope(sum)
+
+        assert scope.method.is(bar)
+        assert scope.closure == null
+        assert scope.declaration.variableExpression.is(sum)
+        assert context.getDeclarationScope(sum).is(scope)
+
+        ClosureExpression each = (ClosureExpression) ((BlockStatement) bar.code).statements[2].expression.arguments.expressions[0]
+        VariableExpression x = (VariableExpression) ((DeclarationExpression) ((BlockStatement) each.code).statements[0].expression).variableExpression
+        scope = context.getDeclarationScope(x)
+
+        assert scope.method.is(bar)
+        assert scope.closure.is(each)
+        assert scope.declaration.variableExpression.is(x)
+    }
+
+    @Test
+    void testReconcileDropsContext() {
+        ExtractRefactoringContext context = getContext()
+        int start = CONTENTS.indexOf('item * n'), length = 'item * n'.length()
+        IASTFragment fragment = context.getSelectionFragment(start, length)
+
+        unit.buffer.contents = CONTENTS.replace('def sum = 0', 'def sum = 10')
+        unit.reconcile(JavaConstants.AST_LEVEL, true, null, null)
+
+        ExtractRefactoringContext newContext = getContext()
+        assert !newContext.is(context)
+        assert newContext.moduleNode.is(unit.moduleNode)
+        assert !newContext.moduleNode.is(context.moduleNode)
+
+        IASTFragment newFragment = newContext.getSelectionFragment(start + 1, length)
+        assert newFragment.start == fragment.start + 1
+        assert !newFragment.associatedNode.is(fragment.associatedNode)
+    }
+}
@@ -150,4 +150,58 @@ final class GroovyDocumentScannerTests {
         assertTokens(["def", "a", "=", "3", "+", "4", "<newline>"], tokens)
         scanner.dispose()
     }
+
+    @Test
+    void testIncrementalEdits() {
+        String text =
+            "class Foo {\n" +
+            "    def a = <***>\n" +
+            "    def b = [1, 2]\n" +
+            "    def c = \"\${a}\"\n" +
+            "}\n"
+        makeEditor(text)
+
+        IDocument doc = getDocument()
+        GroovyDocumentScanner scanner = GroovyDocumentScanner.forDocument(doc)
+        assertSame(scanner, GroovyDocumentScanner.forDocument(doc))
+        scanner.getLastToken()
+
+        for (edit in ['3', '+', '(', '4', ')', '\n', '    foo(', '\n', ')', '\n']) {
+            send(edit)
+            GroovyDocumentScanner fresh = new GroovyDocumentScanner(doc)
+            List<Token> expected = fresh.getTokens(0, doc.length)
+            List<Token> actual = scanner.getTokens(0, doc.length)
+            assertEquals(expected.size(), actual.size())
+            for (int i = 0; i < expected.size(); i += 1) {
+                assertEquals(expected[i].text, actual[i].text)
+                assertEquals(fresh.getOffset(expected[i]), scanner.getOffset(actual[i]))
+            }
+            fresh.dispose()
+        }
+    }
+
+    @Test
+    void testFindOpener() {
+        String text =
+            "class Foo {\n" +
+            "    def a = [1, (2), [3]]\n" +
+            "    def b = \"\${a}\"\n" +
+            "}\n"
+        makeEditor(text)
+
+        IDocument doc = getDocument()
+        GroovyDocumentScanner scanner = new GroovyDocumentScanner(doc)
+
+        Token closer = scanner.getTokenFrom(text.lastIndexOf(']'))
+        assertEquals(text.indexOf('['), scanner.getOffset(scanner.findOpener(closer)))
+
+        closer = scanner.getTokenFrom(text.indexOf(')'))
+        assertEquals(text.indexOf('('), scanner.getOffset(scanner.findOpener(closer)))
+
+        closer = scanner.getTokenFrom(text.lastIndexOf('}'))
+        assertEquals(text.indexOf('{'), scanner.getOffset(scanner.findOpener(closer)))
+
+        assertNull(scanner.findOpener(scanner.getTokenFrom(text.indexOf('a'))))
+        scanner.dispose()
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,7 @@ import org.codehaus.groovy.eclipse.launchers.GroovyConsoleLineTracker
 import org.codehaus.groovy.eclipse.launchers.GroovyConsoleLineTracker.AmbiguousFileLink
 import org.codehaus.groovy.eclipse.test.GroovyEclipseTestSuite
 import org.eclipse.core.resources.IFile
+import org.eclipse.core.runtime.jobs.Job
 import org.eclipse.debug.core.model.IProcess
 import org.eclipse.debug.core.model.IStreamMonitor
 import org.eclipse.debug.core.model.IStreamsProxy
@@ -34,6 +35,7 @@ import org.eclipse.jface.text.Region
 import org.eclipse.ui.console.IHyperlink
 import org.eclipse.ui.console.IOConsoleOutputStream
 import org.eclipse.ui.console.IPatternMatchListener
+import org.junit.After
 import org.junit.Assert
 import org.junit.Before
 import org.junit.Test
@@ -55,12 +57,23 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         lineTracker.init(console)
     }
 
+    @After
+    void tearDown() {
+        lineTracker.dispose()
+    }
+
+    private void appendLine(String contents) {
+        doc.set(contents)
+        lineTracker.lineAppended(new Region(0, contents.length()))
+        // links are resolved in the background
+        Job.jobManager.join(GroovyConsoleLineTracker, null)
+    }
+
     @Test
     void testNoLink() {
         addGroovySource('', 'Bar', 'f')
         String contents = 'ahdhjkfsfds'
-        doc.set(contents)
-        lineTracker.lineAppended(new Region(0, contents.length()))
+        appendLine(contents)
         Assert.assertNull('Should not have found any hyperlinks', console.getLastLink())
     }
 
@@ -68,8 +81,7 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
     void testLink() {
         addGroovySource('', 'Bar', 'f')
         String contents = 'at f.Bar.run(Bar.groovy:2)'
-        doc.set(contents)
-        lineTracker.lineAppended(new Region(0, contents.length()))
+        appendLine(contents)
         Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
         FileLink link = (FileLink) console.getLastLink()
         IFile file = ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
@@ -82,8 +94,7 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         addGroovySource('', 'Baz', 'f')
         addGroovySource('', 'Baz', 'f', addSourceFolder('other'))
         String contents = 'at f.Baz.run(Baz.groovy:2)'
-        doc.set(contents)
-        lineTracker.lineAppended(new Region(0, contents.length()))
+        appendLine(contents)
         Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
         FileLink link = (FileLink) console.getLastLink()
         Object file = ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
@@ -95,6 +106,19 @@ final class ConsoleLineTrackerTests extends GroovyEclipseTestSuite {
         Assert.assertEquals('File name is wrong', 'Baz.groovy', files[0].getName())
         Assert.assertEquals('File name is wrong', 'Baz.groovy', files[1].getName())
     }
+
+    @Test
+    void testLinkToFileAddedAfterIndexing() {
+        addGroovySource('', 'Bar', 'f')
+        appendLine('at f.Bar.run(Bar.groovy:2)')
+        Assert.assertNotNull('Should have found a hyperlink', console.getLastLink())
+
+        addGroovySource('', 'Qux', 'g')
+        appendLine('at g.Qux.run(Qux.groovy:3)')
+        FileLink link = (FileLink) console.getLastLink()
+        IFile file = ReflectionUtils.getPrivateField(FileLink.class, 'fFile', link)
+        Assert.assertEquals('File name is wrong', 'Qux.groovy', file.getName())
+    }
 }
 
 @SuppressWarnings('deprecation')
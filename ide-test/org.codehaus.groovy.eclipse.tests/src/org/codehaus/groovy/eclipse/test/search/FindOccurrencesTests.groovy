@@ -116,6 +116,36 @@ final class FindOccurrencesTests extends GroovyEclipseTestSuite {
         doTest(contents, contents.indexOf('x'), 1, contents.indexOf('x'), 1, contents.lastIndexOf('x'), 1)
     }
 
+    @Test
+    void testFindClosureParameterOccurrences() {
+        String contents = '''\
+            [].each { x ->
+              x += x
+            }
+            '''.stripIndent()
+        doTest(contents, contents.indexOf('x +='), 1, contents.indexOf('x'), 1, contents.indexOf('x +='), 1, contents.indexOf('+= x') + 3, 1)
+    }
+
+    @Test
+    void testFindLocalOccurrencesInClosureAndAnonymousClass() {
+        String contents = '''\
+            class C {
+              def m() {
+                int y = 0
+                def c = { -> y++ }
+                def r = new Runnable() {
+                  void run() { print y }
+                }
+              }
+              def n() {
+                def y
+              }
+            }
+            '''.stripIndent()
+        int first = contents.indexOf('y')
+        doTest(contents, first, 1, first, 1, contents.indexOf('y++'), 1, contents.indexOf('print y') + 6, 1)
+    }
+
     @Test @NotYetImplemented // Not working now; see GROOVY-4620 and GRECLIPSE-951
     void testFindPrimitive() {
         String contents = '''\
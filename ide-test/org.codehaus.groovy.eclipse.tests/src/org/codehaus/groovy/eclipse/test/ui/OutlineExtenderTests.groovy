@@ -20,6 +20,7 @@ import groovy.transform.NotYetImplemented
 import org.codehaus.groovy.eclipse.GroovyPlugin
 import org.codehaus.groovy.eclipse.editor.GroovyEditor
 import org.codehaus.groovy.eclipse.editor.outline.GroovyOutlinePage
+import org.codehaus.groovy.eclipse.editor.outline.OCompilationUnit
 import org.codehaus.groovy.eclipse.editor.outline.OField
 import org.codehaus.groovy.eclipse.editor.outline.OMethod
 import org.codehaus.groovy.eclipse.editor.outline.OType
@@ -33,6 +34,7 @@ import org.codehaus.jdt.groovy.model.GroovyCompilationUnit
 import org.eclipse.core.runtime.Adapters
 import org.eclipse.jdt.core.IField
 import org.eclipse.jdt.core.IJavaElement
+import org.eclipse.jdt.core.IType
 import org.eclipse.jdt.internal.ui.javaeditor.JavaSourceViewer
 import org.eclipse.ui.views.contentoutline.IContentOutlinePage
 import org.junit.After
@@ -232,6 +234,56 @@ final class OutlineExtenderTests extends GroovyEclipseTestSuite {
         assert children[1].elementType == IJavaElement.METHOD
     }
 
+    @Test
+    void testGroovyClassOutline3() {
+        String contents = '''\
+            class Pogo {
+              def one() {
+                'one'
+              }
+              def two() {
+                'two'
+              }
+            }
+            '''.stripIndent()
+        GroovyCompilationUnit unit = addGroovySource(contents, 'Pogo')
+        GroovyEditor editor = (GroovyEditor) openInEditor(unit)
+        int[] refreshes = [0]
+        OCompilationUnit outline = new OCompilationUnit(unit) {
+            @Override
+            IJavaElement[] refreshChildren() {
+                refreshes[0] += 1
+                return getUnit().children
+            }
+        }
+        outline.refresh()
+        IJavaElement[] children = outline.children.clone()
+        assert children*.elementName == ['Pogo']
+        assert refreshes[0] == 1
+
+        // nothing changed
+        outline.refresh()
+        assert refreshes[0] == 1
+
+        // edit inside of one()
+        editor.viewer.document.replace(contents.indexOf('one\''), 3, 'first')
+        outline.refresh()
+
+        assert outline.children[0].is(children[0])
+        assert outline.changedParents.isEmpty()
+        assert outline.changedMembers*.elementName == ['one']
+
+        // add a method
+        String text = editor.viewer.document.get()
+        editor.viewer.document.replace(text.lastIndexOf('}'), 0, '  def three() {}\n')
+        outline.refresh()
+
+        assert outline.children[0].is(children[0])
+        assert outline.changedParents*.elementName == ['Pogo']
+        assert outline.changedMembers.isEmpty()
+        assert ((IType) outline.children[0]).children*.elementName == ['one', 'two', 'three']
+    }
+
     @Test
     void testGroovyScriptOutline0() {
         GroovyOutlinePage outline = openFile('Z', 'int yyy')
@@ -311,6 +363,34 @@ final class OutlineExtenderTests extends GroovyEclipseTestSuite {
         assert children*.elementType == [IJavaElement.IMPORT_CONTAINER, IJavaElement.FIELD, IJavaElement.FIELD]
     }
 
+    @Test
+    void testGroovyScriptOutline4() {
+        String contents = '''\
+            def a = 1
+            def one() {
+              'one'
+            }
+            def two() {
+              'two'
+            }
+            '''.stripIndent()
+        GroovyOutlinePage outline = openFile('Script3', contents)
+        IJavaElement[] children = outline.outlineCompilationUnit.children.clone()
+        assert children*.elementName == ['a', 'one', 'two']
+
+        // edit inside of one()
+        GroovyEditor editor = (GroovyEditor) openInEditor(outline.outlineCompilationUnit.unit)
+        editor.viewer.document.replace(contents.indexOf('one\''), 3, 'first')
+        outline.refresh()
+
+        IJavaElement[] changed = outline.outlineCompilationUnit.children
+        assert changed*.elementName == ['a', 'one', 'two']
+        assert changed[0].is(children[0])
+        assert !changed[1].is(children[1])
+        assert changed[2].is(children[2])
+        assert changed[2].sourceRange.offset == contents.indexOf('def two') + 2
+    }
+
     @Test
     void testStructureUnknown() {
         GroovyOutlinePage outline = openFile('Problem', '''\
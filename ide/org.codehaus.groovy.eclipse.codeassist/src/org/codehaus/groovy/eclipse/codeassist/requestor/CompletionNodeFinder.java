@@ -63,6 +63,7 @@ import org.codehaus.groovy.syntax.Types;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
 
 /**
  * Finds the completion node for an offset and calculates the content assist context.
@@ -76,6 +77,7 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
     private String fullCompletionExpression;
 
     private GroovyCompilationUnit unit;
+    private SourceLocationIndex index;
     private ContentAssistContext context;
 
     /**
@@ -113,11 +115,13 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
     public ContentAssistContext findContentAssistContext(GroovyCompilationUnit unit) {
         try {
             this.unit = unit;
+            this.index = SourceLocationIndex.of(unit.getModuleNode());
             visitModule(unit.getModuleNode());
         } catch (VisitCompleteException e) {
             // successful visitation
         } finally {
             this.unit = null;
+            this.index = null;
         }
         return context;
     }
@@ -235,6 +239,12 @@ public class CompletionNodeFinder extends DepthFirstVisitor {
             lhsNode = new MemberValueExpression(node.getName(), ((ReturnStatement) node.getCode()).getExpression(), new AnnotationNode(node.getDeclaringClass()));
         }
 
+        // skip the body of a method that cannot contain the completion or supporting node
+        if (!node.isScriptBody() && index != null && !index.mayOverlap(node, completionOffset, completionOffset) &&
+                !index.mayOverlap(node, supportingNodeEnd, supportingNodeEnd)) {
+            return;
+        }
+
         declarationStack.add(node);
 
         blockStack.add(node);
@@ -174,81 +174,86 @@ public class GroovyCompletionProposalComputer implements IJavaCompletionProposal
             return Collections.EMPTY_LIST;
         }
 
+        long span = GroovyLogManager.manager.startSpan();
         String traceEvent = null;
+        long traceStart = 0L;
         if (GroovyLogManager.manager.hasLoggers()) {
             GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST, "Starting content assist for " + unit.getElementName());
             traceEvent = "Content assist for " + unit.getElementName();
-            GroovyLogManager.manager.logStart(traceEvent);
+            traceStart = GroovyLogManager.manager.logStart(traceEvent);
         }
 
-        GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
-        ModuleNodeInfo moduleInfo = gunit.getModuleInfo(true);
-        if (moduleInfo == null) {
-            if (traceEvent != null) {
-                GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST, "Null module node");
+        try {
+            GroovyCompilationUnit gunit = (GroovyCompilationUnit) unit;
+            ModuleNodeInfo moduleInfo = gunit.getModuleInfo(true);
+            if (moduleInfo == null) {
+                if (traceEvent != null) {
+                    GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST, "Null module node");
+                }
+                return Collections.EMPTY_LIST;
             }
-            return Collections.EMPTY_LIST;
-        }
 
-        int offset = context.getInvocationOffset();
-        IDocument document = context.getDocument();
-        if (offset < 0 || offset > document.getLength()) {
-            if (traceEvent != null) {
-                GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST, "Completion offset " + offset + " is out of bounds");
+            int offset = context.getInvocationOffset();
+            IDocument document = context.getDocument();
+            if (offset < 0 || offset > document.getLength()) {
+                if (traceEvent != null) {
+                    GroovyLogManager.manager.log(TraceCategory.CONTENT_ASSIST, "Completion offset " + offset + " is out of bounds");
+                }
+                return Collections.EMPTY_LIST;
             }
-            return Collections.EMPTY_LIST;
-        }
 
-        ContentAssistContext assistContext = createContentAssistContext(gunit, offset, document);
-        List<ICompletionProposal> proposals = new ArrayList<>();
-        if (assistContext != null) {
-            List<IGroovyCompletionProcessorFactory> factories = LOCATION_FACTORIES.get(assistContext.location);
-            if (factories != null) {
-                SubMonitor submon = SubMonitor.convert(monitor, factories.size());
-                SearchableEnvironment environment = createSearchableEnvironment(javaContext);
-                try {
-                    for (IGroovyCompletionProcessorFactory factory : factories) {
-                        IGroovyCompletionProcessor processor = factory.createProcessor(assistContext, javaContext, environment);
-                        if (processor != null) {
-                            if (processor instanceof ITypeResolver) {
-                                ((ITypeResolver) processor).setResolverInformation(moduleInfo.module, moduleInfo.resolver);
+            ContentAssistContext assistContext = createContentAssistContext(gunit, offset, document);
+            List<ICompletionProposal> proposals = new ArrayList<>();
+            if (assistContext != null) {
+                List<IGroovyCompletionProcessorFactory> factories = LOCATION_FACTORIES.get(assistContext.location);
+                if (factories != null) {
+                    SubMonitor submon = SubMonitor.convert(monitor, factories.size());
+                    SearchableEnvironment environment = createSearchableEnvironment(javaContext);
+                    try {
+                        for (IGroovyCompletionProcessorFactory factory : factories) {
+                            IGroovyCompletionProcessor processor = factory.createProcessor(assistContext, javaContext, environment);
+                            if (processor != null) {
+                                if (processor instanceof ITypeResolver) {
+                                    ((ITypeResolver) processor).setResolverInformation(moduleInfo.module, moduleInfo.resolver);
+                                }
+                                proposals.addAll(processor.generateProposals(submon.split(1)));
                             }
-                            proposals.addAll(processor.generateProposals(submon.split(1)));
                         }
-                    }
-                } finally {
-                    if (environment != null) {
-                        environment.cleanup();
+                    } finally {
+                        if (environment != null) {
+                            environment.cleanup();
+                        }
                     }
                 }
-            }
 
-            // extra filtering and sorting provided by third parties
-            try {
-                List<IProposalFilter> filters = ProposalProviderRegistry.getRegistry().getFiltersFor(assistContext.unit);
-                for (IProposalFilter filter : filters) {
-                    try {
-                        if (filter instanceof IProposalFilterExtension) {
-                            List<ICompletionProposal> newProposals =
-                                ((IProposalFilterExtension) filter).filterExtendedProposals(proposals, assistContext, javaContext);
-                            if (newProposals != null) {
-                                proposals = newProposals;
+                // extra filtering and sorting provided by third parties
+                try {
+                    List<IProposalFilter> filters = ProposalProviderRegistry.getRegistry().getFiltersFor(assistContext.unit);
+                    for (IProposalFilter filter : filters) {
+                        try {
+                            if (filter instanceof IProposalFilterExtension) {
+                                List<ICompletionProposal> newProposals =
+                                    ((IProposalFilterExtension) filter).filterExtendedProposals(proposals, assistContext, javaContext);
+                                if (newProposals != null) {
+                                    proposals = newProposals;
+                                }
                             }
+                        } catch (Exception e) {
+                            GroovyContentAssist.logError("Exception when using third party proposal filter: " + filter.getClass().getCanonicalName(), e);
                         }
-                    } catch (Exception e) {
-                        GroovyContentAssist.logError("Exception when using third party proposal filter: " + filter.getClass().getCanonicalName(), e);
                     }
+                } catch (CoreException e) {
+                    GroovyContentAssist.logError("Exception accessing proposal provider registry", e);
                 }
-            } catch (CoreException e) {
-                GroovyContentAssist.logError("Exception accessing proposal provider registry", e);
             }
-        }
 
-        if (traceEvent != null) {
-            GroovyLogManager.manager.logEnd(traceEvent, TraceCategory.CONTENT_ASSIST);
+            return proposals;
+        } finally {
+            GroovyLogManager.manager.endSpan(TraceCategory.CONTENT_ASSIST, span);
+            if (traceEvent != null) {
+                GroovyLogManager.manager.logEnd(traceEvent, TraceCategory.CONTENT_ASSIST, traceStart);
+            }
         }
-
-        return proposals;
     }
 
     // visible for testing
@@ -53,10 +53,12 @@ import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.eclipse.jdt.groovy.core.util.ArrayUtils;
 import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
 import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
 
 public class ASTNodeFinder extends DepthFirstVisitor {
 
     protected ModuleNode module;
+    protected SourceLocationIndex index;
     protected ASTNode result;
     protected Region sloc;
 
@@ -69,6 +71,7 @@ public class ASTNodeFinder extends DepthFirstVisitor {
      */
     public ASTNode doVisit(ModuleNode node) {
         module = node;
+        index = SourceLocationIndex.of(node);
         result = null;
         try {
             visitModule(node);
@@ -95,6 +98,8 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     @Override
     public void visitClass(ClassNode node) {
+        if (isDisjoint(node)) return;
+
         if (node.getNameEnd() > 0) {
             checkNameRange(node); // also checks generics
             checkSupers(node); // extends and implements
@@ -105,6 +110,8 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     @Override
     public void visitField(FieldNode node) {
+        if (isDisjoint(node)) return;
+
         if (node.getNameEnd() > 0) {
             checkNameRange(node);
         }
@@ -127,7 +134,7 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     @Override
     public void visitMethod(MethodNode node) {
-        if (node == runMethod) return;
+        if (node == runMethod || isDisjoint(node)) return;
 
         if (node.getEnd() > 0) {
             if (!(node instanceof ConstructorNode) && isNotEmpty(node.getGenericsTypes())) {
@@ -329,6 +336,15 @@ public class ASTNodeFinder extends DepthFirstVisitor {
 
     //--------------------------------------------------------------------------
 
+    /**
+     * Determines if the declaration and everything within it lies outside of
+     * the selection, in which case nothing within it can cover the selection.
+     */
+    protected boolean isDisjoint(ASTNode node) {
+        // allow for name ranges and gstring variables that extend one character past the source range
+        return (index != null && !index.mayOverlap(node, sloc.getOffset() - 1, sloc.getEnd() + 1));
+    }
+
     /**
      * Checks if the node covers the selection.
      */
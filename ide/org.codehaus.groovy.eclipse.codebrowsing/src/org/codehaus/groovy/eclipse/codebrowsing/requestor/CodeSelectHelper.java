@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,7 +36,7 @@ import org.codehaus.jdt.groovy.model.ICodeSelectHelper;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+import org.eclipse.jdt.groovy.search.TypeLookupResult.TypeConfidence;
 
 public class CodeSelectHelper implements ICodeSelectHelper {
 
@@ -62,11 +62,13 @@ public class CodeSelectHelper implements ICodeSelectHelper {
 
         ModuleNode module = unit.getModuleNode();
         if (module != null) {
+            long span = GroovyLogManager.manager.startSpan();
             String event = null;
+            long eventStart = 0L;
             if (GroovyLogManager.manager.hasLoggers()) {
                 GroovyLogManager.manager.log(TraceCategory.CODE_SELECT, unit.getElementName() + " at [" + start + "," + length + "]");
                 event = "Code select: " + unit.getElementName();
-                GroovyLogManager.manager.logStart(event);
+                eventStart = GroovyLogManager.manager.logStart(event);
             }
             try {
                 Region select = new Region(start, length);
@@ -79,9 +81,7 @@ public class CodeSelectHelper implements ICodeSelectHelper {
                         return returnThisNode(node, unit);
                     }
 
-                    CodeSelectRequestor requestor = createRequestor(node, region, select, unit);
-                    TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-                    visitor.visitCompilationUnit(requestor);
+                    CodeSelectRequestor requestor = inferNode(node, region, select, unit);
 
                     IJavaElement element = requestor.getRequestedElement();
                     if (element != null) {
@@ -94,8 +94,9 @@ public class CodeSelectHelper implements ICodeSelectHelper {
                 }
                 throw e;
             } finally {
+                GroovyLogManager.manager.endSpan(TraceCategory.CODE_SELECT, span);
                 if (event != null) {
-                    GroovyLogManager.manager.logEnd(event, TraceCategory.CODE_SELECT);
+                    GroovyLogManager.manager.logEnd(event, TraceCategory.CODE_SELECT, eventStart);
                 }
             }
         }
@@ -105,11 +106,13 @@ public class CodeSelectHelper implements ICodeSelectHelper {
     public ASTNode selectASTNode(GroovyCompilationUnit unit, int start, int length) {
         ModuleNode module = unit.getModuleNode();
         if (module != null) {
+            long span = GroovyLogManager.manager.startSpan();
             String event = null;
+            long eventStart = 0L;
             if (GroovyLogManager.manager.hasLoggers()) {
                 GroovyLogManager.manager.log(TraceCategory.CODE_SELECT, "Code select starting on " + unit.getElementName() + " at [ " + start + "," + length + " ]");
                 event = "Code select: " + unit.getElementName();
-                GroovyLogManager.manager.logStart(event);
+                eventStart = GroovyLogManager.manager.logStart(event);
             }
             try {
                 Region select = new Region(start, length);
@@ -122,20 +125,36 @@ public class CodeSelectHelper implements ICodeSelectHelper {
                         return ((ClassNode) node).redirect();
                     }
 
-                    CodeSelectRequestor requestor = createRequestor(node, region, select, unit);
-                    TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-                    visitor.visitCompilationUnit(requestor);
+                    CodeSelectRequestor requestor = inferNode(node, region, select, unit);
                     return requestor.getRequestedNode();
                 }
             } finally {
+                GroovyLogManager.manager.endSpan(TraceCategory.CODE_SELECT, span);
                 if (event != null) {
-                    GroovyLogManager.manager.logEnd(event, TraceCategory.CODE_SELECT);
+                    GroovyLogManager.manager.logEnd(event, TraceCategory.CODE_SELECT, eventStart);
                 }
             }
         }
         return null;
     }
 
+    /**
+     * Infers the selected node by visiting only the member that encloses it.
+     * If that does not produce a result or produces an unknown one, the whole
+     * compilation unit is visited in case the result depends on inferencing in
+     * the skipped members (e.g. assignments to fields).
+     */
+    protected CodeSelectRequestor inferNode(ASTNode node, Region nodeRegion, Region selectRegion, GroovyCompilationUnit unit) {
+        CodeSelectRequestor requestor = createRequestor(node, nodeRegion, selectRegion, unit);
+        new TypeInferencingVisitorFactory().createVisitor(unit).visitCompilationUnit(requestor, selectRegion.getOffset(), selectRegion.getEnd());
+        if ((requestor.getRequestedNode() == null && requestor.getRequestedElement() == null) ||
+                requestor.getRequestedConfidence() == null || requestor.getRequestedConfidence() == TypeConfidence.UNKNOWN) {
+            requestor = createRequestor(node, nodeRegion, selectRegion, unit);
+            new TypeInferencingVisitorFactory().createVisitor(unit).visitCompilationUnit(requestor);
+        }
+        return requestor;
+    }
+
     /**
      * Allows sub-classes to provide their own requestor.
      *
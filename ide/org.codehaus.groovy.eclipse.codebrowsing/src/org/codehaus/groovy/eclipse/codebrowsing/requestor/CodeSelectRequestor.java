@@ -90,6 +90,7 @@ public class CodeSelectRequestor implements ITypeRequestor {
 
     private ASTNode requestedNode;
     private IJavaElement requestedElement;
+    private TypeLookupResult.TypeConfidence requestedConfidence;
 
     public CodeSelectRequestor(ASTNode node, GroovyCompilationUnit unit) {
         this(node, null, new Region(Integer.MIN_VALUE, 0), unit);
@@ -111,6 +112,14 @@ public class CodeSelectRequestor implements ITypeRequestor {
         return requestedElement;
     }
 
+    /**
+     * @return confidence of the type lookup result that matched the selected
+     *     node or {@code null} if no match was found
+     */
+    public TypeLookupResult.TypeConfidence getRequestedConfidence() {
+        return requestedConfidence;
+    }
+
     @Override
     public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
         boolean found = false;
@@ -167,6 +176,7 @@ public class CodeSelectRequestor implements ITypeRequestor {
      * {@link #nodeToLookFor}.
      */
     private void handleMatch(TypeLookupResult result, IJavaElement enclosingElement) throws JavaModelException {
+        requestedConfidence = result.confidence;
         requestedNode = result.declaration;
         if (requestedNode instanceof ClassNode) {
             ClassNode classNode = (ClassNode) requestedNode;
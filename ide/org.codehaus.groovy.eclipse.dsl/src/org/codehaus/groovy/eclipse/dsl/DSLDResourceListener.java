@@ -103,18 +103,24 @@ public class DSLDResourceListener implements IResourceChangeListener {
                     // start by purging
                     // if this file diden't exist in the past, then this is a
                     // no-op
-                    store.purgeIdentifier(file);
-
-                    if (file.isAccessible() && eventType == IResourceChangeEvent.POST_CHANGE) {
-                        // also refresh the file
-                        if (isDSLDFile(file)) {
-                            DSLDScriptExecutor executor = new DSLDScriptExecutor(JavaCore.create(project));
-                            executor.executeScript(file);
-                        } else if (isXDSL(file)) {
-                            // At this point the suggestions should already be in the manager. only contribution groups
-                            // and point cuts need to be created
-                            new SuggestionsLoader(file).addSuggestionsContributionGroup();
+                    // publish the purge and the new contributions together
+                    store.beginUpdate();
+                    try {
+                        store.purgeIdentifier(file);
+
+                        if (file.isAccessible() && eventType == IResourceChangeEvent.POST_CHANGE) {
+                            // also refresh the file
+                            if (isDSLDFile(file)) {
+                                DSLDScriptExecutor executor = new DSLDScriptExecutor(JavaCore.create(project));
+                                executor.executeScript(file);
+                            } else if (isXDSL(file)) {
+                                // At this point the suggestions should already be in the manager. only contribution groups
+                                // and point cuts need to be created
+                                new SuggestionsLoader(file).addSuggestionsContributionGroup();
+                            }
                         }
+                    } finally {
+                        store.endUpdate();
                     }
                 }
             }
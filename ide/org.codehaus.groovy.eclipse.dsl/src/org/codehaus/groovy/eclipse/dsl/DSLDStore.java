@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.dsl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -36,58 +37,201 @@ import org.eclipse.jdt.internal.core.NonJavaResource;
 
 /**
  * Stores the pointcuts for a single project.
+ * <p>
+ * The pointcuts and their contributions are held in an immutable snapshot
+ * that is replaced whenever scripts are added or purged, so matching never
+ * takes a lock and user-written pointcuts are evaluated without blocking a
+ * concurrent refresh or other editors.
+ * <p>
+ * Writers collect changes in a mutable builder that is published as a single
+ * snapshot.  A full refresh is staged: between {@link #beginRefresh()} and
+ * {@link #endRefresh()} readers continue to see the previous contents, so that
+ * inferencing never observes a partially loaded store.  Likewise, the changes
+ * made by one script between {@link #beginUpdate()} and {@link #endUpdate()}
+ * are published together.
  */
 public class DSLDStore {
 
-    /** Maps pointcuts to their contributors. */
-    private final Map<IPointcut, List<IContributionGroup>> pointcutContributionMap = new LinkedHashMap<>();
-    /** Maps keys (such as script names) to the pointcuts they produce. */
-    private final Map<IStorage, Set<IPointcut>> keyContextMap = new HashMap<>();
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
 
-    public void addContributionGroup(IPointcut pointcut, IContributionGroup contribution) {
-        synchronized (pointcutContributionMap) {
-            List<IContributionGroup> contributions = pointcutContributionMap.get(pointcut);
-            if (contributions == null) {
-                contributions = new ArrayList<>();
-                pointcutContributionMap.put(pointcut, contributions);
+        /** Maps pointcuts to their contributors. */
+        final Map<IPointcut, List<IContributionGroup>> pointcutContributionMap;
+        /** Maps keys (such as script names) to the pointcuts they produce. */
+        final Map<IStorage, Set<IPointcut>> keyContextMap;
+
+        Snapshot(Map<IPointcut, List<IContributionGroup>> pointcutContributionMap, Map<IStorage, Set<IPointcut>> keyContextMap) {
+            this.pointcutContributionMap = pointcutContributionMap;
+            this.keyContextMap = keyContextMap;
+        }
+    }
+
+    /**
+     * Mutable contents that have not been published yet.
+     */
+    private static final class Builder {
+        final Map<IPointcut, List<IContributionGroup>> pointcutContributionMap = new LinkedHashMap<>();
+        final Map<IStorage, Set<IPointcut>> keyContextMap = new HashMap<>();
+
+        Builder() {
+        }
+
+        Builder(Snapshot snapshot) {
+            for (Map.Entry<IPointcut, List<IContributionGroup>> entry : snapshot.pointcutContributionMap.entrySet()) {
+                pointcutContributionMap.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+            for (Map.Entry<IStorage, Set<IPointcut>> entry : snapshot.keyContextMap.entrySet()) {
+                keyContextMap.put(entry.getKey(), new HashSet<>(entry.getValue()));
+            }
+        }
+
+        void add(IPointcut pointcut, List<IContributionGroup> contributions) {
+            pointcutContributionMap.computeIfAbsent(pointcut, x -> new ArrayList<>()).addAll(contributions);
+            keyContextMap.computeIfAbsent(pointcut.getContainerIdentifier(), x -> new HashSet<>()).add(pointcut);
+        }
+
+        boolean purge(IStorage identifier) {
+            Set<IPointcut> pointcuts = keyContextMap.remove(identifier);
+            if (pointcuts != null) {
+                pointcutContributionMap.keySet().removeAll(pointcuts);
+                return true;
+            }
+            return false;
+        }
+
+        Snapshot build() {
+            if (pointcutContributionMap.isEmpty() && keyContextMap.isEmpty()) {
+                return Snapshot.EMPTY;
+            }
+            Map<IPointcut, List<IContributionGroup>> contributions = new LinkedHashMap<>();
+            for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
+                contributions.put(entry.getKey(), Collections.unmodifiableList(new ArrayList<>(entry.getValue())));
+            }
+            Map<IStorage, Set<IPointcut>> contexts = new HashMap<>();
+            for (Map.Entry<IStorage, Set<IPointcut>> entry : keyContextMap.entrySet()) {
+                contexts.put(entry.getKey(), Collections.unmodifiableSet(new HashSet<>(entry.getValue())));
             }
-            contributions.add(contribution);
+            return new Snapshot(contributions, contexts);
+        }
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    /** Contents being built by a refresh in progress, or {@code null}. */
+    private Builder staged;
+
+    /** Contents being built by script updates in progress, or {@code null}. */
+    private Builder pending;
+    private int pendingUpdates;
+
+    /** Serializes writers; readers use whatever snapshot is current. */
+    private final Object writeLock = new Object();
+
+    /**
+     * Starts collecting contributions into an empty staged snapshot.  Until
+     * the refresh is ended or canceled, readers see the current contents.
+     */
+    public void beginRefresh() {
+        synchronized (writeLock) {
+            staged = new Builder();
         }
+    }
 
-        IStorage identifier = pointcut.getContainerIdentifier();
-        synchronized (keyContextMap) {
-            Set<IPointcut> pointcuts = keyContextMap.get(identifier);
-            if (pointcuts == null) {
-                pointcuts = new HashSet<>();
-                keyContextMap.put(identifier, pointcuts);
+    /**
+     * Publishes the contents collected since {@link #beginRefresh()}.
+     */
+    public void endRefresh() {
+        synchronized (writeLock) {
+            if (staged != null) {
+                snapshot = staged.build();
+                staged = null;
             }
-            pointcuts.add(pointcut);
         }
     }
 
+    /**
+     * Discards the contents collected since {@link #beginRefresh()}.
+     */
+    public void cancelRefresh() {
+        synchronized (writeLock) {
+            staged = null;
+        }
+    }
+
+    public boolean isRefreshing() {
+        synchronized (writeLock) {
+            return (staged != null);
+        }
+    }
+
+    /**
+     * Starts collecting the changes made by a script.  Calls may be nested;
+     * the changes are published when the outermost update ends.  During a
+     * refresh, changes go to the staged contents instead.
+     */
+    public void beginUpdate() {
+        synchronized (writeLock) {
+            if (pendingUpdates++ == 0) {
+                pending = new Builder(snapshot);
+            }
+        }
+    }
+
+    /**
+     * Publishes the changes collected since the matching {@link #beginUpdate()}.
+     */
+    public void endUpdate() {
+        synchronized (writeLock) {
+            if (pendingUpdates > 0 && --pendingUpdates == 0) {
+                if (staged == null) {
+                    snapshot = pending.build();
+                }
+                pending = null;
+            }
+        }
+    }
+
+    private Builder builder() {
+        if (staged != null) {
+            return staged;
+        }
+        if (pending != null) {
+            return pending;
+        }
+        return new Builder(snapshot);
+    }
+
+    private void publish(Builder builder) {
+        if (builder != staged && builder != pending) {
+            snapshot = builder.build();
+        }
+    }
+
+    public void addContributionGroup(IPointcut pointcut, IContributionGroup contribution) {
+        addAllContributions(pointcut, Collections.singletonList(contribution));
+    }
+
     public void purgeIdentifier(IStorage identifier) {
         if (GroovyLogManager.manager.hasLoggers()) {
             GroovyLogManager.manager.log(TraceCategory.DSL, "Purging pointcut for DSL file " + identifier);
         }
-        Set<IPointcut> pointcuts;
-        synchronized (keyContextMap) {
-            pointcuts = keyContextMap.remove(identifier);
-        }
-        if (pointcuts != null) {
-            synchronized (pointcutContributionMap) {
-                for (IPointcut pointcut : pointcuts) {
-                    pointcutContributionMap.remove(pointcut);
-                }
+        synchronized (writeLock) {
+            Builder builder = builder();
+            if (builder.purge(identifier)) {
+                publish(builder);
             }
         }
     }
 
     public void purgeAll() {
-        synchronized (keyContextMap) {
-            keyContextMap.clear();
-        }
-        synchronized (pointcutContributionMap) {
-            pointcutContributionMap.clear();
+        synchronized (writeLock) {
+            snapshot = Snapshot.EMPTY;
+            if (staged != null) {
+                staged = new Builder();
+            }
+            if (pending != null) {
+                pending = new Builder();
+            }
         }
     }
 
@@ -101,31 +245,34 @@ public class DSLDStore {
      * @return a new {@link DSLDStore} containing only matches against the pattern
      */
     public DSLDStore createSubStore(GroovyDSLDContext pattern) {
-        DSLDStore subStore = new DSLDStore();
-        synchronized (pointcutContributionMap) {
-            for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
-                if (entry.getKey().fastMatch(pattern)) {
-                    subStore.addAllContributions(entry.getKey(), entry.getValue());
-                }
+        Map<IPointcut, List<IContributionGroup>> pointcutContributionMap = new LinkedHashMap<>();
+        for (Map.Entry<IPointcut, List<IContributionGroup>> entry : snapshot.pointcutContributionMap.entrySet()) {
+            if (entry.getKey().fastMatch(pattern)) {
+                pointcutContributionMap.put(entry.getKey(), entry.getValue());
             }
         }
+        DSLDStore subStore = new DSLDStore();
+        if (!pointcutContributionMap.isEmpty()) {
+            subStore.snapshot = new Snapshot(pointcutContributionMap, Collections.emptyMap());
+        }
         return subStore;
     }
 
     public void addAllContributions(IPointcut pointcut, List<IContributionGroup> contributions) {
-        synchronized (pointcutContributionMap) {
-            List<IContributionGroup> existing = pointcutContributionMap.get(pointcut);
-            if (existing == null) {
-                pointcutContributionMap.put(pointcut, contributions);
-            } else {
-                existing.addAll(contributions);
-            }
+        synchronized (writeLock) {
+            Builder builder = builder();
+            builder.add(pointcut, contributions);
+            publish(builder);
         }
     }
 
     public void addAllContexts(List<IPointcut> pointcuts, IContributionGroup contribution) {
-        for (IPointcut pointcut : pointcuts) {
-            addContributionGroup(pointcut, contribution);
+        synchronized (writeLock) {
+            Builder builder = builder();
+            for (IPointcut pointcut : pointcuts) {
+                builder.add(pointcut, Collections.singletonList(contribution));
+            }
+            publish(builder);
         }
     }
 
@@ -138,16 +285,14 @@ public class DSLDStore {
      */
     public List<IContributionElement> findContributions(GroovyDSLDContext pattern, Set<String> disabledScripts) {
         List<IContributionElement> elts = new ArrayList<>();
-        synchronized (pointcutContributionMap) {
-            for (Map.Entry<IPointcut, List<IContributionGroup>> entry : pointcutContributionMap.entrySet()) {
-                IPointcut pointcut = entry.getKey();
-                if (!disabledScripts.contains(DSLDStore.toUniqueString(pointcut.getContainerIdentifier()))) {
-                    pattern.resetBinding();
-                    Collection<?> results = pointcut.matches(pattern, pattern.getCurrentType());
-                    if (results != null) {
-                        for (IContributionGroup group : entry.getValue()) {
-                            elts.addAll(group.getContributions(pattern, pattern.getCurrentBinding()));
-                        }
+        for (Map.Entry<IPointcut, List<IContributionGroup>> entry : snapshot.pointcutContributionMap.entrySet()) {
+            IPointcut pointcut = entry.getKey();
+            if (!disabledScripts.contains(DSLDStore.toUniqueString(pointcut.getContainerIdentifier()))) {
+                pattern.resetBinding();
+                Collection<?> results = pattern.evaluate(pointcut, pattern.getCurrentType());
+                if (results != null) {
+                    for (IContributionGroup group : entry.getValue()) {
+                        elts.addAll(group.getContributions(pattern, pattern.getCurrentBinding()));
                     }
                 }
             }
@@ -156,9 +301,7 @@ public class DSLDStore {
     }
 
     public IStorage[] getAllContextKeys() {
-        synchronized (keyContextMap) {
-            return keyContextMap.keySet().toArray(new IStorage[0]);
-        }
+        return snapshot.keyContextMap.keySet().toArray(new IStorage[0]);
     }
 
     public static String toUniqueString(IStorage storage) {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,11 +18,11 @@ package org.codehaus.groovy.eclipse.dsl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IProject;
@@ -35,7 +35,7 @@ import org.eclipse.jdt.core.IJavaProject;
  */
 public class DSLDStoreManager {
 
-    private final Map<String, DSLDStore> projectDsldMap = new HashMap<>();
+    private final Map<String, DSLDStore> projectDsldMap = new ConcurrentHashMap<>();
 
     private final Set<String> inProgress = new HashSet<>();
 
@@ -47,12 +47,7 @@ public class DSLDStoreManager {
     }
 
     public DSLDStore getDSLDStore(String projectName) {
-        DSLDStore contextStore = projectDsldMap.get(projectName);
-        if (contextStore == null) {
-            contextStore = new DSLDStore();
-            projectDsldMap.put(projectName, contextStore);
-        }
-        return contextStore;
+        return projectDsldMap.computeIfAbsent(projectName, name -> new DSLDStore());
     }
 
     public void clearDSLDStore(IProject project) {
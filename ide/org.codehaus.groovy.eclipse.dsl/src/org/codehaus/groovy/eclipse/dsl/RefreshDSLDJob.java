@@ -25,12 +25,20 @@ import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.TraceCategory;
 import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.SuggestionsLoader;
 import org.codehaus.groovy.eclipse.dsl.inferencing.suggestions.writer.SuggestionsFileProperties;
 import org.codehaus.groovy.eclipse.dsl.script.DSLDScriptExecutor;
+import org.codehaus.groovy.eclipse.editor.GroovyEditor;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
@@ -50,13 +58,23 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jdt.core.ICompilationUnit;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IJavaModelStatusConstants;
+import org.eclipse.jdt.core.IJavaProject;
 import org.eclipse.jdt.core.IPackageFragment;
 import org.eclipse.jdt.core.IPackageFragmentRoot;
 import org.eclipse.jdt.core.IParent;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.core.dom.CompilationUnit;
+import org.eclipse.jdt.groovy.core.util.JavaConstants;
+import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.ui.IEditorPart;
+import org.eclipse.ui.IEditorReference;
+import org.eclipse.ui.IWorkbenchPage;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.PlatformUI;
 
 public class RefreshDSLDJob extends Job {
 
@@ -119,10 +137,10 @@ public class RefreshDSLDJob extends Job {
                 } finally {
                     contextStoreManager.removeInProgress(project);
                 }
-                if (!res.isOK()) {
-                    errorStatuses.add(res);
-                } else if (res == Status.CANCEL_STATUS) {
+                if (res == Status.CANCEL_STATUS) {
                     return res;
+                } else if (!res.isOK()) {
+                    errorStatuses.add(res);
                 }
             }
 
@@ -144,67 +162,163 @@ public class RefreshDSLDJob extends Job {
     }
 
     private IStatus refreshProject(IProject project, IProgressMonitor monitor) {
+        long span = GroovyLogManager.manager.startSpan();
         String event = null;
+        long eventStart = 0L;
         if (GroovyLogManager.manager.hasLoggers()) {
             GroovyLogManager.manager.log(TraceCategory.DSL, "Refreshing inferencing scripts for " + project.getName());
             event = "Refreshing inferencing scripts: " + project.getName();
-            GroovyLogManager.manager.logStart(event);
+            eventStart = GroovyLogManager.manager.logStart(event);
         }
 
-        monitor.beginTask("Refreshing DSLD files for project " + project.getName(), 9);
+        try {
+            monitor.beginTask("Refreshing DSLD files for project " + project.getName(), 9);
 
-        if (monitor.isCanceled()) {
-            return Status.CANCEL_STATUS;
-        }
-        monitor.worked(1);
+            if (monitor.isCanceled()) {
+                return Status.CANCEL_STATUS;
+            }
+            monitor.worked(1);
 
-        // purge existing
-        if (GroovyLogManager.manager.hasLoggers()) {
-            GroovyLogManager.manager.log(TraceCategory.DSL, "Purging old state");
-        }
-        DSLDStore store = GroovyDSLCoreActivator.getDefault().getContextStoreManager().getDSLDStore(project);
-        store.purgeAll();
+            // stage new state; inferencing continues to use the existing state until it is published
+            DSLDStore store = contextStoreManager.getDSLDStore(project);
+            store.beginRefresh();
+            boolean published = false;
+            ExecutorService compiler = null;
+            try {
+                // find dslds
+                if (GroovyLogManager.manager.hasLoggers()) {
+                    GroovyLogManager.manager.log(TraceCategory.DSL, "Finding inferencing DSL scripts");
+                }
+                List<IStorage> findDSLDFiles = new ArrayList<>(new DSLDResourceVisitor(project).findFiles(monitor));
 
-        if (monitor.isCanceled()) {
-            return Status.CANCEL_STATUS;
-        }
-        monitor.worked(1);
+                if (monitor.isCanceled()) {
+                    return Status.CANCEL_STATUS;
+                }
+                monitor.worked(2);
+
+                // compile the scripts concurrently, but run them in order so contributions are added deterministically
+                IJavaProject javaProject = JavaCore.create(project);
+                Map<IStorage, Future<Class<?>>> scriptTypes = new HashMap<>();
+                int threads = Math.min(Runtime.getRuntime().availableProcessors(), findDSLDFiles.size());
+                if (threads > 1) {
+                    compiler = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "DSLD compiler");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    for (IStorage file : findDSLDFiles) {
+                        if (isDSLD(file)) {
+                            scriptTypes.put(file, compiler.submit(() -> new DSLDScriptExecutor(javaProject).compileScript(file)));
+                        }
+                    }
+                }
 
-        // find dslds
-        if (GroovyLogManager.manager.hasLoggers()) {
-            GroovyLogManager.manager.log(TraceCategory.DSL, "Finding inferencing DSL scripts");
-        }
-        Collection<IStorage> findDSLDFiles = new DSLDResourceVisitor(project).findFiles(monitor);
+                for (IStorage file : findDSLDFiles) {
+                    if (GroovyLogManager.manager.hasLoggers()) {
+                        GroovyLogManager.manager.log(TraceCategory.DSL, "Processing " + file.getName() + " in project " + project.getName());
+                    }
+                    monitor.subTask("Processing " + file.getName() + " in project " + project.getName());
+
+                    if (isDSLD(file)) {
+                        DSLDScriptExecutor executor = new DSLDScriptExecutor(javaProject);
+                        Future<Class<?>> scriptType = scriptTypes.get(file);
+                        executor.executeScript(file, scriptType != null ? await(scriptType, monitor) : executor.compileScript(file));
+                    } else if (isSuggestionFile(file)) {
+                        new SuggestionsLoader((IFile) file).loadExistingSuggestions();
+                    }
 
-        if (monitor.isCanceled()) {
-            return Status.CANCEL_STATUS;
-        }
-        monitor.worked(1);
+                    if (monitor.isCanceled()) {
+                        return Status.CANCEL_STATUS;
+                    }
+                }
+                monitor.worked(6);
 
-        // now add the rest
-        for (IStorage file : findDSLDFiles) {
-            if (GroovyLogManager.manager.hasLoggers()) {
-                GroovyLogManager.manager.log(TraceCategory.DSL, "Processing " + file.getName() + " in project " + project.getName());
+                store.endRefresh();
+                published = true;
+                GroovyLogManager.manager.addToCounter("DSLD files", findDSLDFiles.size());
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            } finally {
+                if (compiler != null) {
+                    compiler.shutdownNow();
+                }
+                if (!published) {
+                    store.cancelRefresh();
+                }
             }
-            monitor.subTask("Processing " + file.getName() + " in project " + project.getName());
 
-            if (isDSLD(file)) {
-                DSLDScriptExecutor executor = new DSLDScriptExecutor(JavaCore.create(project));
-                executor.executeScript(file);
-            } else if (isSuggestionFile(file)) {
-                new SuggestionsLoader((IFile) file).loadExistingSuggestions();
+            reconcileOpenUnits(project);
+            return Status.OK_STATUS;
+        } finally {
+            GroovyLogManager.manager.endSpan(TraceCategory.DSLD_REFRESH, span);
+            if (event != null) {
+                GroovyLogManager.manager.logEnd(event, TraceCategory.DSL, eventStart);
             }
+        }
+    }
 
+    private static Class<?> await(Future<Class<?>> scriptType, IProgressMonitor monitor) {
+        while (true) {
             if (monitor.isCanceled()) {
-                return Status.CANCEL_STATUS;
+                throw new OperationCanceledException();
+            }
+            try {
+                return scriptType.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ignore) {
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new OperationCanceledException();
+            } catch (ExecutionException e) {
+                GroovyDSLCoreActivator.logException(e.getCause());
+                return null;
             }
         }
-        monitor.worked(6);
+    }
 
-        if (event != null) {
-            GroovyLogManager.manager.logEnd(event, TraceCategory.DSL);
+    /**
+     * Inferencing runs without the project's DSLD contributions while they are
+     * being loaded.  Reconcile the project's open Groovy units so that problems
+     * and semantic highlighting of their editors pick up the newly published store.
+     */
+    private static void reconcileOpenUnits(IProject project) {
+        Map<ICompilationUnit, CompilationUnit> asts = new HashMap<>();
+        for (ICompilationUnit unit : JavaCore.getWorkingCopies(null)) {
+            if (unit instanceof GroovyCompilationUnit && project.equals(unit.getJavaProject().getProject())) {
+                try {
+                    CompilationUnit ast = unit.reconcile(JavaConstants.AST_LEVEL, true, null, null);
+                    if (ast != null) {
+                        asts.put(unit, ast);
+                    }
+                } catch (JavaModelException e) {
+                    GroovyDSLCoreActivator.logException(e);
+                }
+            }
+        }
+
+        if (!asts.isEmpty() && PlatformUI.isWorkbenchRunning()) {
+            // async so that a UI thread that waits for this job cannot deadlock
+            PlatformUI.getWorkbench().getDisplay().asyncExec(() -> {
+                List<GroovyEditor> editors = new ArrayList<>();
+                for (IWorkbenchWindow window : PlatformUI.getWorkbench().getWorkbenchWindows()) {
+                    for (IWorkbenchPage page : window.getPages()) {
+                        for (IEditorReference reference : page.getEditorReferences()) {
+                            IEditorPart editor = reference.getEditor(false);
+                            if (editor instanceof GroovyEditor && asts.containsKey(((GroovyEditor) editor).getGroovyCompilationUnit())) {
+                                editors.add((GroovyEditor) editor);
+                            }
+                        }
+                    }
+                }
+                if (!editors.isEmpty()) {
+                    // semantic highlighting infers the whole unit; keep it off the UI thread
+                    Job.create("Refresh Groovy semantic highlighting", monitor -> {
+                        for (GroovyEditor editor : editors) {
+                            editor.refreshSemanticHighlighting(asts.get(editor.getGroovyCompilationUnit()), monitor);
+                        }
+                    }).schedule();
+                }
+            });
         }
-        return Status.OK_STATUS;
     }
 
     @Override
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import org.eclipse.equinox.app.IApplication;
+import org.eclipse.equinox.app.IApplicationContext;
+
+/**
+ * Runs the static checker without creating a display or a workbench.  Meant
+ * for build servers; accepts the same arguments as {@link StaticCheckerApplication}.
+ */
+public class HeadlessStaticCheckerApplication extends StaticCheckerApplication {
+
+    private static final Integer EXIT_FAILURE = Integer.valueOf(-1);
+
+    @Override
+    public Object start(IApplicationContext context) throws Exception {
+        if (!processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS))) {
+            return IApplication.EXIT_OK;
+        }
+        context.applicationRunning();
+
+        return performCheck() ? IApplication.EXIT_OK : EXIT_FAILURE;
+    }
+
+    @Override
+    protected void closeWorkbench() {
+        // no workbench to close
+    }
+}
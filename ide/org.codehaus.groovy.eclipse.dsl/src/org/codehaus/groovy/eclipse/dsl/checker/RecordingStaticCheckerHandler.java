@@ -0,0 +1,134 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.jface.text.Position;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Records the problems found in a single file so that they can be reported
+ * later, possibly from another thread or from a previous run of the checker.
+ */
+public class RecordingStaticCheckerHandler implements IStaticCheckerHandler {
+
+    public static class Problem {
+        final String text;
+        final String expectedType;
+        final String actualType;
+        final int line, offset, length;
+
+        Problem(String text, String expectedType, String actualType, int line, int offset, int length) {
+            this.text = text;
+            this.expectedType = expectedType;
+            this.actualType = actualType;
+            this.line = line;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * @return {@code true} for a failed type assertion, {@code false} for an unknown reference
+         */
+        boolean isTypeAssertion() {
+            return (expectedType != null);
+        }
+    }
+
+    /**
+     * Stands in for the original AST node when replaying a recorded problem.
+     */
+    private static class ProblemNode extends ASTNode {
+        private final String text;
+
+        ProblemNode(Problem problem) {
+            text = problem.text;
+            setLineNumber(problem.line);
+            setStart(problem.offset);
+            setEnd(problem.offset + problem.length);
+        }
+
+        @Override
+        public String getText() {
+            return text;
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final List<Problem> problems;
+
+    public RecordingStaticCheckerHandler() {
+        this(new ArrayList<>());
+    }
+
+    RecordingStaticCheckerHandler(List<Problem> problems) {
+        this.problems = problems;
+    }
+
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    /**
+     * Reports the recorded problems to the given handler.
+     */
+    public void replay(IFile file, IStaticCheckerHandler handler) {
+        handler.setResource(file);
+        for (Problem problem : problems) {
+            Position position = new Position(problem.offset, problem.length);
+            if (problem.isTypeAssertion()) {
+                handler.handleTypeAssertionFailed(new ProblemNode(problem), problem.expectedType, problem.actualType, position, problem.line);
+            } else {
+                handler.handleUnknownReference(new ProblemNode(problem), position, problem.line);
+            }
+        }
+    }
+
+    @Override
+    public void handleUnknownReference(ASTNode node, Position position, int line) {
+        problems.add(new Problem(node.getText(), null, null, line, position.getOffset(), position.getLength()));
+    }
+
+    @Override
+    public void handleTypeAssertionFailed(ASTNode node, String expectedType, String actualType, Position position, int line) {
+        problems.add(new Problem(node.getText(), expectedType, actualType, line, position.getOffset(), position.getLength()));
+    }
+
+    @Override
+    public void setResource(IFile resource) {
+    }
+
+    @Override
+    public int numProblemsFound() {
+        return problems.size();
+    }
+
+    @Override
+    public void handleResourceStart(IResource resource) {
+    }
+
+    @Override
+    public boolean finish(Shell shell) {
+        return problems.isEmpty();
+    }
+}
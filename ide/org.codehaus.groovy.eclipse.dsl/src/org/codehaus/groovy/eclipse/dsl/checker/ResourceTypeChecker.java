@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,13 +15,24 @@
  */
 package org.codehaus.groovy.eclipse.dsl.checker;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.codehaus.groovy.ast.Comment;
+import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.codehaus.jdt.groovy.model.GroovyNature;
 import org.eclipse.core.resources.IFile;
@@ -31,9 +42,18 @@ import org.eclipse.core.resources.IResourceVisitor;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jdt.core.ICompilationUnit;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.Signature;
 import org.eclipse.jdt.groovy.core.util.ContentTypeUtils;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
@@ -46,11 +66,20 @@ public class ResourceTypeChecker {
 
     class CheckerVisitor implements IResourceVisitor {
         private IProgressMonitor monitor;
+        private List<GroovyCompilationUnit> collected;
 
         CheckerVisitor(IProgressMonitor monitor) {
             this.monitor = monitor;
         }
 
+        /**
+         * Creates a visitor that collects the units to check instead of checking them right away.
+         */
+        CheckerVisitor(IProgressMonitor monitor, List<GroovyCompilationUnit> collected) {
+            this.monitor = monitor;
+            this.collected = collected;
+        }
+
         @Override
         public boolean visit(IResource resource) throws CoreException {
             if (resource.isDerived()) {
@@ -69,56 +98,29 @@ public class ResourceTypeChecker {
                     if (monitor.isCanceled()) {
                         throw new OperationCanceledException();
                     }
-                    monitor.subTask(resource.getName());
-                    handler.setResource((IFile) resource);
-                    Map<Integer, String> commentsMap = findComments(unit);
-                    StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(handler, commentsMap, onlyAssertions);
-                    TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-                    try {
-                        unit.becomeWorkingCopy(monitor);
-                        visitor.visitCompilationUnit(requestor);
-                    } finally {
-                        unit.discardWorkingCopy();
+                    if (collected != null) {
+                        collected.add(unit);
+                    } else {
+                        monitor.subTask(resource.getName());
+                        handler.setResource((IFile) resource);
+                        check(unit, handler, monitor);
                     }
                 }
             }
             return true;
         }
+    }
 
-        private Map<Integer, String> findComments(GroovyCompilationUnit unit) {
-            List<Comment> comments = unit.getModuleNode().getContext().getComments();
-            Map<Integer, String> allComments = new HashMap<>(comments.size());
-            for (Comment comment : comments) {
-                StringTokenizer stok = new StringTokenizer(comment.toString());
-                String type = null;
-                if (stok.hasMoreTokens()) {
-                    // consume the comment start
-                    String val = stok.nextToken();
-                    int typeIndex = val.indexOf("TYPE:");
-                    if (typeIndex > 0) {
-                        type = val.substring(typeIndex + "TYPE:".length());
-                        if (type.length() == 0) {
-                            type = null;
-                        }
-                    }
-                }
-                String candidate;
-                if (stok.hasMoreTokens() && (candidate = stok.nextToken()).startsWith("TYPE:")) {
-                    // may or may not have a space after the colon
-                    if (candidate.equals("TYPE:")) {
-                        if (stok.hasMoreTokens()) {
-                            type = stok.nextToken();
-                        }
-                    } else {
-                        String[] split = candidate.split("\\:");
-                        type = split[1];
-                    }
-                }
-                if (type != null) {
-                    allComments.put(comment.sline, type);
-                }
-            }
-            return allComments;
+    /**
+     * The outcome of checking one unit on a worker thread.
+     */
+    private static class CheckedUnit {
+        final IFile file;
+        final RecordingStaticCheckerHandler result;
+
+        CheckedUnit(IFile file, RecordingStaticCheckerHandler result) {
+            this.file = file;
+            this.result = result;
         }
     }
 
@@ -129,6 +131,9 @@ public class ResourceTypeChecker {
     protected final char[][] includes;
     protected final char[][] excludes;
 
+    private int threads = 1;
+    private StaticCheckerResultCache cache;
+
     public ResourceTypeChecker(IStaticCheckerHandler handler, String projectName, char[][] includes, char[][] excludes, boolean onlyAssertions) {
         this(handler, createProject(projectName), includes, excludes, onlyAssertions);
     }
@@ -149,6 +154,22 @@ public class ResourceTypeChecker {
         return Collections.<IResource>singletonList(project);
     }
 
+    /**
+     * Sets the number of units that may be checked at the same time.  When
+     * greater than one, results are reported per unit as each one completes.
+     */
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Sets the store of results from previous runs.  Units that have not
+     * changed, and whose dependencies have not changed, are not checked again.
+     */
+    public void setResultCache(StaticCheckerResultCache cache) {
+        this.cache = cache;
+    }
+
     /**
      * Performs the tpe checking on the selected resources.
      * @param monitor progress monitor, can be null
@@ -159,15 +180,242 @@ public class ResourceTypeChecker {
         if (monitor == null) {
             monitor = new NullProgressMonitor();
         }
-        monitor.beginTask("Static type analysis", resources.size());
-        for (IResource resource : resources) {
-            if (monitor.isCanceled()) {
-                throw new OperationCanceledException();
+        if (threads <= 1 && cache == null) {
+            monitor.beginTask("Static type analysis", resources.size());
+            for (IResource resource : resources) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                CheckerVisitor visitor = new CheckerVisitor(monitor);
+                resource.accept(visitor);
+                monitor.worked(1);
+            }
+        } else {
+            List<GroovyCompilationUnit> units = new ArrayList<>();
+            for (IResource resource : resources) {
+                resource.accept(new CheckerVisitor(monitor, units));
+            }
+            monitor.beginTask("Static type analysis", units.size());
+            try {
+                checkConcurrently(units, monitor);
+            } finally {
+                if (cache != null) {
+                    cache.save();
+                }
             }
-            CheckerVisitor visitor = new CheckerVisitor(monitor);
-            resource.accept(visitor);
-            monitor.worked(1);
         }
         return handler.finish(null);
     }
+
+    private void checkConcurrently(List<GroovyCompilationUnit> units, IProgressMonitor monitor) throws CoreException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CompletionService<CheckedUnit> completionService = new ExecutorCompletionService<>(executor);
+            int pending = 0;
+            for (GroovyCompilationUnit unit : units) {
+                IFile file = (IFile) unit.getResource();
+                RecordingStaticCheckerHandler result = (cache != null ? cache.lookup(file) : null);
+                if (result != null) {
+                    result.replay(file, handler);
+                    monitor.worked(1);
+                } else {
+                    completionService.submit(() -> {
+                        try {
+                            RecordingStaticCheckerHandler recorder = new RecordingStaticCheckerHandler();
+                            StaticTypeCheckerRequestor requestor = check(unit, recorder, new NullProgressMonitor());
+                            if (cache != null) {
+                                Set<IFile> dependencies = findDependencies(unit, requestor.getReferencedTypes());
+                                cache.store(file, dependencies, recorder);
+                                recordDependencyEdges(dependencies);
+                            }
+                            return new CheckedUnit(file, recorder);
+                        } catch (RuntimeException e) {
+                            throw new CoreException(new Status(IStatus.ERROR, GroovyDSLCoreActivator.PLUGIN_ID,
+                                "Static type checking failed for " + file.getFullPath(), e));
+                        }
+                    });
+                    pending += 1;
+                }
+            }
+
+            // report each unit as soon as it is done
+            for (; pending > 0; pending -= 1) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    CheckedUnit checked = completionService.take().get();
+                    monitor.subTask(checked.file.getName());
+                    checked.result.replay(checked.file, handler);
+                } catch (ExecutionException e) {
+                    // fail like the sequential check does; the remaining units are canceled
+                    if (e.getCause() instanceof CoreException) {
+                        throw (CoreException) e.getCause();
+                    }
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw new CoreException(new Status(IStatus.ERROR, GroovyDSLCoreActivator.PLUGIN_ID, "Static type checking failed", e.getCause()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private StaticTypeCheckerRequestor check(GroovyCompilationUnit unit, IStaticCheckerHandler handler, IProgressMonitor monitor) throws CoreException {
+        Map<Integer, String> commentsMap = findComments(unit);
+        StaticTypeCheckerRequestor requestor = new StaticTypeCheckerRequestor(handler, commentsMap, onlyAssertions);
+        TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
+        try {
+            // When checking concurrently, each unit is checked by one worker only,
+            // so different units become working copies at the same time, as with
+            // editors reconciling in parallel: the Java model keeps working copies
+            // in a synchronized table and module nodes are cached under the lock
+            // of the ModuleNodeMapper.
+            unit.becomeWorkingCopy(monitor);
+            visitor.visitCompilationUnit(requestor);
+        } finally {
+            unit.discardWorkingCopy();
+        }
+        return requestor;
+    }
+
+    /**
+     * Finds the workspace source files that the result of checking the unit
+     * depends on: the files that declare the given types, the types declared
+     * in the unit, and the source super types of all of these.  Files that the
+     * dependencies themselves depend on are found by {@link #recordDependencyEdges}.
+     */
+    private static Set<IFile> findDependencies(GroovyCompilationUnit unit, Set<String> typeNames) throws CoreException {
+        Set<IFile> dependencies = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        IJavaProject javaProject = unit.getJavaProject();
+        for (IType type : unit.getAllTypes()) {
+            addSourceTypes(type, dependencies, visited);
+        }
+        for (String typeName : typeNames) {
+            addSourceTypes(javaProject.findType(typeName.replace('$', '.')), dependencies, visited);
+        }
+        return dependencies;
+    }
+
+    /**
+     * Records the dependency edges of the files that checked units depend on,
+     * transitively, so that the cache notices a change to a file that is not
+     * checked itself (a Java file, for instance).  The edges of a file are
+     * found from the types in its declarations and are found again only when
+     * its contents change.
+     */
+    private void recordDependencyEdges(Set<IFile> files) throws CoreException {
+        Deque<IFile> work = new ArrayDeque<>(files);
+        while (!work.isEmpty()) {
+            IFile file = work.pop();
+            IJavaElement element = JavaCore.create(file);
+            if (element instanceof ICompilationUnit && cache.needsDependencies(file)) {
+                Set<IFile> dependencies = findDeclarationDependencies((ICompilationUnit) element);
+                cache.recordDependencies(file, dependencies);
+                work.addAll(dependencies);
+            }
+        }
+    }
+
+    private static Set<IFile> findDeclarationDependencies(ICompilationUnit unit) throws CoreException {
+        Set<IFile> dependencies = new HashSet<>();
+        Set<String> visited = new HashSet<>();
+        for (IType type : unit.getAllTypes()) {
+            addSourceTypes(type, dependencies, visited);
+            for (IField field : type.getFields()) {
+                addSignatureTypes(type, field.getTypeSignature(), dependencies, visited);
+            }
+            for (IMethod method : type.getMethods()) {
+                addSignatureTypes(type, method.getReturnType(), dependencies, visited);
+                for (String parameterType : method.getParameterTypes()) {
+                    addSignatureTypes(type, parameterType, dependencies, visited);
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private static void addSignatureTypes(IType type, String signature, Set<IFile> dependencies, Set<String> visited) throws CoreException {
+        String elementType = Signature.getElementType(signature);
+        if (Signature.getTypeSignatureKind(elementType) == Signature.CLASS_TYPE_SIGNATURE) {
+            String typeName = Signature.toString(Signature.getTypeErasure(elementType));
+            // source members have unresolved signatures
+            if (elementType.charAt(0) == Signature.C_UNRESOLVED) {
+                String[][] resolved = type.resolveType(typeName);
+                if (resolved != null) {
+                    for (String[] name : resolved) {
+                        addSourceTypes(type.getJavaProject().findType(name[0], name[1].replace('$', '.')), dependencies, visited);
+                    }
+                }
+            } else {
+                addSourceTypes(type.getJavaProject().findType(typeName.replace('$', '.')), dependencies, visited);
+            }
+        }
+    }
+
+    private static void addSourceTypes(IType type, Set<IFile> dependencies, Set<String> visited) throws CoreException {
+        if (type == null || type.isBinary() || !visited.add(type.getFullyQualifiedName())) {
+            return;
+        }
+        if (type.getResource() instanceof IFile) {
+            dependencies.add((IFile) type.getResource());
+        }
+        // members inherited from super types change the result as well
+        List<String> superTypeNames = new ArrayList<>();
+        if (type.getSuperclassName() != null) {
+            superTypeNames.add(type.getSuperclassName());
+        }
+        Collections.addAll(superTypeNames, type.getSuperInterfaceNames());
+        for (String superTypeName : superTypeNames) {
+            String[][] resolved = type.resolveType(Signature.getTypeErasure(superTypeName));
+            if (resolved != null) {
+                for (String[] name : resolved) {
+                    addSourceTypes(type.getJavaProject().findType(name[0], name[1].replace('$', '.')), dependencies, visited);
+                }
+            }
+        }
+    }
+
+    private static Map<Integer, String> findComments(GroovyCompilationUnit unit) {
+        List<Comment> comments = unit.getModuleNode().getContext().getComments();
+        Map<Integer, String> allComments = new HashMap<>(comments.size());
+        for (Comment comment : comments) {
+            StringTokenizer stok = new StringTokenizer(comment.toString());
+            String type = null;
+            if (stok.hasMoreTokens()) {
+                // consume the comment start
+                String val = stok.nextToken();
+                int typeIndex = val.indexOf("TYPE:");
+                if (typeIndex > 0) {
+                    type = val.substring(typeIndex + "TYPE:".length());
+                    if (type.length() == 0) {
+                        type = null;
+                    }
+                }
+            }
+            String candidate;
+            if (stok.hasMoreTokens() && (candidate = stok.nextToken()).startsWith("TYPE:")) {
+                // may or may not have a space after the colon
+                if (candidate.equals("TYPE:")) {
+                    if (stok.hasMoreTokens()) {
+                        type = stok.nextToken();
+                    }
+                } else {
+                    String[] split = candidate.split("\\:");
+                    type = split[1];
+                }
+            }
+            if (type != null) {
+                allComments.put(comment.sline, type);
+            }
+        }
+        return allComments;
+    }
 }
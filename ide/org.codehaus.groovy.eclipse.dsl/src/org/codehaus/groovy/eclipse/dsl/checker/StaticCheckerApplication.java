@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,17 @@
  */
 package org.codehaus.groovy.eclipse.dsl.checker;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.codehaus.groovy.eclipse.dsl.GroovyDSLCoreActivator;
 import org.eclipse.core.resources.IFile;
@@ -51,51 +59,7 @@ public class StaticCheckerApplication implements IApplication {
 
         @Override
         protected IStatus run(IProgressMonitor monitor) {
-            // now ensure that the classpath containers and variables are initialized
-            try {
-                JavaCore.initializeAfterLoad(new NullProgressMonitor());
-            } catch (CoreException e) {
-                e.printStackTrace();
-            }
-
-            // create the project if required
-            try {
-                createProject();
-            } catch (CoreException e) {
-                System.err.println("Failed to create project " + projectName + " at location " + projectFolderPath);
-                e.printStackTrace();
-                return e.getStatus();
-            }
-
-            // ensure project is open
-            IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
-            try {
-                project.open(null);
-            } catch (CoreException e) {
-                System.err.println("Failed to open project " + projectName);
-                e.printStackTrace();
-                return e.getStatus();
-            }
-
-            // Add the extra dslds to the workspace inside of the target project
-            addExtraDslds();
-
-            // Ensure that dslds are all available
-            GroovyDSLCoreActivator.getDefault().getContextStoreManager().initialize(project, true);
-
-            System.out.println("Performing static type checking on project " + projectName);
-            boolean success = false;
-            try {
-                IStaticCheckerHandler handler =
-                    new SysoutStaticCheckerHandler(resultFile == null ? System.out : createOutStream(resultFile));
-                ResourceTypeChecker checker =
-                    new ResourceTypeChecker(handler, projectName, inclusionFilters, exclusionFilters, assertionsOnly);
-                success = checker.doCheck(null);
-            } catch (Exception e) {
-                e.printStackTrace();
-            } finally {
-                removeExtraDslds();
-            }
+            boolean success = performCheck();
 
             display.asyncExec(() -> Workbench.getInstance().close());
 
@@ -127,6 +91,8 @@ public class StaticCheckerApplication implements IApplication {
     }
 
     private String projectName;
+    private int threads = 1;
+    private String cacheFile;
     private char[][] inclusionFilters;
     private char[][] exclusionFilters;
     private boolean assertionsOnly;
@@ -136,6 +102,96 @@ public class StaticCheckerApplication implements IApplication {
     Display display;
     private String resultFile;
 
+    /**
+     * Prepares the project and its DSLDs and then checks it.
+     *
+     * @return {@code true} iff no type problems were found
+     */
+    protected boolean performCheck() {
+        // now ensure that the classpath containers and variables are initialized
+        try {
+            JavaCore.initializeAfterLoad(new NullProgressMonitor());
+        } catch (CoreException e) {
+            e.printStackTrace();
+        }
+
+        // create the project if required
+        try {
+            createProject();
+        } catch (CoreException e) {
+            System.err.println("Failed to create project " + projectName + " at location " + projectFolderPath);
+            e.printStackTrace();
+            return false;
+        }
+
+        // ensure project is open
+        IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject(projectName);
+        try {
+            project.open(null);
+        } catch (CoreException e) {
+            System.err.println("Failed to open project " + projectName);
+            e.printStackTrace();
+            return false;
+        }
+
+        // Add the extra dslds to the workspace inside of the target project
+        addExtraDslds();
+
+        // Ensure that dslds are all available
+        GroovyDSLCoreActivator.getDefault().getContextStoreManager().initialize(project, true);
+
+        System.out.println("Performing static type checking on project " + projectName);
+        boolean success = false;
+        try {
+            IStaticCheckerHandler handler =
+                new SysoutStaticCheckerHandler(resultFile == null ? System.out : createOutStream(resultFile));
+            ResourceTypeChecker checker =
+                new ResourceTypeChecker(handler, projectName, inclusionFilters, exclusionFilters, assertionsOnly);
+            checker.setThreads(threads);
+            if (cacheFile != null) {
+                StaticCheckerResultCache cache = new StaticCheckerResultCache(new File(cacheFile), computeFingerprint(project));
+                cache.load();
+                checker.setResultCache(cache);
+            }
+            success = checker.doCheck(null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            removeExtraDslds();
+        }
+        return success;
+    }
+
+    /**
+     * Computes the fingerprint of everything that can change the result of
+     * checking any file: the checker options, the classpath and the DSLDs.
+     */
+    private String computeFingerprint(IProject project) throws CoreException, IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append(assertionsOnly).append(';');
+        IFile classpath = project.getFile(".classpath");
+        if (classpath.exists()) {
+            try (InputStream in = classpath.getContents(true)) {
+                sb.append(StaticCheckerResultCache.digest(in));
+            }
+        }
+        SortedMap<String, IFile> dslds = new TreeMap<>();
+        project.accept(resource -> {
+            if (resource.getType() == IResource.FILE && "dsld".equals(resource.getFileExtension())) {
+                dslds.put(resource.getFullPath().toString(), (IFile) resource);
+            }
+            return true;
+        });
+        for (Map.Entry<String, IFile> dsld : dslds.entrySet()) {
+            try (InputStream in = dsld.getValue().getContents(true)) {
+                sb.append(';').append(dsld.getKey()).append('=').append(StaticCheckerResultCache.digest(in));
+            }
+        }
+        try (InputStream in = new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))) {
+            return StaticCheckerResultCache.digest(in);
+        }
+    }
+
     @Override
     public Object start(IApplicationContext context) throws Exception {
         processCommandLine((String[]) context.getArguments().get(IApplicationContext.APPLICATION_ARGS));
@@ -150,7 +206,8 @@ public class StaticCheckerApplication implements IApplication {
     }
 
     public PrintStream createOutStream(String fileName) throws FileNotFoundException {
-        return new PrintStream(new File(fileName));
+        // flush each line so that results stream out as files are checked
+        return new PrintStream(new FileOutputStream(fileName), true);
     }
 
     @Override
@@ -212,14 +269,17 @@ public class StaticCheckerApplication implements IApplication {
         project.create(description, null);
     }
 
-    private void processCommandLine(String[] args) {
+    /**
+     * @return {@code false} if usage was printed instead of a check being set up
+     */
+    protected boolean processCommandLine(String[] args) {
         boolean doHelp = false;
         String excludes = null;
         String includes = null;
         if (args.length < 1) {
             printUsage(true);
-            Workbench.getInstance().close();
-            return;
+            closeWorkbench();
+            return false;
         }
         projectName = args[args.length - 1];
 
@@ -265,6 +325,26 @@ public class StaticCheckerApplication implements IApplication {
                     break;
                 }
                 resultFile = args[++i];
+            } else if (arg.equals("--threads")) {
+                if (i == args.length - 1) {
+                    System.err.println("Missing --threads argument");
+                    doHelp = true;
+                    break;
+                }
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    System.err.println("Invalid --threads argument: " + args[i]);
+                    doHelp = true;
+                    break;
+                }
+            } else if (arg.equals("--cache_file")) {
+                if (i == args.length - 1) {
+                    System.err.println("Missing --cache_file argument");
+                    doHelp = true;
+                    break;
+                }
+                cacheFile = args[++i];
             }
         }
 
@@ -273,8 +353,13 @@ public class StaticCheckerApplication implements IApplication {
 
         if (doHelp) {
             printUsage(false);
-            Workbench.getInstance().close();
+            closeWorkbench();
         }
+        return !doHelp;
+    }
+
+    protected void closeWorkbench() {
+        Workbench.getInstance().close();
     }
 
     private char[][] convertToCharChar(String str) {
@@ -296,7 +381,7 @@ public class StaticCheckerApplication implements IApplication {
 
         System.out.println("Usage:");
         System.out.println(
-            "eclipse -application org.codehause.groovy.eclipse.staticCheck [--help] [-h] [--extra_dslds <FILES>] [--assertions_only] [--excludes <PATH>] [--includes <PATH>] [--project_path <PATH>] <PROJECT_NAME>");
+            "eclipse -application org.codehause.groovy.eclipse.staticCheck [--help] [-h] [--extra_dslds <FILES>] [--assertions_only] [--excludes <PATH>] [--includes <PATH>] [--project_path <PATH>] [--result_file <FILE>] [--threads <N>] [--cache_file <FILE>] <PROJECT_NAME>");
         System.out.println("where:");
         System.out.println("\t--help OR -h  Print this message and exit.");
         System.out.println(
@@ -308,6 +393,10 @@ public class StaticCheckerApplication implements IApplication {
             "\t--project_path  File system path to the project to check (only required if project is not already in workspace).");
         System.out.println(
             "\t--result_file  File to send static checking results to.  If not specified, then results sent to sysout.");
+        System.out.println(
+            "\t--threads  Number of files to check concurrently.  Defaults to 1.");
+        System.out.println(
+            "\t--cache_file  File to keep results in between runs.  Unchanged files whose dependencies are also unchanged are not checked again.");
         System.out.println(
             "\t<PROJECT_NAME>  Name of a project to type check.  If not already in workspace, then must also use '--project_path'.");
         System.out.println();
@@ -0,0 +1,303 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.dsl.checker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.Path;
+
+/**
+ * Persistent store of static checking results.  Each file's result is keyed
+ * by the hash of its contents.  Apart from the results, the cache keeps a
+ * graph of the source files that each file depends on, including files that
+ * are not checked themselves, so a result is reused only if neither the file
+ * nor any of its direct or indirect dependencies has changed since it was
+ * recorded.  A change to the global fingerprint (the DSLDs in play, the
+ * classpath, the checker options) discards all results.
+ */
+public class StaticCheckerResultCache {
+
+    private static final int VERSION = 2;
+
+    private static class Entry {
+        final String hash;
+        final List<RecordingStaticCheckerHandler.Problem> problems;
+
+        Entry(String hash, List<RecordingStaticCheckerHandler.Problem> problems) {
+            this.hash = hash;
+            this.problems = problems;
+        }
+    }
+
+    /** The direct dependencies of a file, as found for the given contents. */
+    private static class Edges {
+        final String hash;
+        final Map<String, String> dependencies;
+
+        Edges(String hash, Map<String, String> dependencies) {
+            this.hash = hash;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final File cacheFile;
+    private final String fingerprint;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Edges> edges = new ConcurrentHashMap<>();
+    /** Content hashes computed during this run, keyed by workspace path. */
+    private final Map<String, String> hashes = new ConcurrentHashMap<>();
+
+    public StaticCheckerResultCache(File cacheFile, String fingerprint) {
+        this.cacheFile = cacheFile;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Returns the recorded result for the file if it is still up to date.
+     *
+     * @return recorded problems or {@code null} if the file must be checked
+     */
+    public RecordingStaticCheckerHandler lookup(IFile file) throws CoreException {
+        String path = file.getFullPath().toString();
+        Entry entry = entries.get(path);
+        if (entry == null || !entry.hash.equals(hash(file)) || !isCurrent(path, entry.hash, new HashSet<>())) {
+            return null;
+        }
+        return new RecordingStaticCheckerHandler(entry.problems);
+    }
+
+    /**
+     * Follows the dependency edges of a file transitively, so that a change
+     * to an indirect dependency (for instance one that alters an inferred
+     * return type) is noticed.  A file whose edges are unknown, or were found
+     * for other contents, is not current.
+     */
+    private boolean isCurrent(String path, String hash, Set<String> visited) throws CoreException {
+        if (!visited.add(path)) {
+            return true;
+        }
+        Edges node = edges.get(path);
+        if (node == null || !node.hash.equals(hash)) {
+            return false;
+        }
+        for (Map.Entry<String, String> dependency : node.dependencies.entrySet()) {
+            IFile dependencyFile = ResourcesPlugin.getWorkspace().getRoot().getFile(new Path(dependency.getKey()));
+            if (!dependencyFile.exists() || !dependency.getValue().equals(hash(dependencyFile)) ||
+                    !isCurrent(dependency.getKey(), dependency.getValue(), visited)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Records the result of checking a file along with the files it depends
+     * on.  The dependencies replace any recorded for the file before.
+     */
+    public void store(IFile file, Iterable<IFile> dependencies, RecordingStaticCheckerHandler result) throws CoreException {
+        String path = file.getFullPath().toString(), hash = hash(file);
+        edges.put(path, new Edges(hash, hashes(file, dependencies)));
+        entries.put(path, new Entry(hash, new ArrayList<>(result.getProblems())));
+    }
+
+    /**
+     * Indicates if the dependencies of the file are unknown or were recorded
+     * for other contents.
+     */
+    public boolean needsDependencies(IFile file) throws CoreException {
+        Edges node = edges.get(file.getFullPath().toString());
+        return (node == null || !node.hash.equals(hash(file)));
+    }
+
+    /**
+     * Records the files that a file depends on without a result, for a file
+     * that is a dependency of a checked file but is not checked itself.
+     * Dependencies recorded for the current contents are kept, since those
+     * stored along with a result are the more precise ones.
+     */
+    public void recordDependencies(IFile file, Iterable<IFile> dependencies) throws CoreException {
+        String hash = hash(file);
+        Edges node = new Edges(hash, hashes(file, dependencies));
+        edges.merge(file.getFullPath().toString(), node, (old, now) -> old.hash.equals(hash) ? old : now);
+    }
+
+    private Map<String, String> hashes(IFile file, Iterable<IFile> dependencies) throws CoreException {
+        Map<String, String> dependencyHashes = new HashMap<>();
+        for (IFile dependency : dependencies) {
+            if (!dependency.equals(file) && dependency.exists()) {
+                dependencyHashes.put(dependency.getFullPath().toString(), hash(dependency));
+            }
+        }
+        return dependencyHashes;
+    }
+
+    public String hash(IFile file) throws CoreException {
+        String path = file.getFullPath().toString();
+        String hash = hashes.get(path);
+        if (hash == null) {
+            try (InputStream in = file.getContents(true)) {
+                hash = digest(in);
+            } catch (IOException e) {
+                hash = "";
+            }
+            hashes.put(path, hash);
+        }
+        return hash;
+    }
+
+    public static String digest(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        for (int n; (n = in.read(buffer)) != -1;) {
+            digest.update(buffer, 0, n);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    public void load() {
+        entries.clear();
+        edges.clear();
+        if (!cacheFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != VERSION || !fingerprint.equals(in.readUTF())) {
+                return;
+            }
+            for (int i = 0, n = in.readInt(); i < n; i += 1) {
+                String path = in.readUTF(), hash = in.readUTF();
+
+                int m = in.readInt();
+                List<RecordingStaticCheckerHandler.Problem> problems = new ArrayList<>(m);
+                for (int j = 0; j < m; j += 1) {
+                    String text = readString(in), expected = readString(in), actual = readString(in);
+                    problems.add(new RecordingStaticCheckerHandler.Problem(text, expected, actual, in.readInt(), in.readInt(), in.readInt()));
+                }
+
+                entries.put(path, new Entry(hash, problems));
+            }
+            for (int i = 0, n = in.readInt(); i < n; i += 1) {
+                String path = in.readUTF(), hash = in.readUTF();
+
+                int m = in.readInt();
+                Map<String, String> dependencies = new HashMap<>(m);
+                for (int j = 0; j < m; j += 1) {
+                    dependencies.put(in.readUTF(), in.readUTF());
+                }
+
+                edges.put(path, new Edges(hash, dependencies));
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable static checker cache " + cacheFile + ": " + e.getMessage());
+            entries.clear();
+            edges.clear();
+        }
+    }
+
+    public void save() {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(cacheFile)))) {
+            out.writeInt(VERSION);
+            out.writeUTF(fingerprint);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeUTF(entry.hash);
+
+                out.writeInt(entry.problems.size());
+                for (RecordingStaticCheckerHandler.Problem problem : entry.problems) {
+                    writeString(out, problem.text);
+                    writeString(out, problem.expectedType);
+                    writeString(out, problem.actualType);
+                    out.writeInt(problem.line);
+                    out.writeInt(problem.offset);
+                    out.writeInt(problem.length);
+                }
+            }
+            out.writeInt(edges.size());
+            for (Map.Entry<String, Edges> e : edges.entrySet()) {
+                Edges node = e.getValue();
+                out.writeUTF(e.getKey());
+                out.writeUTF(node.hash);
+
+                out.writeInt(node.dependencies.size());
+                for (Map.Entry<String, String> dependency : node.dependencies.entrySet()) {
+                    out.writeUTF(dependency.getKey());
+                    out.writeUTF(dependency.getValue());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to write static checker cache " + cacheFile);
+            e.printStackTrace();
+        }
+    }
+
+    // node text is not bounded by the 64K limit of writeUTF
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            out.writeInt(s.length());
+            out.writeChars(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) {
+            return null;
+        }
+        char[] chars = new char[n];
+        for (int i = 0; i < n; i += 1) {
+            chars[i] = in.readChar();
+        }
+        return new String(chars);
+    }
+}
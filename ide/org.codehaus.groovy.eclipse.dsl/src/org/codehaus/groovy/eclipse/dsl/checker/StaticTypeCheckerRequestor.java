@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,14 @@
  */
 package org.codehaus.groovy.eclipse.dsl.checker;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassHelper;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.GenericsType;
 import org.codehaus.groovy.ast.stmt.BlockStatement;
@@ -50,14 +54,47 @@ public class StaticTypeCheckerRequestor extends SemanticReferenceRequestor {
 
     private final boolean onlyAssertions;
 
+    private final Set<String> referencedTypes = new HashSet<>();
+
     StaticTypeCheckerRequestor(IStaticCheckerHandler handler, Map<Integer, String> commentsMap, boolean onlyAssertions) {
         this.handler = handler;
         this.commentsMap = commentsMap;
         this.onlyAssertions = onlyAssertions;
     }
 
+    /**
+     * @return names of the types that inferencing resolved references to; the
+     *     result of checking can change when the source of any of these changes
+     */
+    public Set<String> getReferencedTypes() {
+        return Collections.unmodifiableSet(referencedTypes);
+    }
+
+    private void addReferencedType(ClassNode type) {
+        if (type == null) {
+            return;
+        }
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (!ClassHelper.isPrimitiveType(type) && referencedTypes.add(type.getName())) {
+            // type arguments are part of the inferred type as well
+            GenericsType[] generics = type.getGenericsTypes();
+            if (generics != null) {
+                for (GenericsType generic : generics) {
+                    if (!generic.isPlaceholder()) {
+                        addReferencedType(generic.getType());
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public VisitStatus acceptASTNode(ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) {
+        addReferencedType(result.declaringType);
+        addReferencedType(result.type);
+
         if (node instanceof BlockStatement) {
             if (((BlockStatement) node).getStatements() == null) {
                 return VisitStatus.CANCEL_BRANCH;
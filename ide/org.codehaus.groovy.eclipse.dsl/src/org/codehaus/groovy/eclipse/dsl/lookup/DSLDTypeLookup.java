@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -63,8 +63,9 @@ public class DSLDTypeLookup extends AbstractSimplifiedTypeLookup implements ITyp
     @Override
     public void initialize(GroovyCompilationUnit unit, VariableScope topLevelScope) {
         if (!GroovyDSLCoreActivator.getDefault().isDSLDDisabled()) {
-            // run referesh dependencies synchronously if DSLD store doesn't exist yet
-            contextStoreManager.ensureInitialized(unit.getJavaProject().getProject(), true);
+            // load DSLDs in the background if DSLD store doesn't exist yet; this pass
+            // runs without them and editors are reconciled again once they are ready
+            contextStoreManager.ensureInitialized(unit.getJavaProject().getProject(), false);
         }
         disabledScriptsAsSet = DSLPreferences.getDisabledScriptsAsSet();
         try {
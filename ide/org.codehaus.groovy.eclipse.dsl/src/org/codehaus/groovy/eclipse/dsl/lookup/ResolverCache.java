@@ -24,6 +24,7 @@ import org.codehaus.groovy.ast.GenericsType;
 import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.tools.GenericsUtils;
 import org.codehaus.jdt.groovy.internal.compiler.ast.JDTResolver;
+import org.eclipse.jdt.groovy.search.ParameterizedTypeCache;
 import org.eclipse.jdt.groovy.search.VariableScope;
 
 /**
@@ -33,6 +34,8 @@ import org.eclipse.jdt.groovy.search.VariableScope;
 public class ResolverCache {
 
     private final Map<String, ClassNode> nameTypeCache;
+    /** Parameterizations without wildcards, built once for names that differ only in spelling. */
+    private final ParameterizedTypeCache parameterizedTypes = new ParameterizedTypeCache();
     private final JDTResolver resolver;
     public final ModuleNode module;
 
@@ -88,21 +91,11 @@ public class ResolverCache {
                 for (int i = 0; i < typeParameterNames.length; i += 1) {
                     typeParameterTypes[i] = resolve(typeParameterNames[i].replaceFirst("^\\?\\s+(extends|super)\\s+", ""));
                 }
-                type = VariableScope.clone(type);
-                GenericsType[] genericsTypes = type.getGenericsTypes();
-                // need to be careful here...there may be too many or too few type parameters
-                for (int i = 0; i < genericsTypes.length && i < typeParameterTypes.length; i += 1) {
-                    if (typeParameterNames[i].startsWith("?")) {
-                        genericsTypes[i] = GenericsUtils.buildWildcardType(typeParameterTypes[i]);
-                    } else {
-                        genericsTypes[i].setName(typeParameterTypes[i].getName());
-                        genericsTypes[i].setType(typeParameterTypes[i]);
-                        genericsTypes[i].setPlaceHolder(false);
-                        genericsTypes[i].setUpperBounds(null);
-                        genericsTypes[i].setLowerBound(null);
-                        genericsTypes[i].setWildcard(false);
-                    }
-                    genericsTypes[i].setResolved(true);
+                if (componentName.indexOf('?') < 0) {
+                    ClassNode erasure = type;
+                    type = parameterizedTypes.intern(erasure, typeParameterTypes, () -> parameterize(erasure, typeParameterNames, typeParameterTypes));
+                } else {
+                    type = parameterize(type, typeParameterNames, typeParameterTypes);
                 }
                 nameTypeCache.put(componentName, type);
             }
@@ -117,6 +110,26 @@ public class ResolverCache {
         return (name.indexOf('<') < 0 ? GenericsUtils.nonGeneric(type) : type);
     }
 
+    private static ClassNode parameterize(ClassNode type, String[] typeParameterNames, ClassNode[] typeParameterTypes) {
+        type = VariableScope.clone(type);
+        GenericsType[] genericsTypes = type.getGenericsTypes();
+        // need to be careful here...there may be too many or too few type parameters
+        for (int i = 0; i < genericsTypes.length && i < typeParameterTypes.length; i += 1) {
+            if (typeParameterNames[i].startsWith("?")) {
+                genericsTypes[i] = GenericsUtils.buildWildcardType(typeParameterTypes[i]);
+            } else {
+                genericsTypes[i].setName(typeParameterTypes[i].getName());
+                genericsTypes[i].setType(typeParameterTypes[i]);
+                genericsTypes[i].setPlaceHolder(false);
+                genericsTypes[i].setUpperBounds(null);
+                genericsTypes[i].setLowerBound(null);
+                genericsTypes[i].setWildcard(false);
+            }
+            genericsTypes[i].setResolved(true);
+        }
+        return type;
+    }
+
     private int calculateArrayCount(String qName, int arrayStart) {
         if (arrayStart < 0) {
             return 0;
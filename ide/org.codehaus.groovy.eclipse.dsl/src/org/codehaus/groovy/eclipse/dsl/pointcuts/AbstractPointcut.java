@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,9 +17,11 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import groovy.lang.Closure;
 
@@ -121,7 +123,7 @@ public abstract class AbstractPointcut implements IPointcut {
         }
         Collection<Object> outerResults = new LinkedHashSet<>();
         for (Object toMatch : allElementsToMatch) {
-            Collection<?> innerResults = argument.matches(pattern, toMatch);
+            Collection<?> innerResults = pattern.evaluate(argument, toMatch);
             if (innerResults != null) {
                 String bindingName = getArgumentName(argument);
                 if (bindingName != null) {
@@ -143,7 +145,7 @@ public abstract class AbstractPointcut implements IPointcut {
         String bindingName = getArgumentName(argument);
         Collection<Object> innerResults = new HashSet<>();
         for (Object toMatch : allElementsToMatch) {
-            Collection<?> tempInnerResults = argument.matches(pattern, toMatch);
+            Collection<?> tempInnerResults = pattern.evaluate(argument, toMatch);
             if (tempInnerResults != null) {
                 innerResults.addAll(tempInnerResults);
             }
@@ -235,6 +237,32 @@ public abstract class AbstractPointcut implements IPointcut {
         return true;
     }
 
+    /**
+     * Combines the given facets with the dependencies of the pointcut arguments.
+     *
+     * @param replacesArgument {@code true} if the pointcut arguments are matched
+     *        against a value taken from the context rather than {@code toMatch}
+     * @return the combined facets, or {@code null} if an argument's dependencies are unknown
+     */
+    protected final Set<GroovyDSLDContext.Facet> combineDependencies(boolean replacesArgument, GroovyDSLDContext.Facet... facets) {
+        Set<GroovyDSLDContext.Facet> dependencies = EnumSet.noneOf(GroovyDSLDContext.Facet.class);
+        Collections.addAll(dependencies, facets);
+        for (Object elt : elements.getElements()) {
+            if (elt instanceof IPointcut) {
+                Set<GroovyDSLDContext.Facet> eltDependencies = ((IPointcut) elt).getDependencies();
+                if (eltDependencies == null) {
+                    return null;
+                }
+                for (GroovyDSLDContext.Facet facet : eltDependencies) {
+                    if (!replacesArgument || facet != GroovyDSLDContext.Facet.ARGUMENT) {
+                        dependencies.add(facet);
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
     @Override
     public void setProject(IProject project) {
         this.project = project;
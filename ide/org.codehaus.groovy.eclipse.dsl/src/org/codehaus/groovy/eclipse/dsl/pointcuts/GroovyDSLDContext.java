@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,8 +15,16 @@
  */
 package org.codehaus.groovy.eclipse.dsl.pointcuts;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -37,6 +45,24 @@ import org.eclipse.jdt.groovy.search.VariableScope;
  */
 public class GroovyDSLDContext {
 
+    /**
+     * Aspects of the context that a pointcut's result may depend upon.  Within
+     * one inference pass, a pointcut that depends on context facets only (and
+     * not on the object it is matched against) yields the same result as long
+     * as the facets have the same values, so its result can be reused.
+     */
+    public enum Facet {
+        /** The object passed to {@link IPointcut#matches}; results that depend on it are never reused. */
+        ARGUMENT,
+        /** The file and project; constant for the lifetime of the context. */
+        FILE,
+        ENCLOSING_TYPE,
+        ENCLOSING_FIELD,
+        ENCLOSING_METHOD,
+        ENCLOSING_CLOSURE,
+        ENCLOSING_CALLS
+    }
+
     public final String[] projectNatures;
 
     /**
@@ -78,13 +104,22 @@ public class GroovyDSLDContext {
      */
     private ClassNode targetType;
 
-    /** cached type hierarchy for checking type matches (consider caching more) */
-    private Set<ClassNode> cachedHierarchy;
+    /** type hierarchies computed during this pass, for checking type matches */
+    private final Map<ClassNode, TypeHierarchy> typeHierarchies = new IdentityHashMap<>();
 
     private boolean isStatic;
 
     private boolean isPrimaryNode;
 
+    /** dependencies of the pointcuts evaluated so far; {@code null} values are stored as {@link #UNKNOWN} */
+    private final Map<IPointcut, Set<Facet>> dependencies = new IdentityHashMap<>();
+    private static final Set<Facet> UNKNOWN = EnumSet.allOf(Facet.class);
+
+    /** results of the context-only pointcuts evaluated for the current facet values */
+    private final Map<IPointcut, Memo> memos = new IdentityHashMap<>();
+    /** facet values that the memos were computed with */
+    private final Map<Facet, Object> facetValues = new EnumMap<>(Facet.class);
+
     public GroovyDSLDContext(GroovyCompilationUnit unit, ModuleNode module, JDTResolver jdtResolver) throws CoreException {
         this(getProjectNatures(unit), getFullPathToFile(unit), getPathToPackage(unit));
         resolverCache = new ResolverCache(jdtResolver, module);
@@ -154,6 +189,129 @@ public class GroovyDSLDContext {
         return currentBinding;
     }
 
+    /**
+     * Evaluates the pointcut against the object.  Pointcuts that depend on
+     * context facets only are evaluated once for each combination of facet
+     * values; later evaluations return the same result and re-apply the same
+     * bindings.
+     */
+    public Collection<?> evaluate(IPointcut pointcut, Object toMatch) {
+        Set<Facet> facets = getDependencies(pointcut);
+        if (facets == UNKNOWN || facets.contains(Facet.ARGUMENT) || currentScope == null) {
+            return pointcut.matches(this, toMatch);
+        }
+
+        Memo memo = memos.get(pointcut);
+        if (memo == null) {
+            BindingSet outerBinding = currentBinding;
+            currentBinding = new BindingSet();
+            try {
+                memo = new Memo(facets, pointcut.matches(this, toMatch), currentBinding.getBindings());
+            } finally {
+                currentBinding = outerBinding;
+            }
+            for (Facet facet : facets) {
+                if (!facetValues.containsKey(facet)) {
+                    facetValues.put(facet, facetValue(facet, currentScope));
+                }
+            }
+            memos.put(pointcut, memo);
+        }
+        if (currentBinding != null) {
+            for (Map.Entry<String, Collection<Object>> binding : memo.bindings.entrySet()) {
+                currentBinding.addToBinding(binding.getKey(), binding.getValue());
+            }
+        }
+        return memo.result;
+    }
+
+    private Set<Facet> getDependencies(IPointcut pointcut) {
+        Set<Facet> facets = dependencies.get(pointcut);
+        if (facets == null) {
+            facets = pointcut.getDependencies();
+            if (facets == null) {
+                facets = UNKNOWN;
+            }
+            dependencies.put(pointcut, facets);
+        }
+        return facets;
+    }
+
+    /**
+     * Discards the memos that depend on facets whose values differ in the new scope.
+     */
+    private void invalidateMemos(VariableScope scope) {
+        if (memos.isEmpty()) {
+            facetValues.clear();
+            return;
+        }
+        Set<Facet> changed = EnumSet.noneOf(Facet.class);
+        for (Map.Entry<Facet, Object> entry : facetValues.entrySet()) {
+            Object value = facetValue(entry.getKey(), scope);
+            if (!sameValue(entry.getValue(), value)) {
+                changed.add(entry.getKey());
+                entry.setValue(value);
+            }
+        }
+        if (!changed.isEmpty()) {
+            for (Iterator<Memo> it = memos.values().iterator(); it.hasNext();) {
+                Set<Facet> facets = it.next().facets;
+                for (Facet facet : changed) {
+                    if (facets.contains(facet)) {
+                        it.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static Object facetValue(Facet facet, VariableScope scope) {
+        switch (facet) {
+        case ENCLOSING_TYPE:
+            return scope.getEnclosingTypeDeclaration();
+        case ENCLOSING_FIELD:
+            return scope.getEnclosingFieldDeclaration();
+        case ENCLOSING_METHOD:
+            return scope.getEnclosingMethodDeclaration();
+        case ENCLOSING_CLOSURE:
+            return scope.getEnclosingClosure();
+        case ENCLOSING_CALLS:
+            List<VariableScope.CallAndType> calls = scope.getAllEnclosingMethodCallExpressions();
+            return calls.toArray(); // the list is a view of a shared stack
+        default:
+            return null;
+        }
+    }
+
+    private static boolean sameValue(Object one, Object two) {
+        if (one instanceof Object[] && two instanceof Object[]) {
+            Object[] a = (Object[]) one, b = (Object[]) two;
+            if (a.length != b.length) {
+                return false;
+            }
+            for (int i = 0; i < a.length; i += 1) {
+                if (a[i] != b[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return (one == two);
+    }
+
+    private static final class Memo {
+        final Set<Facet> facets;
+        final Collection<?> result;
+        final Map<String, Collection<Object>> bindings;
+
+        Memo(Set<Facet> facets, Collection<?> result, Map<String, Collection<Object>> bindings) {
+            this.facets = facets;
+            this.result = result;
+            this.bindings = bindings;
+        }
+    }
+
     public Map<String, String> getCurrentOptions() {
         if (currentOptions == null) {
             currentOptions = currentProject.getOptions(true);
@@ -214,18 +372,53 @@ public class GroovyDSLDContext {
             return true;
         }
 
-        if (cachedHierarchy == null) {
+        return getTypeHierarchy(toCheck).contains(typeName);
+    }
+
+    /**
+     * Returns the type and its super types, as determined by {@link VariableScope#createTypeHierarchy}.
+     * Hierarchies are computed once per type for the lifetime of this context.
+     */
+    public TypeHierarchy getTypeHierarchy(ClassNode type) {
+        TypeHierarchy hierarchy = typeHierarchies.get(type);
+        if (hierarchy == null) {
             LinkedHashSet<ClassNode> superTypes = new LinkedHashSet<>();
-            VariableScope.createTypeHierarchy(toCheck, superTypes, false);
-            cachedHierarchy = superTypes;
+            VariableScope.createTypeHierarchy(type, superTypes, false);
+            hierarchy = new TypeHierarchy(superTypes);
+            typeHierarchies.put(type, hierarchy);
         }
+        return hierarchy;
+    }
 
-        for (ClassNode node : cachedHierarchy) {
-            if (typeName.equals(node.getName())) {
-                return true;
+    public static final class TypeHierarchy {
+        private final Set<ClassNode> types;
+        private final Map<String, List<ClassNode>> typesByName = new HashMap<>();
+
+        TypeHierarchy(Set<ClassNode> types) {
+            this.types = Collections.unmodifiableSet(types);
+            for (ClassNode type : types) {
+                typesByName.computeIfAbsent(type.getName(), name -> new ArrayList<>(1)).add(type);
             }
+            typesByName.replaceAll((name, list) -> Collections.unmodifiableList(list));
+        }
+
+        /**
+         * @return the types of the hierarchy in the order they were discovered
+         */
+        public Set<ClassNode> getTypes() {
+            return types;
+        }
+
+        /**
+         * @return the types of the hierarchy that have the given name, or {@code null} if there are none
+         */
+        public List<ClassNode> getTypes(String name) {
+            return typesByName.get(name);
+        }
+
+        public boolean contains(String name) {
+            return typesByName.containsKey(name);
         }
-        return false;
     }
 
     public void resetBinding() {
@@ -240,6 +433,8 @@ public class GroovyDSLDContext {
     }
 
     public void setCurrentScope(VariableScope currentScope) {
+        // the same scope is reused while its enclosing calls change, so compare facet values every time
+        invalidateMemos(currentScope);
         this.currentScope = currentScope;
         setPrimaryNode(currentScope.isPrimaryNode());
     }
@@ -260,7 +455,6 @@ public class GroovyDSLDContext {
             targetType = targetType.getGenericsTypes()[0].getType();
         }
         this.targetType = targetType;
-        cachedHierarchy = null;
     }
 
     @Override
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.eclipse.dsl.pointcuts;
 
 import java.util.Collection;
+import java.util.Set;
 
 import groovy.lang.Closure;
 import groovy.lang.DelegatesTo;
@@ -72,6 +73,18 @@ public interface IPointcut {
      */
     boolean fastMatch(GroovyDSLDContext pattern);
 
+    /**
+     * The aspects of the context that the result of {@link #matches} depends upon,
+     * including those of any contained pointcuts.  Results of pointcuts that do not
+     * depend on {@link GroovyDSLDContext.Facet#ARGUMENT ARGUMENT} are reused while
+     * the facets keep their values.
+     *
+     * @return the facets, or {@code null} if the result may depend on anything
+     */
+    default Set<GroovyDSLDContext.Facet> getDependencies() {
+        return null;
+    }
+
     /**
      * A unique identifier for the container that created this context.
      * @return a unique identifier
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
@@ -29,16 +30,25 @@ import org.eclipse.core.resources.IStorage;
  */
 public class AndPointcut extends AbstractPointcut {
 
+    /** the arguments of the normalized pointcut, so they are not copied for each match */
+    private Object[] operands;
+
     public AndPointcut(IStorage containerIdentifier, String pointcutName) {
         super(containerIdentifier, pointcutName);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(false, GroovyDSLDContext.Facet.ARGUMENT);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
-        Object[] args = getArgumentValues();
+        Object[] args = (operands != null ? operands : getArgumentValues());
+        Collection<?> toMatchCollection = ensureCollection(toMatch);
         Collection<Object> result = new HashSet<>();
         for (Object arg : args) {
-            Collection<?> intermediate = matchOnPointcutArgumentReturnInner((IPointcut) arg, pattern, ensureCollection(toMatch));
+            Collection<?> intermediate = matchOnPointcutArgumentReturnInner((IPointcut) arg, pattern, toMatchCollection);
             if (intermediate == null) {
                 return null;
             }
@@ -73,6 +83,7 @@ public class AndPointcut extends AbstractPointcut {
                 	newNewAnd.addArgument(name, argument);
                 }
             }
+        	newNewAnd.operands = newNewAnd.getArgumentValues();
         	return newNewAnd;
         } else {
         	return newPointcut;
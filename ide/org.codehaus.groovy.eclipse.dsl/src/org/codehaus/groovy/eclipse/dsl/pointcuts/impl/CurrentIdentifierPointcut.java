@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 
 import java.util.Collection;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.expr.Expression;
@@ -34,6 +35,12 @@ public class CurrentIdentifierPointcut extends FilteringPointcut<Expression> {
         super(containerIdentifier, pointcutName, Expression.class);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        // matches the current node rather than toMatch
+        return null;
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext context, Object toMatch) {
         //                            ignore toMatch and use currentNode instead
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
@@ -37,6 +38,11 @@ public class EnclosingCallDeclaringTypePointcut extends AbstractPointcut {
         super(containerIdentifier, pointcutName);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(true, GroovyDSLDContext.Facet.ENCLOSING_CALLS);
+    }
+
     /**
      * Outer pointcut bindings not allowed here.
      * return on match is always a singleton
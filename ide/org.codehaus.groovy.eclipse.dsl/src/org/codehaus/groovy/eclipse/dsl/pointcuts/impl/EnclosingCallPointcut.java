@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.expr.MethodCallExpression;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
@@ -37,6 +38,11 @@ public class EnclosingCallPointcut extends AbstractPointcut {
         super(containerIdentifier, pointcutName);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(true, GroovyDSLDContext.Facet.ENCLOSING_CALLS);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
         List<CallAndType> enclosing = pattern.getCurrentScope().getAllEnclosingMethodCallExpressions();
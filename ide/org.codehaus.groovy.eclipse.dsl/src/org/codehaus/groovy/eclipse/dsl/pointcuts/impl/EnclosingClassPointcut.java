@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -19,6 +19,7 @@ import static org.codehaus.groovy.transform.trait.Traits.isTrait;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
@@ -49,6 +50,11 @@ public class EnclosingClassPointcut extends AbstractPointcut {
         super.verify();
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(true, GroovyDSLDContext.Facet.ENCLOSING_TYPE);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
         ClassNode enclosingType = pattern.getCurrentScope().getEnclosingTypeDeclaration();
@@ -18,6 +18,7 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.expr.ClassExpression;
@@ -38,14 +39,23 @@ public abstract class FilteringPointcut<T> extends AbstractPointcut {
 
     protected final Class<T> filterBy;
 
+    /** the argument as a string if it is not a pointcut; folded by {@link #normalize()} */
+    private String constantArgument;
+    private boolean folded;
+
     public FilteringPointcut(IStorage containerIdentifier, String pointcutName, Class<T> filterBy) {
         super(containerIdentifier, pointcutName);
         this.filterBy = filterBy;
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(false, GroovyDSLDContext.Facet.ARGUMENT);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
-        Collection<T> explodedList = explodeObject(toMatch);
+        Collection<T> explodedList = explodeObject(toMatch, pattern);
         if (explodedList != null && !explodedList.isEmpty()) {
             Object first = getFirstArgument();
             if (first instanceof IPointcut) {
@@ -62,8 +72,7 @@ public abstract class FilteringPointcut<T> extends AbstractPointcut {
     }
 
     protected Collection<?> filterResult(Collection<T> results, GroovyDSLDContext context) {
-        Object o = getFirstArgument();
-        String firstArg = asString(o);
+        String firstArg = getConstantArgument();
         Collection<T> filtered = new ArrayList<>(results.size());
         for (T obj : results) {
             T maybe = filterObject(obj, context, firstArg);
@@ -74,6 +83,24 @@ public abstract class FilteringPointcut<T> extends AbstractPointcut {
         return reduce(filtered);
     }
 
+    /**
+     * @return the first argument as a string, or {@code null} if it is a pointcut or there is none
+     */
+    protected final String getConstantArgument() {
+        if (folded) {
+            return constantArgument;
+        }
+        return asString(getFirstArgument());
+    }
+
+    @Override
+    public IPointcut normalize() {
+        IPointcut normalized = super.normalize();
+        constantArgument = asString(getFirstArgument());
+        folded = true;
+        return normalized;
+    }
+
     protected String asString(Object o) {
         if (o instanceof String) {
             return (String) o;
@@ -100,6 +127,15 @@ public abstract class FilteringPointcut<T> extends AbstractPointcut {
      */
     protected abstract T filterObject(T result, GroovyDSLDContext context, String firstArgAsString);
 
+    /**
+     * Converts element to a collection of the {@link #filterBy} type or returns null if no match.
+     * Subclasses that can make use of the context (for example, its cached type hierarchies)
+     * override this variant; by default it delegates to {@link #explodeObject(Object)}.
+     */
+    protected Collection<T> explodeObject(Object toMatch, GroovyDSLDContext context) {
+        return explodeObject(toMatch);
+    }
+
     /**
      * Converts element to a collection of the {@link #filterBy} type or returns null if no match.
      */
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -18,6 +18,7 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.Set;
 
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
@@ -36,6 +37,11 @@ public class IsConfigScript extends AbstractPointcut {
         return (matches(context, null) != null);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(false, GroovyDSLDContext.Facet.ARGUMENT, GroovyDSLDContext.Facet.FILE);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext context, Object toMatch) {
         String configScript = context.getCurrentOptions().get(CompilerOptions.OPTIONG_GroovyCompilerConfigScript);
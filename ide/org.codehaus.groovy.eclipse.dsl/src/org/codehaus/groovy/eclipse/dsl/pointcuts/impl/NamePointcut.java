@@ -15,8 +15,9 @@
  */
 package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.stream.Collectors;
+import java.util.List;
 
 import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ClassNode;
@@ -47,33 +48,35 @@ public class NamePointcut extends FilteringPointcut<Object> {
         if (objects == null) {
             return null;
         }
-        return objects.stream().map(object -> {
+        List<Object> names = new ArrayList<>(objects.size());
+        for (Object object : objects) {
             if (object instanceof ClassNode) {
-                return ((ClassNode) object).getName();
+                names.add(((ClassNode) object).getName());
             } else if (object instanceof FieldNode) {
-                return ((FieldNode) object).getName();
+                names.add(((FieldNode) object).getName());
             } else if (object instanceof MethodNode) {
-                return ((MethodNode) object).getName();
+                names.add(((MethodNode) object).getName());
             } else if (object instanceof PropertyNode) {
-                return ((PropertyNode) object).getName();
+                names.add(((PropertyNode) object).getName());
             } else if (object instanceof AnnotationNode) {
-                return ((AnnotationNode) object).getClassNode().getName();
+                names.add(((AnnotationNode) object).getClassNode().getName());
             } else if (object instanceof MethodCallExpression) {
-                return ((MethodCallExpression) object).getMethodAsString();
+                names.add(((MethodCallExpression) object).getMethodAsString());
             } else if (object instanceof MapEntryExpression) {
-                return ((MapEntryExpression) object).getKeyExpression().getText();
+                names.add(((MapEntryExpression) object).getKeyExpression().getText());
             } else if (object instanceof Variable) {
-                return ((Variable) object).getName();
+                names.add(((Variable) object).getName());
             } else if (object instanceof BinaryExpression &&
                 ((BinaryExpression) object).getLeftExpression() instanceof Variable &&
                 Types.ofType(((BinaryExpression) object).getOperation().getType(), Types.ASSIGNMENT_OPERATOR)) {
-                return ((Variable) ((BinaryExpression) object).getLeftExpression()).getName();
+                names.add(((Variable) ((BinaryExpression) object).getLeftExpression()).getName());
             } else if (object instanceof Expression) {
-                return ((Expression) object).getText();
+                names.add(((Expression) object).getText());
             } else {
-                return object.toString();
+                names.add(object.toString());
             }
-        }).collect(Collectors.toList());
+        }
+        return names;
     }
 
     @Override
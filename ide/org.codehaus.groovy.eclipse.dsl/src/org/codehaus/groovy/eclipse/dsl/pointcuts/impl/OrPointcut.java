@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
 
 import org.codehaus.groovy.eclipse.dsl.pointcuts.AbstractPointcut;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
@@ -29,17 +30,26 @@ import org.eclipse.core.resources.IStorage;
  */
 public class OrPointcut extends AbstractPointcut {
 
+    /** the arguments of the normalized pointcut, so they are not copied for each match */
+    private Object[] operands;
+
     public OrPointcut(IStorage containerIdentifier, String pointcutName) {
         super(containerIdentifier, pointcutName);
     }
 
+    @Override
+    public Set<GroovyDSLDContext.Facet> getDependencies() {
+        return combineDependencies(false, GroovyDSLDContext.Facet.ARGUMENT);
+    }
+
     @Override
     public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
-        Object[] args = getArgumentValues();
+        Object[] args = (operands != null ? operands : getArgumentValues());
+        Collection<?> toMatchCollection = ensureCollection(toMatch);
         Collection<Object> result = new HashSet<>();
         for (Object arg : args) {
             Collection<?> intermediate =
-                matchOnPointcutArgumentReturnInner((IPointcut) arg, pattern, ensureCollection(toMatch));
+                matchOnPointcutArgumentReturnInner((IPointcut) arg, pattern, toMatchCollection);
             if (intermediate != null) {
                 result.addAll(intermediate);
             }
@@ -73,6 +83,7 @@ public class OrPointcut extends AbstractPointcut {
                     newNewOr.addArgument(name, argument);
                 }
             }
+            newNewOr.operands = newNewOr.getArgumentValues();
             return newNewOr;
         } else {
             return newPointcut;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,16 +15,14 @@
  */
 package org.codehaus.groovy.eclipse.dsl.pointcuts.impl;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashSet;
-import java.util.Map;
-import java.util.Set;
-import java.util.WeakHashMap;
+import java.util.List;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.eclipse.dsl.pointcuts.GroovyDSLDContext;
 import org.eclipse.core.resources.IStorage;
-import org.eclipse.jdt.groovy.search.VariableScope;
 
 /**
  * Converts the object toMatch into a type and then sees if it is a subtype.
@@ -37,18 +35,53 @@ public class SubTypePointcut extends FilteringPointcut<ClassNode> {
         super(containerIdentifier, pointcutName, ClassNode.class);
     }
 
+    /**
+     * When the argument is a type name, the super type is looked up by name in the
+     * cached hierarchy instead of filtering every super type.  Like the filtered
+     * result, the result is a new collection that the caller may keep or modify.
+     */
     @Override
-    protected Collection<ClassNode> explodeObject(Object object) {
+    public Collection<?> matches(GroovyDSLDContext pattern, Object toMatch) {
+        String typeName = getConstantArgument();
+        if (typeName == null) {
+            return super.matches(pattern, toMatch);
+        }
+        if (toMatch instanceof ClassNode) {
+            List<ClassNode> types = pattern.getTypeHierarchy((ClassNode) toMatch).getTypes(typeName);
+            return (types != null ? new ArrayList<>(types) : null);
+        }
+        if (toMatch instanceof Collection) {
+            Collection<ClassNode> matches = null;
+            for (Object item : (Collection<?>) toMatch) {
+                if (item instanceof ClassNode) {
+                    List<ClassNode> types = pattern.getTypeHierarchy((ClassNode) item).getTypes(typeName);
+                    if (types != null) {
+                        if (matches == null) {
+                            matches = new LinkedHashSet<>();
+                        }
+                        matches.addAll(types);
+                    }
+                }
+            }
+            if (matches != null) {
+                return new ArrayList<>(matches);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    protected Collection<ClassNode> explodeObject(Object object, GroovyDSLDContext context) {
         if (object instanceof Collection) {
             Collection<ClassNode> classes = new LinkedHashSet<>();
             for (Object item : (Collection<?>) object) {
                 if (item instanceof ClassNode) {
-                    classes.addAll(getSuperTypes((ClassNode) item));
+                    classes.addAll(context.getTypeHierarchy((ClassNode) item).getTypes());
                 }
             }
             return classes;
         } else if (object instanceof ClassNode) {
-            return new LinkedHashSet<>(getSuperTypes(((ClassNode) object)));
+            return new LinkedHashSet<>(context.getTypeHierarchy((ClassNode) object).getTypes());
         }
         return null;
     }
@@ -60,14 +93,4 @@ public class SubTypePointcut extends FilteringPointcut<ClassNode> {
         }
         return null;
     }
-
-    private Set<ClassNode> getSuperTypes(ClassNode type) {
-        return cachedHierarchies.computeIfAbsent(type, t -> {
-            LinkedHashSet<ClassNode> superTypes = new LinkedHashSet<>();
-            VariableScope.createTypeHierarchy(type, superTypes, false);
-            return superTypes;
-        });
-    }
-
-    private Map<ClassNode, Set<ClassNode>> cachedHierarchies = new WeakHashMap<>();
 }
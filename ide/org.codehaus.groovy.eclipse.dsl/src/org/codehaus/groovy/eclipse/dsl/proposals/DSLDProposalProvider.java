@@ -53,10 +53,11 @@ public class DSLDProposalProvider implements IProposalProvider {
     @Override
     public List<IGroovyProposal> getStatementAndExpressionProposals(ContentAssistContext context, ClassNode completionType, boolean isStatic, Set<ClassNode> categories) {
         String event = null;
+        long eventStart = 0L;
         if (GroovyLogManager.manager.hasLoggers()) {
             GroovyLogManager.manager.log(TraceCategory.DSL, "Getting DSL proposals for " + context.fullCompletionExpression);
             event = "DSL proposals";
-            GroovyLogManager.manager.logStart(event);
+            eventStart = GroovyLogManager.manager.logStart(event);
         }
         List<IContributionElement> contributions;
         List<IGroovyProposal> proposals = new ArrayList<>();
@@ -96,7 +97,7 @@ public class DSLDProposalProvider implements IProposalProvider {
             GroovyDSLCoreActivator.logException(e);
         }
         if (event != null) {
-            GroovyLogManager.manager.logEnd(event, TraceCategory.DSL);
+            GroovyLogManager.manager.logEnd(event, TraceCategory.DSL, eventStart);
         }
 
         return proposals;
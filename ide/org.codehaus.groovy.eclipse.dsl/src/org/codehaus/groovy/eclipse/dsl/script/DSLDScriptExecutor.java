@@ -61,37 +61,64 @@ public class DSLDScriptExecutor {
     }
 
     public Object executeScript(IStorage scriptFile) {
+        return executeScript(scriptFile, compileScript(scriptFile));
+    }
+
+    /**
+     * Compiles a DSLD script without running it.  Compiling does not modify
+     * the DSLD store, so several scripts may be compiled concurrently.
+     *
+     * @return the script class or {@code null} if the script could not be compiled
+     */
+    public Class<?> compileScript(IStorage scriptFile) {
+        String name = scriptFile.getName();
+        try {
+            String scriptText = getContents(scriptFile);
+            Class<?> scriptType;
+            try {
+                scriptType = getGroovyClassLoader().parseClass(scriptText, name);
+            } catch (Exception e) {
+                if (GroovyLogManager.manager.hasLoggers()) {
+                    StringWriter writer = new StringWriter();
+                    e.printStackTrace(new PrintWriter(writer));
+                    GroovyLogManager.manager.log(TraceCategory.DSL, "Attempted to compile " + name + ", but failed because:\n" + writer.getBuffer());
+                }
+                return null;
+            }
+
+            if (!Script.class.isAssignableFrom(scriptType)) {
+                // might be some strange compile error or a class is accidentally defined
+                if (GroovyLogManager.manager.hasLoggers()) {
+                    GroovyLogManager.manager.log(TraceCategory.DSL, name + " is not a Groovy script.  Can't execute as DSLD.");
+                }
+                return null;
+            }
+            return scriptType;
+        } catch (Exception e) {
+            // log exception to the event console and the error log
+            GroovyDSLCoreActivator.logException(e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs a DSLD script compiled by {@link #compileScript(IStorage)}, which
+     * adds its contributions to the project's DSLD store.
+     */
+    public Object executeScript(IStorage scriptFile, Class<?> scriptType) {
+        if (scriptType == null) {
+            return null;
+        }
         scriptName = scriptFile.getName();
         String event = null;
+        long eventStart = 0L;
         try {
             if (GroovyLogManager.manager.hasLoggers()) {
                 event = "DSLD processing for " + scriptFile;
-                GroovyLogManager.manager.logStart(event);
+                eventStart = GroovyLogManager.manager.logStart(event);
             }
             factory = new PointcutFactory(scriptFile, project.getProject());
             try {
-                GroovyClassLoader classLoader = getGroovyClassLoader();
-                String scriptText = getContents(scriptFile);
-                @SuppressWarnings("rawtypes")
-                Class scriptType = null;
-                try {
-                    scriptType = classLoader.parseClass(scriptText, scriptName);
-                } catch (Exception e) {
-                    if (GroovyLogManager.manager.hasLoggers()) {
-                        StringWriter writer = new StringWriter();
-                        e.printStackTrace(new PrintWriter(writer));
-                        GroovyLogManager.manager.log(TraceCategory.DSL, "Attempted to compile " + scriptName + ", but failed because:\n" + writer.getBuffer());
-                    }
-                    return null;
-                }
-
-                if (!Script.class.isAssignableFrom(scriptType)) {
-                    // might be some strange compile error or a class is accidentally defined
-                    if (GroovyLogManager.manager.hasLoggers()) {
-                        GroovyLogManager.manager.log(TraceCategory.DSL, scriptName + " is not a Groovy script.  Can't execute as DSLD.");
-                    }
-                    return null;
-                }
                 Script dsldScript = (Script) scriptType.newInstance();
                 dsldScript.setBinding(new DSLDScriptBinding(dsldScript));
 
@@ -108,7 +135,7 @@ public class DSLDScriptExecutor {
             return null;
         } finally {
             if (event != null) {
-                GroovyLogManager.manager.logEnd(event, TraceCategory.DSL);
+                GroovyLogManager.manager.logEnd(event, TraceCategory.DSL, eventStart);
             }
         }
     }
@@ -397,12 +397,12 @@ public class DSLPreferencesPage extends PreferencePage implements IWorkbenchPref
             @Override
             public IStatus runInUIThread(IProgressMonitor monitor) {
                 GroovyLogManager.manager.log(TraceCategory.DSL, EVENT);
-                GroovyLogManager.manager.logStart(EVENT);
+                long start = GroovyLogManager.manager.logStart(EVENT);
                 GroovyDSLCoreActivator.getDefault().getContextStoreManager().initializeAll(true);
                 if (!DSLPreferencesPage.this.getControl().isDisposed()) {
                     refresh();
                 }
-                GroovyLogManager.manager.logEnd(EVENT, TraceCategory.DSL);
+                GroovyLogManager.manager.logEnd(EVENT, TraceCategory.DSL, start);
                 return Status.OK_STATUS;
             }
         }.schedule();
@@ -15,6 +15,12 @@
  */
 package org.codehaus.groovy.eclipse.mining;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.ui.plugin.AbstractUIPlugin;
 import org.osgi.framework.BundleContext;
 
@@ -22,6 +28,27 @@ public class GroovyMiningPlugin extends AbstractUIPlugin {
 
     public static final String PLUGIN_ID = "org.codehaus.groovy.eclipse.mining";
 
+    private static final ThreadPoolExecutor EXECUTOR;
+    static {
+        AtomicInteger count = new AtomicInteger();
+        EXECUTOR = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new ArrayBlockingQueue<>(32), runnable -> {
+            Thread thread = new Thread(runnable, "Groovy Code Minings " + count.incrementAndGet());
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            thread.setDaemon(true);
+            return thread;
+        });
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the executor for code mining computations.  It is bounded, so
+     * submissions may be rejected when the editors request more minings than
+     * it can keep up with.
+     */
+    public static ExecutorService getExecutor() {
+        return EXECUTOR;
+    }
+
     @Override
     public void start(BundleContext bundleContext) throws Exception {
         super.start(bundleContext);
@@ -29,6 +56,7 @@ public class GroovyMiningPlugin extends AbstractUIPlugin {
 
     @Override
     public void stop(BundleContext bundleContext) throws Exception {
+        EXECUTOR.shutdownNow();
         super.stop(bundleContext);
     }
 }
@@ -18,8 +18,14 @@ package org.codehaus.groovy.eclipse.mining.internal;
 import static org.codehaus.groovy.runtime.DefaultGroovyMethods.asBoolean;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.MethodNode;
@@ -29,66 +35,388 @@ import org.codehaus.groovy.ast.expr.ConstantExpression;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.expr.MethodCall;
 import org.codehaus.groovy.eclipse.codeassist.completions.MethodNodeWithNamedParams;
+import org.codehaus.groovy.eclipse.mining.GroovyMiningPlugin;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jdt.core.ElementChangedEvent;
+import org.eclipse.jdt.core.IElementChangedListener;
+import org.eclipse.jdt.core.IField;
+import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IJavaElementDelta;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.IMethod;
+import org.eclipse.jdt.core.ISourceRange;
+import org.eclipse.jdt.core.IType;
+import org.eclipse.jdt.core.JavaCore;
+import org.eclipse.jdt.core.JavaModelException;
+import org.eclipse.jdt.groovy.search.ITypeRequestor;
 import org.eclipse.jdt.groovy.search.ITypeRequestor.VisitStatus;
 import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jdt.groovy.search.TypeLookupResult;
 import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.codemining.AbstractCodeMiningProvider;
 import org.eclipse.jface.text.codemining.ICodeMining;
 import org.eclipse.jface.text.codemining.LineContentCodeMining;
+import org.eclipse.jface.text.source.ISourceViewerExtension5;
+import org.eclipse.swt.custom.StyledText;
 
+/**
+ * Provides parameter name minings for method call arguments.  Minings are
+ * computed for the visible part of the editor first; the rest of the file is
+ * filled in by a background pass that triggers another update when it is done.
+ * Results are cached per member and reused for as long as the member's source
+ * and the member signatures of the compilation unit are unchanged, so neither
+ * scrolling nor edits to other members recompute them.  Changes to any other
+ * compilation unit or class file or to the classpath discard the whole cache.
+ * <p>
+ * The visible range is tracked on the UI thread by a viewport listener, so
+ * computations in the background never wait for the display.
+ */
 public class MethodParameterCodeMiningProvider extends AbstractCodeMiningProvider {
 
     // TODO: "argN" from org.codehaus.jdt.groovy.internal.compiler.ast.JDTClassNode.makeParameter(TypeBinding, char[][])
     // TODO: "argN" from org.codehaus.groovy.vmplugin.v5.Java5.makeParameter(CompileUnit, Type, Class, Annotation[], Member)
     // TODO: "pN" org.codehaus.groovy.classgen.InnerClassVisitor.visitConstructorCallExpression(ConstructorCallExpression)
 
+    /**
+     * Parameter name minings of one member, positioned relative to the start of the member.
+     */
+    private static class MemberMinings {
+        final String source;
+        final int[] offsets;
+        final String[] labels;
+
+        MemberMinings(String source, List<Object[]> minings) {
+            this.source = source;
+            this.offsets = new int[minings.size()];
+            this.labels = new String[minings.size()];
+            for (int i = 0; i < offsets.length; i += 1) {
+                offsets[i] = (Integer) minings.get(i)[0];
+                labels[i] = (String) minings.get(i)[1];
+            }
+        }
+    }
+
+    private final Map<String, MemberMinings> memberMinings = new ConcurrentHashMap<>();
+    private volatile String signatures = "";
+    private final AtomicBoolean backgroundPending = new AtomicBoolean();
+
+    private volatile int[] visibleRange = {0, Integer.MAX_VALUE};
+    private final AtomicBoolean viewportTracked = new AtomicBoolean();
+
+    private volatile GroovyCompilationUnit compilationUnit;
+    private volatile ITextViewer textViewer;
+    private final IElementChangedListener elementChangedListener = this::elementChanged;
+
+    public MethodParameterCodeMiningProvider() {
+        JavaCore.addElementChangedListener(elementChangedListener, ElementChangedEvent.POST_CHANGE);
+    }
+
+    @Override
+    public void dispose() {
+        JavaCore.removeElementChangedListener(elementChangedListener);
+        memberMinings.clear();
+        textViewer = null;
+        super.dispose();
+    }
+
     @Override
     public CompletableFuture<List<? extends ICodeMining>> provideCodeMinings(ITextViewer viewer, IProgressMonitor monitor) {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!monitor.isCanceled()) {
-                GroovyCompilationUnit compilationUnit = getAdapter(GroovyCompilationUnit.class);
-                if (compilationUnit != null && compilationUnit.isConsistent() /*&& compilationUnit.isStructureKnown()*/) {
-                    final int[] lastLine = new int[1];
-                    List<ICodeMining> codeMinings = new ArrayList<>();
-                    TypeInferencingVisitorWithRequestor codeVisitor = new TypeInferencingVisitorFactory().createVisitor(compilationUnit);
-                    codeVisitor.visitCompilationUnit((ASTNode node, TypeLookupResult result, org.eclipse.jdt.core.IJavaElement enclosingElement) -> {
-                        if (node.getEnd() > 0 && !(node instanceof MethodNode) && result.declaration instanceof MethodNode && asBoolean(((MethodNode) result.declaration).getParameters())) {
-                            MethodCall methodCall = null;
-                            if (node instanceof MethodCall) {
-                                methodCall = (MethodCall) node;
-                            } else if (node instanceof ConstantExpression && result.scope.getEnclosingNode() instanceof MethodCall) {
-                                methodCall = (MethodCall) result.scope.getEnclosingNode();
-                                assert node.getText().equals(methodCall.getMethodAsString());
-                            }
+        trackVisibleRange(viewer);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                if (!monitor.isCanceled()) {
+                    GroovyCompilationUnit compilationUnit = getAdapter(GroovyCompilationUnit.class);
+                    if (compilationUnit != null && compilationUnit.isConsistent() /*&& compilationUnit.isStructureKnown()*/) {
+                        this.compilationUnit = compilationUnit;
+                        this.textViewer = viewer;
+                        try {
+                            return provideCodeMinings(compilationUnit, viewer, monitor);
+                        } catch (JavaModelException e) {
+                            return null;
+                        }
+                    }
+                }
+                return null;
+            }, GroovyMiningPlugin.getExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-                            if (methodCall != null) {
-                                provideMethodCallCodeMinings(codeMinings, methodCall, (MethodNode) result.declaration, result.isGroovy);
-                            }
+    private List<ICodeMining> provideCodeMinings(GroovyCompilationUnit compilationUnit, ITextViewer viewer, IProgressMonitor monitor) throws JavaModelException {
+        List<IMember> members = new ArrayList<>();
+        collectMembers(compilationUnit.getTypes(), members);
+
+        String signatures = signaturesOf(members);
+        if (!signatures.equals(this.signatures)) {
+            // parameter names or inferred types may have changed for calls in any member
+            memberMinings.clear();
+            this.signatures = signatures;
+        } else {
+            Set<String> handles = new HashSet<>();
+            for (IMember member : members) {
+                handles.add(member.getHandleIdentifier());
+            }
+            memberMinings.keySet().retainAll(handles);
+        }
+
+        int[] visible = visibleRange, target = {Integer.MAX_VALUE, Integer.MIN_VALUE};
+        List<IMember> visibleMembers = new ArrayList<>(), otherMembers = new ArrayList<>();
+        for (IMember member : members) {
+            if (!isCached(member)) {
+                ISourceRange range = member.getSourceRange();
+                int start = range.getOffset(), end = range.getOffset() + range.getLength();
+                if (start <= visible[1] && visible[0] <= end) {
+                    visibleMembers.add(member);
+                    target[0] = Math.min(target[0], start);
+                    target[1] = Math.max(target[1], end);
+                } else {
+                    otherMembers.add(member);
+                }
+            }
+        }
 
-                            // check cancel no more than once per line
-                            if (node.getLineNumber() > lastLine[0]) {
-                                lastLine[0] = node.getLineNumber();
-                                if (monitor.isCanceled()) {
-                                    return VisitStatus.STOP_VISIT;
-                                }
+        List<ICodeMining> codeMinings = new ArrayList<>();
+        if (!visibleMembers.isEmpty()) {
+            computeMemberMinings(compilationUnit, visibleMembers, target, monitor);
+        }
+        if (monitor.isCanceled()) {
+            return null;
+        }
+        if (!otherMembers.isEmpty() && viewer instanceof ISourceViewerExtension5 && backgroundPending.compareAndSet(false, true)) {
+            try {
+                GroovyMiningPlugin.getExecutor().execute(() -> {
+                    try {
+                        if (compilationUnit.isConsistent()) {
+                            computeMemberMinings(compilationUnit, otherMembers, null, monitor);
+                            StyledText widget = viewer.getTextWidget();
+                            if (!monitor.isCanceled() && widget != null && !widget.isDisposed()) {
+                                widget.getDisplay().asyncExec(((ISourceViewerExtension5) viewer)::updateCodeMinings);
                             }
                         }
-                        return VisitStatus.CONTINUE;
+                    } catch (JavaModelException ignore) {
+                    } finally {
+                        backgroundPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                backgroundPending.set(false);
+            }
+        }
+
+        for (IMember member : members) {
+            MemberMinings minings = memberMinings.get(member.getHandleIdentifier());
+            if (minings != null) {
+                int offset = member.getSourceRange().getOffset();
+                for (int i = 0; i < minings.offsets.length; i += 1) {
+                    codeMinings.add(newMethodParameterCodeMining(offset + minings.offsets[i], minings.labels[i]));
+                }
+            }
+        }
+        return codeMinings;
+    }
+
+    /**
+     * Infers the specified members and caches their minings.  Cached members
+     * and members outside of the range (if given) are skipped.
+     */
+    private void computeMemberMinings(GroovyCompilationUnit compilationUnit, List<IMember> members, int[] range, IProgressMonitor monitor) throws JavaModelException {
+        Map<IJavaElement, List<Object[]>> minings = new ConcurrentHashMap<>();
+        for (IMember member : members) {
+            minings.put(member, new ArrayList<>());
+        }
+
+        final int[] lastLine = new int[1];
+        ITypeRequestor requestor = (ASTNode node, TypeLookupResult result, IJavaElement enclosingElement) -> {
+            IMember member = outermostMember(enclosingElement);
+            if (member == null) {
+                // static field initializers are visited in the context of the type
+                if (enclosingElement instanceof IType && result.scope.getEnclosingFieldDeclaration() != null) {
+                    member = ((IType) enclosingElement).getField(result.scope.getEnclosingFieldDeclaration().getName());
+                } else {
+                    return VisitStatus.CONTINUE;
+                }
+            }
+            List<Object[]> memberList = minings.get(member);
+            if (memberList == null) {
+                // cached or not requested; a type cannot be canceled without skipping its members
+                return (enclosingElement instanceof IType ? VisitStatus.CONTINUE : VisitStatus.CANCEL_MEMBER);
+            }
+            if (node.getEnd() > 0 && !(node instanceof MethodNode) && result.declaration instanceof MethodNode && asBoolean(((MethodNode) result.declaration).getParameters())) {
+                MethodCall methodCall = null;
+                if (node instanceof MethodCall) {
+                    methodCall = (MethodCall) node;
+                } else if (node instanceof ConstantExpression && result.scope.getEnclosingNode() instanceof MethodCall) {
+                    methodCall = (MethodCall) result.scope.getEnclosingNode();
+                    assert node.getText().equals(methodCall.getMethodAsString());
+                }
+
+                if (methodCall != null) {
+                    try {
+                        int offset = member.getSourceRange().getOffset();
+                        provideMethodCallCodeMinings(memberList, offset, methodCall, (MethodNode) result.declaration, result.isGroovy);
+                    } catch (JavaModelException e) {
+                        return VisitStatus.CANCEL_MEMBER;
+                    }
+                }
+
+                // check cancel no more than once per line
+                if (node.getLineNumber() > lastLine[0]) {
+                    lastLine[0] = node.getLineNumber();
+                    if (monitor.isCanceled()) {
+                        return VisitStatus.STOP_VISIT;
+                    }
+                }
+            }
+            return VisitStatus.CONTINUE;
+        };
+
+        if (range != null) {
+            new TypeInferencingVisitorFactory().createVisitor(compilationUnit).visitCompilationUnit(requestor, range[0], range[1]);
+        } else {
+            new TypeInferencingVisitorFactory().createVisitor(compilationUnit).visitCompilationUnit(requestor);
+        }
+
+        if (!monitor.isCanceled() && compilationUnit.isConsistent()) {
+            for (IMember member : members) {
+                memberMinings.put(member.getHandleIdentifier(), new MemberMinings(member.getSource(), minings.get(member)));
+            }
+        }
+    }
+
+    private boolean isCached(IMember member) throws JavaModelException {
+        MemberMinings minings = memberMinings.get(member.getHandleIdentifier());
+        return (minings != null && minings.source.equals(member.getSource()));
+    }
+
+    private static void collectMembers(IType[] types, List<IMember> members) throws JavaModelException {
+        for (IType type : types) {
+            for (IJavaElement child : type.getChildren()) {
+                if (child instanceof IType) {
+                    collectMembers(new IType[] {(IType) child}, members);
+                } else if (child instanceof IMember && ((IMember) child).getSourceRange() != null) {
+                    members.add((IMember) child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the outermost member that is not a type, so minings within
+     * anonymous and local classes are cached with their enclosing member.
+     */
+    private static IMember outermostMember(IJavaElement element) {
+        IMember member = null;
+        for (IJavaElement e = element; e instanceof IMember; e = e.getParent()) {
+            if (!(e instanceof IType)) {
+                member = (IMember) e;
+            }
+        }
+        return member;
+    }
+
+    /**
+     * Returns the parameter names and the return and field types of the
+     * members; a change to any of them may change the minings of any call.
+     */
+    private static String signaturesOf(List<IMember> members) throws JavaModelException {
+        StringBuilder sb = new StringBuilder();
+        for (IMember member : members) {
+            if (member instanceof IMethod) {
+                IMethod method = (IMethod) member;
+                sb.append(method.getHandleIdentifier()).append(':').append(method.getReturnType());
+                for (String name : method.getParameterNames()) {
+                    sb.append(',').append(name);
+                }
+                sb.append(';');
+            } else if (member instanceof IField) {
+                sb.append(member.getHandleIdentifier()).append(':').append(((IField) member).getTypeSignature()).append(';');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Installs a viewport listener that records the visible range whenever the
+     * viewer scrolls or is resized.  Until the listener has run, the whole
+     * document is considered visible.
+     */
+    private void trackVisibleRange(ITextViewer viewer) {
+        StyledText widget = viewer.getTextWidget();
+        if (widget != null && !widget.isDisposed() && viewportTracked.compareAndSet(false, true)) {
+            Runnable install = () -> {
+                if (!widget.isDisposed()) {
+                    IViewportListener listener = verticalOffset -> {
+                        if (!widget.isDisposed()) {
+                            visibleRange = new int[] {viewer.getTopIndexStartOffset(), viewer.getBottomIndexEndOffset()};
+                        }
+                    };
+                    viewer.addViewportListener(listener);
+                    widget.addDisposeListener(e -> viewer.removeViewportListener(listener));
+                    listener.viewportChanged(viewer.getTopIndexStartOffset());
+                }
+            };
+            if (widget.getDisplay().getThread() == Thread.currentThread()) {
+                install.run();
+            } else {
+                widget.getDisplay().asyncExec(install);
+            }
+        }
+    }
+
+    private void elementChanged(ElementChangedEvent event) {
+        GroovyCompilationUnit unit = compilationUnit;
+        if (unit != null && !memberMinings.isEmpty() && affectsOtherUnits(event.getDelta(), unit.getPrimaryElement())) {
+            memberMinings.clear();
+            signatures = "";
+
+            ITextViewer viewer = textViewer;
+            if (viewer instanceof ISourceViewerExtension5) {
+                StyledText widget = viewer.getTextWidget();
+                if (widget != null && !widget.isDisposed()) {
+                    widget.getDisplay().asyncExec(() -> {
+                        if (!widget.isDisposed()) {
+                            ((ISourceViewerExtension5) viewer).updateCodeMinings();
+                        }
                     });
+                }
+            }
+        }
+    }
 
-                    return codeMinings;
+    /**
+     * Determines if the delta reports a change to the classpath or to any
+     * compilation unit or class file other than the given one.
+     */
+    private static boolean affectsOtherUnits(IJavaElementDelta delta, IJavaElement unit) {
+        int flags = delta.getFlags();
+        if ((flags & (IJavaElementDelta.F_CLASSPATH_CHANGED | IJavaElementDelta.F_RESOLVED_CLASSPATH_CHANGED |
+                IJavaElementDelta.F_ARCHIVE_CONTENT_CHANGED | IJavaElementDelta.F_ADDED_TO_CLASSPATH | IJavaElementDelta.F_REMOVED_FROM_CLASSPATH)) != 0) {
+            return true;
+        }
+        IJavaElement element = delta.getElement();
+        switch (element.getElementType()) {
+        case IJavaElement.COMPILATION_UNIT:
+            return !element.getPrimaryElement().equals(unit);
+        case IJavaElement.CLASS_FILE:
+            return true;
+        default:
+            if (delta.getKind() != IJavaElementDelta.CHANGED) {
+                return true;
+            }
+            for (IJavaElementDelta child : delta.getAffectedChildren()) {
+                if (affectsOtherUnits(child, unit)) {
+                    return true;
                 }
             }
-            return null;
-        });
+            return false;
+        }
     }
 
-    private void provideMethodCallCodeMinings(List<ICodeMining> codeMinings, MethodCall methodCall, MethodNode methodNode, boolean isGroovyMethod) {
+    private static void provideMethodCallCodeMinings(List<Object[]> codeMinings, int memberOffset, MethodCall methodCall, MethodNode methodNode, boolean isGroovyMethod) {
         if (methodCall.getArguments() instanceof ArgumentListExpression) {
             //System.err.printf("name:%s, text:%s%n", methodCall.getMethodAsString(), methodCall.getText());
             // TODO: Calls to Closures are seen as method calls: "def code = { a, b -> ... }; code(1, 2);"
@@ -101,14 +429,14 @@ public class MethodParameterCodeMiningProvider extends AbstractCodeMiningProvide
             for (Expression argument : (ArgumentListExpression) methodCall.getArguments()) {
                 //if (argument instanceof MapExpression) continue; // try to skip named args
                 Parameter parameter = parameters[Math.min(i++, parameters.length - 1)];
-                codeMinings.add(newMethodParameterCodeMining(argument, parameter));
+                codeMinings.add(new Object[] {argument.getStart() - memberOffset, parameter.getName() + ':'});
             }
         }
     }
 
-    private ICodeMining newMethodParameterCodeMining(Expression argument, Parameter parameter) {
-        LineContentCodeMining codeMining = new LineContentCodeMining(new Position(argument.getStart(), 1), this) {};
-        codeMining.setLabel(parameter.getName() + ':');
+    private ICodeMining newMethodParameterCodeMining(int offset, String label) {
+        LineContentCodeMining codeMining = new LineContentCodeMining(new Position(offset, 1), this) {};
+        codeMining.setLabel(label);
         return codeMining;
     }
 }
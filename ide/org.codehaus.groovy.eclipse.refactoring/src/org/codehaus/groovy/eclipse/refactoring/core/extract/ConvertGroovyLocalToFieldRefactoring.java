@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,8 +15,6 @@
  */
 package org.codehaus.groovy.eclipse.refactoring.core.extract;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -30,7 +28,6 @@ import org.codehaus.groovy.ast.FieldNode;
 import org.codehaus.groovy.ast.GroovyClassVisitor;
 import org.codehaus.groovy.ast.InnerClassNode;
 import org.codehaus.groovy.ast.MethodNode;
-import org.codehaus.groovy.ast.ModuleNode;
 import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.groovy.ast.Variable;
 import org.codehaus.groovy.ast.VariableScope;
@@ -41,9 +38,6 @@ import org.codehaus.groovy.ast.expr.VariableExpression;
 import org.codehaus.groovy.ast.stmt.BlockStatement;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.requestor.Region;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode.VisitKind;
-import org.codehaus.groovy.eclipse.core.util.VisitCompleteException;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools;
 import org.codehaus.groovy.eclipse.refactoring.formatter.DefaultGroovyFormatter;
 import org.codehaus.groovy.eclipse.refactoring.formatter.FormatterPreferences;
@@ -90,7 +84,7 @@ public class ConvertGroovyLocalToFieldRefactoring extends PromoteTempToFieldRefa
     private VariableExpression variableExpressionInDeclaration;
     private DeclarationExpression declarationExpression;
     private ClassNode containingClassNode;
-    private ModuleNode moduleNode;
+    private ExtractRefactoringContext context;
     private MethodNode methodNode;
 
     private CompilationUnitChange change;
@@ -418,46 +412,46 @@ public class ConvertGroovyLocalToFieldRefactoring extends PromoteTempToFieldRefa
     }
 
     private IASTFragment getSelectionFragment() {
-        if (selectionFragment == null) {
-            selectionFragment = ASTTools.getSelectionFragment(getModuleNode(), selectionStart, selectionLength);
+        if (selectionFragment == null && getContext() != null) {
+            selectionFragment = getContext().getSelectionFragment(selectionStart, selectionLength);
         }
         return selectionFragment;
     }
 
-    private ModuleNode getModuleNode() {
-        if (moduleNode == null) {
-            moduleNode = unit.getModuleNode();
+    private ExtractRefactoringContext getContext() {
+        if (context == null) {
+            context = ExtractRefactoringContext.forUnit(unit);
         }
-        return moduleNode;
+        return context;
     }
 
     private ClassNode getContainingClassNode() {
         if (containingClassNode == null) {
-            if (getModuleNode() == null) {
+            if (getContext() == null) {
                 return null;
             }
             if (declarationExpression == null) {
                 return null;
             }
-            containingClassNode = ASTTools.getContainingClassNode(getModuleNode(), variableExpressionInDeclaration.getStart());
+            containingClassNode = ASTTools.getContainingClassNode(getContext().getModuleNode(), variableExpressionInDeclaration.getStart());
         }
         return containingClassNode;
     }
 
     private MethodNode getContainingMethodNode() {
         if (methodNode == null) {
-            methodNode = new VariableExpressionFinder(variableExpressionInDeclaration).method;
+            methodNode = getContext().getDeclarationScope(variableExpressionInDeclaration).method;
         }
         return methodNode;
     }
 
     private ClosureExpression getContainingClosureExpression() {
-        return new VariableExpressionFinder(variableExpressionInDeclaration).closure;
+        return getContext().getDeclarationScope(variableExpressionInDeclaration).closure;
     }
 
     private DeclarationExpression getDeclarationExpression(final VariableExpression variableExpressionInDeclaration) {
         if (declarationExpression == null) {
-            declarationExpression = new VariableExpressionFinder(variableExpressionInDeclaration).declaration;
+            declarationExpression = getContext().getDeclarationScope(variableExpressionInDeclaration).declaration;
         }
         return declarationExpression;
     }
@@ -478,10 +472,7 @@ public class ConvertGroovyLocalToFieldRefactoring extends PromoteTempToFieldRefa
      * ExtractGroovyLocalRefactoring#getExcludedVariableNames
      */
     private Set<String> getUsedVariableAndFieldNames(VariableExpression variableExpression) {
-        FindSurroundingNode find = new FindSurroundingNode(new Region(variableExpression), VisitKind.PARENT_STACK);
-        find.doVisitSurroundingNode(moduleNode);
-        List<IASTFragment> parentStack = new ArrayList<>(find.getParentStack());
-        Collections.reverse(parentStack);
+        List<IASTFragment> parentStack = getContext().getParentStack(new Region(variableExpression));
 
         Set<String> result = new HashSet<>();
         for (IASTFragment fragment : parentStack) {
@@ -520,7 +511,7 @@ public class ConvertGroovyLocalToFieldRefactoring extends PromoteTempToFieldRefa
     }
 
     private boolean isTailRecursiveMethodParameter(VariableExpression variableExpression) {
-        MethodNode method = new VariableExpressionFinder(variableExpression).method;
+        MethodNode method = getContext().getDeclarationScope(variableExpression).method;
         if (method != null) {
             for (AnnotationNode annotation : method.getAnnotations()) {
                 if (annotation.getClassNode().getName().equals("groovy.transform.TailRecursive")) {
@@ -530,48 +521,4 @@ public class ConvertGroovyLocalToFieldRefactoring extends PromoteTempToFieldRefa
         }
         return false;
     }
-
-    private class VariableExpressionFinder extends DepthFirstVisitor {
-        DeclarationExpression declaration;
-        ClosureExpression closure;
-        MethodNode method;
-
-        VariableExpressionFinder(final VariableExpression variableExpressionInDeclaration) {
-            DepthFirstVisitor visitor = new DepthFirstVisitor() {
-                @Override
-                public void visitMethod(MethodNode node) {
-                    method = node;
-                    super.visitMethod(node);
-                    method = null;
-                }
-
-                @Override
-                public void visitClosureExpression(ClosureExpression expr) {
-                    closure = expr;
-                    super.visitClosureExpression(expr);
-                    closure = null;
-                }
-
-                @Override
-                public void visitDeclarationExpression(DeclarationExpression expr) {
-                    declaration = expr;
-                    super.visitDeclarationExpression(expr);
-                    declaration = null;
-                }
-
-                @Override
-                public void visitVariableExpression(VariableExpression expr) {
-                    if (expr == variableExpressionInDeclaration) {
-                        throw new VisitCompleteException();
-                    }
-                    super.visitVariableExpression(expr);
-                }
-            };
-
-            try {
-                visitor.visitModule(getModuleNode());
-            } catch (VisitCompleteException expected) {
-            }
-        }
-    }
 }
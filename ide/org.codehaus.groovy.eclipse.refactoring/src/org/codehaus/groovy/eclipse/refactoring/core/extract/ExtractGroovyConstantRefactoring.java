@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -36,7 +36,6 @@ import org.codehaus.groovy.eclipse.codebrowsing.fragments.BinaryExpressionFragme
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.MethodCallFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.PropertyExpressionFragment;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindAllOccurrencesVisitor;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.refactoring.Activator;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools;
@@ -91,6 +90,8 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
 
     private IASTFragment selectedFragment;
 
+    private ExtractRefactoringContext context;
+
     private GroovyCompilationUnit unit;
 
     private int start, length;
@@ -207,8 +208,7 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
         IASTFragment origExpr = getSelectedFragment();
         List<IASTFragment> occurrences;
         if (getReplaceAllOccurrences()) {
-            FindAllOccurrencesVisitor v = new FindAllOccurrencesVisitor(getCu().getModuleNode());
-            occurrences = v.findOccurrences(origExpr);
+            occurrences = getContext().getOccurrences(origExpr, null);
         } else {
             occurrences = Collections.singletonList(origExpr);
         }
@@ -394,7 +394,7 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
     }
 
     private ClassNode getContainingClassNode() {
-        return ASTTools.getContainingClassNode(getCu().getModuleNode(), getSelectionStart());
+        return ASTTools.getContainingClassNode(getContext().getModuleNode(), getSelectionStart());
     }
 
     private void setTargetIsInterface(boolean b) {
@@ -477,8 +477,7 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
 
     private IASTFragment getSelectedFragment() {
         if (selectedFragment == null) {
-            selectedFragment =
-                ASTTools.getSelectionFragment(getCu().getModuleNode(), getSelectionStart(), getSelectionLength());
+            selectedFragment = getContext().getSelectionFragment(getSelectionStart(), getSelectionLength());
         }
         return selectedFragment;
     }
@@ -527,7 +526,7 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
     private String[] getExcludedVariableNames() {
         if (fExcludedVariableNames == null) {
             HashSet<String> usedNames = new HashSet<>();
-            for (ClassNode classNode : unit.getModuleNode().getClasses()) {
+            for (ClassNode classNode : getContext().getModuleNode().getClasses()) {
                 for (FieldNode fieldNode : classNode.getFields()) {
                     usedNames.add(fieldNode.getName());
                 }
@@ -637,6 +636,13 @@ public class ExtractGroovyConstantRefactoring extends ExtractConstantRefactoring
         return constantName;
     }
 
+    private ExtractRefactoringContext getContext() {
+        if (context == null) {
+            context = ExtractRefactoringContext.forUnit(getCu());
+        }
+        return context;
+    }
+
     private GroovyCompilationUnit getCu() {
         if (unit == null) {
             unit = ReflectionUtils.getPrivateField(ExtractConstantRefactoring.class, "fCu", this);
@@ -47,9 +47,6 @@ import org.codehaus.groovy.eclipse.codebrowsing.fragments.MethodCallFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.PropertyExpressionFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.fragments.SimpleExpressionASTFragment;
 import org.codehaus.groovy.eclipse.codebrowsing.requestor.Region;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindAllOccurrencesVisitor;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode.VisitKind;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools;
 import org.codehaus.groovy.eclipse.refactoring.core.utils.StatusHelper;
@@ -111,6 +108,8 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
 
     private ModuleNode module;
 
+    private ExtractRefactoringContext context;
+
     private int start = -1, length = -1;
 
     private String localName;
@@ -119,10 +118,6 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
 
     private CompilationUnitChange change;
 
-    private Map<IASTFragment, List<IASTFragment>> allParentStack;
-
-    private List<IASTFragment> matchingFragments;
-
     public ExtractGroovyLocalRefactoring(JavaRefactoringArguments arguments, RefactoringStatus status) {
     }
 
@@ -130,7 +125,8 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
         this.unit = unit;
         this.start = offset;
         this.length = length;
-        this.module = unit.getModuleNode();
+        this.context = ExtractRefactoringContext.forUnit(unit);
+        this.module = (context != null ? context.getModuleNode() : null);
     }
 
     //--------------------------------------------------------------------------
@@ -243,7 +239,7 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
     private Set<String> getExcludedVariableNames() {
         Set<String> usedNames = new HashSet<>();
         if (getSelectedFragment() != null) {
-            Set<Variable> vars = ASTTools.getVariablesInScope(module, getSelectedFragment().getAssociatedExpression());
+            Set<Variable> vars = context.getVariablesInScope(new Region(getSelectedFragment().getAssociatedExpression()));
             for (Variable v : vars) {
                 usedNames.add(v.getName());
             }
@@ -293,9 +289,6 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
     }
 
     private List<IASTFragment> getMatchingExpressions() {
-        if (matchingFragments != null) {
-            return matchingFragments;
-        }
         IASTFragment origFragment = getSelectedFragment();
         List<IASTFragment> parentStack = getParentStack(origFragment);
         AnnotatedNode limitTo = null;
@@ -318,12 +311,9 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
             }
         }
         if (replaceAllOccurrences) {
-            FindAllOccurrencesVisitor v = new FindAllOccurrencesVisitor(unit.getModuleNode(), limitTo);
-            matchingFragments = v.findOccurrences(origFragment);
-        } else {
-            matchingFragments = Collections.singletonList(origFragment);
+            return context.getOccurrences(origFragment, limitTo);
         }
-        return matchingFragments;
+        return Collections.singletonList(origFragment);
     }
 
     private CompilationUnitChange doCreateChange(RefactoringStatus status, IProgressMonitor monitor) throws CoreException {
@@ -517,17 +507,7 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
     }
 
     private List<IASTFragment> getParentStack(IASTFragment expr) {
-        if (allParentStack == null) {
-            allParentStack = new HashMap<>();
-        } else if (allParentStack.containsKey(expr)) {
-            return allParentStack.get(expr);
-        }
-        FindSurroundingNode find = new FindSurroundingNode(new Region(expr), VisitKind.PARENT_STACK);
-        find.doVisitSurroundingNode(module);
-        List<IASTFragment> parentStack = new ArrayList<>(find.getParentStack());
-        Collections.reverse(parentStack);
-        allParentStack.put(expr, parentStack);
-        return parentStack;
+        return context.getParentStack(new Region(expr));
     }
 
     /*
@@ -626,13 +606,8 @@ public class ExtractGroovyLocalRefactoring extends Refactoring {
     }
 
     private IASTFragment getSelectedFragment() {
-        if(selectedExpression != null) {
-            return selectedExpression;
-        }
-        FindSurroundingNode finder = new FindSurroundingNode(new Region(start, length), VisitKind.SURROUNDING_NODE);
-        IASTFragment fragment = finder.doVisitSurroundingNode(unit.getModuleNode());
-        if (ASTFragmentKind.isExpressionKind(fragment)) {
-            selectedExpression = fragment;
+        if (selectedExpression == null && context != null) {
+            selectedExpression = context.getSelectionFragment(start, length);
         }
         return selectedExpression;
     }
@@ -17,6 +17,7 @@ package org.codehaus.groovy.eclipse.refactoring.core.extract;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -62,8 +63,6 @@ import org.eclipse.jdt.core.Flags;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.refactoring.CompilationUnitChange;
 import org.eclipse.jdt.core.refactoring.IJavaRefactorings;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
-import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
 import org.eclipse.jdt.groovy.search.VariableScope;
 import org.eclipse.jdt.internal.corext.refactoring.JavaRefactoringArguments;
 import org.eclipse.jdt.internal.corext.refactoring.JavaRefactoringDescriptorUtil;
@@ -147,6 +146,8 @@ public class ExtractGroovyMethodRefactoring extends Refactoring {
 
     private GroovyCompilationUnit unit;
 
+    private ExtractRefactoringContext context;
+
     private CompilationUnitChange change;
 
     public ExtractGroovyMethodRefactoring(GroovyCompilationUnit unit, int offset, int length, RefactoringStatus status) {
@@ -163,7 +164,8 @@ public class ExtractGroovyMethodRefactoring extends Refactoring {
 
     private void initializeExtractedStatements(RefactoringStatus status) {
         try {
-            methodCodeFinder = new StatementFinder(selectedText, unit.getModuleNode());
+            context = ExtractRefactoringContext.forUnit(unit);
+            methodCodeFinder = (context != null ? context.getStatementFinder(selectedText) : new StatementFinder(selectedText, null));
             createBlockStatement();
             updateMethod();
             saveOriginalParameters();
@@ -479,12 +481,8 @@ public class ExtractGroovyMethodRefactoring extends Refactoring {
         }
 
         // now try to infer the variable types
-        InferParameterAndReturnTypesRequestor inferRequestor = new InferParameterAndReturnTypesRequestor(actualParameters,
-                returnParameters, selectedText);
-        TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
-        visitor.visitCompilationUnit(inferRequestor);
-
-        Map<Variable, ClassNode> inferredTypes = inferRequestor.getInferredTypes();
+        Map<Variable, ClassNode> inferredTypes = (context != null
+            ? context.getInferredTypes(actualParameters, returnParameters, selectedText) : Collections.emptyMap());
         for (Variable variable : actualParameters) {
             if (inferredTypes.containsKey(variable)) {
                 ClassNode type = inferredTypes.get(variable);
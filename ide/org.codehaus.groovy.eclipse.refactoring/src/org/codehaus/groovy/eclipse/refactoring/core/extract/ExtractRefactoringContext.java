@@ -0,0 +1,249 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.refactoring.core.extract;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.AnnotatedNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Variable;
+import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.expr.DeclarationExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment;
+import org.codehaus.groovy.eclipse.codebrowsing.requestor.Region;
+import org.codehaus.groovy.eclipse.codebrowsing.selection.FindAllOccurrencesVisitor;
+import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode;
+import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode.VisitKind;
+import org.codehaus.groovy.eclipse.core.util.VisitCompleteException;
+import org.codehaus.groovy.eclipse.refactoring.core.utils.ASTTools;
+import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
+import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorFactory;
+import org.eclipse.jdt.groovy.search.TypeInferencingVisitorWithRequestor;
+
+/**
+ * AST and inference results shared by the extract and convert refactorings of
+ * a compilation unit: selected fragments, parent stacks, variables in scope,
+ * occurrences, statement selections and inferred variable types.
+ * <p>
+ * The context is kept with the unit's module node, so it is reused by every
+ * refactoring (and every wizard page update) until the document changes and
+ * reconciling replaces the module node.
+ */
+public final class ExtractRefactoringContext {
+
+    /**
+     * @return the context for the current module node of the unit or
+     *     {@code null} if the unit has no module node
+     */
+    public static ExtractRefactoringContext forUnit(GroovyCompilationUnit unit) {
+        ModuleNode module = unit.getModuleNode();
+        if (module == null) {
+            return null;
+        }
+        synchronized (module) {
+            ExtractRefactoringContext context = module.getNodeMetaData(ExtractRefactoringContext.class);
+            if (context == null) {
+                context = new ExtractRefactoringContext(unit, module);
+                module.putNodeMetaData(ExtractRefactoringContext.class, context);
+            }
+            return context;
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final GroovyCompilationUnit unit;
+    private final ModuleNode module;
+
+    private final Map<Region, IASTFragment> selectionFragments = new HashMap<>();
+    private final Map<Region, List<IASTFragment>> parentStacks = new HashMap<>();
+    private final Map<Region, Set<Variable>> variablesInScope = new HashMap<>();
+    private final Map<List<Object>, List<IASTFragment>> occurrences = new HashMap<>();
+    private final Map<Region, StatementFinder> statementFinders = new HashMap<>();
+    private final Map<List<Object>, Map<Variable, ClassNode>> inferredTypes = new HashMap<>();
+    private final Map<VariableExpression, DeclarationScope> declarationScopes = new IdentityHashMap<>();
+
+    private ExtractRefactoringContext(GroovyCompilationUnit unit, ModuleNode module) {
+        this.unit = unit;
+        this.module = module;
+    }
+
+    public ModuleNode getModuleNode() {
+        return module;
+    }
+
+    /**
+     * @return the expression fragment that spans the selection or {@code null}
+     */
+    public synchronized IASTFragment getSelectionFragment(int start, int length) {
+        Region selection = new Region(start, length);
+        if (!selectionFragments.containsKey(selection)) {
+            selectionFragments.put(selection, ASTTools.getSelectionFragment(module, start, length));
+        }
+        return selectionFragments.get(selection);
+    }
+
+    /**
+     * @return fragments that enclose the region, innermost first
+     */
+    public synchronized List<IASTFragment> getParentStack(Region region) {
+        return parentStacks.computeIfAbsent(region, r -> {
+            FindSurroundingNode find = new FindSurroundingNode(r, VisitKind.PARENT_STACK);
+            find.doVisitSurroundingNode(module);
+            List<IASTFragment> parentStack = new ArrayList<>(find.getParentStack());
+            Collections.reverse(parentStack);
+            return Collections.unmodifiableList(parentStack);
+        });
+    }
+
+    /**
+     * @return variables declared in the scopes that enclose the region
+     */
+    public synchronized Set<Variable> getVariablesInScope(Region region) {
+        return variablesInScope.computeIfAbsent(region, r -> Collections.unmodifiableSet(ASTTools.getVariablesInScope(getParentStack(r))));
+    }
+
+    /**
+     * @param limitTo declaration to search within or {@code null} for the whole module
+     * @return fragments that match the given fragment
+     */
+    public synchronized List<IASTFragment> getOccurrences(IASTFragment fragment, AnnotatedNode limitTo) {
+        return occurrences.computeIfAbsent(Arrays.asList(new Region(fragment), limitTo), k ->
+            Collections.unmodifiableList(new FindAllOccurrencesVisitor(module, limitTo).findOccurrences(fragment)));
+    }
+
+    public synchronized StatementFinder getStatementFinder(Region selection) {
+        return statementFinders.computeIfAbsent(selection, r -> new StatementFinder(r, module));
+    }
+
+    /**
+     * Infers the types of the given variables within the selection.
+     *
+     * @return inferred type (or {@code null}) for each variable
+     */
+    public synchronized Map<Variable, ClassNode> getInferredTypes(List<Variable> parameters, Set<Variable> returns, Region selection) {
+        return inferredTypes.computeIfAbsent(Arrays.asList(selection, new ArrayList<>(parameters), new HashSet<>(returns)), k -> {
+            InferParameterAndReturnTypesRequestor requestor = new InferParameterAndReturnTypesRequestor(parameters, returns, selection);
+            TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(unit);
+            visitor.visitCompilationUnit(requestor);
+            return Collections.unmodifiableMap(requestor.getInferredTypes());
+        });
+    }
+
+    /**
+     * @return the declaration, closure and method that enclose the variable
+     */
+    public synchronized DeclarationScope getDeclarationScope(VariableExpression variable) {
+        return declarationScopes.computeIfAbsent(variable, v -> new DeclarationScope(v, module));
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * The declaration, closure and method that are being visited when a
+     * variable expression is reached in a depth-first walk of the module.
+     * Classes, fields and methods that cannot contain the variable (according
+     * to the module's {@link SourceLocationIndex}) are not walked.
+     */
+    public static final class DeclarationScope {
+        public final DeclarationExpression declaration;
+        public final ClosureExpression closure;
+        public final MethodNode method;
+
+        DeclarationScope(VariableExpression variableExpression, ModuleNode module) {
+            DeclarationExpression[] declaration = new DeclarationExpression[2];
+            ClosureExpression[] closure = new ClosureExpression[2];
+            MethodNode[] method = new MethodNode[2];
+
+            SourceLocationIndex index = (variableExpression.getEnd() > 0 ? SourceLocationIndex.of(module) : null);
+            int start = variableExpression.getStart(), end = variableExpression.getEnd();
+
+            DepthFirstVisitor visitor = new DepthFirstVisitor() {
+                private boolean isDisjoint(ASTNode node) {
+                    return (index != null && !index.mayOverlap(node, start, end));
+                }
+
+                @Override
+                public void visitClass(ClassNode node) {
+                    if (isDisjoint(node)) return;
+                    super.visitClass(node);
+                }
+
+                @Override
+                public void visitField(FieldNode node) {
+                    if (isDisjoint(node)) return;
+                    super.visitField(node);
+                }
+
+                @Override
+                public void visitMethod(MethodNode node) {
+                    if (isDisjoint(node)) return;
+                    method[0] = node;
+                    super.visitMethod(node);
+                    method[0] = null;
+                }
+
+                @Override
+                public void visitClosureExpression(ClosureExpression expr) {
+                    closure[0] = expr;
+                    super.visitClosureExpression(expr);
+                    closure[0] = null;
+                }
+
+                @Override
+                public void visitDeclarationExpression(DeclarationExpression expr) {
+                    declaration[0] = expr;
+                    super.visitDeclarationExpression(expr);
+                    declaration[0] = null;
+                }
+
+                @Override
+                public void visitVariableExpression(VariableExpression expr) {
+                    if (expr == variableExpression) {
+                        declaration[1] = declaration[0];
+                        closure[1] = closure[0];
+                        method[1] = method[0];
+                        throw new VisitCompleteException();
+                    }
+                    super.visitVariableExpression(expr);
+                }
+            };
+
+            try {
+                visitor.visitModule(module);
+            } catch (VisitCompleteException expected) {
+            }
+            this.declaration = declaration[1];
+            this.closure = closure[1];
+            this.method = method[1];
+        }
+    }
+}
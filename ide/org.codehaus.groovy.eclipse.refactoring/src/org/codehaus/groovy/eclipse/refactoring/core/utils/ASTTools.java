@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -229,6 +229,13 @@ public class ASTTools {
         List<IASTFragment> parentStack = new ArrayList<>(find.getParentStack());
         Collections.reverse(parentStack);
 
+        return getVariablesInScope(parentStack);
+    }
+
+    /**
+     * @param parentStack fragments enclosing a node, innermost first
+     */
+    public static Set<Variable> getVariablesInScope(List<IASTFragment> parentStack) {
         Set<Variable> vars = new HashSet<>();
         for (IASTFragment fragment : parentStack) {
             ASTNode astNode = fragment.getAssociatedNode();
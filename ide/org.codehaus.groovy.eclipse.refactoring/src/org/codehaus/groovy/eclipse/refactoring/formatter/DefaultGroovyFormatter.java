@@ -114,37 +114,95 @@ public class DefaultGroovyFormatter extends GroovyFormatter {
     public TextEdit format() {
         formattedDocument = new Document(document.get());
         try {
-            int length;
             if (!indentOnly) {
                 initCodebase();
-                length = formattedDocument.getLength();
                 GroovyBeautifier beautifier = new GroovyBeautifier(this, pref);
-                beautifier.getBeautifiEdits().apply(formattedDocument);
-                formatLength += formattedDocument.getLength() - length;
+                applyEdits(beautifier.getBeautifiEdits());
             }
 
-            initCodebase();
-            length = formattedDocument.getLength();
+            if (tokens == null) {
+                initCodebase();
+            }
             GroovyIndentation indent = new GroovyIndentation(this, pref, indentationLevel);
-            indent.getIndentationEdits().apply(formattedDocument);
-            formatLength += formattedDocument.getLength() - length;
+            applyEdits(indent.getIndentationEdits());
 
             if (!indentOnly && Boolean.getBoolean("greclipse.formatter.linewrap")) {
-                initCodebase();
-                length = formattedDocument.getLength();
+                if (tokens == null) {
+                    initCodebase();
+                }
                 GroovyLineWrapper wrapper = new GroovyLineWrapper(this, pref, new LineIndentations(getProgressDocument().getNumberOfLines()));
-                wrapper.getLineWrapEdits().apply(formattedDocument);
-                formatLength += formattedDocument.getLength() - length;
+                applyEdits(wrapper.getLineWrapEdits());
             }
         } catch (Exception e) {
             GroovyCore.logWarning("Cannot format, probably due to compilation errors.  Please fix and try again.", e);
+        } finally {
+            disposeCodebase();
+        }
+
+        return createMinimalEdit(document.get(), formattedDocument.get());
+    }
+
+    /**
+     * Applies the edits of one formatting pass.  The tokens and module node
+     * are only discarded (and so lexed and parsed again by the next pass) if
+     * the pass has changed the document.
+     */
+    private void applyEdits(TextEdit edits) throws BadLocationException {
+        if (edits.hasChildren()) {
+            int length = formattedDocument.getLength();
+            edits.apply(formattedDocument);
+            formatLength += formattedDocument.getLength() - length;
+            disposeCodebase();
+        }
+    }
+
+    private void disposeCodebase() {
+        if (tokens != null) {
+            tokens.dispose();
+            tokens = null;
         }
+        rootNode = null;
+    }
+
+    /**
+     * Creates a single edit that covers only the span between the first and
+     * last differing characters of the original and formatted text, so that
+     * save actions and "format selection" do not replace the whole document.
+     */
+    private static TextEdit createMinimalEdit(String original, String formatted) {
+        int originalLength = original.length(), formattedLength = formatted.length();
+        int maxPrefix = Math.min(originalLength, formattedLength);
 
-        if (formattedDocument.get().equals(document.get())) {
+        int prefix = 0;
+        while (prefix < maxPrefix && original.charAt(prefix) == formatted.charAt(prefix)) {
+            prefix += 1;
+        }
+        if (prefix == originalLength && prefix == formattedLength) {
             return new MultiTextEdit();
         }
 
-        return new ReplaceEdit(0, document.getLength(), formattedDocument.get());
+        int suffix = 0, maxSuffix = maxPrefix - prefix;
+        while (suffix < maxSuffix && original.charAt(originalLength - suffix - 1) == formatted.charAt(formattedLength - suffix - 1)) {
+            suffix += 1;
+        }
+
+        return new ReplaceEdit(prefix, originalLength - prefix - suffix, formatted.substring(prefix, formattedLength - suffix));
+    }
+
+    /**
+     * @return {@code true} if the source range overlaps the region to format;
+     *     nodes and tokens outside of the region cannot contribute edits
+     */
+    public boolean isInFormatRegion(int start, int end) {
+        return end >= formatOffset && start <= formatOffset + formatLength;
+    }
+
+    /**
+     * @return {@code true} if the token starts after the end of the region to
+     *     format; edits are never accepted for tokens past this point
+     */
+    public boolean isAfterFormatRegion(Token token) throws BadLocationException {
+        return getOffsetOfToken(token) > formatOffset + formatLength;
     }
 
     /**
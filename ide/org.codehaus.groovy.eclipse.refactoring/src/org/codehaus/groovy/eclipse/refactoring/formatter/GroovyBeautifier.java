@@ -59,18 +59,14 @@ public class GroovyBeautifier {
     }
 
     public TextEdit getBeautifiEdits() throws BadLocationException {
-        try {
-            MultiTextEdit edits = new MultiTextEdit();
+        MultiTextEdit edits = new MultiTextEdit();
 
-            combineClosures(edits);
-            formatLists(edits);
-            correctBraces(edits);
-            removeUnnecessarySemicolons(edits);
+        combineClosures(edits);
+        formatLists(edits);
+        correctBraces(edits);
+        removeUnnecessarySemicolons(edits);
 
-            return edits;
-        } finally {
-            formatter.getTokens().dispose();
-        }
+        return edits;
     }
 
     private void combineClosures(MultiTextEdit edits) throws BadLocationException {
@@ -78,6 +74,9 @@ public class GroovyBeautifier {
         scanner.startASTscan();
         for (ASTNode node : scanner.getMatchedNodes().keySet()) {
             ClosureExpression clExp = ((ClosureExpression) node);
+            if (!formatter.isInFormatRegion(clExp.getStart(), clExp.getEnd())) {
+                continue;
+            }
 
             int posClStart = formatter.getPosOfToken(GroovyTokenTypeBridge.LCURLY, clExp.getLineNumber(), clExp.getColumnNumber(), "{");
             if (posClStart == -1) {
@@ -124,6 +123,9 @@ public class GroovyBeautifier {
         scanner.startASTscan();
         for (ASTNode node : scanner.getMatchedNodes().keySet()) {
             ListExpression listExpr = ((ListExpression) node);
+            if (!formatter.isInFormatRegion(listExpr.getStart(), listExpr.getEnd())) {
+                continue;
+            }
             GroovyDocumentScanner tokens = formatter.getTokens();
             Token lastToken = null;
             try {
@@ -318,6 +320,9 @@ public class GroovyBeautifier {
         boolean skipNextNLS = false;
         for (int i = 0; i < tokens.size(); i += 1) {
             token = tokens.get(i);
+            if (formatter.isAfterFormatRegion(token)) {
+                break;
+            }
 
             if (ignoreToken.contains(token)) {
                 continue;
@@ -15,8 +15,22 @@
  */
 package org.codehaus.groovy.eclipse.refactoring.formatter;
 
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.LBRACK;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.LCURLY;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.LPAREN;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.NLS;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.RBRACK;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.RCURLY;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.RPAREN;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.STRING_CTOR_END;
+import static org.codehaus.groovy.antlr.GroovyTokenTypeBridge.STRING_CTOR_START;
+
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
 
 import groovyjarjarantlr.Token;
 import groovyjarjarantlr.TokenStreamException;
@@ -36,14 +50,43 @@ import org.eclipse.jface.text.ITextSelection;
  * Provides methods to retrieve tokens for a given IDocument presumed to
  * contain Groovy source code.
  * <p>
- * A sophisticated implementation could try to work incrementally and invalidate
- * only some tokens when the document is changed. This implementation is rather
- * naive and clears the whole cache on every document change.
+ * Tokens are scanned on demand, only as far into the document as the request
+ * at hand requires.  When the document is changed, the tokens before the last
+ * newline preceding the change (outside of parens, brackets and strings) are
+ * kept and scanning resumes from there.  The start offsets of the tokens and
+ * the pairing of braces, brackets, parens and string constructors are indexed
+ * as the tokens are scanned, so finding a token or the opener of a closer is a
+ * binary search or an array lookup.
  */
 public class GroovyDocumentScanner implements IDocumentListener {
 
     private static final boolean TOKEN_POSITION_ASSERTS = true;
 
+    /** Opener and closer token types that are paired by {@link #findOpener}. */
+    private static final int[][] PAIRS = {
+        {LCURLY, RCURLY}, {LBRACK, RBRACK}, {LPAREN, RPAREN}, {STRING_CTOR_START, STRING_CTOR_END},
+    };
+
+    private static final Map<IDocument, WeakReference<GroovyDocumentScanner>> sharedScanners = new WeakHashMap<>();
+
+    /**
+     * Returns the scanner shared by the editor services (indentation, auto
+     * edits, smart paste) for a document.  The shared scanner follows the
+     * document for as long as the document exists; disposing it is ignored.
+     */
+    public static GroovyDocumentScanner forDocument(IDocument document) {
+        synchronized (sharedScanners) {
+            WeakReference<GroovyDocumentScanner> ref = sharedScanners.get(document);
+            GroovyDocumentScanner scanner = (ref != null ? ref.get() : null);
+            if (scanner == null) {
+                scanner = new GroovyDocumentScanner(document);
+                scanner.shared = true;
+                sharedScanners.put(document, new WeakReference<>(scanner));
+            }
+            return scanner;
+        }
+    }
+
     /**
      * This is the document that we are chopping into tokens. This may not be
      * null, except when the GroovyDocumentScanner has been disposed (in which
@@ -59,12 +102,42 @@ public class GroovyDocumentScanner implements IDocumentListener {
 
     private GroovyScanner tokenScanner;
 
+    /** Offset at which the next token scanner starts. */
+    private int resumeOffset;
+
+    /** Indicates that the end of the document (or an unrecoverable error) has been reached. */
+    private boolean scanComplete;
+
+    /** Number of tokens in {@link #offsets} and {@link #links}. */
+    private int indexed;
+
+    /** Start offsets of the indexed tokens. */
+    private int[] offsets = new int[0];
+
+    /**
+     * For each indexed token: the index of the matching opener of a closer;
+     * the index of the enclosing unmatched opener of the same kind for an
+     * opener; the index of the innermost unmatched curly brace for a newline
+     * that scanning can resume after; {@link #NO_LINK} for all others.
+     */
+    private int[] links = new int[0];
+
+    /** Index of the innermost unmatched opener of each kind of {@link #PAIRS}. */
+    private final int[] openers = new int[PAIRS.length];
+
+    private boolean shared;
+
     /** At most this number of scanner errors will be reported */
     private static int logLimit = 4;
 
     /** Used as index for tokens that could not be found */
     private static final int NOT_FOUND = -1;
 
+    private static final int NO_LINK = -2;
+
+    /** Number of characters past the end of a token that the lexer may have looked at */
+    private static final int LOOKAHEAD = 4;
+
     public GroovyDocumentScanner(IDocument document) {
         this.document = document;
         this.document.addDocumentListener(this);
@@ -73,7 +146,7 @@ public class GroovyDocumentScanner implements IDocumentListener {
 
     @Override
     public void documentChanged(DocumentEvent event) {
-        reset();
+        invalidateFrom(event.getOffset());
     }
 
     @Override
@@ -85,35 +158,82 @@ public class GroovyDocumentScanner implements IDocumentListener {
      * scanned tokens, to ensure that we have scanned the file at least upto the
      * position that we are interested in.
      * <p>
-     * Current implementation is very naive and just scans the whole file at
-     * once. A smarter implementation could stop scanning when the position of
-     * interest is reached, and keep enough state to be able to scan onward
-     * later if a request for tokens requires it.
+     * Scanning stops at the first token that starts at or after {@code end}.
+     * The scanner is kept so that a later request can scan onward.
      */
     protected void ensureScanned(int end) {
         if (tokens == null) {
-            // We haven't started scanning yet. Initialise the scanner and token list.
-            tokenScanner = new GroovyScanner(document.get());
-            tokens = getTokensIncludingEOF();
+            // We haven't started scanning yet. Initialise the token list.
+            tokens = new ArrayList<>();
         }
-    }
-
-    private List<Token> getTokensIncludingEOF() {
-        List<Token> result = new ArrayList<>();
-        Token token;
         try {
-            do {
-                token = nextToken();
-                result.add(token);
-            } while (token.getType() != GroovyTokenTypeBridge.EOF);
+            while (!scanComplete && (indexed == 0 || offsets[indexed - 1] < end)) {
+                if (tokenScanner == null) {
+                    tokenScanner = new GroovyScanner(document, resumeOffset);
+                }
+                Token token = nextToken();
+                tokens.add(token);
+                index();
+                scanComplete = (token.getType() == GroovyTokenTypeBridge.EOF);
+            }
         } catch (BadLocationException bad) {
             // document may be unreconciled
+            scanComplete = true;
         } catch (Exception e) {
+            scanComplete = true;
             if (logLimit-- > 0) {
                 Util.log(e);
             }
         }
-        return result;
+    }
+
+    /**
+     * Records the offsets and pairings of the tokens that were added since the
+     * last call.
+     */
+    private void index() throws BadLocationException {
+        int n = tokens.size();
+        if (offsets.length < n) {
+            int length = Math.max(n, Math.max(64, offsets.length * 2));
+            offsets = Arrays.copyOf(offsets, length);
+            links = Arrays.copyOf(links, length);
+        }
+        while (indexed < n) {
+            Token token = tokens.get(indexed);
+            offsets[indexed] = (token == null ? 0 : GroovyScanner.getOffset(document, token.getLine(), token.getColumn()));
+            links[indexed] = link(token, indexed);
+            indexed += 1;
+        }
+    }
+
+    private int link(Token token, int index) {
+        if (token != null) {
+            int type = token.getType();
+            if (type == NLS) {
+                // the lexer state is known after a newline outside of parens, brackets and strings
+                for (int k = 1; k < PAIRS.length; k += 1) {
+                    if (openers[k] != NOT_FOUND) {
+                        return NO_LINK;
+                    }
+                }
+                return openers[0];
+            }
+            for (int k = 0; k < PAIRS.length; k += 1) {
+                if (type == PAIRS[k][0]) {
+                    int enclosing = openers[k];
+                    openers[k] = index;
+                    return enclosing;
+                }
+                if (type == PAIRS[k][1]) {
+                    int opener = openers[k];
+                    if (opener != NOT_FOUND) {
+                        openers[k] = links[opener];
+                    }
+                    return opener;
+                }
+            }
+        }
+        return NO_LINK;
     }
 
     private Token nextToken() throws TokenStreamException, BadLocationException {
@@ -130,11 +250,49 @@ public class GroovyDocumentScanner implements IDocumentListener {
     }
 
     /**
-     * Called upon initialisation and upon any change to the document to
-     * invalidate the list of cached tokens.
+     * Called upon initialisation and upon changes to the document that cannot
+     * be handled incrementally to invalidate the list of cached tokens.
      */
-    private void reset() {
+    protected void reset() {
         tokens = null;
+        tokenScanner = null;
+        resumeOffset = 0;
+        scanComplete = false;
+        indexed = 0;
+        Arrays.fill(openers, NOT_FOUND);
+    }
+
+    /**
+     * Called upon any change to the document to invalidate the cached tokens
+     * that may be affected by a change at the given offset.  The tokens up to
+     * the last newline before the change that scanning can resume after are
+     * kept; the rest are scanned again on demand.
+     */
+    protected void invalidateFrom(int offset) {
+        if (tokens == null) {
+            return;
+        }
+        int index = searchIndexed(offset);
+        while (--index >= 0) {
+            if (links[index] != NO_LINK && tokens.get(index).getType() == NLS) {
+                try {
+                    int end = getEnd(tokens.get(index));
+                    if (end + LOOKAHEAD <= offset) {
+                        tokens.subList(index + 1, tokens.size()).clear();
+                        indexed = index + 1;
+                        Arrays.fill(openers, NOT_FOUND);
+                        openers[0] = links[index];
+                        tokenScanner = null;
+                        resumeOffset = end;
+                        scanComplete = false;
+                        return;
+                    }
+                } catch (BadLocationException e) {
+                    // newline extends beyond the changed lines
+                }
+            }
+        }
+        reset();
     }
 
     /**
@@ -182,10 +340,11 @@ public class GroovyDocumentScanner implements IDocumentListener {
      * Call this method when you don't need the scanner anymore, to release
      * resources it may be holding on to.
      * <p>
-     * Disposing an already disposed object is tolerated.
+     * Disposing an already disposed object is tolerated.  Disposing a shared
+     * scanner is ignored.
      */
     public void dispose() {
-        if (this.document != null) {
+        if (this.document != null && !shared) {
             document.removeDocumentListener(this);
             this.document = null;
         }
@@ -306,37 +465,61 @@ public class GroovyDocumentScanner implements IDocumentListener {
         Assert.isLegal(offset >= 0);
         ensureScanned(offset);
         try {
-            int start = 0;
-            int end = tokens.size() - 1;
-
-            // The "candidates" are all indexes in range [start..end]
-            // We will binary search, until we either exhaust the range,
-            // or find a start that matches the condition.
-            while (start <= end) {
-                if (getOffset(tokens.get(start)) >= offset) {
-                    // start token is good: done
-                    return start;
-                } else {
-                    // start token was bad. No need to consider it anymore
-                    start++;
-                    if (start > end)
-                        return NOT_FOUND;
-                }
-                int mid = (start + end) / 2;
-                int midOfs = getOffset(tokens.get(mid));
-                if (midOfs >= offset) {
-                    // Mid token is already good (matches condition)
-                    end = mid;
-                } else {
-                    // Mid token is still bad (does not match condition)
-                    start = mid + 1;
-                }
-            }
-            return NOT_FOUND;
+            index();
         } catch (BadLocationException e) {
             throw new Error(e); // If this code works as it should exceptions
                                 // should not happen!
         }
+        int index = searchIndexed(offset);
+        return (index < indexed ? index : NOT_FOUND);
+    }
+
+    /**
+     * @return index of the first indexed token that has an offset greater or
+     *     equal to a given offset or {@link #indexed} if there is none
+     */
+    private int searchIndexed(int offset) {
+        int lo = 0, hi = indexed;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (offsets[mid] < offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int indexOf(Token token) throws BadLocationException {
+        int index = findTokenFrom(GroovyScanner.getOffset(document, token.getLine(), token.getColumn()));
+        if (index != NOT_FOUND) {
+            for (int i = index; i < indexed && offsets[i] == offsets[index]; i += 1) {
+                if (tokens.get(i) == token) {
+                    return i;
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Finds the opening brace, bracket, paren or string constructor start that
+     * matches a closing one.
+     *
+     * @return the opener or {@code null} if the closer is not matched
+     */
+    public Token findOpener(Token closer) throws BadLocationException {
+        int index = indexOf(closer);
+        if (index != NOT_FOUND) {
+            for (int[] pair : PAIRS) {
+                if (closer.getType() == pair[1]) {
+                    int opener = links[index];
+                    return (opener != NOT_FOUND ? tokens.get(opener) : null);
+                }
+            }
+        }
+        return null;
     }
 
     /**
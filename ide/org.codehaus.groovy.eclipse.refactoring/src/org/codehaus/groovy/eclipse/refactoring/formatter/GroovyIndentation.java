@@ -89,6 +89,9 @@ public class GroovyIndentation {
             Token token = null;
             for (int i = 0; i < tokens.size(); i++) {
                 token = tokens.get(i);
+                if (formatter.isAfterFormatRegion(token)) {
+                    break; // indentation state past the region is not needed
+                }
                 int offsetToken = formatter.getOffsetOfToken(token);
                 int offsetNextToken = formatter.getOffsetOfToken(formatter
                         .getNextTokenIncludingNLS(i));
@@ -65,10 +65,11 @@ import org.eclipse.jface.text.TextUtilities;
  * helpful methods to compute indentation levels. A number of utility methods
  * for dealing with white space etc. are also included.
  * <p>
- * The GroovyIndentationService class makes use of a GroovyDocumentScanner to
- * tokenize documents (or sections thereof). This is not currently exposed
- * through public API, but it may seem reasonable to do so in the future (to
- * avoid having to create multiple DocumentScanners, which would be expensive).
+ * The GroovyIndentationService class makes use of the GroovyDocumentScanner
+ * that is shared by the editor services of a document (see
+ * {@link GroovyDocumentScanner#forDocument}) to tokenize documents. The shared
+ * scanner follows document changes incrementally, so newline and tab requests
+ * do not rescan the document.
  * <p>
  * At present the CTRL-I action is not handled by via this class. This still
  * uses Mike Klenk's implementation which works better when the region to indent
@@ -187,12 +188,6 @@ public class GroovyIndentationService {
         jumpOut.add(closer);
     }
 
-    /**
-     * A cached {@link GroovyDocumentScanner} instance. This will
-     * be replaced when the document we are asked to work on changes
-     * from the last time. Otherwise we will reuse the cached scanner.
-     */
-    private GroovyDocumentScanner cachedScanner;
     private IFormatterPreferences prefs;
     private final IJavaProject project;
 
@@ -296,7 +291,6 @@ public class GroovyIndentationService {
     }
 
     public void dispose() {
-        disposeScanner();
         disposePrefs();
     }
 
@@ -309,16 +303,6 @@ public class GroovyIndentationService {
         this.prefs = null;
     }
 
-    private void disposeScanner() {
-        if (this.cachedScanner != null) {
-            try {
-                this.cachedScanner.dispose();
-            } finally {
-                this.cachedScanner = null;
-            }
-        }
-    }
-
     @Override
     protected void finalize() throws Throwable {
         this.dispose();
@@ -337,10 +321,7 @@ public class GroovyIndentationService {
     }
 
     private GroovyDocumentScanner getGroovyDocumentScanner(IDocument d) {
-        if (cachedScanner != null && cachedScanner.getDocument() == d)
-            return cachedScanner;
-        disposeScanner();
-        return (cachedScanner = new GroovyDocumentScanner(d));
+        return GroovyDocumentScanner.forDocument(d);
     }
 
     /**
@@ -357,26 +338,15 @@ public class GroovyIndentationService {
     }
 
     /**
-     * Search backwards for a matching brace from position just after a closing
-     * brace.
+     * Looks up the matching brace of a closing brace.
      *
      * @return the indentation level of the line at which the matching brace
      *         is found.
      */
     private int getIndentLevelForCloserPair(IDocument d, Token closer) {
         GroovyDocumentScanner scanner = getGroovyDocumentScanner(d);
-        int closerType = closer.getType();
-        int openerType = closer2opener.get(closerType);
-        int closeCount = 1;
-        Token token = closer;
         try {
-            while (closeCount != 0 && (token = scanner.getLastTokenBefore(token)) != null) {
-                if (token.getType() == openerType)
-                    closeCount -= 1;
-                if (token.getType() == closerType)
-                    closeCount += 1;
-            }
-            return getIndentLevel(d, scanner.getOffset(token));
+            return getIndentLevel(d, scanner.getOffset(scanner.findOpener(closer)));
         } catch (BadLocationException e) {
             // Something went wrong. Just use indent level of the line itself as a "sensible" default.
             try {
@@ -63,6 +63,11 @@ public class KlenkDocumentScanner extends GroovyDocumentScanner {
         super(doc);
     }
 
+    @Override
+    protected void invalidateFrom(int offset) {
+        reset(); // tokens are scanned all at once
+    }
+
     @Override
     protected void ensureScanned(int end) {
         if (tokens != null)
@@ -15,14 +15,9 @@
  */
 package org.codehaus.groovy.eclipse.debug.ui;
 
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.TreeSet;
-
 import org.codehaus.groovy.antlr.LocationSupport;
 import org.codehaus.groovy.ast.ASTNode;
 import org.codehaus.groovy.ast.AnnotatedNode;
-import org.codehaus.groovy.ast.AnnotationNode;
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.FieldNode;
 import org.codehaus.groovy.ast.MethodNode;
@@ -31,64 +26,37 @@ import org.codehaus.groovy.ast.expr.ClosureExpression;
 import org.codehaus.groovy.ast.expr.DeclarationExpression;
 import org.codehaus.groovy.ast.expr.Expression;
 import org.codehaus.groovy.ast.expr.TupleExpression;
-import org.eclipse.jdt.groovy.core.util.DepthFirstVisitor;
+import org.eclipse.jdt.groovy.core.util.SourceLocationIndex;
 
 public class BreakpointLocationFinder {
 
     protected final LocationSupport locator;
-    protected final Iterable<ASTNode> nodes;
+    protected final SourceLocationIndex index;
 
     public BreakpointLocationFinder(ModuleNode module) {
-        TreeSet<ASTNode> nodes = new TreeSet<>(Comparator.comparing(ASTNode::getLineNumber).thenComparing(ASTNode::getColumnNumber)
-            .thenComparing(Comparator.comparing(ASTNode::getLastLineNumber).thenComparing(ASTNode::getLastColumnNumber).reversed()));
-
-        new DepthFirstVisitor() {
-            @Override
-            protected void visitAnnotation(AnnotationNode annotation) {
-            }
-
-            @Override
-            protected void visitExpression(Expression expression) {
-                if (expression.getLineNumber() > 0 &&
-                        !(expression instanceof ClosureExpression || expression instanceof TupleExpression)) {
-                    nodes.add(expression);
-                }
-                super.visitExpression(expression);
-            }
+        this.index = SourceLocationIndex.of(module);
+        this.locator = module.getNodeMetaData(LocationSupport.class);
+    }
 
-            @Override
-            public void visitMethod(MethodNode node) {
-                if (node.getLineNumber() > 0) {
-                    nodes.add(node);
-                }
-                super.visitMethod(node);
+    public ASTNode findBreakpointLocation(int lineNumber) {
+        // annotations, modifiers and generics may put the name of a declaration below its first line
+        for (AnnotatedNode node : index.getDeclarations()) {
+            if (node.getLineNumber() >= lineNumber) {
+                break;
             }
-
-            @Override
-            public void visitField(FieldNode node) {
-                if (node.getLineNumber() > 0) {
-                    nodes.add(node);
-                }
-                super.visitField(node);
+            if (isCandidate(node) && lineNumber(node) >= lineNumber) {
+                return node;
             }
+        }
 
-            @Override
-            public void visitClass(ClassNode node) {
-                if (node.getLineNumber() > 0) {
-                    nodes.add(node);
-                }
-                super.visitClass(node);
+        ASTNode bestMatch = null, prev = null;
+        boolean skipNext = false;
+        for (ASTNode node : index.findNodesFromLine(lineNumber)) {
+            if (!isCandidate(node) || isSameLocation(node, prev)) {
+                continue;
             }
-        }.visitModule(module);
+            prev = node;
 
-        this.nodes = Collections.unmodifiableSet(nodes);
-        this.locator = module.getNodeMetaData(LocationSupport.class);
-    }
-
-    public ASTNode findBreakpointLocation(int lineNumber) {
-        ASTNode bestMatch = null;
-        boolean skipNext = false;
-        for (ASTNode node : nodes) {
             if (skipNext) { skipNext = false;
             } else if (node instanceof DeclarationExpression) {
                 Expression rightExpression = ((DeclarationExpression) node).getRightExpression();
@@ -105,6 +73,13 @@ public class BreakpointLocationFinder {
         return bestMatch;
     }
 
+    protected boolean isCandidate(ASTNode node) {
+        if (node instanceof Expression) {
+            return !(node instanceof ClosureExpression || node instanceof TupleExpression);
+        }
+        return (node instanceof ClassNode || node instanceof FieldNode || node instanceof MethodNode);
+    }
+
     protected int lineNumber(ASTNode node) {
         if (locator != null && (node instanceof AnnotatedNode && !(node instanceof Expression))) {
             // annotations, modifiers and generics may be on separate line(s)
@@ -115,4 +90,9 @@ public class BreakpointLocationFinder {
         }
         return node.getLineNumber();
     }
+
+    private static boolean isSameLocation(ASTNode a, ASTNode b) {
+        return (b != null && a.getLineNumber() == b.getLineNumber() && a.getColumnNumber() == b.getColumnNumber() &&
+            a.getLastLineNumber() == b.getLastLineNumber() && a.getLastColumnNumber() == b.getLastColumnNumber());
+    }
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,20 +15,22 @@
  */
 package org.codehaus.groovy.eclipse.editor;
 
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
 
 import org.codehaus.groovy.ast.ClassNode;
 import org.codehaus.groovy.ast.Comment;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.ast.FieldNode;
 import org.codehaus.groovy.ast.MethodNode;
 import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
 import org.codehaus.groovy.ast.expr.ClosureExpression;
+import org.codehaus.groovy.ast.stmt.Statement;
 import org.codehaus.groovy.eclipse.GroovyPlugin;
-import org.codehaus.groovy.eclipse.codebrowsing.fragments.IASTFragment;
-import org.codehaus.groovy.eclipse.codebrowsing.selection.FindSurroundingNode;
 import org.codehaus.groovy.transform.trait.Traits;
 import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.IMember;
@@ -49,11 +51,21 @@ import org.eclipse.ui.texteditor.ITextEditor;
 /**
  * Replacement for {@link DefaultJavaFoldingStructureProvider} that is intended
  * to provide Groovy-specific folding behavior for the {@link GroovyEditor}.
+ * <p>
+ * Closure regions are computed per member and reused for the members whose
+ * source text is unchanged since the last computation (see {@link ModuleStructure}),
+ * so an edit within one method does not require a walk of the entire module.
  */
 public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStructureProvider {
 
     protected GroovyEditor editor;
 
+    /** Members of the module that folding was last computed for. */
+    private ModuleStructure structure;
+
+    /** Closure regions of each member, relative to the start of the member. */
+    private Map<String, ClosureRegions> closureRegions = new HashMap<>();
+
     @Override
     public void install(ITextEditor editor, ProjectionViewer viewer) {
         super.install(editor, viewer);
@@ -64,6 +76,8 @@ public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStruc
     @Override
     public void uninstall() {
         this.editor = null;
+        this.structure = null;
+        this.closureRegions = new HashMap<>();
         super.uninstall();
     }
 
@@ -71,6 +85,10 @@ public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStruc
     protected void computeFoldingStructure(IJavaElement element, FoldingStructureComputationContext context) {
         // NOTE: be sure to call super.computeFoldingStructure when editor is null to preserve Java behavior
         if (editor != null && editor.getModuleNode() != null) {
+            ModuleNode module = editor.getModuleNode();
+            if (structure == null || structure.getModule() != module) {
+                structure = ModuleStructure.of(module, getDocument(context).get());
+            }
             if (isMainType(element)) {
                 // add folding for multi-line closures
                 computeClosureFoldingStructure(element, context);
@@ -93,24 +111,30 @@ public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStruc
     }
 
     protected void computeClosureFoldingStructure(IJavaElement element, FoldingStructureComputationContext context) {
-        DepthFirstVisitor visitor = new DepthFirstVisitor() {
-            @Override
-            public void visitClosureExpression(ClosureExpression expression) {
-                if (expression.getEnd() > 0) {
-                    IRegion normalized = alignRegion(new Region(expression.getStart(), expression.getLength()), context);
-                    if (normalized != null) {
-                        // TODO: any consequences to using the main type as the member?
-                        Position position = createMemberPosition(normalized, (IMember) element);
-                        if (position != null) {
-                            boolean isCollapsed = false, isComment = false;
-                            context.addProjectionRange(new JavaProjectionAnnotation(isCollapsed, element, isComment), position);
-                        }
+        Map<String, ClosureRegions> regions = new HashMap<>();
+        for (ModuleStructure.Member member : structure.getMembers()) {
+            ClosureRegions closures = closureRegions.get(member.key);
+            // a type's hash does not cover its members, which may have moved its closures
+            if (closures != null && !member.isType() && member.isSameAs(closures.member)) {
+                closures = new ClosureRegions(member, closures.offsets);
+            } else {
+                closures = new ClosureRegions(member, new ClosureFinder().find(member));
+            }
+            regions.put(member.key, closures);
+
+            for (int i = 0; i < closures.offsets.length; i += 2) {
+                IRegion normalized = alignRegion(new Region(member.start + closures.offsets[i], closures.offsets[i + 1]), context);
+                if (normalized != null) {
+                    // TODO: any consequences to using the main type as the member?
+                    Position position = createMemberPosition(normalized, (IMember) element);
+                    if (position != null) {
+                        boolean isCollapsed = false, isComment = false;
+                        context.addProjectionRange(new JavaProjectionAnnotation(isCollapsed, element, isComment), position);
                     }
                 }
-                super.visitClosureExpression(expression);
             }
-        };
-        visitor.visitModule(editor.getModuleNode());
+        }
+        closureRegions = regions;
     }
 
     protected void computeCommentFoldingStructure(IJavaElement element, FoldingStructureComputationContext context) {
@@ -160,18 +184,7 @@ public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStruc
     //--------------------------------------------------------------------------
 
     protected final Optional<ClassNode> findType(IType type) {
-        String typeName = type.getFullyQualifiedName();
-        Queue<ClassNode> classNodes = new LinkedList<>(editor.getModuleNode().getClasses());
-        while (!classNodes.isEmpty()) {
-            ClassNode classNode = classNodes.remove();
-            if (classNode.getName().equals(typeName)) {
-                return Optional.of(classNode);
-            }
-            for (Iterator<? extends ClassNode> it = classNode.getInnerClasses(); it.hasNext();) {
-                classNodes.add(it.next());
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(structure.getType(type.getFullyQualifiedName()));
     }
 
     protected final boolean isMainType(IJavaElement element) {
@@ -190,20 +203,76 @@ public class GroovyAwareFoldingStructureProvider extends DefaultJavaFoldingStruc
     }
 
     protected final boolean isScriptMethodElement(IRegion region) {
-        FindSurroundingNode fsn = new FindSurroundingNode(
-            new org.codehaus.groovy.eclipse.codebrowsing.requestor.Region(region.getOffset(), region.getLength()),
-            FindSurroundingNode.VisitKind.SURROUNDING_NODE);
-        IASTFragment astFragment = fsn.doVisitSurroundingNode(editor.getModuleNode());
-        if (astFragment.getAssociatedNode() instanceof MethodNode) {
-            return ((MethodNode) astFragment.getAssociatedNode()).isScriptBody();
+        int offset = region.getOffset(), length = region.getLength();
+        // within a field, method or statement of a script
+        if (structure.findMember(offset, length) != null) {
+            return false;
         }
-        if (astFragment.getAssociatedNode() instanceof ModuleNode) {
-            return true;
+        // within a type, but outside of its members
+        for (ClassNode type : structure.getModule().getClasses()) {
+            if (!type.isScript() && type.getEnd() > 0 && type.getStart() <= offset && offset + length <= type.getEnd()) {
+                return false;
+            }
         }
-        return false;
+        return true;
     }
 
     protected static IDocument getDocument(FoldingStructureComputationContext context) {
         return ReflectionUtils.executePrivateMethod(context.getClass(), "getDocument", context);
     }
+
+    //--------------------------------------------------------------------------
+
+    private static class ClosureRegions {
+        final ModuleStructure.Member member;
+        /** Pairs of offset (relative to the member) and length. */
+        final int[] offsets;
+
+        ClosureRegions(ModuleStructure.Member member, int[] offsets) {
+            this.member = member;
+            this.offsets = offsets;
+        }
+    }
+
+    private static class ClosureFinder extends DepthFirstVisitor {
+
+        private final List<ClosureExpression> closures = new ArrayList<>();
+
+        int[] find(ModuleStructure.Member member) {
+            if (member.node instanceof ClassNode) {
+                ClassNode type = (ClassNode) member.node;
+                visitAnnotations(type.getAnnotations());
+                MethodNode clinit = type.getMethod("<clinit>", Parameter.EMPTY_ARRAY);
+                if (clinit != null && !type.isEnum()) {
+                    visitIfPresent(clinit.getCode());
+                }
+                for (Statement stmt : type.getObjectInitializerStatements()) {
+                    stmt.visit(this);
+                }
+            } else if (member.node instanceof FieldNode) {
+                visitField((FieldNode) member.node);
+            } else if (member.node instanceof ConstructorNode) {
+                visitConstructor((ConstructorNode) member.node);
+            } else if (member.node instanceof MethodNode) {
+                visitMethod((MethodNode) member.node);
+            } else {
+                member.node.visit(this);
+            }
+
+            int[] offsets = new int[closures.size() * 2];
+            for (int i = 0, n = closures.size(); i < n; i += 1) {
+                offsets[i * 2] = closures.get(i).getStart() - member.start;
+                offsets[i * 2 + 1] = closures.get(i).getLength();
+            }
+            return offsets;
+        }
+
+        @Override
+        public void visitClosureExpression(ClosureExpression expression) {
+            if (expression.getEnd() > 0) {
+                closures.add(expression);
+            }
+            super.visitClosureExpression(expression);
+        }
+    }
 }
@@ -655,6 +655,17 @@ public class GroovyEditor extends CompilationUnitEditor {
         return (semanticReconciler != null);
     }
 
+    /**
+     * Reruns semantic highlighting for a unit that was reconciled outside of
+     * this editor's reconciler.  Must not be called from the UI thread.
+     */
+    public void refreshSemanticHighlighting(org.eclipse.jdt.core.dom.CompilationUnit ast, IProgressMonitor monitor) {
+        GroovySemanticReconciler reconciler = semanticReconciler;
+        if (reconciler != null) {
+            reconciler.reconciled(ast, true, monitor);
+        }
+    }
+
     @Override
     public void dispose() {
         super.dispose();
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.editor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.ConstructorNode;
+import org.codehaus.groovy.ast.FieldNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.stmt.Statement;
+import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+
+/**
+ * Snapshot of the members of a module -- types, fields, methods and top-level
+ * script statements -- with the hash of each member's source text.  Comparing
+ * the snapshots of successive reconciles tells which members were added,
+ * removed or edited, so that views derived from the module can be updated
+ * for those members only.
+ * <p>
+ * Fields and methods are keyed by declaring type and signature.  Script
+ * statements have no name, so they are keyed by their source text; an edited
+ * statement is reported as removed and added.  The hash of a type covers its
+ * own text only (header, annotations, initializers) without whitespace, not
+ * that of its fields, methods and nested types, so an edit within a method or
+ * the addition of a method does not mark the type.
+ */
+public final class ModuleStructure {
+
+    public static final class Member {
+        public final String key;
+        public final ASTNode node;
+        /** name of the declaring (or enclosing) type; {@code null} for top-level types and statements */
+        public final String type;
+        public final int start, end;
+        /** length of the hashed text */
+        private final int size;
+        private final int hash;
+
+        private Member(String key, ASTNode node, String type, int size, int hash) {
+            this.key = key;
+            this.node = node;
+            this.type = type;
+            this.start = node.getStart();
+            this.end = node.getEnd();
+            this.size = size;
+            this.hash = hash;
+        }
+
+        public boolean isType() {
+            return (node instanceof ClassNode);
+        }
+
+        public boolean covers(int offset, int length) {
+            return (start <= offset && offset + length <= end);
+        }
+
+        /**
+         * Determines if this member has the same source text as the other; for
+         * a type, only the text outside of its fields, methods and nested types.
+         */
+        public boolean isSameAs(Member that) {
+            return (that != null && this.key.equals(that.key) && this.hash == that.hash && this.size == that.size);
+        }
+
+        @Override
+        public String toString() {
+            return key + '[' + start + ".." + end + ']';
+        }
+    }
+
+    //--------------------------------------------------------------------------
+
+    /**
+     * Returns the structure of the module.  It is computed once per module, so
+     * the views of one editor share it; {@code source} must be the text that
+     * the module was parsed from.
+     */
+    public static ModuleStructure of(ModuleNode module, CharSequence source) {
+        synchronized (module) {
+            ModuleStructure structure = module.getNodeMetaData(ModuleStructure.class);
+            if (structure == null) {
+                structure = new ModuleStructure(module, source);
+                module.putNodeMetaData(ModuleStructure.class, structure);
+            }
+            return structure;
+        }
+    }
+
+    private final ModuleNode module;
+    private final CharSequence source;
+    private final Map<String, Member> members = new LinkedHashMap<>();
+    private final Map<String, ClassNode> types = new HashMap<>();
+    /** Members other than types ordered by start offset. */
+    private final List<Member> sorted;
+
+    private ModuleStructure(ModuleNode module, CharSequence source) {
+        this.module = module;
+        this.source = source;
+
+        // source ranges of the fields, methods and nested types of each type
+        Map<ClassNode, List<ASTNode>> parts = new HashMap<>();
+        for (ClassNode type : module.getClasses()) {
+            types.put(type.getName(), type);
+            if (GroovyUtils.isAnonymous(type)) {
+                continue; // part of the enclosing member
+            }
+            List<ASTNode> list = new ArrayList<>();
+            for (FieldNode field : type.getFields()) {
+                addPart(list, type, field);
+            }
+            List<FieldNode> traitFields = type.redirect().getNodeMetaData("trait.fields");
+            if (traitFields != null) {
+                for (FieldNode field : traitFields) {
+                    addPart(list, type, field);
+                }
+            }
+            for (MethodNode method : type.getDeclaredConstructors()) {
+                addPart(list, type, method);
+            }
+            for (MethodNode method : type.getMethods()) {
+                if (!method.isScriptBody()) {
+                    addPart(list, type, method);
+                }
+            }
+            List<MethodNode> traitMethods = type.redirect().getNodeMetaData("trait.methods");
+            if (traitMethods != null) {
+                for (MethodNode method : traitMethods) {
+                    addPart(list, type, method);
+                }
+            }
+            parts.put(type, list);
+            ClassNode outer = type.getOuterClass();
+            if (outer != null && parts.containsKey(outer)) {
+                addPart(parts.get(outer), outer, type);
+            }
+        }
+
+        for (ClassNode type : module.getClasses()) {
+            List<ASTNode> list = parts.get(type);
+            if (list == null) {
+                continue;
+            }
+            list.sort((n1, n2) -> Integer.compare(n1.getStart(), n2.getStart()));
+            String outer = (type.getOuterClass() != null ? type.getOuterClass().getName() : null);
+            if (type.getEnd() > 0) {
+                add("T:" + type.getName(), type, outer, sizeExcluding(type, list), hashExcluding(type, list));
+            }
+            for (ASTNode part : list) {
+                if (part instanceof FieldNode) {
+                    add("F:" + type.getName() + '#' + ((FieldNode) part).getName(), part, type.getName(), part.getLength(), hash(part));
+                } else if (part instanceof ConstructorNode) {
+                    add("C:" + type.getName() + '#' + signature((MethodNode) part), part, type.getName(), part.getLength(), hash(part));
+                } else if (part instanceof MethodNode) {
+                    add("M:" + type.getName() + '#' + signature((MethodNode) part), part, type.getName(), part.getLength(), hash(part));
+                }
+            }
+        }
+        if (module.getStatementBlock() != null) {
+            for (Statement statement : module.getStatementBlock().getStatements()) {
+                if (statement.getEnd() > 0) {
+                    int hash = hash(statement);
+                    add("S:" + hash, statement, null, statement.getLength(), hash);
+                }
+            }
+        }
+
+        List<Member> list = new ArrayList<>(members.size());
+        for (Member member : members.values()) {
+            if (!member.isType()) {
+                list.add(member);
+            }
+        }
+        list.sort((m1, m2) -> m1.start != m2.start ? Integer.compare(m1.start, m2.start) : Integer.compare(m2.end, m1.end));
+        this.sorted = Collections.unmodifiableList(list);
+    }
+
+    private static void addPart(List<ASTNode> parts, ClassNode type, ASTNode node) {
+        if (node.getEnd() > 0 && node.getStart() >= type.getStart()) {
+            parts.add(node);
+        }
+    }
+
+    private void add(String key, ASTNode node, String type, int size, int hash) {
+        String unique = key;
+        for (int i = 2; members.containsKey(unique); i += 1) {
+            unique = key + '#' + i;
+        }
+        members.put(unique, new Member(unique, node, type, size, hash));
+    }
+
+    /**
+     * @return hash of the node's source text; it does not depend on the offset,
+     *     so members that are moved by edits elsewhere compare as unchanged
+     */
+    private int hash(ASTNode node) {
+        return hash(0, node.getStart(), node.getEnd());
+    }
+
+    /**
+     * @return number of non-whitespace characters of the type's source text
+     *     outside of the given parts, which are sorted by start offset
+     */
+    private int sizeExcluding(ClassNode type, List<ASTNode> parts) {
+        int size = 0, offset = type.getStart();
+        for (ASTNode part : parts) {
+            if (part.getStart() >= offset && part.getEnd() <= type.getEnd()) {
+                size += count(offset, part.getStart());
+                offset = part.getEnd();
+            }
+        }
+        return size + count(offset, type.getEnd());
+    }
+
+    /**
+     * @return hash of the type's source text outside of the given parts, which
+     *     are sorted by start offset; whitespace is skipped so that adding or
+     *     removing a member does not change the hash
+     */
+    private int hashExcluding(ClassNode type, List<ASTNode> parts) {
+        int h = 0, offset = type.getStart();
+        for (ASTNode part : parts) {
+            if (part.getStart() >= offset && part.getEnd() <= type.getEnd()) {
+                h = hashNonWhitespace(h, offset, part.getStart());
+                offset = part.getEnd();
+            }
+        }
+        return hashNonWhitespace(h, offset, type.getEnd());
+    }
+
+    private int count(int start, int end) {
+        int n = 0;
+        for (int i = Math.max(0, start), j = Math.min(end, source.length()); i < j; i += 1) {
+            if (!Character.isWhitespace(source.charAt(i))) {
+                n += 1;
+            }
+        }
+        return n;
+    }
+
+    private int hashNonWhitespace(int h, int start, int end) {
+        for (int i = Math.max(0, start), n = Math.min(end, source.length()); i < n; i += 1) {
+            char c = source.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                h = 31 * h + c;
+            }
+        }
+        return h;
+    }
+
+    private int hash(int h, int start, int end) {
+        for (int i = Math.max(0, start), n = Math.min(end, source.length()); i < n; i += 1) {
+            h = 31 * h + source.charAt(i);
+        }
+        return h;
+    }
+
+    private static String signature(MethodNode method) {
+        StringBuilder sb = new StringBuilder(method.getName()).append('(');
+        for (Parameter parameter : method.getParameters()) {
+            sb.append(parameter.getType().getName()).append(',');
+        }
+        return sb.append(')').toString();
+    }
+
+    //--------------------------------------------------------------------------
+
+    public ModuleNode getModule() {
+        return module;
+    }
+
+    /**
+     * @return members in declaration order, each type followed by its members
+     */
+    public Iterable<Member> getMembers() {
+        return members.values();
+    }
+
+    public Member getMember(String key) {
+        return members.get(key);
+    }
+
+    /**
+     * Finds a type of the module by its fully-qualified name.
+     */
+    public ClassNode getType(String name) {
+        return types.get(name);
+    }
+
+    /**
+     * Finds the field, method or script statement that covers the specified range.
+     */
+    public Member findMember(int offset, int length) {
+        int lo = 0, hi = sorted.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted.get(mid).start <= offset) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        // fields, methods and statements do not overlap
+        if (lo > 0 && sorted.get(lo - 1).covers(offset, length)) {
+            return sorted.get(lo - 1);
+        }
+        return null;
+    }
+
+    /**
+     * Determines if no member was added, removed, edited or moved since {@code previous}.
+     */
+    public boolean isSameLayout(ModuleStructure previous) {
+        if (previous == null || previous.members.size() != members.size()) {
+            return false;
+        }
+        for (Member member : members.values()) {
+            Member that = previous.getMember(member.key);
+            if (!member.isSameAs(that) || member.start != that.start || member.end != that.end) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the keys of the members that were added, removed or edited since
+     *     {@code previous}; an empty list if the structures are equivalent
+     */
+    public List<String> diff(ModuleStructure previous) {
+        List<String> keys = new ArrayList<>();
+        for (Member member : members.values()) {
+            if (previous == null || !member.isSameAs(previous.getMember(member.key))) {
+                keys.add(member.key);
+            }
+        }
+        if (previous != null) {
+            for (String key : previous.members.keySet()) {
+                if (!members.containsKey(key)) {
+                    keys.add(key);
+                }
+            }
+        }
+        return keys;
+    }
+}
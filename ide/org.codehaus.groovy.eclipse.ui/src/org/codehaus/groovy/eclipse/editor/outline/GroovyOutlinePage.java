@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,20 @@
  */
 package org.codehaus.groovy.eclipse.editor.outline;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
 import org.codehaus.groovy.eclipse.editor.GroovyEditor;
+import org.eclipse.jdt.core.IJavaElement;
 import org.eclipse.jdt.core.ISourceReference;
 import org.eclipse.jdt.internal.ui.javaeditor.JavaOutlinePage;
 import org.eclipse.jface.action.IMenuManager;
+import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.ViewerFilter;
 import org.eclipse.swt.widgets.Composite;
 
@@ -53,12 +63,108 @@ public class GroovyOutlinePage extends JavaOutlinePage {
     }
 
     public void refresh() {
-        getOutlineCompilationUnit().refresh();
+        OCompilationUnit unit = getOutlineCompilationUnit();
+        IJavaElement[] oldChildren = unit.getCachedChildren();
+        unit.refresh();
 
         JavaOutlineViewer outlineViewer = getOutlineViewer();
-        if (outlineViewer != null) {
-            outlineViewer.refresh();
+        if (outlineViewer != null && !outlineViewer.getControl().isDisposed()) {
+            if (oldChildren == null || !update(outlineViewer, unit, oldChildren, unit.getChildren())) {
+                outlineViewer.refresh();
+            } else {
+                update(outlineViewer, unit.getChangedParents(), unit.getChangedMembers());
+            }
+        }
+    }
+
+    /**
+     * Applies the differences between the old and new top-level elements to
+     * the viewer.  Elements kept by {@link OCompilationUnit#refresh()} belong to
+     * members whose source text is unchanged, so their items are left alone
+     * (changes to the members of kept types are applied separately); an equal
+     * but new element replaces the edited one in place.
+     *
+     * @return {@code false} if the viewer must be refreshed instead
+     */
+    private static boolean update(TreeViewer viewer, Object input, IJavaElement[] oldChildren, IJavaElement[] newChildren) {
+        if (viewer.getInput() != input) {
+            return false;
+        }
+        Set<IJavaElement> oldSet = new HashSet<>(Arrays.asList(oldChildren)), newSet = new HashSet<>(Arrays.asList(newChildren));
+        if (oldSet.size() != oldChildren.length || newSet.size() != newChildren.length) {
+            return false; // items of equal elements cannot be told apart
+        }
+        List<IJavaElement> removed = new ArrayList<>(), oldOrder = new ArrayList<>(), newOrder = new ArrayList<>();
+        for (IJavaElement child : oldChildren) {
+            (newSet.contains(child) ? oldOrder : removed).add(child);
+        }
+        for (IJavaElement child : newChildren) {
+            if (oldSet.contains(child)) {
+                newOrder.add(child);
+            }
+        }
+        if (!oldOrder.equals(newOrder)) {
+            return false; // elements were moved
+        }
+        Set<IJavaElement> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(Arrays.asList(oldChildren));
+
+        viewer.getControl().setRedraw(false);
+        try {
+            if (!removed.isEmpty()) {
+                viewer.remove(removed.toArray());
+            }
+            int index = 0;
+            for (IJavaElement child : newChildren) {
+                if (isFiltered(viewer, input, child)) {
+                    continue;
+                }
+                if (!oldSet.contains(child)) {
+                    if (viewer.getComparator() != null) {
+                        viewer.add(input, child);
+                    } else {
+                        viewer.insert(input, child, index);
+                    }
+                } else if (!kept.contains(child)) {
+                    viewer.refresh(child, true);
+                }
+                index += 1;
+            }
+        } finally {
+            viewer.getControl().setRedraw(true);
+        }
+        return true;
+    }
+
+    /**
+     * Applies the changes within kept types to the viewer: the items of types
+     * that gained or lost members are refreshed without their labels, and the
+     * items of edited members are updated.  Other items are left alone.
+     */
+    private static void update(TreeViewer viewer, List<IJavaElement> parents, List<IJavaElement> members) {
+        if (parents.isEmpty() && members.isEmpty()) {
+            return;
+        }
+        viewer.getControl().setRedraw(false);
+        try {
+            for (IJavaElement parent : parents) {
+                viewer.refresh(parent, false);
+            }
+            if (!members.isEmpty()) {
+                viewer.update(members.toArray(), null);
+            }
+        } finally {
+            viewer.getControl().setRedraw(true);
+        }
+    }
+
+    private static boolean isFiltered(TreeViewer viewer, Object parent, Object element) {
+        for (ViewerFilter filter : viewer.getFilters()) {
+            if (!filter.select(viewer, parent, element)) {
+                return true;
+            }
         }
+        return false;
     }
 
     @Override
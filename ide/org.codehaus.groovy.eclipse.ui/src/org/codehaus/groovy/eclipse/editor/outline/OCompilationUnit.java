@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,14 +15,27 @@
  */
 package org.codehaus.groovy.eclipse.editor.outline;
 
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.eclipse.editor.ModuleStructure;
 import org.codehaus.jdt.groovy.model.GroovyCompilationUnit;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jdt.core.IJavaElement;
+import org.eclipse.jdt.core.IMember;
+import org.eclipse.jdt.core.ISourceRange;
 import org.eclipse.jdt.core.ISourceReference;
+import org.eclipse.jdt.core.IType;
 import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.internal.core.OpenableElementInfo;
 import org.eclipse.jdt.internal.core.PackageFragment;
@@ -33,6 +46,18 @@ public abstract class OCompilationUnit extends GroovyCompilationUnit implements
 
     private IJavaElement[] children = null;
 
+    /** members of the module as of the last refresh */
+    private ModuleStructure structure;
+
+    /** key of the module member that contains each child (or the child's source text) as of the last refresh */
+    private Map<IJavaElement, String> childKeys = Collections.emptyMap();
+
+    /** kept types whose list of members changed in the last refresh */
+    private List<IJavaElement> changedParents = Collections.emptyList();
+
+    /** members of kept types that were edited in the last refresh */
+    private List<IJavaElement> changedMembers = Collections.emptyList();
+
     public OCompilationUnit(GroovyCompilationUnit unit) {
         super((PackageFragment) unit.getParent(), unit.getElementName(), unit.getOwner());
         this.unit = unit;
@@ -70,11 +95,181 @@ public abstract class OCompilationUnit extends GroovyCompilationUnit implements
     }
 
     /**
-     * refresh children
+     * refresh children; a child that is contained by a module member whose
+     * source text is unchanged since the last refresh is kept, so the viewer
+     * can skip its item.  Within a kept type, members are diffed the same way;
+     * see {@link #getChangedParents()} and {@link #getChangedMembers()}.
+     *
+     * @see ModuleStructure#diff(ModuleStructure)
      */
     protected void refresh() {
         if (this.exists()) {
-            this.children = refreshChildren();
+            ModuleNode module = unit.getModuleNode();
+            ModuleStructure next = (module == null ? null : ModuleStructure.of(module, CharBuffer.wrap(unit.getContents())));
+            List<IJavaElement> parents = new ArrayList<>(), members = new ArrayList<>();
+
+            if (children != null && next != null && next.isSameLayout(structure)) {
+                // nothing was added, removed, edited or moved; elements are current
+                this.changedParents = parents;
+                this.changedMembers = members;
+                this.structure = next;
+                return;
+            }
+
+            IJavaElement[] elements = refreshChildren();
+            Map<IJavaElement, String> keys = new HashMap<>();
+            for (IJavaElement element : elements) {
+                String key = keyOf(element, next);
+                if (key != null) {
+                    keys.put(element, key);
+                }
+            }
+
+            if (children != null && structure != null && next != null) {
+                Set<String> changed = new HashSet<>(next.diff(structure));
+                Map<IJavaElement, IJavaElement> previous = new HashMap<>();
+                for (IJavaElement child : children) {
+                    previous.put(child, child);
+                }
+                // equal handles (e.g. script variables of the same name) are not told apart
+                boolean distinct = (previous.size() == children.length && new HashSet<>(Arrays.asList(elements)).size() == elements.length);
+                for (int i = 0; distinct && i < elements.length; i += 1) {
+                    IJavaElement child = previous.get(elements[i]);
+                    String key = keys.get(elements[i]);
+                    if (child != null && key != null && key.equals(childKeys.get(child)) && !changed.contains(key)) {
+                        // source text is unchanged, but the offsets may have moved
+                        rebind(child, elements[i], next, changed);
+                        keys.put(child, keys.remove(elements[i]));
+                        elements[i] = child;
+
+                        if (child instanceof IType) {
+                            collectChanges((IType) child, next, changed, parents, members);
+                        }
+                    }
+                }
+            }
+            this.children = elements;
+            this.childKeys = keys;
+            this.changedParents = parents;
+            this.changedMembers = members;
+            this.structure = next;
+        }
+    }
+
+    /**
+     * @return children as of the last refresh or {@code null}
+     */
+    IJavaElement[] getCachedChildren() {
+        return children;
+    }
+
+    /**
+     * @return kept types that gained or lost members in the last refresh
+     */
+    List<IJavaElement> getChangedParents() {
+        return changedParents;
+    }
+
+    /**
+     * @return members of kept types whose source text changed in the last refresh
+     */
+    List<IJavaElement> getChangedMembers() {
+        return changedMembers;
+    }
+
+    /**
+     * Finds the members of a kept type (and of its nested types) that were
+     * added, removed or edited.
+     */
+    private void collectChanges(IType type, ModuleStructure next, Set<String> changed, List<IJavaElement> parents, List<IJavaElement> members) {
+        String name = type.getFullyQualifiedName();
+        for (String key : changed) {
+            ModuleStructure.Member member = next.getMember(key), prior = structure.getMember(key);
+            if ((member == null || prior == null) && name.equals(member != null ? member.type : prior.type)) {
+                parents.add(type);
+                break;
+            }
+        }
+        try {
+            for (IJavaElement child : type.getChildren()) {
+                String key = keyOf(child, next);
+                ModuleStructure.Member member = (key == null ? null : next.getMember(key));
+                if (member == null || !name.equals(member.type)) {
+                    continue; // not a member of this type
+                }
+                if (changed.contains(key) && structure.getMember(key) != null) {
+                    members.add(child);
+                }
+                if (child instanceof IType) {
+                    collectChanges((IType) child, next, changed, parents, members);
+                }
+            }
+        } catch (JavaModelException ignore) {
+        }
+    }
+
+    /**
+     * @return key of the module member that contains the element or, for an
+     *     element outside of members like the import container, its source text
+     */
+    private static String keyOf(IJavaElement element, ModuleStructure structure) {
+        if (structure != null && element instanceof ISourceReference) {
+            try {
+                ModuleStructure.Member member = null;
+                if (element instanceof IType) {
+                    member = structure.getMember("T:" + ((IType) element).getFullyQualifiedName());
+                } else {
+                    ISourceRange range = ((ISourceReference) element).getSourceRange();
+                    if (range != null && range.getOffset() >= 0) {
+                        member = structure.findMember(range.getOffset(), range.getLength());
+                    }
+                }
+                if (member != null) {
+                    return member.key;
+                }
+                if (element instanceof IOJavaElement) {
+                    return null; // outline element may hold children of its own
+                }
+                String source = ((ISourceReference) element).getSource();
+                if (source != null) {
+                    return "#" + source;
+                }
+            } catch (JavaModelException ignore) {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Points a kept child that is backed by an AST node to the node of the
+     * equal child from the latest module.  Members of a kept type are kept in
+     * turn if their source text is unchanged; the others are replaced.
+     */
+    private void rebind(IJavaElement child, IJavaElement element, ModuleStructure next, Set<String> changed) {
+        if (child instanceof OField && element instanceof OField) {
+            ((OField) child).node = ((OField) element).node;
+        } else if (child instanceof OMethod && element instanceof OMethod) {
+            ((OMethod) child).node = ((OMethod) element).node;
+        } else if (child instanceof OType && element instanceof OType) {
+            ((OType) child).node = ((OType) element).node;
+
+            List<IMember> oldMembers = ((OType) child).getChildrenList(), newMembers = new ArrayList<>(((OType) element).getChildrenList());
+            Map<IMember, IMember> previous = new HashMap<>();
+            for (IMember member : oldMembers) {
+                previous.put(member, member);
+            }
+            if (previous.size() == oldMembers.size()) {
+                for (int i = 0, n = newMembers.size(); i < n; i += 1) {
+                    IMember member = previous.get(newMembers.get(i));
+                    String key = keyOf(newMembers.get(i), next);
+                    if (member != null && key != null && key.equals(keyOf(member, structure)) && !changed.contains(key)) {
+                        rebind(member, newMembers.get(i), next, changed);
+                        newMembers.set(i, member);
+                    }
+                }
+            }
+            oldMembers.clear();
+            oldMembers.addAll(newMembers);
         }
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,27 +15,30 @@
  */
 package org.codehaus.groovy.eclipse.launchers;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.codehaus.groovy.eclipse.GroovyPlugin;
 import org.codehaus.groovy.eclipse.core.GroovyCore;
 import org.codehaus.groovy.eclipse.editor.GroovyEditor;
-import org.codehaus.jdt.groovy.model.GroovyNature;
-import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IResource;
-import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.ui.console.FileLink;
 import org.eclipse.debug.ui.console.IConsole;
 import org.eclipse.debug.ui.console.IConsoleLineTracker;
-import org.eclipse.jdt.core.IJavaProject;
-import org.eclipse.jdt.core.IPackageFragmentRoot;
-import org.eclipse.jdt.core.JavaModelException;
 import org.eclipse.jdt.groovy.core.util.ReflectionUtils;
-import org.eclipse.jdt.internal.core.JavaModelManager;
+import org.eclipse.jdt.launching.IJavaLaunchConfigurationConstants;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.viewers.IStructuredContentProvider;
 import org.eclipse.jface.viewers.Viewer;
@@ -49,15 +52,59 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
 
     private static final Pattern LINE_PATTERN = Pattern.compile(".*\\((.*)\\.groovy(:(.*))?\\)");
 
-    private IConsole console;
+    /** delay that lets a burst of stack frames be resolved in one batch */
+    private static final long BATCH_DELAY = 50;
+
+    private volatile IConsole console;
+
+    private volatile GroovySourceIndex index;
+
+    private final List<PendingLink> pending = new ArrayList<>();
+
+    private final Job linkJob = new Job("Groovy console hyperlinks") {
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            addPendingLinks(monitor);
+            return Status.OK_STATUS;
+        }
+
+        @Override
+        public boolean belongsTo(Object family) {
+            return (family == GroovyConsoleLineTracker.class);
+        }
+    };
 
     @Override
     public void init(IConsole console) {
         this.console = console;
+        this.index = new GroovySourceIndex(launchProjectNames(console));
+        linkJob.setSystem(true);
+    }
+
+    /**
+     * @return name of the launch configuration's project or {@code null} to
+     *     search all Groovy projects
+     */
+    private static Set<String> launchProjectNames(IConsole console) {
+        IProcess process = console.getProcess();
+        ILaunch launch = (process != null ? process.getLaunch() : null);
+        ILaunchConfiguration config = (launch != null ? launch.getLaunchConfiguration() : null);
+        if (config != null) {
+            try {
+                String projectName = config.getAttribute(IJavaLaunchConfigurationConstants.ATTR_PROJECT_NAME, "");
+                if (!projectName.isEmpty()) {
+                    return Collections.singleton(projectName);
+                }
+            } catch (CoreException e) {
+                GroovyPlugin.trace("unexpected error:" + e.getMessage());
+            }
+        }
+        return null;
     }
 
     /**
-     * Hyperlink error lines to the editor.
+     * Hyperlink error lines to the editor.  Matching lines are queued and
+     * resolved against the source index off the console thread.
      */
     @Override
     public void lineAppended(IRegion line) {
@@ -102,14 +149,10 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
                 }
                 // hyperlink if we found something
                 if (groovyFileName != null) {
-                    IFile[] file = searchForFileInLaunchConfig(groovyFileName);
-                    if (file.length == 1) {
-                        IHyperlink link = new FileLink(file[0], GroovyEditor.EDITOR_ID, -1, -1, lineNumber);
-                        console.addLink(link, lineOffset + openParenIndexAt + 1, closeParenIndexAt - openParenIndexAt - 1);
-                    } else if (file.length > 1) {
-                        IHyperlink link = new AmbiguousFileLink(file, GroovyEditor.EDITOR_ID, -1, -1, lineNumber);
-                        console.addLink(link, lineOffset + openParenIndexAt + 1, closeParenIndexAt - openParenIndexAt - 1);
+                    synchronized (pending) {
+                        pending.add(new PendingLink(groovyFileName, lineNumber, lineOffset + openParenIndexAt + 1, closeParenIndexAt - openParenIndexAt - 1));
                     }
+                    linkJob.schedule(BATCH_DELAY);
                 }
             }
         } catch (Exception e) {
@@ -117,25 +160,27 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
         }
     }
 
-    private IFile[] searchForFileInLaunchConfig(String groovyFileName) throws JavaModelException {
-        List<IFile> files = new LinkedList<>();
-        IJavaProject[] projects = JavaModelManager.getJavaModelManager().getJavaModel().getJavaProjects();
-        for (IJavaProject javaProject : projects) {
-            if (GroovyNature.hasGroovyNature(javaProject.getProject())) {
-                for (IPackageFragmentRoot root : javaProject.getAllPackageFragmentRoots()) {
-                    if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
-                        IResource resource = root.getResource();
-                        if (resource.isAccessible() && resource.getType() != IResource.FILE) {
-                            IFile file = ((IContainer) resource).getFile(new Path(groovyFileName));
-                            if (file.isAccessible()) {
-                                files.add(file);
-                            }
-                        }
-                    }
-                }
+    private void addPendingLinks(IProgressMonitor monitor) {
+        List<PendingLink> links;
+        synchronized (pending) {
+            links = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (PendingLink pendingLink : links) {
+            IConsole console = this.console;
+            GroovySourceIndex index = this.index;
+            if (console == null || index == null || monitor.isCanceled()) {
+                return;
+            }
+            IFile[] file = index.find(pendingLink.groovyFileName);
+            if (file.length == 1) {
+                IHyperlink link = new FileLink(file[0], GroovyEditor.EDITOR_ID, -1, -1, pendingLink.lineNumber);
+                console.addLink(link, pendingLink.offset, pendingLink.length);
+            } else if (file.length > 1) {
+                IHyperlink link = new AmbiguousFileLink(file, GroovyEditor.EDITOR_ID, -1, -1, pendingLink.lineNumber);
+                console.addLink(link, pendingLink.offset, pendingLink.length);
             }
         }
-        return files.toArray(new IFile[files.size()]);
     }
 
     IFile chooseFile(final IFile[] files) {
@@ -165,10 +210,30 @@ public class GroovyConsoleLineTracker implements IConsoleLineTracker {
     @Override
     public void dispose() {
         console = null;
+        linkJob.cancel();
+        synchronized (pending) {
+            pending.clear();
+        }
+        if (index != null) {
+            index.dispose();
+            index = null;
+        }
     }
 
     //--------------------------------------------------------------------------
 
+    private static final class PendingLink {
+        final String groovyFileName;
+        final int lineNumber, offset, length;
+
+        PendingLink(String groovyFileName, int lineNumber, int offset, int length) {
+            this.groovyFileName = groovyFileName;
+            this.lineNumber = lineNumber;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
     public class AmbiguousFileLink extends FileLink implements IHyperlink {
         IFile[] files;
         boolean fileChosen;
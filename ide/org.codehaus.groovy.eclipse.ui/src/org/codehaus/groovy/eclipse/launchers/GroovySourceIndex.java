@@ -0,0 +1,205 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.launchers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.codehaus.groovy.eclipse.GroovyPlugin;
+import org.codehaus.jdt.groovy.model.GroovyNature;
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jdt.core.IJavaProject;
+import org.eclipse.jdt.core.IPackageFragmentRoot;
+import org.eclipse.jdt.core.JavaCore;
+
+/**
+ * Index of the Groovy sources of a set of projects by path relative to their
+ * source folder, for example {@code "p/q/Script.groovy"}.  The index is built
+ * on first lookup and kept current through resource deltas; a change to the
+ * classpath or description of an indexed project discards it for rebuild.
+ */
+class GroovySourceIndex implements IResourceChangeListener {
+
+    /** names of the projects to index or {@code null} for all Groovy projects */
+    private final Set<String> projectNames;
+
+    // guarded by this
+    private Map<String, List<IFile>> files;
+    private List<IContainer> roots;
+    private Set<IProject> projects;
+
+    GroovySourceIndex(Set<String> projectNames) {
+        this.projectNames = projectNames;
+        ResourcesPlugin.getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_CHANGE);
+    }
+
+    void dispose() {
+        ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+        invalidate();
+    }
+
+    /**
+     * @param path source folder-relative path of a Groovy file
+     * @return the accessible files with the given path
+     */
+    synchronized IFile[] find(String path) {
+        if (files == null) {
+            build();
+        }
+        List<IFile> list = files.get(path);
+        if (list == null) {
+            return new IFile[0];
+        }
+        List<IFile> result = new ArrayList<>(list.size());
+        for (IFile file : list) {
+            if (file.isAccessible()) {
+                result.add(file);
+            }
+        }
+        return result.toArray(new IFile[result.size()]);
+    }
+
+    private void build() {
+        files = new HashMap<>();
+        roots = new ArrayList<>();
+        projects = new HashSet<>();
+        try {
+            for (IJavaProject javaProject : JavaCore.create(ResourcesPlugin.getWorkspace().getRoot()).getJavaProjects()) {
+                if ((projectNames == null || projectNames.contains(javaProject.getElementName())) &&
+                        GroovyNature.hasGroovyNature(javaProject.getProject())) {
+                    for (IPackageFragmentRoot root : javaProject.getAllPackageFragmentRoots()) {
+                        if (root.getKind() == IPackageFragmentRoot.K_SOURCE) {
+                            IResource resource = root.getResource();
+                            if (resource != null && resource.isAccessible() && resource.getType() != IResource.FILE && !roots.contains(resource)) {
+                                IContainer container = (IContainer) resource;
+                                roots.add(container);
+                                projects.add(container.getProject());
+                                container.accept(proxy -> {
+                                    if (proxy.getType() == IResource.FILE) {
+                                        if (proxy.getName().endsWith(".groovy")) {
+                                            add(container, (IFile) proxy.requestResource());
+                                        }
+                                        return false;
+                                    }
+                                    return true;
+                                }, IResource.NONE);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (CoreException e) {
+            GroovyPlugin.getDefault().logError("Failed to index Groovy sources for console hyperlinks", e);
+        }
+    }
+
+    private void add(IContainer root, IFile file) {
+        List<IFile> list = files.computeIfAbsent(file.getFullPath().makeRelativeTo(root.getFullPath()).toString(), k -> new ArrayList<>(1));
+        if (!list.contains(file)) {
+            list.add(file);
+        }
+    }
+
+    private void remove(IContainer root, IFile file) {
+        String key = file.getFullPath().makeRelativeTo(root.getFullPath()).toString();
+        List<IFile> list = files.get(key);
+        if (list != null && list.remove(file) && list.isEmpty()) {
+            files.remove(key);
+        }
+    }
+
+    private synchronized void invalidate() {
+        files = null;
+        roots = null;
+        projects = null;
+    }
+
+    //--------------------------------------------------------------------------
+
+    @Override
+    public void resourceChanged(IResourceChangeEvent event) {
+        IResourceDelta delta = event.getDelta();
+        if (delta == null) {
+            return;
+        }
+        synchronized (this) {
+            if (files == null) {
+                return;
+            }
+            try {
+                delta.accept(this::visit);
+            } catch (CoreException e) {
+                invalidate();
+            }
+        }
+    }
+
+    private boolean visit(IResourceDelta delta) {
+        if (files == null) {
+            return false; // invalidated
+        }
+        IResource resource = delta.getResource();
+        switch (resource.getType()) {
+        case IResource.ROOT:
+            return true;
+        case IResource.PROJECT:
+            if (delta.getKind() != IResourceDelta.CHANGED) {
+                // an added project may be in scope; a removed one may hold a root
+                if (projectNames == null || projectNames.contains(resource.getName()) || projects.contains(resource)) {
+                    invalidate();
+                }
+                return false;
+            }
+            if (!projects.contains(resource)) {
+                return false;
+            }
+            if ((delta.getFlags() & (IResourceDelta.OPEN | IResourceDelta.DESCRIPTION)) != 0) {
+                invalidate();
+                return false;
+            }
+            return true;
+        case IResource.FILE:
+            if (resource.getParent().getType() == IResource.PROJECT && ".classpath".equals(resource.getName())) {
+                invalidate();
+            } else if ("groovy".equals(resource.getFileExtension()) && delta.getKind() != IResourceDelta.CHANGED) {
+                for (IContainer root : roots) {
+                    if (root.getFullPath().isPrefixOf(resource.getFullPath())) {
+                        if (delta.getKind() == IResourceDelta.ADDED) {
+                            add(root, (IFile) resource);
+                        } else {
+                            remove(root, (IFile) resource);
+                        }
+                    }
+                }
+            }
+            return false;
+        default:
+            return true;
+        }
+    }
+}
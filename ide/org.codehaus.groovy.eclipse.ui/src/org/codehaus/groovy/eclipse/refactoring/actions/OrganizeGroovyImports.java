@@ -118,9 +118,10 @@ public class OrganizeGroovyImports {
 
     public TextEdit calculateMissingImports() {
         String event = null;
+        long eventStart = 0L;
         if (GroovyLogManager.manager.hasLoggers()) {
             event = unit.getElementName();
-            GroovyLogManager.manager.logStart(event);
+            eventStart = GroovyLogManager.manager.logStart(event);
             GroovyLogManager.manager.log(TraceCategory.ORGANIZE_IMPORTS, event);
         }
         try {
@@ -265,7 +266,7 @@ public class OrganizeGroovyImports {
             return null;
         } finally {
             if (event != null) {
-                GroovyLogManager.manager.logEnd(event, TraceCategory.ORGANIZE_IMPORTS);
+                GroovyLogManager.manager.logEnd(event, TraceCategory.ORGANIZE_IMPORTS, eventStart);
             }
         }
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2018 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,6 +16,7 @@
 package org.codehaus.groovy.eclipse.search;
 
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -136,11 +137,39 @@ public class GroovyOccurrencesFinder implements IOccurrencesFinder {
                 !(nodeToLookFor instanceof DeclarationExpression) &&
                 !(nodeToLookFor instanceof BinaryExpression) &&
                 !(nodeToLookFor instanceof MethodCallExpression)) {
-            FindAllReferencesRequestor requestor = new FindAllReferencesRequestor(nodeToLookFor);
-            TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(gunit);
-            visitor.visitCompilationUnit(requestor);
-            Map<ASTNode, Integer> occurences = requestor.getReferences();
-            return occurences;
+            ModuleNode module = gunit.getModuleNode();
+            if (module == null) {
+                return Collections.emptyMap();
+            }
+            // results are kept with the module node, so they go when it is replaced
+            Map<ASTNode, Map<ASTNode, Integer>> cache;
+            synchronized (module) {
+                cache = module.getNodeMetaData(GroovyOccurrencesFinder.class);
+                if (cache == null) {
+                    cache = new IdentityHashMap<>();
+                    module.putNodeMetaData(GroovyOccurrencesFinder.class, cache);
+                }
+                Map<ASTNode, Integer> occurrences = cache.get(nodeToLookFor);
+                if (occurrences != null) {
+                    return occurrences;
+                }
+            }
+
+            Map<ASTNode, Integer> occurrences;
+            if (VariableOccurrencesVisitor.canFind(nodeToLookFor)) {
+                // locals and parameters are bound by name within their scope
+                occurrences = VariableOccurrencesVisitor.findOccurrences(module, nodeToLookFor);
+            } else {
+                FindAllReferencesRequestor requestor = new FindAllReferencesRequestor(nodeToLookFor);
+                TypeInferencingVisitorWithRequestor visitor = new TypeInferencingVisitorFactory().createVisitor(gunit);
+                visitor.visitCompilationUnit(requestor);
+                occurrences = requestor.getReferences();
+            }
+            occurrences = Collections.unmodifiableMap(occurrences);
+            synchronized (module) {
+                cache.put(nodeToLookFor, occurrences);
+            }
+            return occurrences;
         }
         return Collections.emptyMap();
     }
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2009-2019 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.codehaus.groovy.eclipse.search;
+
+import static org.codehaus.groovy.eclipse.core.search.FindAllReferencesRequestor.F_READ_OCCURRENCE;
+import static org.codehaus.groovy.eclipse.core.search.FindAllReferencesRequestor.F_WRITE_OCCURRENCE;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.codehaus.groovy.ast.ASTNode;
+import org.codehaus.groovy.ast.ClassCodeVisitorSupport;
+import org.codehaus.groovy.ast.ClassNode;
+import org.codehaus.groovy.ast.MethodNode;
+import org.codehaus.groovy.ast.ModuleNode;
+import org.codehaus.groovy.ast.Parameter;
+import org.codehaus.groovy.ast.expr.BinaryExpression;
+import org.codehaus.groovy.ast.expr.VariableExpression;
+import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.syntax.Types;
+import org.eclipse.jdt.groovy.core.util.GroovyUtils;
+import org.eclipse.jdt.groovy.search.EqualityVisitor;
+
+/**
+ * Finds the occurrences of a local variable or parameter using the bindings
+ * made by the compiler's variable scope visitor.  A local can be referenced
+ * only by name and only within its declaring method, so no type inference is
+ * needed and only the declaring method (and any anonymous types within it)
+ * is visited.
+ */
+final class VariableOccurrencesVisitor extends ClassCodeVisitorSupport {
+
+    /**
+     * Determines if the occurrences of the declaration can be found without
+     * type inference.
+     */
+    static boolean canFind(ASTNode declaration) {
+        if (declaration instanceof Parameter) {
+            return (declaration.getEnd() > 0);
+        }
+        if (declaration instanceof VariableExpression) {
+            return (((VariableExpression) declaration).getAccessedVariable() == declaration);
+        }
+        return false;
+    }
+
+    static Map<ASTNode, Integer> findOccurrences(ModuleNode module, ASTNode declaration) {
+        VariableOccurrencesVisitor visitor = new VariableOccurrencesVisitor(declaration);
+        if (declaration instanceof Parameter) {
+            visitor.references.put(declaration, F_READ_OCCURRENCE);
+        }
+
+        MethodNode scope = findEnclosingMethod(module, declaration.getStart());
+        if (scope != null) {
+            visitor.visitMethod(scope);
+        }
+        for (ClassNode type : module.getClasses()) {
+            if (scope == null) {
+                visitor.visitClass(type);
+            } else if (GroovyUtils.isAnonymous(type) && scope.getStart() <= type.getStart() && type.getStart() < scope.getEnd()) {
+                visitor.visitClass(type);
+            }
+        }
+        return visitor.references;
+    }
+
+    private static MethodNode findEnclosingMethod(ModuleNode module, int offset) {
+        MethodNode enclosing = null;
+        for (ClassNode type : module.getClasses()) {
+            for (MethodNode method : type.getMethods()) {
+                enclosing = innermost(enclosing, method, offset);
+            }
+            for (MethodNode method : type.getDeclaredConstructors()) {
+                enclosing = innermost(enclosing, method, offset);
+            }
+        }
+        return enclosing;
+    }
+
+    private static MethodNode innermost(MethodNode current, MethodNode method, int offset) {
+        if (method.getEnd() > 0 && method.getStart() <= offset && offset < method.getEnd() &&
+                (current == null || method.getLength() < current.getLength())) {
+            return method;
+        }
+        return current;
+    }
+
+    //--------------------------------------------------------------------------
+
+    private final ASTNode declaration;
+
+    private final Map<ASTNode, Integer> references = new TreeMap<>(Comparator.comparing(ASTNode::getStart));
+
+    private final Deque<BinaryExpression> assignments = new ArrayDeque<>();
+
+    private VariableOccurrencesVisitor(ASTNode declaration) {
+        this.declaration = declaration;
+    }
+
+    @Override
+    protected SourceUnit getSourceUnit() {
+        return null;
+    }
+
+    @Override
+    public void visitBinaryExpression(BinaryExpression expression) {
+        boolean isAssignment = Types.ofType(expression.getOperation().getType(), Types.ASSIGNMENT_OPERATOR);
+        if (isAssignment) {
+            assignments.push(expression);
+        }
+        super.visitBinaryExpression(expression);
+        if (isAssignment) {
+            assignments.pop();
+        }
+    }
+
+    @Override
+    public void visitVariableExpression(VariableExpression expression) {
+        if (expression.getAccessedVariable() == declaration && expression.getLength() > 0) {
+            references.put(expression, EqualityVisitor.checkForAssignment(expression, assignments.peek()) ? F_WRITE_OCCURRENCE : F_READ_OCCURRENCE);
+        }
+        super.visitVariableExpression(expression);
+    }
+}
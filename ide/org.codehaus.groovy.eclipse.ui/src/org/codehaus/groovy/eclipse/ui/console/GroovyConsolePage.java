@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2017 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,6 +21,8 @@ import java.util.Date;
 import org.codehaus.groovy.eclipse.GroovyLogManager;
 import org.codehaus.groovy.eclipse.IGroovyLogger;
 import org.codehaus.groovy.eclipse.TraceCategory;
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.action.IAction;
 import org.eclipse.jface.action.IToolBarManager;
 import org.eclipse.swt.custom.StyledText;
 import org.eclipse.swt.widgets.Composite;
@@ -40,6 +42,10 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
 
     private CloseConsoleAction fCloseConsoleAction;
 
+    private IAction fRecordMetricsAction;
+
+    private IAction fShowMetricsAction;
+
     public GroovyConsolePage(TextConsole console, IConsoleView view) {
         super(console, view);
     }
@@ -107,6 +113,8 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
             fScrollLockAction = null;
         }
         fCloseConsoleAction = null;
+        fRecordMetricsAction = null;
+        fShowMetricsAction = null;
         GroovyLogManager.manager.removeLogger(this);
     }
 
@@ -123,6 +131,21 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
         fScrollLockAction = new ScrollLockAction(getConsoleView());
         fCloseConsoleAction = new CloseConsoleAction(getConsole());
         setAutoScroll(!fScrollLockAction.isChecked());
+
+        fRecordMetricsAction = new Action("Record Latency Metrics", IAction.AS_CHECK_BOX) {
+            @Override
+            public void run() {
+                GroovyLogManager.manager.setMetricsEnabled(isChecked());
+            }
+        };
+        fRecordMetricsAction.setChecked(GroovyLogManager.manager.isMetricsEnabled());
+
+        fShowMetricsAction = new Action("Show Latency Metrics") {
+            @Override
+            public void run() {
+                log(TraceCategory.DEFAULT, "Latency metrics (ms):\n" + GroovyLogManager.manager.getMetricsReport());
+            }
+        };
     }
 
     public void setAutoScroll(boolean scroll) {
@@ -136,6 +159,8 @@ public class GroovyConsolePage extends TextConsolePage implements IGroovyLogger
     protected void configureToolBar(IToolBarManager mgr) {
         super.configureToolBar(mgr);
         mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fScrollLockAction);
+        mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fRecordMetricsAction);
+        mgr.appendToGroup(IConsoleConstants.OUTPUT_GROUP, fShowMetricsAction);
         mgr.appendToGroup(IConsoleConstants.LAUNCH_GROUP, fCloseConsoleAction);
     }
 }
@@ -134,6 +134,7 @@ public class JavaCorePreferenceInitializer extends AbstractPreferenceInitializer
 		optionNames.add(CompilerOptions.OPTIONG_BuildGroovyFiles);
 		optionNames.add(CompilerOptions.OPTIONG_GroovyProjectName);
 		optionNames.add(CompilerOptions.OPTIONG_GroovyCompilerConfigScript);
+		optionNames.add(CompilerOptions.OPTIONG_GroovyProfileReport);
 		// GROOVY end
 
 		// Initialize deprecated options
@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,10 +15,8 @@
  */
 package org.codehaus.jdt.groovy.integration;
 
-import java.util.Collections;
-import java.util.List;
-
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.core.search.indexing.AbstractIndexer;
 
 /**
  * @author Andrew Eisenberg
@@ -28,9 +26,8 @@ import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
 public class NoopIndexer implements ISupplementalIndexer {
 
 	/**
-	 * @return an empty list
+	 * Adds nothing.
 	 */
-	public List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader) {
-		return Collections.EMPTY_LIST;
+	public void indexReferences(byte[] contents, ClassFileReader reader, AbstractIndexer indexer) {
 	}
 }
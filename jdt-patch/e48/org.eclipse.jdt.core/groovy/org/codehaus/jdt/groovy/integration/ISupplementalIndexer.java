@@ -1,5 +1,5 @@
 /*
- * Copyright 2009-2016 the original author or authors.
+ * Copyright 2009-2019 the original author or authors.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,8 @@
  */
 package org.codehaus.jdt.groovy.integration;
 
-import java.util.List;
-
 import org.eclipse.jdt.internal.compiler.classfmt.ClassFileReader;
+import org.eclipse.jdt.internal.core.search.indexing.AbstractIndexer;
 
 /**
  * @author Andrew Eisenberg
@@ -30,7 +29,7 @@ public interface ISupplementalIndexer {
 	 * Provides supplemental indexing for a class file
 	 * @param contents The byte contents of the classfile
 	 * @param reader a reader for the class file
-	 * @return a char[] list of extra things to add to the index
+	 * @param indexer the indexer that receives the method, field and constructor references
 	 */
-	List<char[]> extractNamedReferences(byte[] contents, ClassFileReader reader);
+	void indexReferences(byte[] contents, ClassFileReader reader, AbstractIndexer indexer);
 }
@@ -835,19 +835,11 @@ public class BinaryIndexer extends AbstractIndexer implements SuffixConstants {
 			}
 			// record all references found inside the .class file
 			extractReferenceFromConstantPool(contents, reader);
-			// GROOVY add -- since groovy method calls and property accesses are dynamically invoked and accessed must index the string constants in the constant pool
+			// GROOVY add -- since groovy method calls and property accesses are dynamically invoked and accessed must index the names used by call sites and indy
 			// TODO: would be nice to check for an "interesting project" here, but don't have access to that
 			char[] sourceFileName = reader.sourceFileName();
 			if (sourceFileName != null && LanguageSupportFactory.isInterestingSourceFile(String.valueOf(sourceFileName))) {
-				for (char[] reference : LanguageSupportFactory.getSupplementalIndexer().extractNamedReferences(contents, reader)) {
-					addNameReference(reference);
-					addMethodReference(reference, 0);
-					addMethodReference(reference, 1);
-					addMethodReference(reference, 2);
-					addMethodReference(reference, 3);
-					addMethodReference(reference, 4);
-					addMethodReference(reference, 5);
-				}
+				LanguageSupportFactory.getSupplementalIndexer().indexReferences(contents, reader, this);
 			}
 			// GROOVY end
 		} catch (ClassFormatException e) {